@@ -0,0 +1,219 @@
+package com.blossombuds.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dependency index for catalog list caches: remembers which cached page/list entries contain a
+ * given product id or belong to a given category, so writes can evict just those entries instead
+ * of wiping whole caches with {@code allEntries = true}.
+ * <p>
+ * Tags are {@code p:<productId>} and {@code c:<categoryId>}; members are {@code <cacheName>|<key>}.
+ * When Redis caching is enabled the index lives in Redis sets (shared by all nodes, expiring with
+ * the cached pages); otherwise it is an in-process map, capped per tag: a tag that outgrows the cap
+ * is collapsed to "every entry of these caches", so its next eviction clears them rather than missing
+ * entries it no longer remembers.
+ * <p>
+ * Without a {@link CacheManager} (Redis caching disabled) nothing is cached, so every call is a no-op
+ * and nothing is recorded.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CatalogCacheDependencies {
+
+    /** Upper bound on members kept per tag in the local index (stale-epoch keys accumulate otherwise). */
+    static final int MAX_LOCAL_MEMBERS_PER_TAG = 512;
+
+    /** Member key meaning "every entry of this cache". */
+    private static final String ALL_KEYS = "*";
+
+    private final ObjectProvider<CacheManager> cacheManagerProvider;
+    private final ObjectProvider<StringRedisTemplate> redisProvider;
+
+    @Value("${app.cache.redis.enabled:false}")
+    private boolean redisEnabled;
+
+    @Value("${app.cache.key-version:v31}")
+    private String cacheKeyVersion;
+
+    /** Must be at least the longest TTL of a tracked catalog list cache. */
+    @Value("${app.cache.deps.ttl:PT35M}")
+    private Duration depsTtl;
+
+    private final Map<String, Set<String>> local = new ConcurrentHashMap<>();
+
+    // ─────────────────────────────── Recording ───────────────────────────────
+
+    /** Records that the entry {@code cacheName/key} contains each of the given products. */
+    public void recordProducts(String cacheName, String key, Collection<Long> productIds) {
+        if (productIds == null || productIds.isEmpty()) return;
+        List<String> tags = productIds.stream().distinct().map(id -> "p:" + id).toList();
+        record(tags, cacheName + "|" + key);
+    }
+
+    /** Records that the entry {@code cacheName/key} is a listing of the given category. */
+    public void recordCategory(String cacheName, String key, Long categoryId) {
+        if (categoryId == null) return;
+        record(List.of("c:" + categoryId), cacheName + "|" + key);
+    }
+
+    // ─────────────────────────────── Evicting ────────────────────────────────
+
+    /** Evicts a single known key once the current transaction commits. */
+    public void evictAfterCommit(String cacheName, String key) {
+        runAfterCommit(() -> evictQuietly(cacheName, key));
+    }
+
+    /** Evicts every recorded entry that contains the product, once the current transaction commits. */
+    public void evictProductAfterCommit(Long productId) {
+        if (productId == null) return;
+        runAfterCommit(() -> evictTag("p:" + productId));
+    }
+
+    /** Evicts every recorded listing of the category, once the current transaction commits. */
+    public void evictCategoryAfterCommit(Long categoryId) {
+        if (categoryId == null) return;
+        runAfterCommit(() -> evictTag("c:" + categoryId));
+    }
+
+    /** Clears whole caches once the current transaction commits (for membership-changing writes). */
+    public void clearAfterCommit(String... cacheNames) {
+        runAfterCommit(() -> {
+            for (String name : cacheNames) clearQuietly(name);
+        });
+    }
+
+    // ─────────────────────────────── Internals ───────────────────────────────
+
+    private void record(List<String> tags, String member) {
+        if (cacheManagerProvider.getIfAvailable() == null) return; // no cache, nothing to evict later
+        if (useRedis()) {
+            try {
+                long ttlSeconds = Math.max(1, depsTtl.getSeconds());
+                redisProvider.getObject().executePipelined((RedisCallback<Object>) connection -> {
+                    StringRedisConnection c = (StringRedisConnection) connection;
+                    for (String tag : tags) {
+                        c.sAdd(redisKey(tag), member);
+                        c.expire(redisKey(tag), ttlSeconds);
+                    }
+                    return null;
+                });
+            } catch (Exception e) {
+                log.warn("[CACHE][DEPS][RECORD][FAIL] member={} err={}", member, e.toString());
+            }
+            return;
+        }
+
+        for (String tag : tags) {
+            Set<String> members = local.computeIfAbsent(tag, t -> ConcurrentHashMap.newKeySet());
+            if (members.size() >= MAX_LOCAL_MEMBERS_PER_TAG) collapse(tag, members);
+            members.add(member);
+        }
+    }
+
+    /** Replaces the tag's members with one "whole cache" marker per cache they belong to. */
+    private static void collapse(String tag, Set<String> members) {
+        Set<String> caches = new LinkedHashSet<>();
+        for (String m : members) {
+            int sep = m.indexOf('|');
+            if (sep > 0) caches.add(m.substring(0, sep));
+        }
+        members.clear();
+        for (String cacheName : caches) members.add(cacheName + "|" + ALL_KEYS);
+        log.info("[CACHE][DEPS][COLLAPSE] tag={} caches={}", tag, caches);
+    }
+
+    /** Number of tags held in the in-process index. */
+    int localTagCount() {
+        return local.size();
+    }
+
+    private void evictTag(String tag) {
+        Set<String> members = new LinkedHashSet<>();
+        if (useRedis()) {
+            try {
+                StringRedisTemplate redis = redisProvider.getObject();
+                Set<String> found = redis.opsForSet().members(redisKey(tag));
+                if (found != null) members.addAll(found);
+                redis.delete(redisKey(tag));
+            } catch (Exception e) {
+                log.warn("[CACHE][DEPS][LOOKUP][FAIL] tag={} err={}", tag, e.toString());
+            }
+        } else {
+            Set<String> found = local.remove(tag);
+            if (found != null) members.addAll(found);
+        }
+
+        for (String m : members) {
+            int sep = m.indexOf('|');
+            if (sep <= 0) continue;
+            String cacheName = m.substring(0, sep);
+            String key = m.substring(sep + 1);
+            if (ALL_KEYS.equals(key)) clearQuietly(cacheName);
+            else evictQuietly(cacheName, key);
+        }
+        log.debug("[CACHE][DEPS][EVICT] tag={} entries={}", tag, members.size());
+    }
+
+    private void evictQuietly(String cacheName, String key) {
+        Cache cache = cacheOrNull(cacheName);
+        if (cache == null) return;
+        try {
+            cache.evict(key);
+        } catch (Exception e) {
+            log.warn("[CACHE][DEPS][EVICT][FAIL] cache={} key={} err={}", cacheName, key, e.toString());
+        }
+    }
+
+    private void clearQuietly(String cacheName) {
+        Cache cache = cacheOrNull(cacheName);
+        if (cache == null) return;
+        try {
+            cache.clear();
+        } catch (Exception e) {
+            log.warn("[CACHE][DEPS][CLEAR][FAIL] cache={} err={}", cacheName, e.toString());
+        }
+    }
+
+    private Cache cacheOrNull(String cacheName) {
+        CacheManager cacheManager = cacheManagerProvider.getIfAvailable();
+        return cacheManager == null ? null : cacheManager.getCache(cacheName);
+    }
+
+    private boolean useRedis() {
+        return redisEnabled && redisProvider.getIfAvailable() != null;
+    }
+
+    private String redisKey(String tag) {
+        return "bb:" + cacheKeyVersion + ":catalog-deps:" + tag;
+    }
+
+    private static void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override public void afterCommit() { action.run(); }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
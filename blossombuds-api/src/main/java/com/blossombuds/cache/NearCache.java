@@ -0,0 +1,193 @@
+package com.blossombuds.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.function.BiConsumer;
+
+/**
+ * Two-tier cache: a bounded, short-lived in-process map (L1) in front of a shared cache (L2, Redis).
+ * Reads are served from L1 when possible; evictions and clears are applied to both tiers and
+ * broadcast to other nodes via {@code invalidationPublisher} so their L1 copies are dropped too.
+ * <p>
+ * L1 holds one snapshot per entry, taken by a serialize/deserialize round-trip through the Redis
+ * serializer when the entry is stored: it never aliases the object the loader returned or the instance
+ * an L2 hit handed to its caller, and it has the same shape an L2 hit would have. Hits then return that
+ * snapshot by reference, so an L1 hit costs a map lookup rather than a JSON parse. Like
+ * {@link OrderDetailCache}, cached values are shared between readers and must not be mutated by callers
+ * (every cached DTO goes straight to the response serializer).
+ */
+public class NearCache implements Cache {
+
+    private final Cache delegate;
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final RedisSerializer<Object> serializer;
+    /** Publishes (cacheName, key) after a local evict; key == null means "clear the whole cache". */
+    private final BiConsumer<String, String> invalidationPublisher;
+
+    /** Access-ordered LRU; guarded by {@code this}. Keys are stringified the same way RedisCache does. */
+    private final LinkedHashMap<String, Entry> local;
+
+    private record Entry(Object value, long expiresAtNanos) {}
+
+    public NearCache(Cache delegate, Duration ttl, int maxEntries, RedisSerializer<Object> serializer,
+                     BiConsumer<String, String> invalidationPublisher) {
+        this.delegate = delegate;
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+        this.serializer = serializer;
+        this.invalidationPublisher = invalidationPublisher;
+        this.local = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > NearCache.this.maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String k = localKey(key);
+        Object hit = getLocal(k);
+        if (hit != null) return new SimpleValueWrapper(hit);
+
+        ValueWrapper remote = delegate.get(key);
+        if (remote != null && remote.get() != null) {
+            putLocal(k, remote.get());
+        }
+        return remote;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper w = get(key);
+        Object value = (w != null ? w.get() : null);
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String k = localKey(key);
+        Object hit = getLocal(k);
+        if (hit != null) return (T) hit;
+
+        T value = delegate.get(key, valueLoader);
+        if (value != null) putLocal(k, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+        if (value != null) putLocal(localKey(key), value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        String k = localKey(key);
+        try {
+            delegate.evict(key);
+        } finally {
+            removeLocal(k);
+            invalidationPublisher.accept(getName(), k);
+        }
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        String k = localKey(key);
+        try {
+            return delegate.evictIfPresent(key);
+        } finally {
+            removeLocal(k);
+            invalidationPublisher.accept(getName(), k);
+        }
+    }
+
+    @Override
+    public void clear() {
+        try {
+            delegate.clear();
+        } finally {
+            clearLocal();
+            invalidationPublisher.accept(getName(), null);
+        }
+    }
+
+    @Override
+    public boolean invalidate() {
+        try {
+            return delegate.invalidate();
+        } finally {
+            clearLocal();
+            invalidationPublisher.accept(getName(), null);
+        }
+    }
+
+    // ───────────────────────────── L1 only ─────────────────────────────
+
+    /** Drops one L1 entry without touching Redis (used for invalidations received from other nodes). */
+    public synchronized void removeLocal(String key) {
+        local.remove(key);
+    }
+
+    /** Drops all L1 entries without touching Redis. */
+    public synchronized void clearLocal() {
+        local.clear();
+    }
+
+    /** Number of live-or-expired entries currently held in L1. */
+    public synchronized int localSize() {
+        return local.size();
+    }
+
+    /** The shared L1 snapshot, or null on a miss or an expired entry. */
+    private synchronized Object getLocal(String key) {
+        Entry e = local.get(key);
+        if (e == null) return null;
+        if (System.nanoTime() - e.expiresAtNanos() >= 0) {
+            local.remove(key);
+            return null;
+        }
+        return e.value();
+    }
+
+    /** Keeps a detached snapshot of {@code value}; values the serializer rejects are simply not kept in L1. */
+    private void putLocal(String key, Object value) {
+        Object snapshot;
+        try {
+            snapshot = serializer.deserialize(serializer.serialize(value));
+        } catch (Exception ex) {
+            return;
+        }
+        if (snapshot == null) return;
+        synchronized (this) {
+            local.put(key, new Entry(snapshot, System.nanoTime() + ttlNanos));
+        }
+    }
+
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
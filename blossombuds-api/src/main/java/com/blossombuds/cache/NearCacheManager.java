@@ -0,0 +1,109 @@
+package com.blossombuds.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wraps the Redis cache manager so that caches with a configured TTL get an in-process L1 tier.
+ * Local evictions are published on a Redis channel; messages from other nodes drop their L1 copies.
+ * Message format: {@code <nodeId>|E|<cacheName>|<key>} for a single key, {@code <nodeId>|C|<cacheName>} for a clear.
+ */
+@Slf4j
+public class NearCacheManager implements CacheManager, MessageListener {
+
+    private final CacheManager delegate;
+    private final Map<String, Duration> localTtls;
+    private final int maxEntriesPerCache;
+    private final RedisSerializer<Object> valueSerializer;
+    private final StringRedisTemplate redis;
+    private final String channel;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+
+    /**
+     * @param localTtls L1 TTL per cache name; caches not listed here are returned undecorated
+     * @param valueSerializer the Redis value serializer; L1 stores values in this form so hits are copies
+     */
+    public NearCacheManager(CacheManager delegate,
+                            Map<String, Duration> localTtls,
+                            int maxEntriesPerCache,
+                            RedisSerializer<Object> valueSerializer,
+                            StringRedisTemplate redis,
+                            String channel) {
+        this.delegate = delegate;
+        this.localTtls = Map.copyOf(localTtls);
+        this.maxEntriesPerCache = maxEntriesPerCache;
+        this.valueSerializer = valueSerializer;
+        this.redis = redis;
+        this.channel = channel;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache existing = caches.get(name);
+        if (existing != null) return existing;
+
+        Cache target = delegate.getCache(name);
+        if (target == null) return null;
+
+        Duration ttl = localTtls.get(name);
+        Cache decorated = (ttl == null || ttl.isZero() || ttl.isNegative())
+                ? target
+                : new NearCache(target, ttl, maxEntriesPerCache, valueSerializer, this::publishInvalidation);
+        Cache raced = caches.putIfAbsent(name, decorated);
+        return raced != null ? raced : decorated;
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    /** Broadcasts an eviction to the other nodes; failures are logged, never thrown into the write path. */
+    private void publishInvalidation(String cacheName, String key) {
+        String msg = (key == null)
+                ? nodeId + "|C|" + cacheName
+                : nodeId + "|E|" + cacheName + "|" + key;
+        try {
+            redis.convertAndSend(channel, msg);
+        } catch (Exception e) {
+            log.warn("[CACHE][NEAR][PUBLISH][FAIL] cache={} key={} err={}", cacheName, key, e.toString());
+        }
+    }
+
+    /** Applies an invalidation received from another node to the local L1 tier only. */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        String[] parts = body.split("\\|", 4);
+        if (parts.length < 3 || nodeId.equals(parts[0])) return;
+
+        Cache cache = caches.get(parts[2]);
+        if (!(cache instanceof NearCache near)) return;
+
+        if ("C".equals(parts[1])) {
+            near.clearLocal();
+            log.debug("[CACHE][NEAR][REMOTE_CLEAR] cache={}", parts[2]);
+        } else if ("E".equals(parts[1]) && parts.length == 4) {
+            near.removeLocal(parts[3]);
+            log.debug("[CACHE][NEAR][REMOTE_EVICT] cache={} key={}", parts[2], parts[3]);
+        }
+    }
+}
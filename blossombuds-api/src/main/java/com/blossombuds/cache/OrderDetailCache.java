@@ -0,0 +1,155 @@
+package com.blossombuds.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Store behind the order tracking page ({@link CacheNames#ORDER_LITE_BY_CODE}), keyed by bare public code.
+ * <p>
+ * With Redis caching enabled this is the Redis cache (TTL in {@code RedisConfig}, fronted by the near-cache).
+ * Otherwise it is an in-process LRU of at most {@code app.cache.order-detail.max-entries} entries, each
+ * expiring after {@code app.cache.order-detail.ttl}, so it never grows with the number of orders viewed.
+ * Values are shared with other readers and must not be mutated by callers.
+ */
+@Slf4j
+@Component
+public class OrderDetailCache {
+
+    private final ObjectProvider<CacheManager> cacheManagerProvider;
+    private final boolean redisEnabled;
+    private final long ttlNanos;
+    private final int maxEntries;
+
+    /** Access-ordered LRU used when Redis caching is off; guarded by {@code this}. */
+    private final LinkedHashMap<String, Entry> local;
+
+    private record Entry(Object value, long expiresAtNanos) {}
+
+    public OrderDetailCache(ObjectProvider<CacheManager> cacheManagerProvider,
+                            @Value("${app.cache.redis.enabled:false}") boolean redisEnabled,
+                            @Value("${app.cache.order-detail.ttl:PT10M}") Duration ttl,
+                            @Value("${app.cache.order-detail.max-entries:2000}") int maxEntries) {
+        this.cacheManagerProvider = cacheManagerProvider;
+        this.redisEnabled = redisEnabled;
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = Math.max(1, maxEntries);
+        this.local = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > OrderDetailCache.this.maxEntries;
+            }
+        };
+    }
+
+    /** The cached value for {@code key}, or null on a miss, an expired entry or a value of another type. */
+    public <T> T get(String key, Class<T> type) {
+        if (key == null) return null;
+        Object value;
+        Cache shared = sharedCache();
+        if (shared != null) {
+            try {
+                Cache.ValueWrapper w = shared.get(key);
+                value = (w != null ? w.get() : null);
+            } catch (Exception e) {
+                log.warn("[CACHE][ORDER_DETAIL][GET][FAIL] key={} err={}", key, e.toString());
+                return null;
+            }
+        } else {
+            value = getLocal(key);
+        }
+        return type.isInstance(value) ? type.cast(value) : null;
+    }
+
+    public void put(String key, Object value) {
+        if (key == null || value == null) return;
+        Cache shared = sharedCache();
+        if (shared != null) {
+            try {
+                shared.put(key, value);
+            } catch (Exception e) {
+                log.warn("[CACHE][ORDER_DETAIL][PUT][FAIL] key={} err={}", key, e.toString());
+            }
+            return;
+        }
+        synchronized (this) {
+            local.put(key, new Entry(value, System.nanoTime() + ttlNanos));
+        }
+    }
+
+    /** Drops one order's entry once the current transaction commits. */
+    public void evictAfterCommit(String key) {
+        if (key == null) return;
+        runAfterCommit(() -> {
+            Cache shared = sharedCache();
+            if (shared != null) {
+                try {
+                    shared.evict(key);
+                } catch (Exception e) {
+                    log.warn("[CACHE][ORDER_DETAIL][EVICT][FAIL] key={} err={}", key, e.toString());
+                }
+            }
+            synchronized (this) {
+                local.remove(key);
+            }
+        });
+    }
+
+    /** Drops every entry once the current transaction commits (for writes that touch many orders). */
+    public void clearAfterCommit() {
+        runAfterCommit(() -> {
+            Cache shared = sharedCache();
+            if (shared != null) {
+                try {
+                    shared.clear();
+                } catch (Exception e) {
+                    log.warn("[CACHE][ORDER_DETAIL][CLEAR][FAIL] err={}", e.toString());
+                }
+            }
+            synchronized (this) {
+                local.clear();
+            }
+        });
+    }
+
+    /** Number of live-or-expired entries in the in-process store. */
+    public synchronized int localSize() {
+        return local.size();
+    }
+
+    private synchronized Object getLocal(String key) {
+        Entry e = local.get(key);
+        if (e == null) return null;
+        if (System.nanoTime() - e.expiresAtNanos() >= 0) {
+            local.remove(key);
+            return null;
+        }
+        return e.value();
+    }
+
+    /** The Redis-backed cache when Redis caching is on; null means "use the in-process store". */
+    private Cache sharedCache() {
+        if (!redisEnabled) return null;
+        CacheManager cacheManager = cacheManagerProvider.getIfAvailable();
+        return cacheManager == null ? null : cacheManager.getCache(CacheNames.ORDER_LITE_BY_CODE);
+    }
+
+    private static void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override public void afterCommit() { action.run(); }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
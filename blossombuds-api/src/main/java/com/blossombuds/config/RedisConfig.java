@@ -1,5 +1,7 @@
 package com.blossombuds.config;
 
+import com.blossombuds.cache.CacheNames;
+import com.blossombuds.cache.NearCacheManager;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -8,6 +10,7 @@ import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CachingConfigurer;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.interceptor.CacheErrorHandler;
@@ -20,6 +23,9 @@ import org.springframework.data.redis.RedisSystemException;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.SerializationException;
@@ -46,15 +52,22 @@ public class RedisConfig implements CachingConfigurer {
         log.info("[REDIS][CONFIG] url={}", safe);
     }
 
-    /** Builds a RedisCacheManager with JSON values and string keys. */
+    /**
+     * Builds a RedisCacheManager with JSON values and string keys, fronted by an in-process near-cache
+     * (L1) for every cache with an explicit TTL below, unless {@code app.cache.near.enabled=false}.
+     */
     @Primary
     @Bean
-    public RedisCacheManager cacheManager(
+    public CacheManager cacheManager(
             RedisConnectionFactory connectionFactory,
-            @Value("${app.cache.default-ttl:PT6H}") Duration defaultTtl
+            @Value("${app.cache.default-ttl:PT6H}") Duration defaultTtl,
+            @Value("${app.cache.near.enabled:true}") boolean nearEnabled,
+            @Value("${app.cache.near.max-entries:500}") int nearMaxEntries,
+            @Value("${app.cache.near.max-ttl:PT5M}") Duration nearMaxTtl
     ) {
         BasicPolymorphicTypeValidator ptv = BasicPolymorphicTypeValidator.builder()
                 .allowIfSubType("com.blossombuds.dto")
+                .allowIfSubType("com.blossombuds.service.OrderService$")
                 .allowIfSubType("org.springframework.data")
                 .allowIfSubType("java.math")
                 .allowIfSubType("java.util")
@@ -83,25 +96,65 @@ public class RedisConfig implements CachingConfigurer {
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
                 .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(valueSerializer));
 
-        Map<String, RedisCacheConfiguration> perCache = new java.util.HashMap<>(Map.of(
-                "catalog.categories",          base.entryTtl(Duration.ofHours(12)),
-                "catalog.productById",         base.entryTtl(Duration.ofMinutes(30)),
-                "catalog.products.page",       base.entryTtl(Duration.ofMinutes(20)),
-                "catalog.products.byCategory", base.entryTtl(Duration.ofMinutes(20)),
-                "catalog.featured.page",       base.entryTtl(Duration.ofMinutes(20)),
-                "catalog.featured.top",        base.entryTtl(Duration.ofMinutes(20)),
-                "catalog.newArrivals",         base.entryTtl(Duration.ofMinutes(20)),
-                "catalog.productOptionsWithValues", base.entryTtl(Duration.ofMinutes(30))
+        Map<String, Duration> ttls = new java.util.HashMap<>(Map.of(
+                "catalog.categories",          Duration.ofHours(12),
+                "catalog.productById",         Duration.ofMinutes(30),
+                "catalog.products.page",       Duration.ofMinutes(20),
+                "catalog.products.byCategory", Duration.ofMinutes(20),
+                "catalog.featured.page",       Duration.ofMinutes(20),
+                "catalog.featured.top",        Duration.ofMinutes(20),
+                "catalog.newArrivals",         Duration.ofMinutes(20),
+                "catalog.productOptionsWithValues", Duration.ofMinutes(30)
 
                 ));
 
         // Presigned URLs expire in 3600s, so keep cache < 3600s
-        perCache.put("featureImages", base.entryTtl(Duration.ofMinutes(25)));
+        ttls.put("featureImages", Duration.ofMinutes(25));
+        // Order tracking page (unsigned; image URLs are signed per request), short so partner edits show up
+        ttls.put(CacheNames.ORDER_LITE_BY_CODE, Duration.ofMinutes(10));
+
+        Map<String, RedisCacheConfiguration> perCache = new java.util.HashMap<>();
+        ttls.forEach((name, ttl) -> perCache.put(name, base.entryTtl(ttl)));
 
-        return RedisCacheManager.builder(connectionFactory)
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(base)
                 .withInitialCacheConfigurations(perCache)
                 .build();
+        redisCacheManager.afterPropertiesSet();
+
+        if (!nearEnabled) {
+            return redisCacheManager;
+        }
+
+        // L1 never outlives the Redis entry, and is capped so a lost pub/sub message heals quickly.
+        Map<String, Duration> localTtls = new java.util.HashMap<>();
+        ttls.forEach((name, ttl) -> localTtls.put(name, ttl.compareTo(nearMaxTtl) < 0 ? ttl : nearMaxTtl));
+
+        log.info("[REDIS][NEAR_CACHE] enabled caches={} maxEntries={} maxTtl={}",
+                localTtls.keySet(), nearMaxEntries, nearMaxTtl);
+        return new NearCacheManager(
+                redisCacheManager,
+                localTtls,
+                nearMaxEntries,
+                valueSerializer,
+                new StringRedisTemplate(connectionFactory),
+                "bb:" + cacheKeyVersion + ":cache-invalidation"
+        );
+    }
+
+    /** Subscribes the near-cache manager to cross-node invalidation messages. */
+    @Bean
+    public RedisMessageListenerContainer nearCacheInvalidationListener(
+            RedisConnectionFactory connectionFactory,
+            CacheManager cacheManager
+    ) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        if (cacheManager instanceof NearCacheManager near) {
+            container.addMessageListener(near, new ChannelTopic(near.getChannel()));
+            log.info("[REDIS][NEAR_CACHE] listening channel={}", near.getChannel());
+        }
+        return container;
     }
 
     /**
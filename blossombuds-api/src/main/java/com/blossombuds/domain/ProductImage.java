@@ -4,8 +4,10 @@ import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.annotations.SQLDelete;
 import org.hibernate.annotations.Where;
+import org.hibernate.type.SqlTypes;
 import org.springframework.data.annotation.CreatedBy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedBy;
@@ -14,6 +16,7 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
+import java.util.List;
 
 /** Stores external image URLs and metadata for a product. */
 @SQLDelete(sql = "UPDATE product_images SET active = false, modified_at = now() WHERE id = ?")
@@ -46,6 +49,11 @@ public class ProductImage {
     @Column(name = "watermark_variant_url", columnDefinition = "text")
     private String watermarkVariantUrl;
 
+    /** Resized JPEG/WebP renditions for srcset (JSONB); null for images uploaded before variants existed. */
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "variants", columnDefinition = "jsonb")
+    private List<ProductImageVariant> variants;
+
     /** Alt text for accessibility/SEO. */
     @Column(name = "alt_text", length = 200)
     private String altText;
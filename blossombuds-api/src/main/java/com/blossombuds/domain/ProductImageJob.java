@@ -0,0 +1,46 @@
+package com.blossombuds.domain;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.OffsetDateTime;
+
+/** Tracks one asynchronous product image upload from QUEUED to DONE or FAILED. */
+@Getter
+@Setter
+@Entity
+@Table(name = "product_image_jobs")
+public class ProductImageJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** Product the image is attached to. */
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    /** Image being replaced, or the created image once DONE. */
+    @Column(name = "image_id")
+    private Long imageId;
+
+    /** QUEUED, PROCESSING, DONE or FAILED. */
+    @Column(name = "status", length = 20, nullable = false)
+    private String status = "QUEUED";
+
+    @Column(name = "error_message", length = 1000)
+    private String errorMessage;
+
+    @Column(name = "created_by", length = 120)
+    private String createdBy;
+
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt = OffsetDateTime.now();
+
+    @Column(name = "started_at")
+    private OffsetDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private OffsetDateTime finishedAt;
+}
@@ -0,0 +1,17 @@
+package com.blossombuds.domain;
+
+import lombok.*;
+
+/** One stored rendition of a product image (a width in one format), kept in {@code product_images.variants}. */
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class ProductImageVariant {
+
+    /** Pixel width of the rendition (the srcset {@code w} descriptor). */
+    private Integer width;
+
+    /** "jpg" or "webp". */
+    private String format;
+
+    /** R2 object key. */
+    private String key;
+}
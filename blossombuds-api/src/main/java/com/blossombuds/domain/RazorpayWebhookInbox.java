@@ -51,4 +51,10 @@ public class RazorpayWebhookInbox {
 
     @Column(name = "processed_at")
     private OffsetDateTime processedAt;
+
+    @Column(name = "next_attempt_at")
+    private OffsetDateTime nextAttemptAt; // FAILED rows are retried from here; null once exhausted
+
+    @Column(name = "locked_at")
+    private OffsetDateTime lockedAt; // set while PROCESSING
 }
\ No newline at end of file
@@ -36,4 +36,8 @@ public class ProductDto {
     private LocalDateTime createdAt;
     /** Signed URL of the primary (lowest sortOrder) product image. Populated in list endpoints. */
     private String primaryImageUrl;
+    /** Signed JPEG srcset ("url 320w, ...") of the primary image; null for images without variants. */
+    private String primaryImageSrcset;
+    /** Same widths as WebP; null when no WebP renditions exist. */
+    private String primaryImageWebpSrcset;
 }
@@ -10,6 +10,8 @@ public class ProductImageDto {
     private String publicId;
     private String url;                   // signed GET
     private String watermarkVariantUrl;   // signed GET (or same as url)
+    private String srcset;                // signed JPEG renditions, "url 320w, url 640w, ..."; null if none
+    private String webpSrcset;            // same widths as WebP; null if none
     private String altText;
     private Integer sortOrder;
     private Boolean active;
@@ -0,0 +1,17 @@
+package com.blossombuds.dto;
+
+import lombok.Data;
+
+import java.time.OffsetDateTime;
+
+/** Status of an asynchronous product image upload; {@code image} is set once DONE. */
+@Data
+public class ProductImageJobDto {
+    private Long id;
+    private Long productId;
+    private String status;          // QUEUED, PROCESSING, DONE, FAILED
+    private String errorMessage;
+    private OffsetDateTime createdAt;
+    private OffsetDateTime finishedAt;
+    private ProductImageDto image;
+}
@@ -0,0 +1,4 @@
+package com.blossombuds.dto;
+
+/** One facet bucket of a product search: a category and how many matching products it holds. */
+public record SearchFacetDto(Long categoryId, String name, long count) {}
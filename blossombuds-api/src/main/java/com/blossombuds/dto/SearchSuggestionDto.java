@@ -0,0 +1,8 @@
+package com.blossombuds.dto;
+
+/**
+ * One autocomplete suggestion.
+ * {@code type} is {@code category}, {@code product} or {@code option}; option suggestions carry no id/slug
+ * and are meant to be submitted as a free-text search.
+ */
+public record SearchSuggestionDto(String type, Long id, String slug, String label) {}
@@ -5,14 +5,19 @@ import com.blossombuds.domain.Order;
 import com.blossombuds.dto.LabeledValue;
 import com.blossombuds.dto.TrendPoint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Repository
@@ -76,6 +81,96 @@ public interface MetricsRepo extends JpaRepository<Order, Long> {
     """, nativeQuery = true)
     long countNewCustomers(@Param("fromTs") OffsetDateTime from, @Param("toTs") OffsetDateTime to);
 
+    // ---------- Dashboard summary (single round-trip) ----------
+    /**
+     * Every summary bucket in one statement: each table is scanned once and the windows are
+     * conditional aggregates. Column order (see {@link SummaryCol}):
+     * orders[9], revenue[9], shipping[9] (each: total, daily, weekly, monthly, yearly,
+     * prevDaily, prevWeekly, prevMonthly, prevYearly), shippingMaxMonth, productsTotal,
+     * customers[9] (same order as above; total = all active customers).
+     */
+    @Query(value = """
+    SELECT oa.*, ms.ship_max, pa.products_total, ca.*
+    FROM (
+      SELECT
+        COALESCE(COUNT(*), 0) AS orders_total,
+        COALESCE(COUNT(*) FILTER (WHERE o.created_at >= :dayStart AND o.created_at < :nowTs), 0) AS orders_daily,
+        COALESCE(COUNT(*) FILTER (WHERE o.created_at >= :weekStart AND o.created_at < :nowTs), 0) AS orders_weekly,
+        COALESCE(COUNT(*) FILTER (WHERE o.created_at >= :monthStart AND o.created_at < :nowTs), 0) AS orders_monthly,
+        COALESCE(COUNT(*) FILTER (WHERE o.created_at >= :yearStart AND o.created_at < :nowTs), 0) AS orders_yearly,
+        COALESCE(COUNT(*) FILTER (WHERE o.created_at >= :prevDayStart AND o.created_at < :dayStart), 0) AS orders_prev_daily,
+        COALESCE(COUNT(*) FILTER (WHERE o.created_at >= :prevWeekStart AND o.created_at < :weekStart), 0) AS orders_prev_weekly,
+        COALESCE(COUNT(*) FILTER (WHERE o.created_at >= :prevMonthStart AND o.created_at < :monthStart), 0) AS orders_prev_monthly,
+        COALESCE(COUNT(*) FILTER (WHERE o.created_at >= :prevYearStart AND o.created_at < :yearStart), 0) AS orders_prev_yearly,
+        COALESCE(SUM(o.grand_total), 0) AS rev_total,
+        COALESCE(SUM(o.grand_total) FILTER (WHERE o.created_at >= :dayStart AND o.created_at < :nowTs), 0) AS rev_daily,
+        COALESCE(SUM(o.grand_total) FILTER (WHERE o.created_at >= :weekStart AND o.created_at < :nowTs), 0) AS rev_weekly,
+        COALESCE(SUM(o.grand_total) FILTER (WHERE o.created_at >= :monthStart AND o.created_at < :nowTs), 0) AS rev_monthly,
+        COALESCE(SUM(o.grand_total) FILTER (WHERE o.created_at >= :yearStart AND o.created_at < :nowTs), 0) AS rev_yearly,
+        COALESCE(SUM(o.grand_total) FILTER (WHERE o.created_at >= :prevDayStart AND o.created_at < :dayStart), 0) AS rev_prev_daily,
+        COALESCE(SUM(o.grand_total) FILTER (WHERE o.created_at >= :prevWeekStart AND o.created_at < :weekStart), 0) AS rev_prev_weekly,
+        COALESCE(SUM(o.grand_total) FILTER (WHERE o.created_at >= :prevMonthStart AND o.created_at < :monthStart), 0) AS rev_prev_monthly,
+        COALESCE(SUM(o.grand_total) FILTER (WHERE o.created_at >= :prevYearStart AND o.created_at < :yearStart), 0) AS rev_prev_yearly,
+        COALESCE(SUM(o.shipping_fee), 0) AS ship_total,
+        COALESCE(SUM(o.shipping_fee) FILTER (WHERE o.created_at >= :dayStart AND o.created_at < :nowTs), 0) AS ship_daily,
+        COALESCE(SUM(o.shipping_fee) FILTER (WHERE o.created_at >= :weekStart AND o.created_at < :nowTs), 0) AS ship_weekly,
+        COALESCE(SUM(o.shipping_fee) FILTER (WHERE o.created_at >= :monthStart AND o.created_at < :nowTs), 0) AS ship_monthly,
+        COALESCE(SUM(o.shipping_fee) FILTER (WHERE o.created_at >= :yearStart AND o.created_at < :nowTs), 0) AS ship_yearly,
+        COALESCE(SUM(o.shipping_fee) FILTER (WHERE o.created_at >= :prevDayStart AND o.created_at < :dayStart), 0) AS ship_prev_daily,
+        COALESCE(SUM(o.shipping_fee) FILTER (WHERE o.created_at >= :prevWeekStart AND o.created_at < :weekStart), 0) AS ship_prev_weekly,
+        COALESCE(SUM(o.shipping_fee) FILTER (WHERE o.created_at >= :prevMonthStart AND o.created_at < :monthStart), 0) AS ship_prev_monthly,
+        COALESCE(SUM(o.shipping_fee) FILTER (WHERE o.created_at >= :prevYearStart AND o.created_at < :yearStart), 0) AS ship_prev_yearly
+      FROM blossombuds_prod.orders o
+      WHERE o.status NOT IN ('CANCELLED')
+    ) oa
+    CROSS JOIN (
+      SELECT COALESCE(MAX(month_sum), 0) AS ship_max FROM (
+        SELECT DATE_TRUNC('month', o.created_at) m, SUM(o.shipping_fee) month_sum
+        FROM blossombuds_prod.orders o
+        WHERE o.status NOT IN ('CANCELLED')
+          AND o.created_at >= :yearStart
+        GROUP BY 1
+      ) x
+    ) ms
+    CROSS JOIN (
+      SELECT COUNT(*) AS products_total FROM blossombuds_prod.products p WHERE p.active = true
+    ) pa
+    CROSS JOIN (
+      SELECT
+        COALESCE(COUNT(*), 0) AS cust_total,
+        COALESCE(COUNT(*) FILTER (WHERE c.created_at >= :dayStart AND c.created_at < :nowTs), 0) AS cust_daily,
+        COALESCE(COUNT(*) FILTER (WHERE c.created_at >= :weekStart AND c.created_at < :nowTs), 0) AS cust_weekly,
+        COALESCE(COUNT(*) FILTER (WHERE c.created_at >= :monthStart AND c.created_at < :nowTs), 0) AS cust_monthly,
+        COALESCE(COUNT(*) FILTER (WHERE c.created_at >= :yearStart AND c.created_at < :nowTs), 0) AS cust_yearly,
+        COALESCE(COUNT(*) FILTER (WHERE c.created_at >= :prevDayStart AND c.created_at < :dayStart), 0) AS cust_prev_daily,
+        COALESCE(COUNT(*) FILTER (WHERE c.created_at >= :prevWeekStart AND c.created_at < :weekStart), 0) AS cust_prev_weekly,
+        COALESCE(COUNT(*) FILTER (WHERE c.created_at >= :prevMonthStart AND c.created_at < :monthStart), 0) AS cust_prev_monthly,
+        COALESCE(COUNT(*) FILTER (WHERE c.created_at >= :prevYearStart AND c.created_at < :yearStart), 0) AS cust_prev_yearly
+      FROM blossombuds_prod.customers c
+      WHERE c.active = true
+    ) ca
+    """, nativeQuery = true)
+    List<Object[]> _summaryRaw(@Param("nowTs") OffsetDateTime now,
+                               @Param("dayStart") OffsetDateTime dayStart,
+                               @Param("weekStart") OffsetDateTime weekStart,
+                               @Param("monthStart") OffsetDateTime monthStart,
+                               @Param("yearStart") OffsetDateTime yearStart,
+                               @Param("prevDayStart") OffsetDateTime prevDayStart,
+                               @Param("prevWeekStart") OffsetDateTime prevWeekStart,
+                               @Param("prevMonthStart") OffsetDateTime prevMonthStart,
+                               @Param("prevYearStart") OffsetDateTime prevYearStart);
+
+    /** Column offsets of {@link #_summaryRaw}; each series has 9 windows. */
+    final class SummaryCol {
+        private SummaryCol() {}
+        public static final int ORDERS = 0;
+        public static final int REVENUE = 9;
+        public static final int SHIPPING = 18;
+        public static final int SHIPPING_MAX = 27;
+        public static final int PRODUCTS_TOTAL = 28;
+        public static final int CUSTOMERS = 29;
+    }
+
     // ---------- Trends (orders + revenue) ----------
     @Query(value = """
   SELECT TO_CHAR(hours.h, 'HH24:00') AS label,
@@ -256,6 +351,253 @@ public interface MetricsRepo extends JpaRepository<Order, Long> {
                 .collect(Collectors.toList());
     }
 
+    // ---------- Daily rollups (see changelog 0054 / MetricsRollupService) ----------
+    // A "day" is an Asia/Kolkata calendar day; each refresh recomputes that day from source rows.
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+    INSERT INTO blossombuds_prod.metrics_daily (day, orders_count, revenue, shipping, new_customers, refreshed_at)
+    SELECT CAST(:day AS date),
+           oa.cnt, oa.rev, oa.ship, ca.cnt, NOW()
+    FROM (
+      SELECT COUNT(*) AS cnt,
+             COALESCE(SUM(o.grand_total), 0) AS rev,
+             COALESCE(SUM(o.shipping_fee), 0) AS ship
+      FROM blossombuds_prod.orders o
+      WHERE o.status NOT IN ('CANCELLED')
+        AND o.created_at >= (CAST(:day AS timestamp) AT TIME ZONE 'Asia/Kolkata')
+        AND o.created_at <  ((CAST(:day AS timestamp) + INTERVAL '1 day') AT TIME ZONE 'Asia/Kolkata')
+    ) oa
+    CROSS JOIN (
+      SELECT COUNT(*) AS cnt
+      FROM blossombuds_prod.customers c
+      WHERE c.active = true
+        AND c.created_at >= (CAST(:day AS timestamp) AT TIME ZONE 'Asia/Kolkata')
+        AND c.created_at <  ((CAST(:day AS timestamp) + INTERVAL '1 day') AT TIME ZONE 'Asia/Kolkata')
+    ) ca
+    ON CONFLICT (day) DO UPDATE
+       SET orders_count  = EXCLUDED.orders_count,
+           revenue       = EXCLUDED.revenue,
+           shipping      = EXCLUDED.shipping,
+           new_customers = EXCLUDED.new_customers,
+           refreshed_at  = EXCLUDED.refreshed_at
+    """, nativeQuery = true)
+    int refreshDailyTotals(@Param("day") LocalDate day);
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+    WITH fresh AS (
+      SELECT oi.product_id, SUM(oi.quantity) AS qty
+      FROM blossombuds_prod.order_items oi
+      JOIN blossombuds_prod.orders o   ON o.id = oi.order_id
+      JOIN blossombuds_prod.products p ON p.id = oi.product_id
+      WHERE o.status NOT IN ('CANCELLED')
+        AND o.created_at >= (CAST(:day AS timestamp) AT TIME ZONE 'Asia/Kolkata')
+        AND o.created_at <  ((CAST(:day AS timestamp) + INTERVAL '1 day') AT TIME ZONE 'Asia/Kolkata')
+      GROUP BY oi.product_id
+    ), upserted AS (
+      INSERT INTO blossombuds_prod.metrics_daily_product (day, product_id, quantity)
+      SELECT CAST(:day AS date), f.product_id, f.qty FROM fresh f
+      ON CONFLICT (day, product_id) DO UPDATE SET quantity = EXCLUDED.quantity
+    )
+    DELETE FROM blossombuds_prod.metrics_daily_product m
+    WHERE m.day = CAST(:day AS date)
+      AND NOT EXISTS (SELECT 1 FROM fresh f WHERE f.product_id = m.product_id)
+    """, nativeQuery = true)
+    int refreshDailyProducts(@Param("day") LocalDate day);
+
+    /** Recomputes one day's category quantities using the current product→category links. */
+    @Transactional
+    @Modifying
+    @Query(value = """
+    WITH fresh AS (
+      SELECT pc.category_id, SUM(oi.quantity) AS qty
+      FROM blossombuds_prod.order_items oi
+      JOIN blossombuds_prod.orders o              ON o.id = oi.order_id
+      JOIN blossombuds_prod.product_categories pc ON pc.product_id = oi.product_id
+      JOIN blossombuds_prod.categories c          ON c.id = pc.category_id
+      WHERE o.status NOT IN ('CANCELLED')
+        AND o.created_at >= (CAST(:day AS timestamp) AT TIME ZONE 'Asia/Kolkata')
+        AND o.created_at <  ((CAST(:day AS timestamp) + INTERVAL '1 day') AT TIME ZONE 'Asia/Kolkata')
+      GROUP BY pc.category_id
+    ), upserted AS (
+      INSERT INTO blossombuds_prod.metrics_daily_category (day, category_id, quantity)
+      SELECT CAST(:day AS date), f.category_id, f.qty FROM fresh f
+      ON CONFLICT (day, category_id) DO UPDATE SET quantity = EXCLUDED.quantity
+    )
+    DELETE FROM blossombuds_prod.metrics_daily_category m
+    WHERE m.day = CAST(:day AS date)
+      AND NOT EXISTS (SELECT 1 FROM fresh f WHERE f.category_id = m.category_id)
+    """, nativeQuery = true)
+    int refreshDailyCategories(@Param("day") LocalDate day);
+
+    /** Distinct IST calendar days the given orders were placed on. */
+    @Query(value = """
+    SELECT DISTINCT CAST((o.created_at AT TIME ZONE 'Asia/Kolkata') AS date)
+    FROM blossombuds_prod.orders o
+    WHERE o.id IN (:ids)
+    """, nativeQuery = true)
+    List<Object> _orderDays(@Param("ids") Collection<Long> orderIds);
+
+    default List<LocalDate> orderDays(Collection<Long> orderIds) {
+        if (orderIds == null || orderIds.isEmpty()) return List.of();
+        return _orderDays(orderIds).stream().map(MetricsRepo::toLocalDate).filter(Objects::nonNull).toList();
+    }
+
+    /** Earliest IST day with an order or customer, or null when both tables are empty. */
+    @Query(value = """
+    SELECT CAST((LEAST(
+             (SELECT MIN(o.created_at) FROM blossombuds_prod.orders o),
+             (SELECT MIN(c.created_at) FROM blossombuds_prod.customers c)
+           ) AT TIME ZONE 'Asia/Kolkata') AS date)
+    """, nativeQuery = true)
+    Object _firstActivityDay();
+
+    default LocalDate firstActivityDay() {
+        return toLocalDate(_firstActivityDay());
+    }
+
+    @Query(value = "SELECT COUNT(*) FROM blossombuds_prod.metrics_daily", nativeQuery = true)
+    long countDailyRollups();
+
+    private static LocalDate toLocalDate(Object v) {
+        if (v instanceof LocalDate d) return d;
+        if (v instanceof java.sql.Date d) return d.toLocalDate();
+        return null;
+    }
+
+    // ---------- Rollup-backed reads (same labels/shape as the raw queries above) ----------
+
+    @Query(value = """
+  SELECT TO_CHAR(days.d, 'Dy DD') AS label,
+         COALESCE(md.orders_count,0) AS orders,
+         COALESCE(md.revenue,0) AS revenue
+  FROM (
+    SELECT generate_series(
+      date_trunc('week', (NOW() AT TIME ZONE 'Asia/Kolkata')),
+      date_trunc('week', (NOW() AT TIME ZONE 'Asia/Kolkata')) + INTERVAL '6 days',
+      INTERVAL '1 day'
+    ) AS d
+  ) days
+  LEFT JOIN blossombuds_prod.metrics_daily md ON md.day = CAST(days.d AS date)
+  ORDER BY days.d
+""", nativeQuery = true)
+    List<Object[]> _rollupRevenueByWeekRaw();
+
+    @Query(value = """
+  SELECT TO_CHAR(days.d, 'DD Mon') AS label,
+         COALESCE(md.orders_count,0) AS orders,
+         COALESCE(md.revenue,0) AS revenue
+  FROM (
+    SELECT generate_series(
+      date_trunc('month', (NOW() AT TIME ZONE 'Asia/Kolkata')),
+      date_trunc('day',   (NOW() AT TIME ZONE 'Asia/Kolkata')),
+      INTERVAL '1 day'
+    ) AS d
+  ) days
+  LEFT JOIN blossombuds_prod.metrics_daily md ON md.day = CAST(days.d AS date)
+  ORDER BY days.d
+""", nativeQuery = true)
+    List<Object[]> _rollupRevenueByMonthRaw();
+
+    @Query(value = """
+  SELECT TO_CHAR(months.m, 'Mon') AS label,
+         COALESCE(SUM(md.orders_count),0) AS orders,
+         COALESCE(SUM(md.revenue),0) AS revenue
+  FROM (
+    SELECT generate_series(
+      date_trunc('year',  (NOW() AT TIME ZONE 'Asia/Kolkata')),
+      date_trunc('month', (NOW() AT TIME ZONE 'Asia/Kolkata')),
+      INTERVAL '1 month'
+    ) AS m
+  ) months
+  LEFT JOIN blossombuds_prod.metrics_daily md
+    ON md.day >= CAST(months.m AS date)
+   AND md.day <  CAST(months.m + INTERVAL '1 month' AS date)
+  GROUP BY months.m
+  ORDER BY months.m
+""", nativeQuery = true)
+    List<Object[]> _rollupRevenueByYearRaw();
+
+    @Query(value = """
+  SELECT TO_CHAR(months.m, 'Mon') AS label,
+         COALESCE(SUM(md.shipping),0) AS val
+  FROM (
+    SELECT generate_series(
+      date_trunc('month', (NOW() AT TIME ZONE 'Asia/Kolkata')) - INTERVAL '11 months',
+      date_trunc('month', (NOW() AT TIME ZONE 'Asia/Kolkata')),
+      INTERVAL '1 month'
+    ) AS m
+  ) months
+  LEFT JOIN blossombuds_prod.metrics_daily md
+    ON md.day >= CAST(months.m AS date)
+   AND md.day <  CAST(months.m + INTERVAL '1 month' AS date)
+  GROUP BY months.m
+  ORDER BY months.m
+""", nativeQuery = true)
+    List<Object[]> _rollupShippingByMonth();
+
+    @Query(value = """
+  SELECT TO_CHAR(months.m, 'Mon') AS label,
+         COALESCE(SUM(md.new_customers),0) AS val
+  FROM (
+    SELECT generate_series(
+      date_trunc('month', (NOW() AT TIME ZONE 'Asia/Kolkata')) - INTERVAL '11 months',
+      date_trunc('month', (NOW() AT TIME ZONE 'Asia/Kolkata')),
+      INTERVAL '1 month'
+    ) AS m
+  ) months
+  LEFT JOIN blossombuds_prod.metrics_daily md
+    ON md.day >= CAST(months.m AS date)
+   AND md.day <  CAST(months.m + INTERVAL '1 month' AS date)
+  GROUP BY months.m
+  ORDER BY months.m
+""", nativeQuery = true)
+    List<Object[]> _rollupNewCustomersByMonth();
+
+    @Query(value = """
+      SELECT p.name AS label, COALESCE(SUM(mp.quantity),0) AS val
+      FROM blossombuds_prod.metrics_daily_product mp
+      JOIN blossombuds_prod.products p ON p.id = mp.product_id
+      WHERE mp.day >= :startDay
+      GROUP BY p.name
+      ORDER BY val DESC, p.name
+      LIMIT :limit
+      """, nativeQuery = true)
+    List<Object[]> _rollupTopProductsSince(@Param("startDay") LocalDate startDay,
+                                           @Param("limit") int limit);
+
+    @Query(value = """
+      SELECT c.name AS label, COALESCE(SUM(mc.quantity),0) AS val
+      FROM blossombuds_prod.metrics_daily_category mc
+      JOIN blossombuds_prod.categories c ON c.id = mc.category_id
+      WHERE mc.day >= :startDay
+      GROUP BY c.name
+      ORDER BY val DESC, c.name
+      LIMIT :limit
+      """, nativeQuery = true)
+    List<Object[]> _rollupTopCategoriesSince(@Param("startDay") LocalDate startDay,
+                                             @Param("limit") int limit);
+
+    default List<TrendPoint> rollupTrend(String range) {
+        List<Object[]> rows = switch (range) {
+            case "weekly"  -> _rollupRevenueByWeekRaw();
+            case "monthly" -> _rollupRevenueByMonthRaw();
+            default        -> _rollupRevenueByYearRaw();
+        };
+        return rows.stream()
+                .map(r -> new TrendPoint((String) r[0], ((Number) r[1]).longValue(), ((Number) r[2]).longValue()))
+                .toList();
+    }
+
+    default List<LabeledValue> toLabeledValues(List<Object[]> rows) {
+        return rows.stream()
+                .map(r -> new LabeledValue((String) r[0], ((Number) r[1]).longValue()))
+                .toList();
+    }
+
     // ---------- Top Products / Categories ----------
     // Top products since a start timestamp (no reserved words, no CTE)
     @Query(value = """
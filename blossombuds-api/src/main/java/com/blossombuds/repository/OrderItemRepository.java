@@ -3,6 +3,7 @@ package com.blossombuds.repository;
 import com.blossombuds.domain.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
 import java.util.List;
 
 /** Repository for order items. */
@@ -10,4 +11,6 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     /** Lists items for a given order id. */
     List<OrderItem> findByOrder_Id(Long orderId);
     void deleteByOrder_Id(Long orderId);
+    /** Lists items for several orders at once (bulk printing). */
+    List<OrderItem> findByOrder_IdInOrderByIdAsc(Collection<Long> orderIds);
 }
@@ -0,0 +1,29 @@
+package com.blossombuds.repository;
+
+import com.blossombuds.domain.ProductImageJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.OffsetDateTime;
+
+/** Repository for asynchronous product image job status rows. */
+public interface ProductImageJobRepository extends JpaRepository<ProductImageJob, Long> {
+
+    /**
+     * Fails open jobs whose last progress (start, or creation while queued) is before {@code staleBefore}.
+     * Their source bytes were only held in memory by an instance that is gone or has restarted; jobs
+     * still moving on other instances are younger than the cut-off and left alone.
+     */
+    @Modifying
+    @Query("""
+           update ProductImageJob j
+              set j.status = 'FAILED', j.errorMessage = :message, j.finishedAt = :now
+            where j.status in ('QUEUED', 'PROCESSING')
+              and coalesce(j.startedAt, j.createdAt) < :staleBefore
+           """)
+    int failStaleJobs(@Param("message") String message,
+                      @Param("staleBefore") OffsetDateTime staleBefore,
+                      @Param("now") OffsetDateTime now);
+}
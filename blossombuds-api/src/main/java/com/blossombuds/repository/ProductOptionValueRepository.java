@@ -2,11 +2,36 @@ package com.blossombuds.repository;
 
 import com.blossombuds.domain.ProductOptionValue;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 /** Repository for reading/writing option values. */
 public interface ProductOptionValueRepository extends JpaRepository<ProductOptionValue, Long> {
     /** Lists values for an option ordered by sort order and id. */
     List<ProductOptionValue> findByOption_IdOrderBySortOrderAscIdAsc(Long optionId);
+
+    /** Lists values of several options at once, ordered by sort order and id (per option as above). */
+    List<ProductOptionValue> findByOption_IdInOrderBySortOrderAscIdAsc(Collection<Long> optionIds);
+
+    /** [valueId, valueLabel] of every active value under an active option of an active product. */
+    @Query("""
+        select v.id, v.valueLabel from ProductOptionValue v
+          join v.option o
+          join o.product p
+        where v.active = true and o.active = true and p.active = true
+          and v.valueLabel is not null
+        """)
+    List<Object[]> findActiveValueLabels();
+
+    /** [valueId, valueLabel] of every active value under an active option of the given product. */
+    @Query("""
+        select v.id, v.valueLabel from ProductOptionValue v
+          join v.option o
+        where o.product.id = :productId and v.active = true and o.active = true
+          and v.valueLabel is not null
+        """)
+    List<Object[]> findActiveValueLabelsByProductId(@Param("productId") Long productId);
 }
@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 
 /** Repository for reading/writing products. */
@@ -65,6 +66,64 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
                                  @Param("priceMin") BigDecimal priceMin,
                                  @Param("priceMax") BigDecimal priceMax,
                                  Pageable pageable);
+
+    /**
+     * Ranked full-text search over the precomputed {@code products.search_vector} (GIN-indexed, see
+     * changelog 0053). {@code tsq} must be a valid {@code to_tsquery('simple', ...)} expression,
+     * e.g. {@code rose:* & red:*}; build it with {@code SearchService#toPrefixTsQuery}.
+     */
+    @Query(value = """
+        select p.* from products p
+        where p.active = true
+          and p.search_vector @@ to_tsquery('simple', :tsq)
+          and (cast(:categoryId as bigint) is null or exists (
+                 select 1 from product_categories x
+                 where x.active = true and x.product_id = p.id and x.category_id = :categoryId
+          ))
+          and (cast(:priceMin as numeric) is null or p.price >= cast(:priceMin as numeric))
+          and (cast(:priceMax as numeric) is null or p.price <= cast(:priceMax as numeric))
+        order by ts_rank_cd(p.search_vector, to_tsquery('simple', :tsq)) desc, p.name asc, p.id asc
+        """,
+        countQuery = """
+        select count(*) from products p
+        where p.active = true
+          and p.search_vector @@ to_tsquery('simple', :tsq)
+          and (cast(:categoryId as bigint) is null or exists (
+                 select 1 from product_categories x
+                 where x.active = true and x.product_id = p.id and x.category_id = :categoryId
+          ))
+          and (cast(:priceMin as numeric) is null or p.price >= cast(:priceMin as numeric))
+          and (cast(:priceMax as numeric) is null or p.price <= cast(:priceMax as numeric))
+        """,
+        nativeQuery = true)
+    Page<Product> searchProductsFullText(@Param("tsq") String tsq,
+                                         @Param("categoryId") Long categoryId,
+                                         @Param("priceMin") BigDecimal priceMin,
+                                         @Param("priceMax") BigDecimal priceMax,
+                                         Pageable pageable);
+
+    /**
+     * Category facet counts for a full-text query: [categoryId, categoryName, productCount],
+     * most populated first. Price filters apply; the category filter intentionally does not.
+     */
+    @Query(value = """
+        select c.id, c.name, count(distinct p.id) as cnt
+        from products p
+        join product_categories pc on pc.product_id = p.id and pc.active = true
+        join categories c on c.id = pc.category_id and c.active = true
+        where p.active = true
+          and p.search_vector @@ to_tsquery('simple', :tsq)
+          and (cast(:priceMin as numeric) is null or p.price >= cast(:priceMin as numeric))
+          and (cast(:priceMax as numeric) is null or p.price <= cast(:priceMax as numeric))
+        group by c.id, c.name
+        order by cnt desc, c.name asc
+        limit :limit
+        """, nativeQuery = true)
+    List<Object[]> searchCategoryFacets(@Param("tsq") String tsq,
+                                        @Param("priceMin") BigDecimal priceMin,
+                                        @Param("priceMax") BigDecimal priceMax,
+                                        @Param("limit") int limit);
+
     Page<Product> findByFeaturedTrue(Pageable pageable);
 
     // If you gate by visible flag too:
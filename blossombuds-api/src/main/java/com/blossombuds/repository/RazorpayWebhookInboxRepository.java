@@ -3,9 +3,6 @@ package com.blossombuds.repository;
 import com.blossombuds.domain.RazorpayWebhookInbox;
 import org.springframework.data.jpa.repository.JpaRepository;
 
-import java.util.List;
-
+/** Claiming and status writes are set-based SQL in RazorpayWebhookProcessorService. */
 public interface RazorpayWebhookInboxRepository extends JpaRepository<RazorpayWebhookInbox, Long> {
-
-    List<RazorpayWebhookInbox> findTop50ByStatusOrderByIdAsc(String status);
 }
\ No newline at end of file
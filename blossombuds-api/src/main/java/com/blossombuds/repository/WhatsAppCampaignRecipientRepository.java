@@ -3,6 +3,7 @@ package com.blossombuds.repository;
 import com.blossombuds.domain.WhatsAppCampaignRecipient;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,6 +22,9 @@ public interface WhatsAppCampaignRecipientRepository extends JpaRepository<Whats
     /** Finds a recipient row by provider message id. */
     Optional<WhatsAppCampaignRecipient> findByProviderMessageId(String providerMessageId);
 
+    /** Finds recipient rows for many provider message ids at once (batched webhook statuses). */
+    List<WhatsAppCampaignRecipient> findByProviderMessageIdIn(Collection<String> providerMessageIds);
+
     /** Counts recipients for a campaign by status. */
     long countByCampaignIdAndStatusAndActiveTrue(Long campaignId, String status);
 
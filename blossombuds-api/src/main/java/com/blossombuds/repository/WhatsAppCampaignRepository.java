@@ -2,6 +2,9 @@ package com.blossombuds.repository;
 
 import com.blossombuds.domain.WhatsAppCampaign;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -17,4 +20,22 @@ public interface WhatsAppCampaignRepository extends JpaRepository<WhatsAppCampai
 
     /** Finds an active campaign by id. */
     Optional<WhatsAppCampaign> findByIdAndActiveTrue(Long id);
+
+    /** Adds counter deltas in place (webhook status batches), instead of recounting recipient rows. */
+    @Modifying
+    @Query("""
+           update WhatsAppCampaign c set
+             c.sentCount      = coalesce(c.sentCount, 0)      + :sent,
+             c.failedCount    = coalesce(c.failedCount, 0)    + :failed,
+             c.deliveredCount = coalesce(c.deliveredCount, 0) + :delivered,
+             c.readCount      = coalesce(c.readCount, 0)      + :read,
+             c.modifiedBy     = 'webhook',
+             c.modifiedAt     = CURRENT_TIMESTAMP
+           where c.id = :id
+           """)
+    int addCounts(@Param("id") Long id,
+                  @Param("sent") int sent,
+                  @Param("failed") int failed,
+                  @Param("delivered") int delivered,
+                  @Param("read") int read);
 }
\ No newline at end of file
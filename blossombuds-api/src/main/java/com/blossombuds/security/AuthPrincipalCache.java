@@ -0,0 +1,110 @@
+package com.blossombuds.security;
+
+import com.blossombuds.domain.Admin;
+import com.blossombuds.repository.AdminRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-node memo of the work {@link JwtAuthFilter} does on every request.
+ * <ul>
+ *   <li><b>Verified tokens</b>: a token string whose HS256 signature checked out is remembered with
+ *       its subject until the token's own {@code exp}, so repeat requests skip parsing and HMAC.</li>
+ *   <li><b>Admin principals</b>: the result of {@code admins.findByName(subject)} (active or not) is kept
+ *       for {@code app.auth.admin-cache-ttl}. {@code AdminService} evicts an admin when it is
+ *       created, renamed, (de)activated or deleted; the TTL bounds staleness on other nodes.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuthPrincipalCache {
+
+    private final JwtUtil jwt;
+    private final AdminRepository admins;
+
+    @Value("${app.auth.admin-cache-ttl:PT30S}")
+    private Duration adminTtl = Duration.ofSeconds(30);
+
+    @Value("${app.auth.token-cache.max-entries:20000}")
+    private int maxTokens = 20000;
+
+    @Value("${app.auth.admin-cache.max-entries:1000}")
+    private int maxAdmins = 1000;
+
+    Clock clock = Clock.systemUTC();
+
+    private final Map<String, JwtUtil.VerifiedToken> tokens = new ConcurrentHashMap<>();
+    private final Map<String, AdminPrincipal> adminsByName = new ConcurrentHashMap<>();
+
+    /** Cached admin lookup; {@code name} is null when no active admin has that name. */
+    private record AdminPrincipal(String name, Instant cachedUntil) {}
+
+    /**
+     * Subject of a valid token. Throws (like {@link JwtUtil#verify}) for an invalid or expired token;
+     * only successfully verified tokens are cached.
+     */
+    public String verifiedSubject(String token) {
+        Instant now = clock.instant();
+        JwtUtil.VerifiedToken hit = tokens.get(token);
+        if (hit != null) {
+            if (now.isBefore(hit.expiresAt())) return hit.subject();
+            tokens.remove(token);
+        }
+        JwtUtil.VerifiedToken verified = jwt.verify(token);
+        if (verified.expiresAt() != null) {
+            if (tokens.size() >= maxTokens) tokens.clear();
+            tokens.put(token, verified);
+        }
+        return verified.subject();
+    }
+
+    /** Name of the active admin with this name (as stored), or null if there is none. */
+    public String activeAdminName(String subject) {
+        Instant now = clock.instant();
+        AdminPrincipal hit = adminsByName.get(subject);
+        if (hit != null && now.isBefore(hit.cachedUntil())) return hit.name();
+
+        Admin admin = admins.findByName(subject).orElse(null);
+        String name = (admin != null && Boolean.TRUE.equals(admin.getActive())) ? admin.getName() : null;
+        if (adminsByName.size() >= maxAdmins) adminsByName.clear();
+        adminsByName.put(subject, new AdminPrincipal(name, now.plus(adminTtl)));
+        return name;
+    }
+
+    /**
+     * Drops the cached principal for {@code name} now and again once the current transaction commits,
+     * so a request racing the change cannot re-cache the old row.
+     */
+    public void evictAdmin(String name) {
+        if (name == null) return;
+        adminsByName.remove(name);
+        afterCommit(() -> adminsByName.remove(name));
+        log.info("[AUTH][CACHE][EVICT] admin={}", name);
+    }
+
+    /** Drops every cached admin principal (now and after commit). */
+    public void evictAllAdmins() {
+        adminsByName.clear();
+        afterCommit(adminsByName::clear);
+        log.info("[AUTH][CACHE][EVICT] admin=*");
+    }
+
+    private static void afterCommit(Runnable r) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override public void afterCommit() { r.run(); }
+            });
+        }
+    }
+}
@@ -1,7 +1,5 @@
 package com.blossombuds.security;
 
-import com.blossombuds.domain.Admin;
-import com.blossombuds.repository.AdminRepository;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -18,12 +16,14 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 import java.util.List;
 
-/** Reads Bearer token, validates it, and sets ROLE_ADMIN or ROLE_CUSTOMER based on JWT subject format. */
+/**
+ * Reads Bearer token, validates it, and sets ROLE_ADMIN or ROLE_CUSTOMER based on JWT subject format.
+ * Signature checks and admin lookups go through {@link AuthPrincipalCache}.
+ */
 @Configuration
 @RequiredArgsConstructor
 public class JwtAuthFilter extends OncePerRequestFilter {
-    private final JwtUtil jwt;
-    private final AdminRepository admins;
+    private final AuthPrincipalCache principals;
 
     @Override
     protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
@@ -33,7 +33,7 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         if (StringUtils.hasText(header) && header.startsWith("Bearer ")) {
             String token = header.substring(7);
             try {
-                String subject = jwt.validateAndGetSubject(token);
+                String subject = principals.verifiedSubject(token);
                 UsernamePasswordAuthenticationToken auth = null;
 
                 if (subject != null && subject.startsWith("cust:")) {
@@ -42,10 +42,10 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                             subject, null, List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER")));
                 } else if (subject != null) {
                     // Otherwise, treat subject as admin username
-                    Admin admin = admins.findByName(subject).orElse(null);
-                    if (admin != null && Boolean.TRUE.equals(admin.getActive())) {
+                    String adminName = principals.activeAdminName(subject);
+                    if (adminName != null) {
                         auth = new UsernamePasswordAuthenticationToken(
-                                admin.getName(), null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+                                adminName, null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
                     }
                 }
 
@@ -1,5 +1,6 @@
 package com.blossombuds.security;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -77,11 +78,20 @@ public class JwtUtil {
 
     /** Validate a token and return the subject (username). */
     public String validateAndGetSubject(String token) {
-        return Jwts.parserBuilder()
+        return verify(token).subject();
+    }
+
+    /** Subject and expiry of a token whose signature and expiry have been checked. */
+    public record VerifiedToken(String subject, Instant expiresAt) {}
+
+    /** Validate a token (signature + expiry); throws a {@code JwtException} if it is not valid. */
+    public VerifiedToken verify(String token) {
+        Claims body = Jwts.parserBuilder()
                 .setSigningKey(key)
                 .build()
                 .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+                .getBody();
+        Date exp = body.getExpiration();
+        return new VerifiedToken(body.getSubject(), exp == null ? null : exp.toInstant());
     }
 }
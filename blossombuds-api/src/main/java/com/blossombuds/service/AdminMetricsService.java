@@ -4,6 +4,7 @@ import com.blossombuds.repository.MetricsRepo;
 import com.blossombuds.dto.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.*;
@@ -17,8 +18,16 @@ import static java.time.temporal.ChronoUnit.DAYS;
 public class AdminMetricsService {
 
     private final MetricsRepo metricsRepo;
+    private final MetricsRollupService rollups;
     private static final ZoneId BIZ_ZONE = ZoneId.of("Asia/Kolkata");
 
+    @Value("${app.metrics.summary.ttl:PT30S}")
+    private Duration summaryTtl;
+
+    private record CachedSummary(MetricsSummary value, long expiresAtNanos) {}
+    private final Object summaryLock = new Object();
+    private volatile CachedSummary cachedSummary;
+
     private OffsetDateTime nowUtc() {
         return OffsetDateTime.now(ZoneOffset.UTC);
     }
@@ -57,96 +66,78 @@ public class AdminMetricsService {
 
         return startPrevLocal.toInstant().atOffset(ZoneOffset.UTC);
     }
+    /**
+     * Dashboard summary. All buckets come from one aggregate query ({@link MetricsRepo#_summaryRaw});
+     * the result is memoized for {@code app.metrics.summary.ttl} so a dashboard left open (or several
+     * admins) does not re-run it on every poll.
+     */
     public MetricsSummary buildSummary() {
+        CachedSummary c = cachedSummary;
+        if (c != null && System.nanoTime() - c.expiresAtNanos() < 0) return c.value();
+
+        synchronized (summaryLock) {
+            c = cachedSummary;
+            if (c != null && System.nanoTime() - c.expiresAtNanos() < 0) return c.value();
+
+            MetricsSummary fresh = loadSummary();
+            cachedSummary = new CachedSummary(fresh, System.nanoTime() + summaryTtl.toNanos());
+            return fresh;
+        }
+    }
+
+    private MetricsSummary loadSummary() {
         log.info("📊 Building admin metrics summary (calendar-based, IST)");
 
         OffsetDateTime now = nowUtc();
 
-        OffsetDateTime dayStart = startOfThisUtc("day");
-        OffsetDateTime weekStart = startOfThisUtc("week");
-        OffsetDateTime monthStart = startOfThisUtc("month");
-        OffsetDateTime yearStart = startOfThisUtc("year");
-
-        OffsetDateTime prevDayStart = startOfPrevUtc("day");
-        OffsetDateTime prevWeekStart = startOfPrevUtc("week");
-        OffsetDateTime prevMonthStart = startOfPrevUtc("month");
-        OffsetDateTime prevYearStart = startOfPrevUtc("year");
-
-        long ordersTotal = metricsRepo.countOrders(null, null);
-        long ordersDaily = metricsRepo.countOrders(dayStart, now);
-        long ordersWeekly = metricsRepo.countOrders(weekStart, now);
-        long ordersMonthly = metricsRepo.countOrders(monthStart, now);
-        long ordersYearly = metricsRepo.countOrders(yearStart, now);
-
-        long ordersPrevDaily = metricsRepo.countOrders(prevDayStart, dayStart);
-        long ordersPrevWeekly = metricsRepo.countOrders(prevWeekStart, weekStart);
-        long ordersPrevMonthly = metricsRepo.countOrders(prevMonthStart, monthStart);
-        long ordersPrevYearly = metricsRepo.countOrders(prevYearStart, yearStart);
-
-        long revTotal = metricsRepo.sumRevenue(null, null);
-        long revDaily = metricsRepo.sumRevenue(dayStart, now);
-        long revWeekly = metricsRepo.sumRevenue(weekStart, now);
-        long revMonthly = metricsRepo.sumRevenue(monthStart, now);
-        long revYearly = metricsRepo.sumRevenue(yearStart, now);
-
-        long revPrevDaily = metricsRepo.sumRevenue(prevDayStart, dayStart);
-        long revPrevWeekly = metricsRepo.sumRevenue(prevWeekStart, weekStart);
-        long revPrevMonthly = metricsRepo.sumRevenue(prevMonthStart, monthStart);
-        long revPrevYearly = metricsRepo.sumRevenue(prevYearStart, yearStart);
-
-        long shipTotal = metricsRepo.sumShipping(null, null);
-        long shipDaily = metricsRepo.sumShipping(dayStart, now);
-        long shipWeekly = metricsRepo.sumShipping(weekStart, now);
-        long shipMonthly = metricsRepo.sumShipping(monthStart, now);
-        long shipYearly  = metricsRepo.sumShipping(yearStart, now);
-
-        long shipPrevDaily = metricsRepo.sumShipping(prevDayStart, dayStart);
-        long shipPrevWeekly = metricsRepo.sumShipping(prevWeekStart, weekStart);
-        long shipPrevMonthly = metricsRepo.sumShipping(prevMonthStart, monthStart);
-        long shipPrevYearly  = metricsRepo.sumShipping(prevYearStart, yearStart);
-
-        long shipMax = metricsRepo.maxShippingMonth(yearStart, null);
-
-        long prodTotal = metricsRepo.countProducts();
-        long custTotal = metricsRepo.countCustomers();
-
-        long custDaily = metricsRepo.countNewCustomers(dayStart, now);
-        long custWeekly = metricsRepo.countNewCustomers(weekStart, now);
-        long custMonthly = metricsRepo.countNewCustomers(monthStart, now);
-        long custYearly = metricsRepo.countNewCustomers(yearStart, now);
-
-        long custPrevDaily = metricsRepo.countNewCustomers(prevDayStart, dayStart);
-        long custPrevWeekly = metricsRepo.countNewCustomers(prevWeekStart, weekStart);
-        long custPrevMonthly = metricsRepo.countNewCustomers(prevMonthStart, monthStart);
-        long custPrevYearly = metricsRepo.countNewCustomers(prevYearStart, yearStart);
+        List<Object[]> rows = metricsRepo._summaryRaw(
+                now,
+                startOfThisUtc("day"), startOfThisUtc("week"), startOfThisUtc("month"), startOfThisUtc("year"),
+                startOfPrevUtc("day"), startOfPrevUtc("week"), startOfPrevUtc("month"), startOfPrevUtc("year"));
+        Object[] r = rows.isEmpty() ? new Object[MetricsRepo.SummaryCol.CUSTOMERS + 9] : rows.get(0);
+
+        int o = MetricsRepo.SummaryCol.ORDERS;
+        int rv = MetricsRepo.SummaryCol.REVENUE;
+        int sh = MetricsRepo.SummaryCol.SHIPPING;
+        int cu = MetricsRepo.SummaryCol.CUSTOMERS;
+        long custTotal = num(r, cu);
 
         return MetricsSummary.builder()
                 .orders(MetricsSummary.Section.builder()
-                        .total(ordersTotal).daily(ordersDaily).weekly(ordersWeekly).monthly(ordersMonthly).yearly(ordersYearly)
-                        .prevDaily(ordersPrevDaily).prevWeekly(ordersPrevWeekly).prevMonthly(ordersPrevMonthly).prevYearly(ordersPrevYearly)
+                        .total(num(r, o)).daily(num(r, o + 1)).weekly(num(r, o + 2)).monthly(num(r, o + 3)).yearly(num(r, o + 4))
+                        .prevDaily(num(r, o + 5)).prevWeekly(num(r, o + 6)).prevMonthly(num(r, o + 7)).prevYearly(num(r, o + 8))
                         .build())
                 .revenue(MetricsSummary.Section.builder()
-                        .total(revTotal).daily(revDaily).weekly(revWeekly).monthly(revMonthly).yearly(revYearly)
-                        .prevDaily(revPrevDaily).prevWeekly(revPrevWeekly).prevMonthly(revPrevMonthly).prevYearly(revPrevYearly)
+                        .total(num(r, rv)).daily(num(r, rv + 1)).weekly(num(r, rv + 2)).monthly(num(r, rv + 3)).yearly(num(r, rv + 4))
+                        .prevDaily(num(r, rv + 5)).prevWeekly(num(r, rv + 6)).prevMonthly(num(r, rv + 7)).prevYearly(num(r, rv + 8))
                         .build())
                 .shipping(MetricsSummary.Shipping.builder()
-                        .total(shipTotal).daily(shipDaily).weekly(shipWeekly).monthly(shipMonthly).yearly(shipYearly)
-                        .prevDaily(shipPrevDaily).prevWeekly(shipPrevWeekly).prevMonthly(shipPrevMonthly).prevYearly(shipPrevYearly)
-                        .max(shipMax)
+                        .total(num(r, sh)).daily(num(r, sh + 1)).weekly(num(r, sh + 2)).monthly(num(r, sh + 3)).yearly(num(r, sh + 4))
+                        .prevDaily(num(r, sh + 5)).prevWeekly(num(r, sh + 6)).prevMonthly(num(r, sh + 7)).prevYearly(num(r, sh + 8))
+                        .max(num(r, MetricsRepo.SummaryCol.SHIPPING_MAX))
                         .build())
-                .products(MetricsSummary.Products.builder().total(prodTotal).build())
+                .products(MetricsSummary.Products.builder().total(num(r, MetricsRepo.SummaryCol.PRODUCTS_TOTAL)).build())
                 .customers(MetricsSummary.Customers.builder()
                         .total(custTotal)
-                        .daily(custDaily).weekly(custWeekly).monthly(custMonthly).yearly(custYearly)
-                        .prevDaily(custPrevDaily).prevWeekly(custPrevWeekly).prevMonthly(custPrevMonthly).prevYearly(custPrevYearly)
+                        .daily(num(r, cu + 1)).weekly(num(r, cu + 2)).monthly(num(r, cu + 3)).yearly(num(r, cu + 4))
+                        .prevDaily(num(r, cu + 5)).prevWeekly(num(r, cu + 6)).prevMonthly(num(r, cu + 7)).prevYearly(num(r, cu + 8))
                         .max(custTotal)
                         .build())
                 .build();
     }
 
+    private static long num(Object[] row, int i) {
+        return (i < row.length && row[i] instanceof Number n) ? n.longValue() : 0L;
+    }
+
     public List<TrendPoint> trend(String range) {
         log.info("📈 Fetching trend data for range: {}", range);
-        return switch (range.toLowerCase()) {
+        String r = range.toLowerCase();
+        // "daily" is hourly buckets of today, which the per-day rollup cannot answer
+        if (rollups.isReady() && (r.equals("weekly") || r.equals("monthly") || r.equals("yearly"))) {
+            return metricsRepo.rollupTrend(r);
+        }
+        return switch (r) {
             case "weekly"  -> metricsRepo.ordersRevenueByWeek(12);
             case "monthly" -> metricsRepo.ordersRevenueByMonth(12);
             case "yearly"  -> metricsRepo.ordersRevenueByYear(5);
@@ -156,11 +147,13 @@ public class AdminMetricsService {
 
     public List<LabeledValue> shipping12m() {
         log.info("📦 Fetching shipping cost trend (12 months)");
+        if (rollups.isReady()) return metricsRepo.toLabeledValues(metricsRepo._rollupShippingByMonth());
         return metricsRepo.shippingCostByMonth(12);
     }
 
     public List<LabeledValue> customers12m() {
         log.info("👥 Fetching new customer trend (12 months)");
+        if (rollups.isReady()) return metricsRepo.toLabeledValues(metricsRepo._rollupNewCustomersByMonth());
         return metricsRepo.newCustomersByMonth(12);
     }
 
@@ -175,6 +168,11 @@ public class AdminMetricsService {
         };
     }
 
+    /** IST calendar day of an IST day-start instant (the rollup key). */
+    private static LocalDate bizDay(OffsetDateTime istDayStartUtc) {
+        return istDayStartUtc.atZoneSameInstant(BIZ_ZONE).toLocalDate();
+    }
+
     private OffsetDateTime startOfRange(String bucket) {
         String b = normalizeBucket(bucket);
         return startOfThisUtc(b); // ✅ IST calendar start converted to UTC
@@ -183,12 +181,18 @@ public class AdminMetricsService {
     public List<LabeledValue> topProducts(String range, int limit) {
         OffsetDateTime start = startOfRange(range);
         log.info("🏆 Fetching top {} products since {} (range={})", limit, start, range);
+        if (rollups.isReady()) {
+            return metricsRepo.toLabeledValues(metricsRepo._rollupTopProductsSince(bizDay(start), limit));
+        }
         return metricsRepo.topProductsSince(start, limit);
     }
 
     public List<LabeledValue> topCategories(String range, int limit) {
         OffsetDateTime start = startOfRange(range);
         log.info("📚 Fetching top {} categories since {} (range={})", limit, start, range);
+        if (rollups.isReady()) {
+            return metricsRepo.toLabeledValues(metricsRepo._rollupTopCategoriesSince(bizDay(start), limit));
+        }
         return metricsRepo.topCategoriesSince(start, limit);
     }
 }
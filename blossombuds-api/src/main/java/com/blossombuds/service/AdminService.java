@@ -3,6 +3,7 @@ package com.blossombuds.service;
 import com.blossombuds.domain.Admin;
 import com.blossombuds.dto.AdminDto;
 import com.blossombuds.repository.AdminRepository;
+import com.blossombuds.security.AuthPrincipalCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -21,6 +22,7 @@ import java.util.List;
 public class AdminService {
 
     private final AdminRepository adminRepo;
+    private final AuthPrincipalCache principals;
 
     /** Creates a new admin using the provided DTO and password hash. */
     @Transactional
@@ -43,6 +45,7 @@ public class AdminService {
         //a.setCreatedBy(actor);
         //a.setCreatedAt(OffsetDateTime.now());
         Admin saved = adminRepo.save(a);
+        principals.evictAdmin(saved.getName()); // may have been cached as "no such admin"
         log.debug("✅ Admin created: id={}, username={}", saved.getId(), saved.getName());
         return saved;
     }
@@ -59,11 +62,13 @@ public class AdminService {
             throw new IllegalArgumentException("AdminDto is required");
         }
         Admin a = get(adminId);
+        principals.evictAdmin(a.getName());
         if (dto.getUsername() != null) a.setName(dto.getUsername());
         if (dto.getEmail() != null) a.setEmail(dto.getEmail());
         //if (dto.getDisplayName() != null) a.setDisplayName(dto.getDisplayName());
         //if (dto.getEnabled() != null) a.setEnabled(dto.getEnabled());
         if (dto.getActive() != null) a.setActive(dto.getActive());
+        principals.evictAdmin(a.getName());
         //a.setModifiedBy(actor);
         //a.setModifiedAt(OffsetDateTime.now());
         log.debug("🔄 Admin updated: id={}, updatedBy={}", adminId, actor);
@@ -113,6 +118,7 @@ public class AdminService {
         }
         Admin a = get(adminId);
         a.setActive(active);
+        principals.evictAdmin(a.getName());
         //a.setModifiedBy(actor);
         //a.setModifiedAt(OffsetDateTime.now());
         return a;
@@ -143,5 +149,6 @@ public class AdminService {
         log.warn("🗑️ Deleting admin id={}", adminId);
         if (adminId == null) throw new IllegalArgumentException("adminId is required");
         adminRepo.deleteById(adminId);
+        principals.evictAllAdmins();
     }
 }
@@ -0,0 +1,208 @@
+package com.blossombuds.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Write-behind persistence of campaign recipient status transitions, replacing two JPA saves per
+ * recipient with set-based SQL:
+ * <ul>
+ *   <li>{@link #claim} moves a chunk of PENDING rows to SENDING in one {@code UPDATE ... WHERE id = ANY(?)}
+ *       and returns only the ids it actually claimed, so two overlapping runs never send the same row.</li>
+ *   <li>{@link #recordResult} buffers the SENT/FAILED outcome; buffers are written with JDBC batch
+ *       updates once they reach {@code app.campaign.state-writer.batch-size}, on {@link #flush}, and by a
+ *       short timer. Delivery webhooks are matched on the provider message id written here; the
+ *       {@link WhatsAppWebhookInbox} holds each webhook back for longer than the flush interval, so a
+ *       status never reaches a row whose id is still only in this buffer.</li>
+ * </ul>
+ * A write that fails puts its results back at the front of the buffer, so the next flush retries them
+ * instead of leaving the rows in SENDING (which recovery would turn into a second send).
+ * Crash safety is unchanged in kind: a row is SENDING in the database before its message goes out,
+ * and startup recovery turns SENDING back into PENDING. Result writes only apply to rows still in
+ * SENDING, so a delivery webhook that already advanced a row is never overwritten.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CampaignRecipientStateWriter {
+
+    /** Recipient tables this writer knows about. */
+    public enum Channel {
+        WHATSAPP("whatsapp_campaign_recipients", true),
+        EMAIL("email_campaign_recipients", false);
+
+        private final String table;
+        /** WhatsApp rows also carry queued_at and provider_message_id. */
+        private final boolean whatsapp;
+
+        Channel(String table, boolean whatsapp) {
+            this.table = table;
+            this.whatsapp = whatsapp;
+        }
+    }
+
+    /** Final outcome of one send. {@code providerMessageId} is only used for WhatsApp. */
+    public record RecipientResult(Long id, boolean success, String providerMessageId, String errorMessage,
+                                  OffsetDateTime at) {}
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.campaign.state-writer.batch-size:100}")
+    private int batchSize = 100;
+
+    private final Map<Channel, List<RecipientResult>> buffers = new EnumMap<>(Channel.class);
+
+    /** Claims PENDING rows for sending; returns the ids that were PENDING and are now SENDING. */
+    public List<Long> claim(Channel channel, Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) return List.of();
+        String sql = "update " + channel.table
+                + " set status = 'SENDING', modified_by = 'system', modified_at = now()"
+                + (channel.whatsapp ? ", queued_at = now()" : "")
+                + " where id = any(?) and status = 'PENDING' and active = true"
+                + " returning id";
+        Long[] arr = ids.toArray(new Long[0]);
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("bigint", arr));
+            return ps;
+        }, (rs, i) -> rs.getLong(1));
+    }
+
+    /**
+     * Hands claimed rows that were never sent back to PENDING (e.g. after an interrupted dispatch), so
+     * the next send of the campaign picks them up. Only rows still SENDING are touched; returns how many.
+     */
+    public int release(Channel channel, Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) return 0;
+        String sql = "update " + channel.table
+                + " set status = 'PENDING', modified_by = 'system', modified_at = now()"
+                + " where id = any(?) and status = 'SENDING'";
+        Long[] arr = ids.toArray(new Long[0]);
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("bigint", arr));
+            return ps;
+        });
+    }
+
+    /** Buffers a final status; written once the buffer fills or on the next flush. */
+    public void recordResult(Channel channel, RecipientResult result) {
+        List<RecipientResult> toWrite = null;
+        synchronized (buffers) {
+            List<RecipientResult> buf = buffers.computeIfAbsent(channel, c -> new ArrayList<>());
+            buf.add(result);
+            if (buf.size() >= Math.max(1, batchSize)) {
+                toWrite = buf;
+                buffers.put(channel, new ArrayList<>());
+            }
+        }
+        if (toWrite != null) writeOrRequeue(channel, toWrite);
+    }
+
+    /**
+     * Writes everything buffered for the channel (call before reading counts back). Throws if the write
+     * fails; the results stay buffered for the next attempt.
+     */
+    public void flush(Channel channel) {
+        List<RecipientResult> toWrite;
+        synchronized (buffers) {
+            toWrite = buffers.remove(channel);
+        }
+        if (toWrite == null || toWrite.isEmpty()) return;
+        try {
+            write(channel, toWrite);
+        } catch (RuntimeException e) {
+            requeue(channel, toWrite);
+            throw e;
+        }
+    }
+
+    /**
+     * Keeps buffered results from lingering between batches. Must stay well below
+     * {@code app.whatsapp.webhook.inbox.min-age-ms} so webhooks find the provider ids.
+     */
+    @Scheduled(fixedDelayString = "${app.campaign.state-writer.flush-interval-ms:1000}")
+    public void flushAll() {
+        for (Channel c : Channel.values()) {
+            try {
+                flush(c);
+            } catch (Exception e) {
+                log.warn("[CAMPAIGN][STATE][FLUSH][FAIL] channel={} err={}", c, e.toString());
+            }
+        }
+    }
+
+    /** Number of results waiting to be written for the channel. */
+    int buffered(Channel channel) {
+        synchronized (buffers) {
+            List<RecipientResult> buf = buffers.get(channel);
+            return buf == null ? 0 : buf.size();
+        }
+    }
+
+    /** Writes now; on failure keeps the results for the next flush instead of failing the send loop. */
+    private void writeOrRequeue(Channel channel, List<RecipientResult> results) {
+        try {
+            write(channel, results);
+        } catch (RuntimeException e) {
+            requeue(channel, results);
+        }
+    }
+
+    /** Puts results back ahead of anything buffered since, preserving their order. */
+    private void requeue(Channel channel, List<RecipientResult> results) {
+        synchronized (buffers) {
+            List<RecipientResult> merged = new ArrayList<>(results);
+            List<RecipientResult> current = buffers.get(channel);
+            if (current != null) merged.addAll(current);
+            buffers.put(channel, merged);
+        }
+        log.warn("[CAMPAIGN][STATE][REQUEUE] channel={} rows={}", channel, results.size());
+    }
+
+    private void write(Channel channel, List<RecipientResult> results) {
+        String sql = channel.whatsapp
+                ? "update " + channel.table + " set status = ?, provider_message_id = coalesce(?, provider_message_id),"
+                  + " error_message = ?, sent_at = coalesce(?, sent_at), failed_at = coalesce(?, failed_at),"
+                  + " modified_by = 'system', modified_at = now() where id = ? and status = 'SENDING'"
+                : "update " + channel.table + " set status = ?,"
+                  + " error_message = ?, sent_at = coalesce(?, sent_at), failed_at = coalesce(?, failed_at),"
+                  + " modified_by = 'system', modified_at = now() where id = ? and status = 'SENDING'";
+
+        List<Object[]> args = new ArrayList<>(results.size());
+        for (RecipientResult r : results) {
+            Timestamp at = Timestamp.from((r.at() == null ? OffsetDateTime.now() : r.at()).toInstant());
+            Timestamp sentAt = r.success() ? at : null;
+            Timestamp failedAt = r.success() ? null : at;
+            String status = r.success() ? "SENT" : "FAILED";
+            String error = r.success() ? null : r.errorMessage();
+            args.add(channel.whatsapp
+                    ? new Object[]{status, r.providerMessageId(), error, sentAt, failedAt, r.id()}
+                    : new Object[]{status, error, sentAt, failedAt, r.id()});
+        }
+
+        long t0 = System.currentTimeMillis();
+        try {
+            jdbcTemplate.batchUpdate(sql, args);
+            log.debug("[CAMPAIGN][STATE][WRITE] channel={} rows={} tookMs={}",
+                    channel, results.size(), System.currentTimeMillis() - t0);
+        } catch (RuntimeException e) {
+            // Callers requeue the results; until a retry lands the rows stay SENDING.
+            log.error("[CAMPAIGN][STATE][WRITE][FAIL] channel={} rows={} err={}", channel, results.size(), e.toString());
+            throw e;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.blossombuds.service;
 
 import com.amazonaws.services.s3.model.*;
+import com.blossombuds.cache.CatalogCacheDependencies;
 import com.blossombuds.domain.*;
 import com.blossombuds.dto.*;
 import com.blossombuds.repository.*;
@@ -17,6 +18,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;                  // ← added
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.multipart.MultipartFile;
@@ -65,6 +67,12 @@ public class CatalogService {
     private final ProductOptionValueRepository valueRepo;
     private final GlobalSaleConfigRepository globalSaleRepo;
     private final BackInStockService backInStockService;
+    private final PricingEpochService pricingEpoch;
+    private final CatalogCacheDependencies cacheDeps;
+    private final SignedUrlService signedUrls;
+    private final SearchSuggestService suggestIndex;
+    private final ProductImagePipeline imagePipeline;
+    private final ProductImageVariantService imageVariants;
     private static final String CATEGORIES = "catalog.categories";
     private static final String PRODUCT_BY_ID = "catalog.productById";
     private static final String PRODUCTS_PAGE = "catalog.products.page";
@@ -162,6 +170,7 @@ public class CatalogService {
         }
         c.setSortOrder(dto.getSortOrder() != null ? dto.getSortOrder() : 0);
         Category saved = categoryRepo.save(c);
+        suggestIndex.putCategoryAfterCommit(saved);
         log.info("[CATEGORY][CREATE][OK] id={} slug='{}'", saved.getId(), saved.getSlug());
         return toDto(saved);
     }
@@ -262,6 +271,7 @@ public class CatalogService {
         if (dto.getSortOrder() != null) {
             c.setSortOrder(dto.getSortOrder());
         }
+        suggestIndex.putCategoryAfterCommit(c);
         log.info("[CATEGORY][UPDATE][OK] id={}", id);
         return toDto(c); // dirty checking
     }
@@ -288,6 +298,7 @@ public class CatalogService {
         if (id == null) throw new IllegalArgumentException("Category id is required");
         categoryRepo.findById(id).ifPresent(category -> {
             categoryRepo.delete(category);
+            suggestIndex.removeCategoryAfterCommit(id);
             log.info("[CATEGORY][DELETE][OK] id={}", id);
         });
     }
@@ -328,6 +339,7 @@ public class CatalogService {
 
         p.setActive(dto.getActive() != null ? dto.getActive() : Boolean.TRUE);
         Product saved = productRepo.save(p);
+        suggestIndex.putProductAfterCommit(saved);
         log.info("[PRODUCT][CREATE][OK] id={} visible={} featured={}", saved.getId(), saved.getVisible(), saved.getFeatured());
         return toDto(saved);
     }
@@ -352,11 +364,11 @@ public class CatalogService {
         return opt.get();
     }
 
-    /** Updates a product’s mutable fields. */
-    @Caching(evict = {
-            @CacheEvict(cacheNames = PRODUCT_BY_ID, allEntries = true),
-            @CacheEvict(cacheNames = {PRODUCTS_PAGE, PRODUCTS_BY_CATEGORY, FEATURED_PAGE, FEATURED_TOP, NEW_ARRIVALS}, allEntries = true)
-    })
+    /**
+     * Updates a product’s mutable fields.
+     * Cache eviction is targeted: only cached pages containing this product are dropped, unless the
+     * change affects list membership (active/featured) or ordering (name/price).
+     */
     @Transactional
     @PreAuthorize("hasRole('ADMIN')")
     public ProductDto updateProduct(Long id, ProductDto dto) {
@@ -364,6 +376,10 @@ public class CatalogService {
         if (id == null) throw new IllegalArgumentException("Product id is required");
         if (dto == null) throw new IllegalArgumentException("ProductDto is required");
         Product p = getProduct(id);
+        Boolean activeBefore = p.getActive();
+        Boolean featuredBefore = p.getFeatured();
+        String nameBefore = p.getName();
+        BigDecimal priceBefore = p.getPrice();
         if (dto.getSlug() != null) {
             String normalized = slugify(dto.getSlug());
             if (!normalized.equalsIgnoreCase(p.getSlug())) {
@@ -398,6 +414,20 @@ public class CatalogService {
 
         if (dto.getActive() != null) p.setActive(dto.getActive());
         backInStockService.notifySubscribersIfBackInStock(p, wasInStockBeforeUpdate);
+
+        if (!Objects.equals(activeBefore, p.getActive())) {
+            cacheDeps.clearAfterCommit(PRODUCTS_PAGE, PRODUCTS_BY_CATEGORY, FEATURED_PAGE, FEATURED_TOP, NEW_ARRIVALS);
+        } else {
+            if (!Objects.equals(featuredBefore, p.getFeatured())) {
+                cacheDeps.clearAfterCommit(FEATURED_PAGE, FEATURED_TOP);
+            }
+            // PRODUCTS_PAGE accepts an arbitrary sort column, so name/price changes can reorder it
+            if (!Objects.equals(nameBefore, p.getName()) || !Objects.equals(priceBefore, p.getPrice())) {
+                cacheDeps.clearAfterCommit(PRODUCTS_PAGE);
+            }
+        }
+        evictProductCaches(id);
+        suggestIndex.putProductAfterCommit(p);
         log.info("[PRODUCT][UPDATE][OK] id={}", id);
         return toDto(p); // dirty checking
     }
@@ -413,6 +443,7 @@ public class CatalogService {
         log.info("[PRODUCT][DELETE] id={}", id);
         if (id == null) throw new IllegalArgumentException("Product id is required");
         productRepo.findById(id).ifPresent(prod -> {
+            suggestIndex.removeProductAfterCommit(id); // reads the product's option values, so before the delete
             productRepo.delete(prod);
             log.info("[PRODUCT][DELETE][OK] id={}", id);
         });
@@ -450,13 +481,7 @@ public class CatalogService {
 
     // ─────────────────────── Product ↔ Category links ────────────────────────
 
-    /** Links a product to a category (idempotent). */
-    @Caching(evict = {
-            @CacheEvict(cacheNames = PRODUCTS_BY_CATEGORY, allEntries = true),
-            @CacheEvict(cacheNames = PRODUCTS_PAGE, allEntries = true),
-            @CacheEvict(cacheNames = PRODUCT_BY_ID, allEntries = true)
-    })
-
+    /** Links a product to a category (idempotent); evicts only that category's cached listings. */
     @Transactional
     @PreAuthorize("hasRole('ADMIN')")
     public void linkProductToCategory(Long productId, Long categoryId) {
@@ -466,6 +491,8 @@ public class CatalogService {
         }
 
         var existing = linkRepo.findAnyLink(productId, categoryId);
+        evictProductCaches(productId);
+        cacheDeps.evictCategoryAfterCommit(categoryId);
 
         if (existing.isPresent()) {
             ProductCategory link = existing.get();
@@ -487,12 +514,7 @@ public class CatalogService {
         log.info("[LINK][PRODUCT_CATEGORY][OK] productId={} categoryId={}", productId, categoryId);
     }
 
-    @Caching(evict = {
-            @CacheEvict(cacheNames = PRODUCTS_BY_CATEGORY, allEntries = true),
-            @CacheEvict(cacheNames = PRODUCTS_PAGE, allEntries = true),
-            @CacheEvict(cacheNames = PRODUCT_BY_ID, allEntries = true)
-    })
-
+    /** Deactivates a product/category link; evicts only that category's cached listings. */
     @Transactional
     @PreAuthorize("hasRole('ADMIN')")
     public void unlinkProductFromCategory(Long productId, Long categoryId) {
@@ -500,6 +522,8 @@ public class CatalogService {
         if (productId == null || categoryId == null) {
             throw new IllegalArgumentException("productId and categoryId are required");
         }
+        evictProductCaches(productId);
+        cacheDeps.evictCategoryAfterCommit(categoryId);
         linkRepo.findAnyLink(productId, categoryId)
                 .ifPresent(link -> {
                     link.setActive(false);
@@ -522,8 +546,11 @@ public class CatalogService {
 
     // ───────────────── addProductImage (REPLACE) ─────────────────
 
-    @CacheEvict(cacheNames = PRODUCT_BY_ID, allEntries = true)
-    @Transactional
+    /**
+     * Processes the upload on the image pipeline and only then writes the row, so the request holds
+     * no database connection while the image is decoded, watermarked, encoded and uploaded.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     @PreAuthorize("hasRole('ADMIN')")
     public ProductImage addProductImage(Long productId, MultipartFile file, String altText, Integer sortOrder)
             throws IOException {
@@ -543,60 +570,153 @@ public class CatalogService {
         // Basic size/type validation (no HEIC now)
         validateFile(file);
 
-        // 1) Decode using pure Java
-        BufferedImage original;
-        try (InputStream in = file.getInputStream()) {
-            original = ImageIO.read(in);
+        byte[] source = file.getBytes();
+        ProcessedImage processed = imagePipeline.run(() -> processAndUpload(source, false));
+
+        ProductImage saved = saveNewImage(productId, processed, r2Url(processed.key()), altText, sortOrder);
+        evictProductCaches(productId);
+        log.info("[IMAGE][ADD][OK] id={} productId={} elapsedMs={}",
+                saved.getId(), productId, Duration.between(t0, Instant.now()).toMillis());
+
+        return saved;
+    }
+
+    /**
+     * Queues an upload and returns at once; poll {@link #getImageJob} for the outcome.
+     * Same processing as {@link #addProductImage}, for bulk uploads from the admin UI.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ProductImageJobDto submitProductImageJob(Long productId, MultipartFile file, String altText, Integer sortOrder)
+            throws IOException {
+        if (productId == null) throw new IllegalArgumentException("productId is required");
+        if (file == null || file.isEmpty()) throw new IllegalArgumentException("File cannot be null or empty");
+        validateFile(file);
+        if (!productRepo.existsById(productId)) throw new IllegalArgumentException("Product not found: " + productId);
+
+        byte[] source = file.getBytes();
+        ProductImageJob job = imagePipeline.submit(productId, null, () -> {
+            ProcessedImage processed = processAndUpload(source, false);
+            ProductImage saved = saveNewImage(productId, processed, r2Url(processed.key()), altText, sortOrder);
+            evictProductCaches(productId);
+            return saved.getId();
+        });
+        return toJobDto(job, null);
+    }
+
+    /** Queued variant of {@link #createImageFromTempKey}. */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ProductImageJobDto submitImageJobFromTempKey(Long productId, String tempKey, String altText, Integer sortOrder) {
+        if (productId == null || tempKey == null || tempKey.isBlank())
+            throw new IllegalArgumentException("productId and key are required");
+        if (!productRepo.existsById(productId)) throw new IllegalArgumentException("Product not found: " + productId);
+
+        ProductImageJob job = imagePipeline.submit(productId, null, () -> {
+            ProcessedImage processed = processTempObject(tempKey);
+            ProductImage saved = saveNewImage(productId, processed, null, altText, sortOrder);
+            evictProductCaches(productId);
+            return saved.getId();
+        });
+        return toJobDto(job, null);
+    }
+
+    /** Status of a queued image upload, with the image once DONE. */
+    @PreAuthorize("hasRole('ADMIN')")
+    public ProductImageJobDto getImageJob(Long jobId) {
+        ProductImageJob job = imagePipeline.getJob(jobId);
+        ProductImageDto image = null;
+        if ("DONE".equals(job.getStatus()) && job.getImageId() != null) {
+            image = imageRepo.findById(job.getImageId()).map(this::toResponse).orElse(null);
         }
+        return toJobDto(job, image);
+    }
+
+    private static ProductImageJobDto toJobDto(ProductImageJob job, ProductImageDto image) {
+        ProductImageJobDto dto = new ProductImageJobDto();
+        dto.setId(job.getId());
+        dto.setProductId(job.getProductId());
+        dto.setStatus(job.getStatus());
+        dto.setErrorMessage(job.getErrorMessage());
+        dto.setCreatedAt(job.getCreatedAt());
+        dto.setFinishedAt(job.getFinishedAt());
+        dto.setImage(image);
+        return dto;
+    }
+
+    /** Stored full-size key plus its responsive renditions. */
+    private record ProcessedImage(String key, List<ProductImageVariant> variants) {}
+
+    /**
+     * Decode → fit to MAX_DIM → watermark → JPEG under the size cap → upload to R2, then the smaller
+     * JPEG/WebP variants. CPU-heavy: runs on {@link ProductImagePipeline} threads, never inside a transaction.
+     */
+    private ProcessedImage processAndUpload(byte[] source, boolean tiledTextWatermark) throws IOException {
+        BufferedImage original = ImageIO.read(new ByteArrayInputStream(source));
         if (original == null) {
-            log.warn("[IMAGE][ADD][FAIL] Unsupported image after decode");
+            log.warn("[IMAGE][PROCESS][FAIL] Unsupported image after decode");
             throw new IllegalArgumentException("Uploaded file is not a supported image (JPG, PNG, WebP…).");
         }
 
-        // 2) Resize to MAX_DIM
         BufferedImage resized = ImageUtil.fitWithin(original, ImageUtil.MAX_DIM);
-
-        // 3) Apply watermark (logo if present, else text grid)
-        BufferedImage stamped = watermarkLogoOrText(resized, WATERMARK_IMG, "BLOSSOM BUDS");
-
-        // 4) Compress to JPEG using your existing helper
+        BufferedImage stamped = tiledTextWatermark
+                ? applyTiledTextWatermark(resized, "BLOSSOM BUDS", 0.18f, -25.0, 0.045, 0.22)
+                : watermarkLogoOrText(resized, WATERMARK_IMG, "BLOSSOM BUDS");
         byte[] finalBytes = ImageUtil.toJpegUnderCap(stamped);
-        log.info("[IMAGE][ADD] final JPEG size={} bytes", finalBytes.length);
 
-        // 5) Upload to R2
         String key = "products/" + UUID.randomUUID() + ".jpg";
         ObjectMetadata meta = new ObjectMetadata();
         meta.setContentType("image/jpeg");
         meta.setContentLength(finalBytes.length);
-
         try (InputStream in = new ByteArrayInputStream(finalBytes)) {
             r2Client.putObject(new PutObjectRequest(bucketName, key, in, meta));
         }
+        log.info("[IMAGE][UPLOAD][OK] key='{}' bytes={}", key, finalBytes.length);
 
-        String fileUrl = r2Endpoint + "/" + bucketName + "/" + key;
-        log.info("[IMAGE][ADD][UPLOAD][OK] key={} bytes={}", key, finalBytes.length);
+        try {
+            return new ProcessedImage(key, imageVariants.generate(key, stamped));
+        } catch (IOException | RuntimeException e) {
+            deleteR2ObjectQuietly(key);
+            throw e;
+        }
+    }
+
+    /** Reads a presigned-upload temp object, processes it into a final key and deletes the temp object. */
+    private ProcessedImage processTempObject(String tempKey) throws IOException {
+        byte[] source;
+        S3Object obj = r2Client.getObject(bucketName, tempKey);
+        try (InputStream in = obj.getObjectContent()) {
+            source = in.readAllBytes();
+        }
+        ProcessedImage processed = processAndUpload(source, true);
+
+        try { r2Client.deleteObject(new DeleteObjectRequest(bucketName, tempKey)); } catch (Exception ignored) {
+            log.warn("[IMAGE][CREATE_FROM_TEMP] Could not delete temp key='{}' (ignored)", tempKey);
+        }
+        return processed;
+    }
 
-        // 6) Persist row
+    /** Inserts the image row after its upload succeeded (the repository call is its own short transaction). */
+    private ProductImage saveNewImage(Long productId, ProcessedImage processed, String url, String altText, Integer sortOrder) {
         ProductImage imgRow = new ProductImage();
         imgRow.setProduct(productRepo.getReferenceById(productId));
-        imgRow.setPublicId(key);
-        imgRow.setUrl(fileUrl);
-        imgRow.setWatermarkVariantUrl(fileUrl);
+        imgRow.setPublicId(processed.key());
+        imgRow.setVariants(processed.variants());
+        imgRow.setUrl(url);
+        imgRow.setWatermarkVariantUrl(url);
         imgRow.setAltText(altText);
         imgRow.setSortOrder(sortOrder != null ? sortOrder : 0);
         imgRow.setActive(true);
+        return imageRepo.save(imgRow);
+    }
 
-        ProductImage saved = imageRepo.save(imgRow);
-        log.info("[IMAGE][ADD][OK] id={} productId={} elapsedMs={}",
-                saved.getId(), productId, Duration.between(t0, Instant.now()).toMillis());
-
-        return saved;
+    private String r2Url(String key) {
+        return r2Endpoint + "/" + bucketName + "/" + key;
     }
 
 
     // ──────────────── updateProductImage (REPLACE) ────────────────
-    @CacheEvict(cacheNames = PRODUCT_BY_ID, allEntries = true)
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     @PreAuthorize("hasRole('ADMIN')")
     public ProductImage updateProductImage(ProductImageDto dto, MultipartFile newFile)
             throws IOException {
@@ -621,43 +741,44 @@ public class CatalogService {
         }
 
         // Optional new file → process like addProductImage
+        String oldKey = imgRow.getPublicId();
+        List<ProductImageVariant> oldVariants = imgRow.getVariants();
+        ProcessedImage processed = null;
         if (newFile != null && !newFile.isEmpty()) {
             validateFile(newFile);
 
-            BufferedImage original;
-            try (InputStream in = newFile.getInputStream()) {
-                original = ImageIO.read(in);
-            }
-            if (original == null) {
-                log.warn("[IMAGE][UPDATE][FAIL] Unsupported image after decode");
-                throw new IllegalArgumentException("Uploaded file is not a supported image (JPG, PNG, WebP…).");
-            }
-
-            BufferedImage resized = ImageUtil.fitWithin(original, ImageUtil.MAX_DIM);
-            BufferedImage stamped = watermarkLogoOrText(resized, WATERMARK_IMG, "BLOSSOM BUDS");
-            byte[] finalBytes = ImageUtil.toJpegUnderCap(stamped);
-
-            String key = "products/" + UUID.randomUUID() + ".jpg";
-            ObjectMetadata meta = new ObjectMetadata();
-            meta.setContentType("image/jpeg");
-            meta.setContentLength(finalBytes.length);
+            byte[] source = newFile.getBytes();
+            processed = imagePipeline.run(() -> processAndUpload(source, false));
 
-            try (InputStream in = new ByteArrayInputStream(finalBytes)) {
-                r2Client.putObject(new PutObjectRequest(bucketName, key, in, meta));
-            }
-
-            String url = r2Endpoint + "/" + bucketName + "/" + key;
+            String key = processed.key();
+            String url = r2Url(key);
             imgRow.setPublicId(key);
+            imgRow.setVariants(processed.variants());
             imgRow.setUrl(url);
             imgRow.setWatermarkVariantUrl(url);
-            log.info("[IMAGE][UPDATE][UPLOAD][OK] key='{}' bytes={}", key, finalBytes.length);
+            log.info("[IMAGE][UPDATE][UPLOAD][OK] key='{}'", key);
         }
 
         if (dto.getAltText() != null) imgRow.setAltText(dto.getAltText());
         if (dto.getSortOrder() != null) imgRow.setSortOrder(dto.getSortOrder());
         if (dto.getActive() != null) imgRow.setActive(dto.getActive());
 
-        ProductImage saved = imageRepo.save(imgRow);
+        ProductImage saved;
+        try {
+            saved = imageRepo.save(imgRow);
+        } catch (RuntimeException e) {
+            if (processed != null) {
+                imageVariants.delete(processed.variants(), processed.key());
+                deleteR2ObjectQuietly(processed.key());
+            }
+            throw e;
+        }
+        if (processed != null) {
+            // the row no longer points at the replaced file or its renditions
+            imageVariants.delete(oldVariants, oldKey);
+            deleteR2ObjectQuietly(oldKey);
+        }
+        evictProductCaches(dto.getProductId());
         log.info("[IMAGE][UPDATE][OK] id={} elapsedMs={}",
                 saved.getId(), Duration.between(t0, Instant.now()).toMillis());
         return saved;
@@ -829,8 +950,7 @@ public class CatalogService {
     }
 
     // --- 2) Read temp object, process, upload final, delete temp, persist
-    @CacheEvict(cacheNames = PRODUCT_BY_ID, key = "'id=' + #productId")
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     @PreAuthorize("hasRole('ADMIN')")
     public ProductImageDto createImageFromTempKey(Long productId, String tempKey, String altText, Integer sortOrder)
             throws IOException, InterruptedException {
@@ -838,39 +958,10 @@ public class CatalogService {
         if (productId == null || tempKey == null || tempKey.isBlank())
             throw new IllegalArgumentException("productId and key are required");
 
-        S3Object obj = r2Client.getObject(bucketName, tempKey);
-        BufferedImage original;
-        try (InputStream in = obj.getObjectContent()) {
-            original = javax.imageio.ImageIO.read(in);
-        }
-        if (original == null) {log.warn("[IMAGE][CREATE_FROM_TEMP][FAIL] Unsupported image key='{}'", tempKey);
-            throw new IllegalArgumentException("Uploaded file is not a supported image");
-        }
-        BufferedImage resized  = ImageUtil.fitWithin(original, ImageUtil.MAX_DIM);
-        BufferedImage stamped  = applyTiledTextWatermark(resized, "BLOSSOM BUDS", 0.18f, -25.0, 0.045, 0.22);
-        byte[] jpegBytes       = ImageUtil.toJpegUnderCap(stamped);
+        ProcessedImage processed = imagePipeline.run(() -> processTempObject(tempKey));
 
-        String finalKey = "products/" + UUID.randomUUID() + ".jpg";
-        ObjectMetadata meta = new ObjectMetadata();
-        meta.setContentType("image/jpeg");
-        meta.setContentLength(jpegBytes.length);
-        try (InputStream up = new ByteArrayInputStream(jpegBytes)) {
-            r2Client.putObject(new PutObjectRequest(bucketName, finalKey, up, meta));
-        }
-
-        try { r2Client.deleteObject(new DeleteObjectRequest(bucketName, tempKey)); } catch (Exception ignored) {
-            log.warn("[IMAGE][CREATE_FROM_TEMP] Could not delete temp key='{}' (ignored)", tempKey);
-        }
-        ProductImage img = new ProductImage();
-        img.setProduct(productRepo.getReferenceById(productId));
-        img.setPublicId(finalKey);
-        img.setUrl(null);
-        img.setWatermarkVariantUrl(null);
-        img.setAltText(altText);
-        img.setSortOrder(sortOrder != null ? sortOrder : 0);
-        img.setActive(true);
-
-        ProductImage saved = imageRepo.save(img);
+        ProductImage saved = saveNewImage(productId, processed, null, altText, sortOrder);
+        evictProductCaches(productId);
         return toResponse(saved);
     }
 
@@ -955,13 +1046,9 @@ public class CatalogService {
         return out;
     }
 
-    private String signGetUrl(String key, java.time.Duration ttl) {
-        Date exp = Date.from(Instant.now().plus(ttl));
-        GeneratePresignedUrlRequest req = new GeneratePresignedUrlRequest(bucketName, key)
-                .withMethod(com.amazonaws.HttpMethod.GET)
-                .withExpiration(exp);
-        URL url = r2Client.generatePresignedUrl(req);
-        return url.toString();
+    /** Signed GET URL that stays valid for at least the lifetime of the catalog DTO caches. */
+    private String signGetUrl(String key) {
+        return signedUrls.signGet(key);
     }
 
     public List<ProductImageDto> listProductImageResponses(Long productId) {
@@ -973,13 +1060,30 @@ public class CatalogService {
         log.info("[IMAGE][LIST_RESP][OK] productId={} count={}", productId, out.size());
         return out;
     }
+    /**
+     * Signed URL of the first active image of each product, in one query (order item thumbnails).
+     * Products without an image, or whose key fails to sign, are absent from the map.
+     */
+    public Map<Long, String> primaryImageUrls(Collection<Long> productIds) {
+        if (productIds == null || productIds.isEmpty()) return Map.of();
+        Map<Long, String> urls = new HashMap<>();
+        findPrimaryImages(productIds.stream().filter(Objects::nonNull).distinct().toList()).forEach((productId, img) -> {
+            try {
+                urls.put(productId, signedUrls.signGet(img.getPublicId()));
+            } catch (Exception e) {
+                log.warn("[R2][SIGN][WARN] key={} err={}", img.getPublicId(), e.toString());
+            }
+        });
+        return urls;
+    }
+
     /** Public mapper for product entity to DTO. */
     public ProductDto toProductDto(Product product) {
         return toDto(product);
     }
     public ProductImageDto toResponse(ProductImage img) {
         String key = img.getPublicId();
-        String signed = (key != null) ? signGetUrl(key, java.time.Duration.ofMinutes(30)) : null;
+        String signed = (key != null) ? signGetUrl(key) : null;
 
         ProductImageDto r = new ProductImageDto();
         r.setId(img.getId());
@@ -987,6 +1091,8 @@ public class CatalogService {
         r.setPublicId(key);
         r.setUrl(signed);
         r.setWatermarkVariantUrl(signed);
+        r.setSrcset(imageVariants.srcset(img.getVariants(), ProductImageVariantService.JPG));
+        r.setWebpSrcset(imageVariants.srcset(img.getVariants(), ProductImageVariantService.WEBP));
         r.setAltText(img.getAltText());
         r.setSortOrder(img.getSortOrder());
         r.setActive(img.getActive());
@@ -994,7 +1100,6 @@ public class CatalogService {
     }
 
     /** Soft-deletes a product image (active=false via @SQLDelete). */
-    @CacheEvict(cacheNames = PRODUCT_BY_ID, allEntries = true)
     @Transactional
     @PreAuthorize("hasRole('ADMIN')")
     public void deleteProductImage(Long productId, Long imageId) {
@@ -1009,18 +1114,20 @@ public class CatalogService {
             if (img.getPublicId() != null) {
                 try {
                     r2Client.deleteObject(new DeleteObjectRequest(bucketName, img.getPublicId()));
+                    signedUrls.forget(img.getPublicId());
+                    imageVariants.delete(img.getVariants(), img.getPublicId());
                     log.info("[IMAGE][DELETE][R2][OK] key='{}'", img.getPublicId());
                 } catch (Exception e) {
                     log.warn("[IMAGE][DELETE][R2][WARN] key='{}' err={}", img.getPublicId(), e.toString());
                 }
             }
             imageRepo.delete(img);
+            evictProductCaches(productId);
             log.info("[IMAGE][DELETE][OK] imageId={}", imageId);
         });
     }
 
     /** Makes an image primary (sortOrder=0) and pushes others down. */
-    @CacheEvict(cacheNames = PRODUCT_BY_ID, key = "'id=' + #productId")
     @Transactional
     @PreAuthorize("hasRole('ADMIN')")
     public void setPrimaryImage(Long productId, Long imageId) {
@@ -1037,6 +1144,7 @@ public class CatalogService {
                 img.setSortOrder(next++);
             }
         }
+        evictProductCaches(productId);
         log.info("[IMAGE][SET_PRIMARY][OK] productId={} imageId={}", productId, imageId);
     }
     private byte[] processCategoryImage(MultipartFile file) throws IOException {
@@ -1074,6 +1182,7 @@ public class CatalogService {
         if (key == null || key.isBlank()) return;
         try {
             r2Client.deleteObject(new DeleteObjectRequest(bucketName, key));
+            signedUrls.forget(key);
             log.info("[R2][DELETE][OK] key={}", key);
         } catch (Exception e) {
             log.warn("[R2][DELETE][WARN] key={} err={}", key, e.toString());
@@ -1089,7 +1198,8 @@ public class CatalogService {
         }
 
         try {
-            return signGetUrl(key, Duration.ofMinutes(30));
+            // category DTOs are cached for 12h (CATEGORIES), so the URL must outlive that
+            return signedUrls.signGet(key, Duration.ofHours(12).plusMinutes(5));
         } catch (Exception e) {
             log.warn("[CATEGORY][IMAGE][SIGN][WARN] categoryId={} key={} err={}",
                     category.getId(), key, e.toString());
@@ -1241,6 +1351,7 @@ public class CatalogService {
         if (dto.getSortOrder() != null) opt.setSortOrder(dto.getSortOrder());
         if (dto.getVisible() != null) opt.setVisible(dto.getVisible());
         if (dto.getActive() != null) opt.setActive(dto.getActive());
+        suggestIndex.putOptionAfterCommit(opt);
         log.info("[OPTION][UPDATE][OK] id={}", dto.getId());
         return opt;
     }
@@ -1253,6 +1364,7 @@ public class CatalogService {
         log.info("[OPTION][DELETE] id={}", optionId);
         if (optionId == null) throw new IllegalArgumentException("optionId is required");
         optionRepo.findById(optionId).ifPresent(o -> {
+            suggestIndex.removeOptionAfterCommit(optionId);
             optionRepo.delete(o);
             log.info("[OPTION][DELETE][OK] id={}", optionId);
         });
@@ -1278,6 +1390,7 @@ public class CatalogService {
         val.setVisible(dto.getVisible() != null ? dto.getVisible() : Boolean.TRUE);
         val.setActive(dto.getActive() != null ? dto.getActive() : Boolean.TRUE);
         ProductOptionValue saved = valueRepo.save(val);
+        suggestIndex.putOptionValueAfterCommit(saved);
         log.info("[VALUE][CREATE][OK] id={} optionId={}", saved.getId(), dto.getOptionId());
         return saved;
     }
@@ -1325,6 +1438,7 @@ public class CatalogService {
         if (dto.getSortOrder() != null) v.setSortOrder(dto.getSortOrder());
         if (dto.getVisible() != null) v.setVisible(dto.getVisible());
         if (dto.getActive() != null) v.setActive(dto.getActive());
+        suggestIndex.putOptionValueAfterCommit(v);
         log.info("[VALUE][UPDATE][OK] id={} optionId={}", dto.getId(), dto.getOptionId());
         return v;
     }
@@ -1340,6 +1454,7 @@ public class CatalogService {
         }
         ProductOptionValue v = getProductOptionValue(optionId, valueId);
         valueRepo.delete(v);
+        suggestIndex.removeOptionValueAfterCommit(valueId);
         log.info("[VALUE][DELETE][OK] optionId={} valueId={}", optionId, valueId);
     }
 
@@ -1402,15 +1517,14 @@ public class CatalogService {
         // ).getContent();
         return out;
     }
-    @Caching(evict = {
-            @CacheEvict(cacheNames = PRODUCT_BY_ID, allEntries = true),
-            @CacheEvict(cacheNames = {FEATURED_PAGE, FEATURED_TOP, PRODUCTS_PAGE, NEW_ARRIVALS, PRODUCTS_BY_CATEGORY}, allEntries = true)
-    })
+    /** Toggles the featured flag; only featured lists are wiped, other pages are evicted by product. */
     @Transactional
     public Product setProductFeatured(Long id, boolean featured) {
         log.info("[PRODUCT][FEATURED][SET] id={} featured={}", id, featured);
         Product p = getProduct(id);
         p.setFeatured(featured);
+        cacheDeps.clearAfterCommit(FEATURED_PAGE, FEATURED_TOP);
+        evictProductCaches(id);
         log.info("[PRODUCT][FEATURED][SET][OK] id={} featured={}", id, featured);
         return p; // dirty checking persists
     }
@@ -1482,7 +1596,7 @@ public class CatalogService {
                 .map(this::toDto)
                 .toList();
     }
-    @Cacheable(cacheNames = PRODUCT_BY_ID, key = "'id=' + #id + ':' + #root.target.discountCacheStamp()")
+    @Cacheable(cacheNames = PRODUCT_BY_ID, key = "#root.target.productKey(#id)")
     public ProductDto getProductDto(Long id) {
         return toDto(getProduct(id));
     }
@@ -1490,7 +1604,7 @@ public class CatalogService {
 
     @Cacheable(
             cacheNames = PRODUCTS_PAGE,
-            key = "'p=' + #page + ':s=' + #size + ':sort=' + #sort + ':dir=' + #dir + ':' + #root.target.discountCacheStamp()"
+            key = "#root.target.productsPageKey(#page, #size, #sort, #dir)"
     )
     public CachedPage<ProductDto> listProductsDto(int page, int size, String sort, String dir) {
         Sort s = Sort.by("createdAt");
@@ -1500,12 +1614,10 @@ public class CatalogService {
         Optional<GlobalSaleConfig> discount = getEffectiveGlobalSaleNow();
         Page<Product> products = productRepo.findAll(PageRequest.of(page, size, s));
         List<Long> ids = products.getContent().stream().map(Product::getId).toList();
-        Map<Long, String> imageUrls = buildPrimaryImageUrlMap(ids);
-        Page<ProductDto> pg = products.map(p -> {
-            ProductDto dto = toDto(p, discount);
-            dto.setPrimaryImageUrl(imageUrls.get(p.getId()));
-            return dto;
-        });
+        cacheDeps.recordProducts(PRODUCTS_PAGE, productsPageKey(page, size, sort, dir), ids);
+        Map<Long, ProductImage> primaryImages = findPrimaryImages(ids);
+        Page<ProductDto> pg = products.map(p -> toDto(p, discount));
+        applyPrimaryImages(pg.getContent(), primaryImages);
         return CachedPage.from(pg);
     }
 
@@ -1518,59 +1630,55 @@ public class CatalogService {
         }
     }
 
-    @Cacheable(cacheNames = PRODUCTS_BY_CATEGORY, key = "'cat=' + #categoryId + ':p=' + #page + ':s=' + #size + ':' + #root.target.discountCacheStamp()")
+    @Cacheable(cacheNames = PRODUCTS_BY_CATEGORY, key = "#root.target.productsByCategoryKey(#categoryId, #page, #size)")
     public CachedPage<ProductDto> listProductsByCategoryDto(Long categoryId, int page, int size) {
         Optional<GlobalSaleConfig> discount = getEffectiveGlobalSaleNow();
         Page<Product> products = productRepo.findActiveByCategoryId(categoryId, PageRequest.of(page, size));
         List<Long> ids = products.getContent().stream().map(Product::getId).toList();
-        Map<Long, String> imageUrls = buildPrimaryImageUrlMap(ids);
-        Page<ProductDto> pg = products.map(p -> {
-            ProductDto dto = toDto(p, discount);
-            dto.setPrimaryImageUrl(imageUrls.get(p.getId()));
-            return dto;
-        });
+        String cacheKey = productsByCategoryKey(categoryId, page, size);
+        cacheDeps.recordProducts(PRODUCTS_BY_CATEGORY, cacheKey, ids);
+        cacheDeps.recordCategory(PRODUCTS_BY_CATEGORY, cacheKey, categoryId);
+        Map<Long, ProductImage> primaryImages = findPrimaryImages(ids);
+        Page<ProductDto> pg = products.map(p -> toDto(p, discount));
+        applyPrimaryImages(pg.getContent(), primaryImages);
         return CachedPage.from(pg);
     }
 
-    @Cacheable(cacheNames = FEATURED_PAGE, key = "'p=' + #page + ':s=' + #size + ':' + #root.target.discountCacheStamp()")
+    @Cacheable(cacheNames = FEATURED_PAGE, key = "#root.target.featuredPageKey(#page, #size)")
     public CachedPage<ProductDto> listFeaturedProductsDto(int page, int size) {
         Optional<GlobalSaleConfig> discount = getEffectiveGlobalSaleNow();
         Page<Product> products = productRepo.findByFeaturedTrue(PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt")));
         List<Long> ids = products.getContent().stream().map(Product::getId).toList();
-        Map<Long, String> imageUrls = buildPrimaryImageUrlMap(ids);
-        Page<ProductDto> pg = products.map(p -> {
-            ProductDto dto = toDto(p, discount);
-            dto.setPrimaryImageUrl(imageUrls.get(p.getId()));
-            return dto;
-        });
+        cacheDeps.recordProducts(FEATURED_PAGE, featuredPageKey(page, size), ids);
+        Map<Long, ProductImage> primaryImages = findPrimaryImages(ids);
+        Page<ProductDto> pg = products.map(p -> toDto(p, discount));
+        applyPrimaryImages(pg.getContent(), primaryImages);
         return CachedPage.from(pg);
     }
 
-    @Cacheable(cacheNames = FEATURED_TOP, key = "'lim=' + #limit + ':' + #root.target.discountCacheStamp()")
+    @Cacheable(cacheNames = FEATURED_TOP, key = "#root.target.limitKey(#limit)")
     public List<ProductDto> listFeaturedTopDto(int limit) {
         int lim = Math.max(1, Math.min(100, limit));
         Optional<GlobalSaleConfig> discount = getEffectiveGlobalSaleNow();
         List<Product> products = productRepo.findByFeaturedTrue(PageRequest.of(0, lim, Sort.by(Sort.Direction.DESC, "createdAt"))).getContent();
         List<Long> ids = products.stream().map(Product::getId).toList();
-        Map<Long, String> imageUrls = buildPrimaryImageUrlMap(ids);
-        return products.stream().map(p -> {
-            ProductDto dto = toDto(p, discount);
-            dto.setPrimaryImageUrl(imageUrls.get(p.getId()));
-            return dto;
-        }).toList();
+        cacheDeps.recordProducts(FEATURED_TOP, limitKey(limit), ids);
+        Map<Long, ProductImage> primaryImages = findPrimaryImages(ids);
+        List<ProductDto> dtos = products.stream().map(p -> toDto(p, discount)).toList();
+        applyPrimaryImages(dtos, primaryImages);
+        return dtos;
     }
 
-    @Cacheable(cacheNames = NEW_ARRIVALS, key = "'lim=' + #limit + ':' + #root.target.discountCacheStamp()")
+    @Cacheable(cacheNames = NEW_ARRIVALS, key = "#root.target.limitKey(#limit)")
     public List<ProductDto> listNewArrivalsDto(int limit) {
         Optional<GlobalSaleConfig> discount = getEffectiveGlobalSaleNow();
         List<Product> products = listNewArrivals(limit);
         List<Long> ids = products.stream().map(Product::getId).toList();
-        Map<Long, String> imageUrls = buildPrimaryImageUrlMap(ids);
-        return products.stream().map(p -> {
-            ProductDto dto = toDto(p, discount);
-            dto.setPrimaryImageUrl(imageUrls.get(p.getId()));
-            return dto;
-        }).toList();
+        cacheDeps.recordProducts(NEW_ARRIVALS, limitKey(limit), ids);
+        Map<Long, ProductImage> primaryImages = findPrimaryImages(ids);
+        List<ProductDto> dtos = products.stream().map(p -> toDto(p, discount)).toList();
+        applyPrimaryImages(dtos, primaryImages);
+        return dtos;
     }
 
     @Cacheable(cacheNames = CATEGORIES, key = "'id=' + #id")
@@ -1582,21 +1690,38 @@ public class CatalogService {
         return globalSaleRepo.findEffectiveConfig(LocalDateTime.now());
     }
 
-    private Map<Long, String> buildPrimaryImageUrlMap(List<Long> productIds) {
+    /** Lowest-sortOrder active image with a key, per product (one query for the whole page). */
+    private Map<Long, ProductImage> findPrimaryImages(List<Long> productIds) {
         if (productIds == null || productIds.isEmpty()) return Map.of();
-        List<ProductImage> images = imageRepo.findActiveForProductIds(productIds);
-        Map<Long, String> result = new LinkedHashMap<>();
-        for (ProductImage img : images) {
-            Long pid = img.getProduct().getId();
-            if (!result.containsKey(pid) && img.getPublicId() != null) {
-                try {
-                    result.put(pid, signGetUrl(img.getPublicId(), Duration.ofMinutes(30)));
-                } catch (Exception e) {
-                    log.warn("[IMAGE][SIGN][WARN] productId={} key={} err={}", pid, img.getPublicId(), e.toString());
-                }
+        Map<Long, ProductImage> primary = new LinkedHashMap<>();
+        for (ProductImage img : imageRepo.findActiveForProductIds(productIds)) {
+            if (img.getPublicId() != null) primary.putIfAbsent(img.getProduct().getId(), img);
+        }
+        return primary;
+    }
+
+    /**
+     * Signed URL and srcsets of the primary image for each list card. Every key of the page (primary
+     * images and their renditions) is signed in one {@link SignedUrlService#signGetAll} pass; a key that
+     * fails to sign is left out of the card.
+     */
+    private void applyPrimaryImages(List<ProductDto> dtos, Map<Long, ProductImage> primaryImages) {
+        if (dtos.isEmpty() || primaryImages.isEmpty()) return;
+        List<String> keys = new ArrayList<>();
+        for (ProductImage img : primaryImages.values()) {
+            keys.add(img.getPublicId());
+            if (img.getVariants() != null) {
+                img.getVariants().forEach(v -> keys.add(v.getKey()));
             }
         }
-        return result;
+        Map<String, String> signed = signedUrls.signGetAll(keys);
+        for (ProductDto dto : dtos) {
+            ProductImage img = primaryImages.get(dto.getId());
+            if (img == null) continue;
+            dto.setPrimaryImageUrl(signed.get(img.getPublicId()));
+            dto.setPrimaryImageSrcset(imageVariants.srcset(img.getVariants(), ProductImageVariantService.JPG, signed));
+            dto.setPrimaryImageWebpSrcset(imageVariants.srcset(img.getVariants(), ProductImageVariantService.WEBP, signed));
+        }
     }
 
     private static boolean isDiscountEligible(Product p) {
@@ -1628,18 +1753,41 @@ public class CatalogService {
 
     /**
      * IMPORTANT: Makes cache keys discount-aware.
-     * If discount config changes (or expires), this stamp changes and cached DTO pages refresh naturally.
+     * Returns the in-memory pricing epoch, which is bumped whenever a sale config changes or a sale
+     * window starts/ends, so cached DTO pages refresh naturally without a DB query per cache hit.
      */
     public String discountCacheStamp() {
-        Optional<GlobalSaleConfig> cfgOpt = getEffectiveGlobalSaleNow();
-        if (cfgOpt.isEmpty()) return "disc:none";
+        return "disc:epoch=" + pricingEpoch.current();
+    }
+    // ───────────────────── Cache keys (shared by @Cacheable SpEL and dependency index) ─────────────────────
 
-        GlobalSaleConfig cfg = cfgOpt.get();
-        BigDecimal pct = cfg.getPercentOff() == null ? BigDecimal.ZERO : cfg.getPercentOff();
-        String mod = (cfg.getModifiedAt() != null) ? cfg.getModifiedAt().toString() : "null";
+    public String productKey(Long id) {
+        return "id=" + id + ":" + discountCacheStamp();
+    }
 
-        return "disc:id=" + cfg.getId() + "|pct=" + pct + "|mod=" + mod;
+    public String productsPageKey(int page, int size, String sort, String dir) {
+        return "p=" + page + ":s=" + size + ":sort=" + sort + ":dir=" + dir + ":" + discountCacheStamp();
     }
+
+    public String productsByCategoryKey(Long categoryId, int page, int size) {
+        return "cat=" + categoryId + ":p=" + page + ":s=" + size + ":" + discountCacheStamp();
+    }
+
+    public String featuredPageKey(int page, int size) {
+        return "p=" + page + ":s=" + size + ":" + discountCacheStamp();
+    }
+
+    public String limitKey(int limit) {
+        return "lim=" + limit + ":" + discountCacheStamp();
+    }
+
+    /** Evicts the product's detail entry and every cached list page that contains it (after commit). */
+    private void evictProductCaches(Long productId) {
+        if (productId == null) return;
+        cacheDeps.evictAfterCommit(PRODUCT_BY_ID, productKey(productId));
+        cacheDeps.evictProductAfterCommit(productId);
+    }
+
     /** Lists product options with values as DTOs (discount-aware, storefront payload). */
     @Cacheable(cacheNames = OPTIONS_WITH_VALUES, key = "'pid=' + #productId + ':' + #root.target.discountCacheStamp()")
     public List<ProductOptionWithValuesDto> listProductOptionsWithValuesDto(Long productId) {
@@ -16,7 +16,13 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Server-authoritative pricing for checkout.
@@ -84,13 +90,7 @@ public class CheckoutPricingService {
             throw new IllegalArgumentException("Your cart is empty.");
         }
 
-        GlobalSaleConfigDto sale = globalSaleConfigService.getEffectiveNowOrNull();
-        BigDecimal salePct = (sale != null && Boolean.TRUE.equals(sale.getEnabled())
-                && isValidPercent(sale.getPercentOff())) ? sale.getPercentOff() : null;
-
-        BigDecimal originalSubtotal = BigDecimal.ZERO;
-        BigDecimal finalSubtotal = BigDecimal.ZERO;
-
+        Set<Long> productIds = new LinkedHashSet<>();
         for (OrderItemDto it : items) {
             if (it == null) {
                 throw new IllegalArgumentException("Invalid cart item.");
@@ -103,21 +103,33 @@ public class CheckoutPricingService {
             if (qty < 1) {
                 throw new IllegalArgumentException("Invalid quantity for productId=" + productId);
             }
+            productIds.add(productId);
+        }
 
-            // @Where(active=true) means an inactive/soft-deleted product never loads.
-            Product p = productRepo.findById(productId)
-                    .orElseThrow(() -> new IllegalArgumentException("Product unavailable."));
+        Catalogue catalogue = loadCatalogue(productIds);
 
+        GlobalSaleConfigDto sale = globalSaleConfigService.getEffectiveNowOrNull();
+        BigDecimal salePct = (sale != null && Boolean.TRUE.equals(sale.getEnabled())
+                && isValidPercent(sale.getPercentOff())) ? sale.getPercentOff() : null;
+
+        BigDecimal originalSubtotal = BigDecimal.ZERO;
+        BigDecimal finalSubtotal = BigDecimal.ZERO;
+
+        for (OrderItemDto it : items) {
+            Product p = catalogue.products().get(it.getProductId());
+            if (p == null) {
+                throw new IllegalArgumentException("Product unavailable.");
+            }
             if (Boolean.FALSE.equals(p.getVisible()) || Boolean.FALSE.equals(p.getInStock())) {
                 throw new IllegalArgumentException("Product unavailable: " + p.getName());
             }
 
-            BigDecimal unitOriginal = resolveUnitPrice(p, it.getSelectedValueIds());
+            BigDecimal unitOriginal = resolveUnitPrice(p, catalogue, it.getSelectedValueIds());
             BigDecimal unitFinal = Boolean.TRUE.equals(p.getExcludeFromGlobalDiscount())
                     ? unitOriginal
                     : applyPercentOff(unitOriginal, salePct);
 
-            BigDecimal qtyBd = BigDecimal.valueOf(qty);
+            BigDecimal qtyBd = BigDecimal.valueOf(it.getQuantity());
             originalSubtotal = originalSubtotal.add(unitOriginal.multiply(qtyBd));
             finalSubtotal = finalSubtotal.add(unitFinal.multiply(qtyBd));
 
@@ -136,6 +148,45 @@ public class CheckoutPricingService {
         return new PricedCart(originalSubtotal, finalSubtotal);
     }
 
+    /**
+     * Products, visible options (per product, in option sort order) and their values (per option, in
+     * value sort order) for every product in the cart.
+     */
+    private record Catalogue(Map<Long, Product> products,
+                             Map<Long, List<ProductOption>> optionsByProduct,
+                             Map<Long, List<ProductOptionValue>> valuesByOption) {}
+
+    /**
+     * Loads everything needed to price the cart in at most three queries, however many lines and
+     * options it has. The IN queries keep the per-product / per-option ordering of the single-id
+     * finders, which is what last-priced-option-wins depends on.
+     */
+    private Catalogue loadCatalogue(Set<Long> productIds) {
+        Map<Long, Product> products = new HashMap<>();
+        for (Product p : productRepo.findAllById(productIds)) {
+            // @Where(active=true) filters queries; keep the guard explicit for the money path.
+            if (!Boolean.FALSE.equals(p.getActive())) products.put(p.getId(), p);
+        }
+
+        Map<Long, List<ProductOption>> optionsByProduct = new HashMap<>();
+        List<Long> optionIds = new ArrayList<>();
+        if (!products.isEmpty()) {
+            for (ProductOption opt : optionRepo.findByProduct_IdInOrderBySortOrderAscIdAsc(products.keySet())) {
+                if (Boolean.FALSE.equals(opt.getVisible())) continue; // storefront ignores hidden options
+                optionsByProduct.computeIfAbsent(opt.getProduct().getId(), k -> new ArrayList<>()).add(opt);
+                optionIds.add(opt.getId());
+            }
+        }
+
+        Map<Long, List<ProductOptionValue>> valuesByOption = new HashMap<>();
+        if (!optionIds.isEmpty()) {
+            for (ProductOptionValue v : valueRepo.findByOption_IdInOrderBySortOrderAscIdAsc(optionIds)) {
+                valuesByOption.computeIfAbsent(v.getOption().getId(), k -> new ArrayList<>()).add(v);
+            }
+        }
+        return new Catalogue(products, optionsByProduct, valuesByOption);
+    }
+
     /**
      * Resolves the pre-sale unit price, mirroring the storefront's CartProvider:
      * base price by default, overridden by any selected option value that carries a price
@@ -143,22 +194,20 @@ public class CheckoutPricingService {
      * Required options must have a selection — the only rejection an honest cart could ever hit,
      * and only if the product's options changed after the item was added.
      */
-    private BigDecimal resolveUnitPrice(Product p, List<Long> selectedValueIds) {
-        java.util.Set<Long> selected = new java.util.HashSet<>();
+    private BigDecimal resolveUnitPrice(Product p, Catalogue catalogue, List<Long> selectedValueIds) {
+        Set<Long> selected = new HashSet<>();
         if (selectedValueIds != null) {
             for (Long id : selectedValueIds) if (id != null) selected.add(id);
         }
 
         BigDecimal unit = p.getPrice(); // base is the default; may be overridden below
-        java.util.Set<Long> knownValueIds = new java.util.HashSet<>();
+        Set<Long> knownValueIds = new HashSet<>();
 
         // Iterate options in the same order the storefront does so a multi-priced override
-        // resolves to the same value (last one wins).
-        for (ProductOption opt : optionRepo.findByProduct_IdOrderBySortOrderAscIdAsc(p.getId())) {
-            if (Boolean.FALSE.equals(opt.getVisible())) continue; // storefront ignores hidden options
-
+        // resolves to the same value (last one wins). Hidden options were dropped on load.
+        for (ProductOption opt : catalogue.optionsByProduct().getOrDefault(p.getId(), List.of())) {
             ProductOptionValue chosen = null;
-            for (ProductOptionValue v : valueRepo.findByOption_IdOrderBySortOrderAscIdAsc(opt.getId())) {
+            for (ProductOptionValue v : catalogue.valuesByOption().getOrDefault(opt.getId(), List.of())) {
                 knownValueIds.add(v.getId());
                 if (selected.contains(v.getId())) chosen = v;
             }
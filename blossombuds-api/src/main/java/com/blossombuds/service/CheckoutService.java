@@ -7,7 +7,6 @@ import com.blossombuds.domain.Product;
 import com.blossombuds.dto.OrderDto;
 import com.blossombuds.dto.OrderItemDto;
 import com.blossombuds.repository.CheckoutIntentRepository;
-import com.blossombuds.repository.CountryRepository;
 import com.blossombuds.repository.CustomerRepository;
 import com.blossombuds.repository.ProductRepository;
 import com.blossombuds.service.payments.RazorpayService;
@@ -33,7 +32,7 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class CheckoutService {
 
-    private final CountryRepository countryRepo;
+    private final GeoReferenceCache geoCache;
     private final CustomerRepository customerRepo;
     private final CheckoutIntentRepository ciRepo;
     private final WhatsAppPayloadBuilder waBuilder;
@@ -67,7 +66,7 @@ public class CheckoutService {
                 (orderDraft != null ? orderDraft.getCurrency() : null),
                 (orderDraft != null ? orderDraft.getGrandTotal() : null));
 
-        Country country = countryRepo.findById(orderDraft.getShipCountryId())
+        Country country = geoCache.country(orderDraft.getShipCountryId())
                 .orElseThrow(() -> {
                     log.warn("[CHECKOUT][FAIL] Country not found: {}", shipCountryId);
                     return new IllegalArgumentException("Country not found: " + shipCountryId);
@@ -129,7 +128,7 @@ public class CheckoutService {
                 (orderDraft != null ? orderDraft.getCurrency() : null),
                 (orderDraft != null ? orderDraft.getGrandTotal() : null));
 
-        Country country = countryRepo.findById(orderDraft.getShipCountryId())
+        Country country = geoCache.country(orderDraft.getShipCountryId())
                 .orElseThrow(() -> new IllegalArgumentException("Country not found: " + shipCountryId));
         assertAllItemsInStock(items);
         // International
@@ -29,6 +29,7 @@ public class CustomerService {
     private final StateRepository stateRepository;
     private final CountryRepository countryRepository;
     private final CustomerWhatsAppPreferenceRepository preferenceRepo;
+    private final GeoReferenceCache geoCache;
 
     // ─────────────────────────────────────────────────────────────
     // Customers
@@ -252,32 +253,12 @@ public class CustomerService {
         // Prefer deterministic ordering: default first, then newest/ID ASC or DESC as you like
         List<Address> list = addressRepo.findByCustomer_Id(customerId);
 
-        // Batch collect ids for names
-        Set<Long> cIds = new HashSet<>();
-        Set<Long> sIds = new HashSet<>();
-        Set<Long> dIds = new HashSet<>();
-        for (Address a : list) {
-            if (a.getCountry()  != null) cIds.add(a.getCountry().getId());
-            if (a.getState()    != null) sIds.add(a.getState().getId());
-            if (a.getDistrict() != null) dIds.add(a.getDistrict().getId());
-        }
-
-        Map<Long, Country> cMap = cIds.isEmpty() ? Map.of()
-                : countryRepository.findAllById(cIds).stream()
-                .collect(Collectors.toMap(Country::getId, x -> x));
-        Map<Long, State> sMap = sIds.isEmpty() ? Map.of()
-                : stateRepository.findAllById(sIds).stream()
-                .collect(Collectors.toMap(State::getId, x -> x));
-        Map<Long, District> dMap = dIds.isEmpty() ? Map.of()
-                : districtRepository.findAllById(dIds).stream()
-                .collect(Collectors.toMap(District::getId, x -> x));
-
-        // Map to views using the caches (no lazy access during JSON serialization)
+        // Names come from the reference cache (no lazy access during JSON serialization)
         List<AddressView> views = list.stream()
                 .map(a -> {
-                    String countryName  = a.getCountry()  != null ? nameOf(cMap.get(a.getCountry().getId()))   : null;
-                    String stateName    = a.getState()    != null ? nameOf(sMap.get(a.getState().getId()))     : null;
-                    String districtName = a.getDistrict() != null ? nameOf(dMap.get(a.getDistrict().getId()))  : null;
+                    String countryName  = a.getCountry()  != null ? geoCache.countryName(a.getCountry().getId())   : null;
+                    String stateName    = a.getState()    != null ? geoCache.stateName(a.getState().getId())       : null;
+                    String districtName = a.getDistrict() != null ? geoCache.districtName(a.getDistrict().getId()) : null;
                     return toAddressView(a, countryName, stateName, districtName);
                 })
                 // default first; then by id asc for stability
@@ -0,0 +1,204 @@
+package com.blossombuds.service;
+
+import com.blossombuds.domain.DeliveryFeeRules;
+import com.blossombuds.domain.DeliveryFeeRules.RuleScope;
+import com.blossombuds.domain.DeliveryPartner;
+import com.blossombuds.domain.DeliveryRegion;
+import com.blossombuds.repository.DeliveryFeeRulesRepository;
+import com.blossombuds.repository.DeliveryPartnerRepository;
+import com.blossombuds.repository.DeliveryRegionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * In-memory copy of everything a delivery fee quote needs: active fee rules keyed by
+ * (partner, scope, id), region membership per state, and which partners override free shipping.
+ * <p>
+ * The whole set is a few hundred rows at most, so it is loaded in one go into an immutable
+ * {@link Snapshot} and swapped atomically: after any rule, region or partner change commits on this
+ * node, and every {@code app.delivery.fee-index.refresh-ms} to pick up changes made on other nodes.
+ * Resolving a fee is then a handful of hash lookups and never touches the database.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DeliveryFeeIndex {
+
+    private final DeliveryFeeRulesRepository ruleRepo;
+    private final DeliveryRegionRepository regionRepo;
+    private final DeliveryPartnerRepository partnerRepo;
+
+    private volatile Snapshot snapshot;
+
+    /** Current rules; loaded on first use. */
+    public Snapshot current() {
+        Snapshot s = snapshot;
+        if (s != null) return s;
+        synchronized (this) {
+            if (snapshot == null) snapshot = load();
+            return snapshot;
+        }
+    }
+
+    /** Rebuilds once the current transaction commits (immediately if none is active). */
+    public void refreshAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override public void afterCommit() { refresh(); }
+            });
+        } else {
+            refresh();
+        }
+    }
+
+    /** Periodic reload so admin changes made through another node show up here too. */
+    @Scheduled(fixedDelayString = "${app.delivery.fee-index.refresh-ms:60000}",
+            initialDelayString = "${app.delivery.fee-index.refresh-ms:60000}")
+    public void refresh() {
+        try {
+            Snapshot s = load();
+            synchronized (this) {
+                snapshot = s;
+            }
+        } catch (Exception e) {
+            // keep serving the previous snapshot
+            log.error("[FEE][INDEX][REFRESH][FAIL] err={}", e.toString());
+        }
+    }
+
+    private Snapshot load() {
+        long t0 = System.currentTimeMillis();
+        Snapshot s = Snapshot.of(ruleRepo.findAll(), regionRepo.findByActiveTrueOrderByNameAsc(), partnerRepo.findAll());
+        log.info("[FEE][INDEX][LOAD] rules={} statesWithRegions={} tookMs={}",
+                s.rules.size(), s.regionsByState.size(), System.currentTimeMillis() - t0);
+        return s;
+    }
+
+    /** Lookup key; {@code partnerId} null = rule for all partners, {@code id} null for DEFAULT. */
+    record RuleKey(Long partnerId, RuleScope scope, Long id) {}
+
+    /** Immutable, thread-safe view of the fee rules at one point in time. */
+    public static final class Snapshot {
+
+        private final Map<RuleKey, BigDecimal> rules;
+        /** Active region ids per state, ascending. */
+        private final Map<Long, List<Long>> regionsByState;
+        private final Set<Long> freeShippingOverridePartners;
+
+        private Snapshot(Map<RuleKey, BigDecimal> rules, Map<Long, List<Long>> regionsByState,
+                         Set<Long> freeShippingOverridePartners) {
+            this.rules = rules;
+            this.regionsByState = regionsByState;
+            this.freeShippingOverridePartners = freeShippingOverridePartners;
+        }
+
+        /**
+         * Builds a snapshot from active rows. For each key the newest rule (highest id) wins, as the
+         * {@code findTop...OrderByIdDesc} queries did.
+         */
+        static Snapshot of(Collection<DeliveryFeeRules> activeRules,
+                           Collection<DeliveryRegion> activeRegions,
+                           Collection<DeliveryPartner> activePartners) {
+            List<DeliveryFeeRules> newestFirst = new ArrayList<>(activeRules);
+            newestFirst.sort(Comparator.comparing(DeliveryFeeRules::getId, Comparator.nullsLast(Comparator.reverseOrder())));
+
+            Map<RuleKey, BigDecimal> rules = new HashMap<>();
+            for (DeliveryFeeRules r : newestFirst) {
+                if (!Boolean.TRUE.equals(r.getActive()) || r.getScope() == null) continue;
+                Long id = switch (r.getScope()) {
+                    case DISTRICT, STATE -> r.getScopeId();
+                    case REGION -> r.getRegionId();
+                    case DEFAULT -> null;
+                };
+                if (id == null && r.getScope() != RuleScope.DEFAULT) continue;
+                if (r.getScope() == RuleScope.DEFAULT && (r.getScopeId() != null || r.getRegionId() != null)) continue;
+                rules.putIfAbsent(new RuleKey(r.getDeliveryPartnerId(), r.getScope(), id), sanitize(r.getFeeAmount()));
+            }
+
+            Map<Long, List<Long>> regionsByState = new HashMap<>();
+            for (DeliveryRegion region : activeRegions) {
+                if (!Boolean.TRUE.equals(region.getActive()) || region.getStateIds() == null) continue;
+                for (Long stateId : region.getStateIds()) {
+                    regionsByState.computeIfAbsent(stateId, k -> new ArrayList<>()).add(region.getId());
+                }
+            }
+            regionsByState.replaceAll((k, v) -> v.stream().distinct().sorted().toList());
+
+            Set<Long> overrides = new HashSet<>();
+            for (DeliveryPartner p : activePartners) {
+                if (Boolean.TRUE.equals(p.getActive()) && Boolean.TRUE.equals(p.getOverrideFreeShipping())) {
+                    overrides.add(p.getId());
+                }
+            }
+            return new Snapshot(Map.copyOf(rules), Map.copyOf(regionsByState), Set.copyOf(overrides));
+        }
+
+        /**
+         * Partner-aware cascade: with a partner DISTRICT → STATE → REGION → DEFAULT for that partner,
+         * then (or without a partner) the same four steps for rules that apply to all partners.
+         */
+        public Optional<BigDecimal> resolve(Long stateId, Long districtId, Long partnerId) {
+            if (partnerId != null) {
+                BigDecimal fee = cascade(partnerId, stateId, districtId);
+                if (fee != null) return Optional.of(fee);
+            }
+            BigDecimal fee = cascade(null, stateId, districtId);
+            if (fee != null) return Optional.of(fee);
+            log.warn("[FEE] No rule found for stateId={} districtId={} partnerId={}", stateId, districtId, partnerId);
+            return Optional.empty();
+        }
+
+        private BigDecimal cascade(Long partnerId, Long stateId, Long districtId) {
+            String who = partnerId == null ? "no-partner" : "p=" + partnerId;
+            if (districtId != null) {
+                BigDecimal fee = rules.get(new RuleKey(partnerId, RuleScope.DISTRICT, districtId));
+                if (fee != null) {
+                    log.debug("[FEE] {} DISTRICT={}", who, districtId);
+                    return fee;
+                }
+            }
+            if (stateId != null) {
+                BigDecimal fee = rules.get(new RuleKey(partnerId, RuleScope.STATE, stateId));
+                if (fee != null) {
+                    log.debug("[FEE] {} STATE={}", who, stateId);
+                    return fee;
+                }
+                for (Long rid : regionsByState.getOrDefault(stateId, List.of())) {
+                    fee = rules.get(new RuleKey(partnerId, RuleScope.REGION, rid));
+                    if (fee != null) {
+                        log.debug("[FEE] {} REGION={}", who, rid);
+                        return fee;
+                    }
+                }
+            }
+            BigDecimal fee = rules.get(new RuleKey(partnerId, RuleScope.DEFAULT, null));
+            if (fee != null) log.debug("[FEE] {} DEFAULT", who);
+            return fee;
+        }
+
+        /** True when the (active) partner charges its fee even above the free-shipping threshold. */
+        public boolean overridesFreeShipping(Long partnerId) {
+            return partnerId != null && freeShippingOverridePartners.contains(partnerId);
+        }
+
+        private static BigDecimal sanitize(BigDecimal v) {
+            if (v == null) return BigDecimal.ZERO;
+            return v.signum() < 0 ? BigDecimal.ZERO : v;
+        }
+    }
+}
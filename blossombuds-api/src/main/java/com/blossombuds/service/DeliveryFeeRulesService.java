@@ -3,12 +3,8 @@ package com.blossombuds.service;
 import com.blossombuds.domain.DeliveryFeeRules;
 import com.blossombuds.domain.DeliveryFeeRules.RuleScope;
 import com.blossombuds.repository.DeliveryFeeRulesRepository;
-import com.blossombuds.repository.DeliveryPartnerRepository;
-import com.blossombuds.repository.DeliveryRegionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,8 +24,7 @@ public class DeliveryFeeRulesService {
     private static final BigDecimal VERY_LARGE = new BigDecimal("999999999");
 
     private final DeliveryFeeRulesRepository ruleRepo;
-    private final DeliveryRegionRepository regionRepo;
-    private final DeliveryPartnerRepository partnerRepo;
+    private final DeliveryFeeIndex feeIndex;
     private final SettingsService settingsService;
 
     // ── Fee lookup ────────────────────────────────────────────────────────────
@@ -38,94 +33,10 @@ public class DeliveryFeeRulesService {
      * 8-step partner-aware hierarchy:
      *   With partner:    DISTRICT → STATE → REGION → DEFAULT
      *   Without partner: DISTRICT → STATE → REGION → DEFAULT
+     * Resolved against the in-memory {@link DeliveryFeeIndex}; no queries per quote.
      */
-    @Cacheable(
-            value = "deliveryFees",
-            key = "'p=' + #partnerId + ':s=' + #stateId + ':d=' + #districtId",
-            unless = "#result == null || !#result.isPresent()"
-    )
     public Optional<BigDecimal> findEffectiveFee(Long stateId, Long districtId, Long partnerId) {
-
-        if (partnerId != null) {
-            // 1. partner + DISTRICT
-            if (districtId != null) {
-                var r = ruleRepo.findTopByDeliveryPartnerIdAndScopeAndScopeIdAndActiveTrueOrderByIdDesc(
-                        partnerId, RuleScope.DISTRICT, districtId);
-                if (r.isPresent()) {
-                    log.info("[FEE] p={} DISTRICT={}", partnerId, districtId);
-                    return Optional.of(sanitize(r.get().getFeeAmount()));
-                }
-            }
-            // 2. partner + STATE
-            if (stateId != null) {
-                var r = ruleRepo.findTopByDeliveryPartnerIdAndScopeAndScopeIdAndActiveTrueOrderByIdDesc(
-                        partnerId, RuleScope.STATE, stateId);
-                if (r.isPresent()) {
-                    log.info("[FEE] p={} STATE={}", partnerId, stateId);
-                    return Optional.of(sanitize(r.get().getFeeAmount()));
-                }
-            }
-            // 3. partner + REGION
-            if (stateId != null) {
-                List<Long> regionIds = regionRepo.findActiveRegionIdsByStateId(stateId);
-                for (Long rid : regionIds) {
-                    var r = ruleRepo.findTopByDeliveryPartnerIdAndScopeAndRegionIdAndActiveTrueOrderByIdDesc(
-                            partnerId, RuleScope.REGION, rid);
-                    if (r.isPresent()) {
-                        log.info("[FEE] p={} REGION={}", partnerId, rid);
-                        return Optional.of(sanitize(r.get().getFeeAmount()));
-                    }
-                }
-            }
-            // 4. partner + DEFAULT
-            var r = ruleRepo.findTopByDeliveryPartnerIdAndScopeAndScopeIdIsNullAndRegionIdIsNullAndActiveTrueOrderByIdDesc(
-                    partnerId, RuleScope.DEFAULT);
-            if (r.isPresent()) {
-                log.info("[FEE] p={} DEFAULT", partnerId);
-                return Optional.of(sanitize(r.get().getFeeAmount()));
-            }
-        }
-
-        // 5. no-partner + DISTRICT
-        if (districtId != null) {
-            var r = ruleRepo.findTopByDeliveryPartnerIdIsNullAndScopeAndScopeIdAndActiveTrueOrderByIdDesc(
-                    RuleScope.DISTRICT, districtId);
-            if (r.isPresent()) {
-                log.info("[FEE] no-partner DISTRICT={}", districtId);
-                return Optional.of(sanitize(r.get().getFeeAmount()));
-            }
-        }
-        // 6. no-partner + STATE
-        if (stateId != null) {
-            var r = ruleRepo.findTopByDeliveryPartnerIdIsNullAndScopeAndScopeIdAndActiveTrueOrderByIdDesc(
-                    RuleScope.STATE, stateId);
-            if (r.isPresent()) {
-                log.info("[FEE] no-partner STATE={}", stateId);
-                return Optional.of(sanitize(r.get().getFeeAmount()));
-            }
-        }
-        // 7. no-partner + REGION
-        if (stateId != null) {
-            List<Long> regionIds = regionRepo.findActiveRegionIdsByStateId(stateId);
-            for (Long rid : regionIds) {
-                var r = ruleRepo.findTopByDeliveryPartnerIdIsNullAndScopeAndRegionIdAndActiveTrueOrderByIdDesc(
-                        RuleScope.REGION, rid);
-                if (r.isPresent()) {
-                    log.info("[FEE] no-partner REGION={}", rid);
-                    return Optional.of(sanitize(r.get().getFeeAmount()));
-                }
-            }
-        }
-        // 8. no-partner + DEFAULT
-        var r = ruleRepo.findTopByDeliveryPartnerIdIsNullAndScopeAndScopeIdIsNullAndRegionIdIsNullAndActiveTrueOrderByIdDesc(
-                RuleScope.DEFAULT);
-        if (r.isPresent()) {
-            log.info("[FEE] no-partner DEFAULT");
-            return Optional.of(sanitize(r.get().getFeeAmount()));
-        }
-
-        log.warn("[FEE] No rule found for stateId={} districtId={} partnerId={}", stateId, districtId, partnerId);
-        return Optional.empty();
+        return feeIndex.current().resolve(stateId, districtId, partnerId);
     }
 
     public BigDecimal computeFee(
@@ -134,10 +45,7 @@ public class DeliveryFeeRulesService {
             Long districtId,
             Long deliveryPartnerId
     ) {
-        boolean overridesThreshold = deliveryPartnerId != null &&
-                partnerRepo.findById(deliveryPartnerId)
-                        .map(p -> Boolean.TRUE.equals(p.getOverrideFreeShipping()))
-                        .orElse(false);
+        boolean overridesThreshold = feeIndex.current().overridesFreeShipping(deliveryPartnerId);
 
         if (!overridesThreshold && isThresholdFreeShippingEligible(itemsSubtotal)) {
             log.info("[FEE][THRESHOLD] threshold met -> free shipping");
@@ -170,31 +78,33 @@ public class DeliveryFeeRulesService {
     }
 
     @Transactional
-    @CacheEvict(value = "deliveryFees", allEntries = true)
     public DeliveryFeeRules createRule(DeliveryFeeRules dto) {
         DeliveryFeeRules r = new DeliveryFeeRules();
         applyInto(r, dto);
         log.info("[RULE][CREATE] scope={} scopeId={} regionId={} partnerId={}",
                 r.getScope(), r.getScopeId(), r.getRegionId(), r.getDeliveryPartnerId());
-        return ruleRepo.save(r);
+        DeliveryFeeRules saved = ruleRepo.save(r);
+        feeIndex.refreshAfterCommit();
+        return saved;
     }
 
     @Transactional
-    @CacheEvict(value = "deliveryFees", allEntries = true)
     public DeliveryFeeRules updateRule(Long id, DeliveryFeeRules dto) {
         DeliveryFeeRules r = ruleRepo.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Rule not found: " + id));
         applyInto(r, dto);
         log.info("[RULE][UPDATE] id={}", id);
-        return ruleRepo.save(r);
+        DeliveryFeeRules saved = ruleRepo.save(r);
+        feeIndex.refreshAfterCommit();
+        return saved;
     }
 
     @Transactional
-    @CacheEvict(value = "deliveryFees", allEntries = true)
     public void deleteRule(Long id) {
         if (id != null) {
             log.warn("[RULE][DELETE] id={}", id);
             ruleRepo.deleteById(id);
+            feeIndex.refreshAfterCommit();
         }
     }
 
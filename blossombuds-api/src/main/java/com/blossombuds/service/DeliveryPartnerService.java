@@ -1,5 +1,6 @@
 package com.blossombuds.service;
 
+import com.blossombuds.cache.OrderDetailCache;
 import com.blossombuds.domain.DeliveryPartner;
 import com.blossombuds.dto.DeliveryPartnerDto;
 import com.blossombuds.repository.DeliveryPartnerRepository;
@@ -25,6 +26,8 @@ public class DeliveryPartnerService {
 
     private final DeliveryPartnerRepository partnerRepo;
     private final StatePartnerAllowlistRepository allowlistRepo;
+    private final DeliveryFeeIndex feeIndex;
+    private final OrderDetailCache orderDetails;
 
     /** Creates a delivery partner from the provided DTO. */
     @Transactional
@@ -42,7 +45,9 @@ public class DeliveryPartnerService {
         //p.setCreatedAt(OffsetDateTime.now());
         validateResolvedPartner(p);
         log.info("[DELIVERY_PARTNER][CREATE] Partner created: code={}, name={}, actor={}", p.getCode(), p.getName(), actor);
-        return partnerRepo.save(p);
+        DeliveryPartner saved = partnerRepo.save(p);
+        feeIndex.refreshAfterCommit();
+        return saved;
     }
     private void validatePartnerDto(DeliveryPartnerDto dto) {
         if (dto == null) throw new IllegalArgumentException("DeliveryPartnerDto is required");
@@ -80,7 +85,11 @@ public class DeliveryPartnerService {
         if (dto.getVisible() != null)              p.setVisible(dto.getVisible());
         validateResolvedPartner(p);
         log.info("[DELIVERY_PARTNER][UPDATE] Partner updated: id={}, actor={}", id, actor);
-        return partnerRepo.save(p);
+        DeliveryPartner saved = partnerRepo.save(p);
+        feeIndex.refreshAfterCommit();
+        // cached tracking pages embed the partner's tracking URL template
+        orderDetails.clearAfterCommit();
+        return saved;
     }
 
     /** Returns a partner by id or throws if missing. */
@@ -131,7 +140,9 @@ public class DeliveryPartnerService {
         DeliveryPartner p = get(id);
         p.setActive(active);
         log.info("[DELIVERY_PARTNER][ACTIVE] Set active={} for id={}, actor={}", active, id, actor);
-        return partnerRepo.save(p);
+        DeliveryPartner saved = partnerRepo.save(p);
+        feeIndex.refreshAfterCommit();
+        return saved;
     }
 
     /** Toggles visibility (hide/show from customers). */
@@ -151,6 +162,7 @@ public class DeliveryPartnerService {
     public void delete(Long id) {
         if (id == null) throw new IllegalArgumentException("id is required");
         partnerRepo.deleteById(id);
+        feeIndex.refreshAfterCommit();
         log.warn("[DELIVERY_PARTNER][DELETE] Partner deleted: id={}", id);
 
     }
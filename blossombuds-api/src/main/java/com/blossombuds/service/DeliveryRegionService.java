@@ -7,7 +7,6 @@ import com.blossombuds.repository.DeliveryRegionRepository;
 import com.blossombuds.repository.StatePartnerAllowlistRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,6 +22,7 @@ public class DeliveryRegionService {
 
     private final DeliveryRegionRepository regionRepo;
     private final StatePartnerAllowlistRepository allowlistRepo;
+    private final DeliveryFeeIndex feeIndex;
 
     // ── Regions ───────────────────────────────────────────────────────────────
 
@@ -36,7 +36,6 @@ public class DeliveryRegionService {
     }
 
     @Transactional
-    @CacheEvict(value = "deliveryFees", allEntries = true)
     public DeliveryRegion createRegion(String name) {
         if (name == null || name.isBlank())
             throw new IllegalArgumentException("Region name is required");
@@ -48,7 +47,6 @@ public class DeliveryRegionService {
     }
 
     @Transactional
-    @CacheEvict(value = "deliveryFees", allEntries = true)
     public DeliveryRegion renameRegion(Long id, String name) {
         if (name == null || name.isBlank())
             throw new IllegalArgumentException("Region name is required");
@@ -59,22 +57,23 @@ public class DeliveryRegionService {
     }
 
     @Transactional
-    @CacheEvict(value = "deliveryFees", allEntries = true)
     public void deleteRegion(Long id) {
         DeliveryRegion r = getRegion(id);
         regionRepo.delete(r);
+        feeIndex.refreshAfterCommit();
         log.info("[REGION][DELETE] id={}", id);
     }
 
     /** Replace the full set of states for a region. */
     @Transactional
-    @CacheEvict(value = "deliveryFees", allEntries = true)
     public DeliveryRegion setRegionStates(Long id, Set<Long> stateIds) {
         DeliveryRegion r = getRegion(id);
         r.getStateIds().clear();
         if (stateIds != null) r.getStateIds().addAll(stateIds);
         log.info("[REGION][STATES] id={} stateCount={}", id, r.getStateIds().size());
-        return regionRepo.save(r);
+        DeliveryRegion saved = regionRepo.save(r);
+        feeIndex.refreshAfterCommit();
+        return saved;
     }
 
     // ── Allowlist ─────────────────────────────────────────────────────────────
@@ -18,10 +18,14 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 /**
@@ -40,6 +44,8 @@ public class EmailCampaignService {
     private final CustomerEmailPreferenceRepository preferenceRepository;
     private final CustomerRepository customerRepository;
     private final EmailService emailService;
+    private final CampaignRecipientStateWriter stateWriter;
+    private final MarketingEmailDispatcher campaignDispatcher;
 
     /** Non-final: @Value fields must be non-final when the class also uses @RequiredArgsConstructor. */
     @org.springframework.beans.factory.annotation.Value("${app.backend.baseUrl}")
@@ -55,10 +61,12 @@ public class EmailCampaignService {
     @org.springframework.beans.factory.annotation.Value("${mail.marketing.max-recipients:10000}")
     private int marketingMaxRecipients;
 
-    /** Pacing between sends — Resend and most HTTP mail providers rate-limit; a small fixed
-     *  delay avoids bursting the request thread. Not needed for the sub-100 recipient campaigns
-     *  this audience rule typically produces, but cheap insurance if the phone-less segment grows. */
-    private static final long SEND_DELAY_MS = 250;
+    /**
+     * Recipients claimed (PENDING → SENDING) per UPDATE. At most
+     * {@link MarketingEmailDispatcher#chunksInFlight} chunks are sending at once, which bounds how
+     * many recipients may be re-sent after a crash.
+     */
+    private static final int CLAIM_CHUNK = 50;
 
     /**
      * On startup, reset any campaigns left in SENDING (from a previous crash/restart).
@@ -223,38 +231,44 @@ public class EmailCampaignService {
         int sent = 0;
         int failed = 0;
 
-        for (EmailCampaignRecipient recipient : recipients) {
-            // Persist SENDING before the HTTP call so a mid-loop crash leaves the row
+        // Pipelined: while claimed chunks are sending, the next one is claimed and rendered. The window
+        // is sized so every dispatcher thread has a call queued (see chunksInFlight).
+        int window = campaignDispatcher.chunksInFlight(CLAIM_CHUNK);
+        Deque<ChunkInFlight> inFlight = new ArrayDeque<>();
+        for (int from = 0; from < recipients.size(); from += CLAIM_CHUNK) {
+            List<EmailCampaignRecipient> chunk = recipients.subList(from, Math.min(from + CLAIM_CHUNK, recipients.size()));
+            // Persist SENDING (one UPDATE per chunk) before any send so a mid-loop crash leaves rows
             // in a recoverable state (startup recovery resets SENDING → PENDING for retry).
-            recipient.setStatus("SENDING");
-            recipient.setModifiedBy("system");
-            recipient.setModifiedAt(OffsetDateTime.now());
-            recipientRepository.save(recipient);
-
-            String unsubscribeUrl = ensureUnsubscribeUrl(recipient.getCustomerId(), recipient.getEmail());
-            String body = appendUnsubscribeFooter(campaign.getBodyText(), unsubscribeUrl);
-
-            EmailService.EmailSendResult result =
-                    emailService.sendMarketingEmailSync(recipient.getEmail(), campaign.getSubject(), body);
-
-            if (result.success()) {
-                recipient.setStatus("SENT");
-                recipient.setSentAt(OffsetDateTime.now());
-                recipient.setErrorMessage(null);
-                sent++;
-            } else {
-                recipient.setStatus("FAILED");
-                recipient.setFailedAt(OffsetDateTime.now());
-                recipient.setErrorMessage(result.errorMessage());
-                failed++;
+            Set<Long> claimed = new HashSet<>(stateWriter.claim(CampaignRecipientStateWriter.Channel.EMAIL,
+                    chunk.stream().map(EmailCampaignRecipient::getId).toList()));
+
+            List<EmailCampaignRecipient> toSend = new ArrayList<>(chunk.size());
+            List<EmailService.MarketingEmail> emails = new ArrayList<>(chunk.size());
+            for (EmailCampaignRecipient recipient : chunk) {
+                if (!claimed.contains(recipient.getId())) continue; // taken by another run meanwhile
+                recipient.setStatus("SENDING");
+                String unsubscribeUrl = ensureUnsubscribeUrl(recipient.getCustomerId(), recipient.getEmail());
+                toSend.add(recipient);
+                emails.add(new EmailService.MarketingEmail(recipient.getEmail(), campaign.getSubject(),
+                        appendUnsubscribeFooter(campaign.getBodyText(), unsubscribeUrl)));
             }
 
-            recipient.setModifiedBy("system");
-            recipient.setModifiedAt(OffsetDateTime.now());
-            recipientRepository.save(recipient);
-
-            sleepBetweenSends();
+            // Paced: batch calls where the provider supports them, several in flight.
+            inFlight.add(new ChunkInFlight(toSend, campaignDispatcher.submitAll(emails)));
+            while (inFlight.size() >= window) {
+                ChunkInFlight done = inFlight.poll();
+                int ok = recordResults(done);
+                sent += ok;
+                failed += done.recipients().size() - ok;
+            }
+        }
+        while (!inFlight.isEmpty()) {
+            ChunkInFlight done = inFlight.poll();
+            int ok = recordResults(done);
+            sent += ok;
+            failed += done.recipients().size() - ok;
         }
+        stateWriter.flush(CampaignRecipientStateWriter.Channel.EMAIL);
 
         campaign.setSentCount((campaign.getSentCount() == null ? 0 : campaign.getSentCount()) + sent);
         campaign.setFailedCount((campaign.getFailedCount() == null ? 0 : campaign.getFailedCount()) + failed);
@@ -279,6 +293,35 @@ public class EmailCampaignService {
         return saved;
     }
 
+    /** A claimed chunk whose emails are queued in the dispatcher; results arrive in recipient order. */
+    private record ChunkInFlight(List<EmailCampaignRecipient> recipients,
+                                 CompletableFuture<List<EmailService.EmailSendResult>> results) {}
+
+    /** Waits for a chunk's outcomes and queues its recipient state writes; returns how many were sent. */
+    private int recordResults(ChunkInFlight chunk) {
+        List<EmailService.EmailSendResult> results = chunk.results().join();
+        OffsetDateTime now = OffsetDateTime.now();
+        int sent = 0;
+        for (int i = 0; i < chunk.recipients().size(); i++) {
+            EmailCampaignRecipient recipient = chunk.recipients().get(i);
+            EmailService.EmailSendResult result = results.get(i);
+            if (result.success()) {
+                recipient.setStatus("SENT");
+                recipient.setSentAt(now);
+                recipient.setErrorMessage(null);
+                sent++;
+            } else {
+                recipient.setStatus("FAILED");
+                recipient.setFailedAt(now);
+                recipient.setErrorMessage(result.errorMessage());
+            }
+            stateWriter.recordResult(CampaignRecipientStateWriter.Channel.EMAIL,
+                    new CampaignRecipientStateWriter.RecipientResult(
+                            recipient.getId(), result.success(), null, result.errorMessage(), now));
+        }
+        return sent;
+    }
+
     /** Resolves the fixed audience: active customers with no phone, an email, and not unsubscribed. */
     private List<EmailCampaignRecipient> buildRecipients(EmailCampaign campaign) {
         List<Customer> eligible = customerRepository.findMarketingEmailEligible();
@@ -345,14 +388,6 @@ public class EmailCampaignService {
                 + "{{A|Unsubscribe from marketing emails|" + unsubscribeUrl + "}}";
     }
 
-    private void sleepBetweenSends() {
-        try {
-            Thread.sleep(SEND_DELAY_MS);
-        } catch (InterruptedException ignored) {
-            Thread.currentThread().interrupt();
-        }
-    }
-
     private boolean isBlank(String value) {
         return value == null || value.isBlank();
     }
@@ -1,6 +1,8 @@
 package com.blossombuds.service;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 
 /** Abstraction for all outgoing emails. */
 public interface EmailService {
@@ -50,9 +52,34 @@ public interface EmailService {
      */
     EmailSendResult sendMarketingEmailSync(String toEmail, String subject, String bodyWithMarkers);
 
-    /** Outcome of a synchronous email send. */
-    record EmailSendResult(boolean success, String errorMessage) {
+    /**
+     * Largest number of marketing emails {@link #sendMarketingEmailBatchSync} sends in one provider
+     * call; 0 when the provider has no batch endpoint (each email is then its own call).
+     */
+    default int marketingBatchLimit() {
+        return 0;
+    }
+
+    /**
+     * Sends several marketing emails, in one provider call when supported. Results are in input order.
+     * The default sends them one by one through {@link #sendMarketingEmailSync}.
+     */
+    default List<EmailSendResult> sendMarketingEmailBatchSync(List<MarketingEmail> emails) {
+        List<EmailSendResult> out = new ArrayList<>(emails.size());
+        for (MarketingEmail e : emails) {
+            out.add(sendMarketingEmailSync(e.toEmail(), e.subject(), e.bodyWithMarkers()));
+        }
+        return out;
+    }
+
+    /** One marketing email: recipient, subject and marker-syntax body. */
+    record MarketingEmail(String toEmail, String subject, String bodyWithMarkers) {}
+
+    /** Outcome of a synchronous email send. {@code rateLimited} marks a provider 429 worth retrying. */
+    record EmailSendResult(boolean success, String errorMessage, boolean rateLimited) {
+        public EmailSendResult(boolean success, String errorMessage) { this(success, errorMessage, false); }
         public static EmailSendResult ok() { return new EmailSendResult(true, null); }
         public static EmailSendResult failed(String errorMessage) { return new EmailSendResult(false, errorMessage); }
+        public static EmailSendResult throttled(String errorMessage) { return new EmailSendResult(false, errorMessage, true); }
     }
 }
@@ -41,6 +41,7 @@ public class FeatureImageSettingsService {
 
     private final AmazonS3 r2;              // Cloudflare R2 client
     private final SettingsService settings; // your existing SettingsService
+    private final SignedUrlService signedUrls;
     private final ObjectMapper om = new ObjectMapper();
 
     @Value("${cloudflare.r2.bucket}")
@@ -376,12 +377,7 @@ public class FeatureImageSettingsService {
     /* ─────────────────────────── Helpers ─────────────────────────── */
 
     private String signGet(String key) {
-        Date exp = new Date(System.currentTimeMillis() + (long) signedTtlSeconds * 1000);
-        GeneratePresignedUrlRequest req = new GeneratePresignedUrlRequest(bucket, key)
-                .withMethod(com.amazonaws.HttpMethod.GET)
-                .withExpiration(exp);
-        URL url = r2.generatePresignedUrl(req);
-        return url.toString();
+        return signedUrls.signGet(key, Duration.ofSeconds(signedTtlSeconds));
     }
 
     private void safeDelete(String key) {
@@ -23,6 +23,8 @@ import java.util.Locale;
 @RequiredArgsConstructor
 public class FileImageService {
 
+    private final ImageMagickService imageMagick;
+
     @Value("${feature.images.dir:media/feature-tiles}")
     private String featureImagesDir;
 
@@ -58,28 +60,18 @@ public class FileImageService {
 
         // Decode → resize/crop → encode
         if (isHeic) {
-            // Try ImageMagick if available
-            // convert input(heic bytes) -> jpg temp → read → thumb → save
-            Path tmpIn = Files.createTempFile("heic-in-", ".heic");
-            Path tmpJpg = Files.createTempFile("heic-out-", ".jpg");
-            try (OutputStream os = Files.newOutputStream(tmpIn, StandardOpenOption.TRUNCATE_EXISTING)) {
-                os.write(file.getBytes());
-            }
-            boolean converted = convertHeicToJpg(tmpIn, tmpJpg);
-            if (!converted) {
-                Files.deleteIfExists(tmpIn);
-                Files.deleteIfExists(tmpJpg);
-                log.error("[IMAGE][CONVERT] Failed to convert HEIC to JPG for {}", origName);
-                throw new IOException("HEIC/HEIF not supported on server. Please upload JPEG/PNG.");
-            }
-            try (InputStream is = Files.newInputStream(tmpJpg)) {
-                BufferedImage src = ImageIO.read(is);
-                BufferedImage thumb = cropResize(src, TARGET_WIDTH, TARGET_HEIGHT);
-                saveJpeg(thumb, out);
-            } finally {
-                Files.deleteIfExists(tmpIn);
-                Files.deleteIfExists(tmpJpg);
+            // HEIC bytes are piped through ImageMagick (shared process limit), then thumbnailed in memory
+            byte[] jpg;
+            try {
+                jpg = imageMagick.heicToJpeg(file.getBytes());
+            } catch (IOException e) {
+                log.error("[IMAGE][CONVERT] Failed to convert HEIC to JPG for {}: {}", origName, e.getMessage());
+                throw new IOException("HEIC/HEIF not supported on server. Please upload JPEG/PNG.", e);
             }
+            BufferedImage src = ImageIO.read(new ByteArrayInputStream(jpg));
+            if (src == null) throw new IOException("Unsupported image format");
+            BufferedImage thumb = cropResize(src, TARGET_WIDTH, TARGET_HEIGHT);
+            saveJpeg(thumb, out);
         } else {
             log.info("[IMAGE][SAVE] Processing upload: {}", origName);
             try (InputStream is = file.getInputStream()) {
@@ -164,21 +156,4 @@ public class FileImageService {
         String e = FilenameUtils.getExtension(original);
         return (e == null || e.isBlank()) ? "jpg" : e;
     }
-
-    private static boolean convertHeicToJpg(Path in, Path outJpg) {
-        try {
-            Process p = new ProcessBuilder("convert", in.toString(), outJpg.toString())
-                    .redirectErrorStream(true)
-                    .start();
-            int code = p.waitFor();
-            boolean success = code == 0 && Files.exists(outJpg);
-            if (!success) {
-                log.warn("[IMAGE][CONVERT] ImageMagick failed for HEIC: exitCode={}", code);
-            }
-            return success;
-        } catch (Exception e) {
-            log.error("[IMAGE][CONVERT] Error running ImageMagick", e);
-            return false;
-        }
-    }
 }
@@ -0,0 +1,152 @@
+package com.blossombuds.service;
+
+import com.blossombuds.domain.Country;
+import com.blossombuds.domain.District;
+import com.blossombuds.domain.State;
+import com.blossombuds.repository.CountryRepository;
+import com.blossombuds.repository.DistrictRepository;
+import com.blossombuds.repository.StateRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory copy of the country / state / district reference tables.
+ * <p>
+ * The tables are seeded by Liquibase and have no write endpoints, so they are read once at startup
+ * into an immutable {@link Snapshot} and swapped atomically on {@link #reload()} and every
+ * {@code app.geo.refresh-ms}. Name lookups for orders, addresses, checkout and the location
+ * endpoints are then plain map reads, safe to share between threads.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GeoReferenceCache {
+
+    private final CountryRepository countryRepository;
+    private final StateRepository stateRepository;
+    private final DistrictRepository districtRepository;
+
+    private volatile Snapshot snapshot;
+
+    /** Current reference data; loaded on first use if startup warm-up has not run yet. */
+    public Snapshot current() {
+        Snapshot s = snapshot;
+        if (s != null) return s;
+        synchronized (this) {
+            if (snapshot == null) snapshot = load();
+            return snapshot;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        reload();
+    }
+
+    /** Re-reads all three tables; on failure the previous snapshot stays in place. */
+    @Scheduled(fixedDelayString = "${app.geo.refresh-ms:3600000}",
+            initialDelayString = "${app.geo.refresh-ms:3600000}")
+    public void reload() {
+        try {
+            Snapshot s = load();
+            synchronized (this) {
+                snapshot = s;
+            }
+        } catch (Exception e) {
+            log.error("[GEO][CACHE][RELOAD][FAIL] err={}", e.toString());
+        }
+    }
+
+    private Snapshot load() {
+        long t0 = System.currentTimeMillis();
+        Snapshot s = Snapshot.of(countryRepository.findAll(), stateRepository.findAll(), districtRepository.findAll());
+        log.info("[GEO][CACHE][LOAD] countries={} states={} districts={} tookMs={}",
+                s.countries.size(), s.states.size(), s.districts.size(), System.currentTimeMillis() - t0);
+        return s;
+    }
+
+    public Optional<Country> country(Long id) { return current().country(id); }
+    public Optional<State> state(Long id) { return current().state(id); }
+    public Optional<District> district(Long id) { return current().district(id); }
+
+    public String countryName(Long id) { return country(id).map(Country::getName).orElse(null); }
+    public String stateName(Long id) { return state(id).map(State::getName).orElse(null); }
+    public String districtName(Long id) { return district(id).map(District::getName).orElse(null); }
+
+    public List<Country> countries() { return current().allCountries; }
+    public List<State> states() { return current().allStates; }
+    public List<District> districts() { return current().allDistricts; }
+    public List<State> statesOf(Long countryId) { return current().statesByCountry.getOrDefault(countryId, List.of()); }
+    public List<District> districtsOf(Long stateId) { return current().districtsByState.getOrDefault(stateId, List.of()); }
+
+    /**
+     * Immutable view of the reference tables at one point in time. Entities are detached copies and
+     * must be treated as read-only.
+     */
+    public static final class Snapshot {
+
+        private final Map<Long, Country> countries;
+        private final Map<Long, State> states;
+        private final Map<Long, District> districts;
+        private final List<Country> allCountries;
+        private final List<State> allStates;
+        private final List<District> allDistricts;
+        private final Map<Long, List<State>> statesByCountry;
+        private final Map<Long, List<District>> districtsByState;
+
+        private Snapshot(List<Country> countries, List<State> states, List<District> districts) {
+            this.countries = byId(countries, Country::getId);
+            this.states = byId(states, State::getId);
+            this.districts = byId(districts, District::getId);
+            this.allCountries = countries;
+            this.allStates = states;
+            this.allDistricts = districts;
+            this.statesByCountry = groupBy(states, State::getCountryId);
+            this.districtsByState = groupBy(districts, District::getStateId);
+        }
+
+        /** Builds a snapshot from active rows; each list keeps id order. */
+        static Snapshot of(Collection<Country> countries, Collection<State> states, Collection<District> districts) {
+            return new Snapshot(sorted(countries, Country::getId), sorted(states, State::getId), sorted(districts, District::getId));
+        }
+
+        public Optional<Country> country(Long id) { return id == null ? Optional.empty() : Optional.ofNullable(countries.get(id)); }
+        public Optional<State> state(Long id) { return id == null ? Optional.empty() : Optional.ofNullable(states.get(id)); }
+        public Optional<District> district(Long id) { return id == null ? Optional.empty() : Optional.ofNullable(districts.get(id)); }
+
+        private static <T> List<T> sorted(Collection<T> rows, Function<T, Long> id) {
+            return rows.stream()
+                    .filter(r -> id.apply(r) != null)
+                    .sorted(Comparator.comparing(id))
+                    .toList();
+        }
+
+        private static <T> Map<Long, T> byId(List<T> rows, Function<T, Long> id) {
+            Map<Long, T> m = new HashMap<>();
+            for (T r : rows) m.put(id.apply(r), r);
+            return Map.copyOf(m);
+        }
+
+        private static <T> Map<Long, List<T>> groupBy(List<T> rows, Function<T, Long> key) {
+            Map<Long, List<T>> m = rows.stream()
+                    .filter(r -> key.apply(r) != null)
+                    .collect(Collectors.groupingBy(key, LinkedHashMap::new, Collectors.toList()));
+            m.replaceAll((k, v) -> List.copyOf(v));
+            return Map.copyOf(m);
+        }
+    }
+}
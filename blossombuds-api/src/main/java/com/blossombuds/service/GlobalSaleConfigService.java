@@ -27,6 +27,7 @@ import java.util.Optional;
 public class GlobalSaleConfigService {
 
     private final GlobalSaleConfigRepository globalSaleRepo;
+    private final PricingEpochService pricingEpoch;
 
     /** Lists all configs newest first (admin). */
     @PreAuthorize("hasRole('ADMIN')")
@@ -72,6 +73,7 @@ public class GlobalSaleConfigService {
 
 
         GlobalSaleConfig saved = globalSaleRepo.save(g);
+        pricingEpoch.bumpAfterCommit();
         log.info("[DISCOUNT][CREATE][OK] id={} enabled={} pct={} window={}..{}",
                 saved.getId(), saved.getEnabled(), saved.getPercentOff(), saved.getStartsAt(), saved.getEndsAt());
 
@@ -111,6 +113,7 @@ public class GlobalSaleConfigService {
         if (dto.getEndsAt() != null) g.setEndsAt(toUtcLdt(dto.getEndsAt()));
 
         GlobalSaleConfig saved = globalSaleRepo.save(g);
+        pricingEpoch.bumpAfterCommit();
         log.info("[DISCOUNT][UPDATE][OK] id={} enabled={} pct={} window={}..{}",
                 saved.getId(), saved.getEnabled(), saved.getPercentOff(), saved.getStartsAt(), saved.getEndsAt());
 
@@ -125,6 +128,7 @@ public class GlobalSaleConfigService {
         GlobalSaleConfig g = globalSaleRepo.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("GlobalSaleConfig not found: " + id));
         globalSaleRepo.delete(g);
+        pricingEpoch.bumpAfterCommit();
         log.info("[DISCOUNT][DELETE][OK] id={}", id);
     }
 
@@ -0,0 +1,299 @@
+package com.blossombuds.service;
+
+import com.blossombuds.util.ImageMagickUtil;
+import com.blossombuds.util.ImageUtil;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The one place ImageMagick processes are started.
+ * <p>
+ * Conversions stream the image over the process' stdin/stdout ({@code heic:-[0]} in, {@code jpg:-} out),
+ * so no temp files are written. At most {@code app.imagemagick.max-concurrent} processes run at once:
+ * a HEIC decode can take several hundred MB, and a burst of review uploads used to fork one process
+ * per request. Further callers queue on a fair semaphore for up to {@code acquire-timeout-ms} and then
+ * get 503; a process running longer than {@code process-timeout-seconds} is killed.
+ * <p>
+ * WebP encodes for product image variants ({@link #toWebp}) run in a separate lane of
+ * {@code app.imagemagick.variants.max-concurrent} processes, so the four encodes behind every product
+ * upload never take the slots that interactive HEIC conversions wait on.
+ * <p>
+ * Metrics: {@code imagemagick.queue.depth} and {@code imagemagick.active} gauges, {@code imagemagick.queue.wait}
+ * and {@code imagemagick.conversion} timers (tagged by op and outcome) and an {@code imagemagick.rejected} counter.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImageMagickService {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.imagemagick.cmd:convert}")
+    private String magickCmd = "convert";
+
+    @Value("${app.imagemagick.max-concurrent:2}")
+    private int maxConcurrent = 2;
+
+    @Value("${app.imagemagick.variants.max-concurrent:1}")
+    private int variantMaxConcurrent = 1;
+
+    /** How long a caller waits for a free slot before the request fails with 503. */
+    @Value("${app.imagemagick.acquire-timeout-ms:20000}")
+    private long acquireTimeoutMs = 20000;
+
+    @Value("${app.imagemagick.process-timeout-seconds:60}")
+    private long processTimeoutSeconds = 60;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+
+    private Semaphore slots;
+    private Semaphore variantSlots;
+    /** Pumps stdin/stdout/stderr of running processes; bounded in practice by 3 x max-concurrent. */
+    private ExecutorService io;
+
+    @PostConstruct
+    public void init() {
+        slots = new Semaphore(Math.max(1, maxConcurrent), true);
+        variantSlots = new Semaphore(Math.max(1, variantMaxConcurrent), true);
+        AtomicInteger seq = new AtomicInteger();
+        io = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "magick-io-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        Gauge.builder("imagemagick.queue.depth", waiting, AtomicInteger::get)
+                .description("Callers waiting for an ImageMagick slot")
+                .register(meterRegistry);
+        Gauge.builder("imagemagick.active", active, AtomicInteger::get)
+                .description("ImageMagick processes running")
+                .register(meterRegistry);
+        ImageMagickUtil.install(this);
+        log.info("[MAGICK][INIT] cmd='{}' maxConcurrent={} variantMaxConcurrent={} acquireTimeoutMs={} processTimeoutSeconds={}",
+                magickCmd, maxConcurrent, variantMaxConcurrent, acquireTimeoutMs, processTimeoutSeconds);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ImageMagickUtil.install(null);
+        if (io != null) io.shutdownNow();
+    }
+
+    /** HEIC/HEIF → JPEG (quality 85), first frame only. */
+    public byte[] heicToJpeg(byte[] heic) throws IOException {
+        if (heic == null || heic.length == 0) {
+            throw new IOException("HEIC payload is empty");
+        }
+        // [0]: HEIC files usually carry a thumbnail as a second image, which jpg:- would append to the output.
+        byte[] jpeg = run("heic-to-jpeg", slots, heic, "heic:-[0]", "-quality", "85", "jpg:-");
+        log.info("[MAGICK][HEIC][OK] in={} bytes out={} bytes", heic.length, jpeg.length);
+        return jpeg;
+    }
+
+    /**
+     * Normalize any input to sRGB JPEG (no resize here, just rotation fix and stripping metadata).
+     * JPEG input is returned as is.
+     */
+    public byte[] ensureJpeg(byte[] input, String filename, String contentType) throws IOException {
+        String n = filename == null ? "" : filename.toLowerCase();
+        String ct = contentType == null ? "" : contentType.toLowerCase();
+        boolean alreadyJpeg = n.endsWith(".jpg") || n.endsWith(".jpeg")
+                || ct.contains("jpeg") || ct.endsWith("/jpg");
+        if (alreadyJpeg) return input;
+
+        String in = ImageMagickUtil.isHeicLike(filename, contentType) ? "heic:-[0]" : "-[0]";
+        return run("ensure-jpeg", slots, input, in,
+                "-colorspace", "sRGB",
+                "-auto-orient",
+                "-strip",
+                "-quality", "90",
+                "jpg:-");
+    }
+
+    /**
+     * Produce a visually crisp JPEG under ~300 KB: long edge clamped to 1600px, Lanczos, slight unsharp,
+     * progressive, optimized coding; quality binary-searched in 55..88. The source is PNG-encoded once
+     * and piped to every trial.
+     */
+    public byte[] targetSizeJpeg(BufferedImage src) throws IOException {
+        final int TARGET_BYTES = 300 * 1024;
+        final int MIN_Q = 55, MAX_Q = 88;
+
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(src, "png", png);
+        byte[] pngBytes = png.toByteArray();
+
+        int lo = MIN_Q, hi = MAX_Q;
+        byte[] best = null;
+        while (lo <= hi) {
+            int q = (lo + hi) / 2;
+            byte[] bytes = targetSizeTrial(pngBytes, q);
+            if (bytes.length <= TARGET_BYTES) {
+                best = bytes;   // keep this as current best
+                lo = q + 1;     // try higher quality
+            } else {
+                hi = q - 1;     // too big → lower quality
+            }
+        }
+        return best != null ? best : targetSizeTrial(pngBytes, MIN_Q);
+    }
+
+    private byte[] targetSizeTrial(byte[] png, int quality) throws IOException {
+        return run("target-size-jpeg", slots, png, "png:-",
+                "-colorspace", "sRGB",
+                "-auto-orient",
+                "-filter", "Lanczos",
+                "-resize", "1600x1600>",   // only shrink
+                "-unsharp", "0x0.6+0.6+0.004",
+                "-strip",
+                "-interlace", "Plane",
+                "-sampling-factor", "4:2:0",
+                "-define", "jpeg:optimize-coding=true",
+                "-define", "jpeg:dct-method=float",
+                "-quality", String.valueOf(quality),
+                "jpg:-");
+    }
+
+    /**
+     * Lossy WebP encode (ImageIO has no WebP writer), in the variant lane. The image goes in as
+     * uncompressed BMP, which is cheap to produce and to read.
+     */
+    public byte[] toWebp(BufferedImage img, int quality) throws IOException {
+        BufferedImage rgb = ImageUtil.ensureRGB(img);
+        ByteArrayOutputStream bmp = new ByteArrayOutputStream(rgb.getWidth() * rgb.getHeight() * 3 + 1024);
+        if (!ImageIO.write(rgb, "bmp", bmp)) {
+            throw new IOException("No BMP writer available");
+        }
+        return run("webp", variantSlots, bmp.toByteArray(), "bmp:-",
+                "-strip",
+                "-quality", String.valueOf(quality),
+                "-define", "webp:method=4",
+                "webp:-");
+    }
+
+    /** Runs the configured command with {@code args} in {@code lane}, piping {@code stdin} in; returns stdout. */
+    private byte[] run(String op, Semaphore lane, byte[] stdin, String... args) throws IOException {
+        List<String> argv = new ArrayList<>(args.length + 1);
+        argv.add(magickCmd);
+        argv.addAll(Arrays.asList(args));
+        byte[] out = exec(op, argv, stdin, lane);
+        if (out.length == 0) {
+            throw new IOException("ImageMagick produced no output (op=" + op + ")");
+        }
+        return out;
+    }
+
+    /**
+     * Runs a full ImageMagick command line under the concurrency limit and returns its stdout.
+     * {@code stdin} may be null for commands that read files.
+     *
+     * @throws ResponseStatusException 503 when no slot frees up within the acquire timeout
+     * @throws IOException on a non-zero exit, a timeout, or pipe failure
+     */
+    public byte[] exec(String op, List<String> argv, byte[] stdin) throws IOException {
+        return exec(op, argv, stdin, slots);
+    }
+
+    private byte[] exec(String op, List<String> argv, byte[] stdin, Semaphore lane) throws IOException {
+        long queuedAt = System.nanoTime();
+        acquire(op, lane);
+        long startedAt = System.nanoTime();
+        Timer.builder("imagemagick.queue.wait").tag("op", op).register(meterRegistry)
+                .record(startedAt - queuedAt, TimeUnit.NANOSECONDS);
+
+        active.incrementAndGet();
+        String outcome = "fail";
+        try {
+            byte[] out = runProcess(argv, stdin);
+            outcome = "ok";
+            return out;
+        } finally {
+            active.decrementAndGet();
+            lane.release();
+            long tookNanos = System.nanoTime() - startedAt;
+            Timer.builder("imagemagick.conversion").tag("op", op).tag("outcome", outcome).register(meterRegistry)
+                    .record(tookNanos, TimeUnit.NANOSECONDS);
+            log.debug("[MAGICK][EXEC] op={} outcome={} waitMs={} tookMs={}", op, outcome,
+                    TimeUnit.NANOSECONDS.toMillis(startedAt - queuedAt), TimeUnit.NANOSECONDS.toMillis(tookNanos));
+        }
+    }
+
+    private void acquire(String op, Semaphore lane) throws IOException {
+        waiting.incrementAndGet();
+        try {
+            if (!lane.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                meterRegistry.counter("imagemagick.rejected", "op", op).increment();
+                log.warn("[MAGICK][BUSY] op={} no slot within {}ms, queueDepth={}", op, acquireTimeoutMs, waiting.get());
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Image conversion is busy; please retry");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for ImageMagick", e);
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    private byte[] runProcess(List<String> argv, byte[] stdin) throws IOException {
+        Process p = new ProcessBuilder(argv).start();
+        // All three pipes are pumped concurrently: a process blocked on a full stderr pipe would never exit.
+        Future<byte[]> stdout = io.submit(() -> p.getInputStream().readAllBytes());
+        Future<byte[]> stderr = io.submit(() -> p.getErrorStream().readAllBytes());
+        io.submit(() -> {
+            try (OutputStream os = p.getOutputStream()) {
+                if (stdin != null) os.write(stdin);
+            } catch (IOException e) {
+                // broken pipe: the process exited early; its exit code and stderr tell why
+            }
+        });
+
+        try {
+            if (!p.waitFor(processTimeoutSeconds, TimeUnit.SECONDS)) {
+                p.destroyForcibly();
+                throw new IOException("ImageMagick timed out after " + processTimeoutSeconds + "s");
+            }
+            byte[] out = stdout.get(processTimeoutSeconds, TimeUnit.SECONDS);
+            String err = new String(stderr.get(processTimeoutSeconds, TimeUnit.SECONDS), StandardCharsets.UTF_8).trim();
+            int code = p.exitValue();
+            if (code != 0) {
+                throw new IOException("ImageMagick failed (" + code + "): " + err);
+            }
+            if (!err.isEmpty()) log.debug("[MAGICK][STDERR] {}", err);
+            return out;
+        } catch (InterruptedException e) {
+            p.destroyForcibly();
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while running ImageMagick", e);
+        } catch (ExecutionException | TimeoutException e) {
+            p.destroyForcibly();
+            throw new IOException("ImageMagick pipe failed: " + e, e);
+        }
+    }
+}
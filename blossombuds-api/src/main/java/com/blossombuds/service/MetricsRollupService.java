@@ -0,0 +1,185 @@
+package com.blossombuds.service;
+
+import com.blossombuds.repository.MetricsRepo;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Maintains the per-day metrics rollups (metrics_daily, metrics_daily_product, metrics_daily_category).
+ * <ul>
+ *   <li>Order writes mark their order dirty after commit; a short timer recomputes the affected days.</li>
+ *   <li>Today (and yesterday) are refreshed on a timer, which also picks up new customers.</li>
+ *   <li>A nightly reconcile recomputes the last few days, covering writes made outside OrderService.</li>
+ *   <li>History is backfilled once when the rollup tables are empty, on its own thread (started from
+ *       {@link ApplicationReadyEvent}) so a long backfill never holds up the shared scheduler.</li>
+ * </ul>
+ * Until the backfill has finished, {@link #isReady()} is false and dashboards read raw tables.
+ * <p>
+ * Category quantities use the product→category links as they are when a day is recomputed, not as they
+ * were when the order was placed (order lines do not record a category). Recategorizing a product therefore
+ * moves its past sales to the new category for every day recomputed afterwards, including the days the
+ * nightly reconcile covers. This matches the raw-table category query used before the backfill completes.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MetricsRollupService {
+
+    private static final ZoneId BIZ_ZONE = ZoneId.of("Asia/Kolkata");
+
+    private final MetricsRepo metricsRepo;
+
+    @Value("${app.metrics.rollup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.metrics.rollup.reconcile-days:7}")
+    private int reconcileDays;
+
+    private final Set<Long> dirtyOrders = ConcurrentHashMap.newKeySet();
+    private volatile boolean ready;
+    private volatile boolean backfillChecked;
+    private final AtomicBoolean backfillRunning = new AtomicBoolean();
+
+    private final ExecutorService backfillExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "metrics-backfill");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /** True when dashboard reads can be served from the rollup tables. */
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    /** Schedules a recompute of the day the order belongs to, once the current transaction commits. */
+    public void markOrderAfterCommit(Long orderId) {
+        if (!enabled || orderId == null) return;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override public void afterCommit() { dirtyOrders.add(orderId); }
+            });
+        } else {
+            dirtyOrders.add(orderId);
+        }
+    }
+
+    /** Recomputes the days touched by recently written orders (bursts of writes coalesce per day). */
+    @Scheduled(fixedDelayString = "${app.metrics.rollup.flush-interval-ms:5000}")
+    public void flushDirty() {
+        if (!enabled || dirtyOrders.isEmpty()) return;
+        List<Long> ids = new ArrayList<>(dirtyOrders);
+        ids.forEach(dirtyOrders::remove);
+        try {
+            for (LocalDate day : metricsRepo.orderDays(ids)) {
+                refreshDay(day);
+            }
+        } catch (Exception e) {
+            dirtyOrders.addAll(ids); // retry on the next tick
+            log.warn("[METRICS][ROLLUP][FLUSH][FAIL] orders={} err={}", ids.size(), e.toString());
+        }
+    }
+
+    /** Checks (and if needed runs) the one-off history backfill once the app is up. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        startBackfillCheck();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        backfillExecutor.shutdownNow();
+    }
+
+    /** Keeps today's row current (new customers, writes from other nodes) once the backfill check is done. */
+    @Scheduled(fixedDelayString = "${app.metrics.rollup.today-refresh-ms:60000}",
+            initialDelayString = "${app.metrics.rollup.initial-delay-ms:30000}")
+    public void refreshRecent() {
+        if (!enabled) return;
+        if (!backfillChecked) {
+            startBackfillCheck(); // no-op while one is running; retries one that failed
+            return;
+        }
+        try {
+            LocalDate today = LocalDate.now(BIZ_ZONE);
+            refreshDay(today.minusDays(1));
+            refreshDay(today);
+        } catch (Exception e) {
+            log.warn("[METRICS][ROLLUP][RECENT][FAIL] {}", e.toString());
+        }
+    }
+
+    /** Runs {@link #backfillIfEmpty()} on the backfill thread unless it already ran or is running. */
+    void startBackfillCheck() {
+        if (!enabled || backfillChecked || !backfillRunning.compareAndSet(false, true)) return;
+        backfillExecutor.execute(() -> {
+            try {
+                backfillIfEmpty();
+            } catch (Exception e) {
+                log.warn("[METRICS][ROLLUP][BACKFILL][FAIL] will retry: {}", e.toString());
+            } finally {
+                backfillRunning.set(false);
+            }
+        });
+    }
+
+    /** Nightly safety net for order/payment writes that bypass OrderService (webhooks, checkout). */
+    @Scheduled(cron = "${app.metrics.rollup.reconcile-cron:0 30 3 * * *}", zone = "Asia/Kolkata")
+    public void reconcile() {
+        if (!enabled) return;
+        LocalDate today = LocalDate.now(BIZ_ZONE);
+        backfill(today.minusDays(Math.max(reconcileDays, 1)), today);
+    }
+
+    /** Recomputes every day in [from, to]; returns the number of days refreshed. */
+    public int backfill(LocalDate from, LocalDate to) {
+        if (from == null || to == null) throw new IllegalArgumentException("from and to are required");
+        if (from.isAfter(to)) throw new IllegalArgumentException("from must not be after to");
+
+        long t0 = System.currentTimeMillis();
+        int days = 0;
+        for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1)) {
+            refreshDay(d);
+            days++;
+        }
+        log.info("[METRICS][ROLLUP][BACKFILL][OK] from={} to={} days={} tookMs={}",
+                from, to, days, System.currentTimeMillis() - t0);
+        return days;
+    }
+
+    /** Recomputes one day's totals, product and category rows from source tables. */
+    public void refreshDay(LocalDate day) {
+        metricsRepo.refreshDailyTotals(day);
+        metricsRepo.refreshDailyProducts(day);
+        metricsRepo.refreshDailyCategories(day);
+    }
+
+    private void backfillIfEmpty() {
+        if (metricsRepo.countDailyRollups() == 0) {
+            LocalDate first = metricsRepo.firstActivityDay();
+            if (first != null) {
+                log.info("[METRICS][ROLLUP][BACKFILL] empty rollups, backfilling from {}", first);
+                backfill(first, LocalDate.now(BIZ_ZONE));
+            }
+        }
+        backfillChecked = true;
+        ready = true;
+    }
+}
@@ -0,0 +1,246 @@
+package com.blossombuds.service;
+
+import com.blossombuds.domain.OrderStatus;
+import com.blossombuds.service.OrderService.OrderLiteDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Single query behind the admin order grid and the header of the order detail page.
+ * <p>
+ * Filters (created-at range, statuses) are composed into one WHERE clause and the row is projected
+ * straight into {@link OrderLiteDto} in SQL: location names, the partner tracking template and the
+ * active coupon are joined in, so no entities are loaded and nothing is looked up per row.
+ * <p>
+ * Paging is keyset-based: {@link Cursor} holds the sort key of the last row returned, and the next
+ * page is "rows after that key", which costs the same on page 1 and page 10,000. Totals are optional
+ * ({@link CountMode}); the planner estimate is a cheap alternative to {@code COUNT(*)}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderLiteQuery {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Grid ordering; every order ends in {@code id} so keys are unique. */
+    public enum SortKey { ID, CREATED_AT }
+
+    /** How {@code totalElements} is produced. */
+    public enum CountMode { EXACT, ESTIMATE, NONE }
+
+    /** Optional filters; nulls/empty mean "no filter". {@code to} is exclusive. */
+    public record Filter(LocalDateTime from, LocalDateTime to, List<OrderStatus> statuses) {}
+
+    /** Result of one fetch: up to {@code limit} rows and the cursor for the next page (null at the end). */
+    public record Slice(List<OrderLiteDto> rows, Cursor next) {}
+
+    /**
+     * Position after the last row of a page. Opaque to clients (URL-safe base64) and bound to the
+     * sort it was issued for.
+     */
+    public record Cursor(SortKey sort, boolean desc, LocalDateTime createdAt, long id) {
+
+        public String encode() {
+            String raw = sort.name() + "|" + (desc ? "D" : "A") + "|" + (createdAt == null ? "" : createdAt) + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        public static Cursor decode(String token) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                String[] p = raw.split("\\|", -1);
+                if (p.length != 4) throw new IllegalArgumentException("Invalid cursor");
+                SortKey sort = SortKey.valueOf(p[0]);
+                LocalDateTime createdAt = p[2].isEmpty() ? null : LocalDateTime.parse(p[2]);
+                if (sort == SortKey.CREATED_AT && createdAt == null) throw new IllegalArgumentException("Invalid cursor");
+                return new Cursor(sort, "D".equals(p[1]), createdAt, Long.parseLong(p[3]));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor", e);
+            }
+        }
+    }
+
+    private static final String SELECT = """
+            SELECT o.id, o.public_code, o.customer_id, o.status::text AS status,
+                   o.items_subtotal, o.shipping_fee, o.discount_total, o.taxable_amount,
+                   o.gst_rate, o.gst_amount, o.grand_total, o.currency, o.order_notes,
+                   o.ship_name, o.ship_phone, o.ship_line1, o.ship_line2, o.ship_pincode, o.created_at,
+                   o.delivery_partner_id, o.courier_name, o.tracking_number,
+                   CASE WHEN o.delivery_partner_id IS NOT NULL THEN dp.tracking_url_template
+                        ELSE o.tracking_url END AS tracking_url,
+                   o.ship_country_id, c.name AS ship_country_name,
+                   o.ship_state_id, s.name AS ship_state_name,
+                   o.ship_district_id, d.name AS ship_district_name,
+                   cr.coupon_id, cr.coupon_code
+              FROM orders o
+              LEFT JOIN delivery_partners dp ON dp.id = o.delivery_partner_id
+              LEFT JOIN countries c ON c.id = o.ship_country_id
+              LEFT JOIN states s    ON s.id = o.ship_state_id
+              LEFT JOIN districts d ON d.id = o.ship_district_id
+              LEFT JOIN LATERAL (
+                    SELECT r.coupon_id, cp.code AS coupon_code
+                      FROM coupon_redemptions r
+                      JOIN coupons cp ON cp.id = r.coupon_id
+                     WHERE r.order_id = o.id AND r.active = true
+                     ORDER BY r.id DESC
+                     LIMIT 1) cr ON true
+            """;
+
+    private static final Pattern PLAN_ROWS = Pattern.compile("\"Plan Rows\"\\s*:\\s*([0-9.eE+]+)");
+
+    /**
+     * One page. With a cursor the page starts right after it; without one it starts at {@code offset}
+     * (0 for the first page; kept so page-number clients still work).
+     */
+    public Slice fetch(Filter filter, SortKey sort, boolean desc, Cursor after, int offset, int limit) {
+        if (after != null && (after.sort() != sort || after.desc() != desc)) {
+            throw new IllegalArgumentException("Cursor does not match the requested sort");
+        }
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(SELECT).append(where(filter, args));
+
+        if (after != null) {
+            String op = desc ? "<" : ">";
+            if (sort == SortKey.CREATED_AT) {
+                sql.append(" AND (o.created_at, o.id) ").append(op).append(" (?, ?)");
+                args.add(Timestamp.valueOf(after.createdAt()));
+            } else {
+                sql.append(" AND o.id ").append(op).append(" ?");
+            }
+            args.add(after.id());
+        }
+
+        String dir = desc ? " DESC" : " ASC";
+        sql.append(sort == SortKey.CREATED_AT
+                ? "\n ORDER BY o.created_at" + dir + ", o.id" + dir
+                : "\n ORDER BY o.id" + dir);
+        sql.append(" LIMIT ?");
+        args.add(limit + 1); // one extra row tells us whether there is a next page
+        if (after == null && offset > 0) {
+            sql.append(" OFFSET ?");
+            args.add(offset);
+        }
+
+        List<OrderLiteDto> rows = jdbcTemplate.query(sql.toString(), LITE_MAPPER, args.toArray());
+        Cursor next = null;
+        if (rows.size() > limit) {
+            rows = new ArrayList<>(rows.subList(0, limit));
+            OrderLiteDto last = rows.get(limit - 1);
+            next = new Cursor(sort, desc, last.getCreatedDate(), last.getId());
+        }
+        return new Slice(rows, next);
+    }
+
+    /** The same projection for a single active order, by bare public code (no "BB" prefix). */
+    public Optional<OrderLiteDto> findByPublicCode(String bareCode) {
+        List<OrderLiteDto> rows = jdbcTemplate.query(
+                SELECT + "\n WHERE o.active = true AND o.public_code = ? LIMIT 1", LITE_MAPPER, bareCode);
+        return rows.stream().findFirst();
+    }
+
+    /** Number of orders matching the filter, exactly or as the planner estimates it; null for NONE. */
+    public Long count(Filter filter, CountMode mode) {
+        if (mode == null || mode == CountMode.NONE) return null;
+        List<Object> args = new ArrayList<>();
+        String from = "FROM orders o" + where(filter, args);
+        if (mode == CountMode.EXACT) {
+            return jdbcTemplate.queryForObject("SELECT count(*) " + from, Long.class, args.toArray());
+        }
+        String plan = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) SELECT 1 " + from, String.class, args.toArray());
+        Matcher m = plan == null ? null : PLAN_ROWS.matcher(plan);
+        if (m == null || !m.find()) {
+            log.warn("[ORDER][LIST][ESTIMATE][FAIL] no plan rows, falling back to count");
+            return count(filter, CountMode.EXACT);
+        }
+        return Math.round(Double.parseDouble(m.group(1)));
+    }
+
+    /** WHERE clause for the filter (always active orders only); appends its bind values to {@code args}. */
+    static String where(Filter filter, List<Object> args) {
+        StringBuilder w = new StringBuilder("\n WHERE o.active = true");
+        if (filter == null) return w.toString();
+        if (filter.statuses() != null && !filter.statuses().isEmpty()) {
+            w.append(" AND o.status IN (");
+            for (int i = 0; i < filter.statuses().size(); i++) {
+                w.append(i == 0 ? "" : ", ").append("CAST(? AS order_status_enum)");
+                args.add(filter.statuses().get(i).name());
+            }
+            w.append(")");
+        }
+        if (filter.from() != null) {
+            w.append(" AND o.created_at >= ?");
+            args.add(Timestamp.valueOf(filter.from()));
+        }
+        if (filter.to() != null) {
+            w.append(" AND o.created_at < ?");
+            args.add(Timestamp.valueOf(filter.to()));
+        }
+        return w.toString();
+    }
+
+    private static final RowMapper<OrderLiteDto> LITE_MAPPER = (rs, n) -> {
+        OrderLiteDto d = new OrderLiteDto();
+        d.setId(rs.getLong("id"));
+        d.setPublicCode(rs.getString("public_code"));
+        d.setCustomerId(longOrNull(rs, "customer_id"));
+        String status = rs.getString("status");
+        d.setStatus(status != null ? status.toUpperCase(Locale.ROOT) : OrderStatus.ORDERED.name());
+        d.setItemsSubtotal(nzd(rs.getBigDecimal("items_subtotal")));
+        d.setShippingFee(nzd(rs.getBigDecimal("shipping_fee")));
+        d.setDiscountTotal(nzd(rs.getBigDecimal("discount_total")));
+        d.setTaxableAmount(nzd(rs.getBigDecimal("taxable_amount")));
+        d.setGstRate(nzd(rs.getBigDecimal("gst_rate")));
+        d.setGstAmount(nzd(rs.getBigDecimal("gst_amount")));
+        d.setGrandTotal(nzd(rs.getBigDecimal("grand_total")));
+        d.setCurrency(rs.getString("currency"));
+        d.setOrderNotes(rs.getString("order_notes"));
+
+        d.setShipName(rs.getString("ship_name"));
+        d.setShipPhone(rs.getString("ship_phone"));
+        d.setShipLine1(rs.getString("ship_line1"));
+        d.setShipLine2(rs.getString("ship_line2"));
+        d.setShipPincode(rs.getString("ship_pincode"));
+        Timestamp created = rs.getTimestamp("created_at");
+        d.setCreatedDate(created == null ? null : created.toLocalDateTime());
+
+        d.setDeliveryPartnerId(longOrNull(rs, "delivery_partner_id"));
+        d.setCourierName(rs.getString("courier_name"));
+        d.setTrackingNumber(rs.getString("tracking_number"));
+        d.setTrackingUrl(rs.getString("tracking_url"));
+        d.setCouponId(longOrNull(rs, "coupon_id"));
+        d.setCouponCode(rs.getString("coupon_code"));
+
+        d.setShipCountryId(longOrNull(rs, "ship_country_id"));
+        d.setShipCountryName(rs.getString("ship_country_name"));
+        d.setShipStateId(longOrNull(rs, "ship_state_id"));
+        d.setShipStateName(rs.getString("ship_state_name"));
+        d.setShipDistrictId(longOrNull(rs, "ship_district_id"));
+        d.setShipDistrictName(rs.getString("ship_district_name"));
+        return d;
+    };
+
+    private static Long longOrNull(ResultSet rs, String col) throws SQLException {
+        long v = rs.getLong(col);
+        return rs.wasNull() ? null : v;
+    }
+
+    private static BigDecimal nzd(BigDecimal x) { return x == null ? BigDecimal.ZERO : x; }
+}
@@ -1,11 +1,13 @@
 package com.blossombuds.service;
 
+import com.blossombuds.cache.OrderDetailCache;
 import com.blossombuds.domain.*;
 import com.blossombuds.dto.*;
 import com.blossombuds.repository.*;
 import com.blossombuds.web.OrderController;
 import lombok.*;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
 import org.springframework.data.domain.*;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -48,6 +50,7 @@ public class OrderService {
     private final CouponRedemptionRepository couponRedemptionRepository;
     private final CatalogService catalogService;
     private final SettingsService settingsService;
+    private final MetricsRollupService metricsRollup;
 
     @org.springframework.beans.factory.annotation.Value("${app.frontend.baseUrl:}")
     private String frontendBase;
@@ -62,6 +65,9 @@ public class OrderService {
             BigDecimal.valueOf(10).setScale(2, RoundingMode.HALF_UP);
     /** Optional: used to call next_public_code(); can be null in tests. */
     private final JdbcTemplate jdbcTemplate;
+    private final OrderLiteQuery orderLiteQuery;
+    private final GeoReferenceCache geoCache;
+    private final OrderDetailCache orderDetails;
 
     // ───────────────────────────────────────── Helpers ─────────────────────────────────────────
 
@@ -228,6 +234,7 @@ public class OrderService {
         o.setActive(dto.getActive() != null ? dto.getActive() : Boolean.TRUE);
 
         Order saved = orderRepo.save(o);
+        metricsRollup.markOrderAfterCommit(saved.getId());
         log.info("[ORDER][CREATE] Order saved with ID={} and publicCode={}", saved.getId(), saved.getPublicCode());
 
         if (resolvedCoupon != null) {
@@ -507,6 +514,8 @@ public class OrderService {
         }
 
         orderRepo.save(existing);
+        metricsRollup.markOrderAfterCommit(orderId);
+        evictDetailAfterCommit(existing);
 
         if (items != null) {
             if (replaceItems) {log.info("[ORDER][REPLACE_ITEMS] Deleting existing items for orderId={}", orderId);
@@ -561,6 +570,8 @@ public class OrderService {
         }
 
         orderRepo.save(order);
+        metricsRollup.markOrderAfterCommit(orderId);
+        evictDetailAfterCommit(order);
 
         if (order.getStatus() == OrderStatus.CANCELLED || order.getStatus() == OrderStatus.REFUNDED) {
             // a tiny helper in repo to find the redemption(s) for this order
@@ -634,6 +645,8 @@ public class OrderService {
         it.setActive(dto.getActive() != null ? dto.getActive() : Boolean.TRUE);
 
         OrderItem saved = itemRepo.save(it);
+        metricsRollup.markOrderAfterCommit(orderId);
+        evictDetailAfterCommit(o);
         log.info("[ORDER][ADD_ITEM] Item added to orderId={} with itemId={}", orderId, saved.getId());
         return saved;
     }
@@ -667,79 +680,57 @@ public class OrderService {
     // ────────────────────────────── Queries for list/search (lite DTOs) ──────────────────────────────
     // OrderService.java (add next to getDetailForCustomer)
 
+    /**
+     * Order tracking page. Assembled from one projected header query (partner tracking template,
+     * coupon and location names joined in) and the items; that unsigned detail is cached per public
+     * code and evicted after any write that changes what the page shows. Item image URLs are signed
+     * on every call (one batched lookup), so a cached entry never hands out an expired URL.
+     */
     @Transactional(readOnly = true)
     public Optional<OrderDetailDto> getDetailByPublicCode(String anyPublicCode) {
         log.info("Fetching order detail for publicCode={}", anyPublicCode);
         String bare = normalizePublicCode(anyPublicCode);
         if (bare == null || bare.isBlank()) return Optional.empty();
 
-        return orderRepo.findByPublicCode(bare).map(this::toLiteDetailDto);
-
+        OrderDetailDto snapshot = orderDetails.get(bare, OrderDetailDto.class);
+        if (snapshot == null) {
+            snapshot = orderLiteQuery.findByPublicCode(bare).map(head -> {
+                OrderDetailDto d = new OrderDetailDto();
+                BeanUtils.copyProperties(head, d);
+                d.setItems(toOrderItemViews(head.getId()));
+                return d;
+            }).orElse(null);
+            if (snapshot == null) return Optional.empty();
+            orderDetails.put(bare, snapshot);
+        }
+        return Optional.of(withItemImageUrls(snapshot));
     }
 
-    private OrderDetailDto toLiteDetailDto(Order o){
-        if (o.getShipCountry()!=null) countryCache = Map.of(o.getShipCountry().getId(), o.getShipCountry());
-        if (o.getShipState()!=null)   stateCache   = Map.of(o.getShipState().getId(), o.getShipState());
-        if (o.getShipDistrict()!=null)districtCache= Map.of(o.getShipDistrict().getId(), o.getShipDistrict());
-        List<OrderItemViewWithImage> orderItemList=toOrderItemViewWithImage(o);
-        OrderDetailDto d =new OrderDetailDto();
-        d.setId(o.getId());
-        d.setPublicCode(o.getPublicCode());
-        d.setCustomerId(o.getCustomerId());
-        d.setStatus(o.getStatus() != null ? o.getStatus().name() : OrderStatus.ORDERED.name());
-        d.setItemsSubtotal(nzd(o.getItemsSubtotal()));
-        d.setShippingFee(nzd(o.getShippingFee()));
-        d.setDiscountTotal(nzd(o.getDiscountTotal()));
-        d.setTaxableAmount(nzd(o.getTaxableAmount()));
-        d.setGstRate(nzd(o.getGstRate()));
-        d.setGstAmount(nzd(o.getGstAmount()));
-        d.setGrandTotal(nzd(o.getGrandTotal()));
-        d.setCurrency(o.getCurrency());
-        d.setOrderNotes(o.getOrderNotes());
-
-        d.setShipName(o.getShipName());
-        d.setShipPhone(o.getShipPhone());
-        d.setShipLine1(o.getShipLine1());
-        d.setShipLine2(o.getShipLine2());
-        d.setShipPincode(o.getShipPincode());
-        d.setCreatedDate(o.getCreatedAt());
-
-        // NEW: pass partner & tracking fields to FE
-        d.setDeliveryPartnerId(o.getDeliveryPartnerId());
-        d.setCourierName(o.getCourierName());
-        d.setTrackingNumber(o.getTrackingNumber());
-
-
-        if (o.getDeliveryPartnerId()!=null){
-            DeliveryPartner deliveryPartner = deliveryPartnerRepository.findById(o.getDeliveryPartnerId()).orElseThrow(() -> new IllegalArgumentException("Delivery Partner not found: " + o.getDeliveryPartnerId()));
-            d.setTrackingUrl(deliveryPartner.getTrackingUrlTemplate());
-        } else {d.setTrackingUrl(o.getTrackingUrl());}
-
-        CouponRedemption couponRedemption=couponRedemptionRepository.findByOrder_IdAndActiveTrue(o.getId());
-
-        if(couponRedemption!=null){
-            d.setCouponId(couponRedemption.getCoupon().getId());
-            d.setCouponCode(couponRedemption.getCoupon().getCode());}
-
-        if (o.getShipCountry()!=null) {
-            Country c = countryCache.getOrDefault(o.getShipCountry().getId(), o.getShipCountry());
-            d.setShipCountryId(c.getId());
-            d.setShipCountryName(c.getName());
-        }
-        if (o.getShipState()!=null) {
-            State s = stateCache.getOrDefault(o.getShipState().getId(), o.getShipState());
-            d.setShipStateId(s.getId());
-            d.setShipStateName(s.getName());
-        }
-        if (o.getShipDistrict()!=null) {
-            District di = districtCache.getOrDefault(o.getShipDistrict().getId(), o.getShipDistrict());
-            d.setShipDistrictId(di.getId());
-            d.setShipDistrictName(di.getName());
+    /** A copy of the cached detail whose items carry freshly signed image URLs; the snapshot is left untouched. */
+    private OrderDetailDto withItemImageUrls(OrderDetailDto snapshot) {
+        List<OrderItemViewWithImage> items = snapshot.getItems() == null ? List.of() : snapshot.getItems();
+        Map<Long, String> imageUrls = catalogService.primaryImageUrls(
+                items.stream().map(OrderItemViewWithImage::getProductId).toList());
+
+        OrderDetailDto d = new OrderDetailDto();
+        BeanUtils.copyProperties(snapshot, d);
+        List<OrderItemViewWithImage> signed = new ArrayList<>(items.size());
+        for (OrderItemViewWithImage item : items) {
+            OrderItemViewWithImage copy = new OrderItemViewWithImage();
+            BeanUtils.copyProperties(item, copy);
+            copy.setUrl(imageUrls.get(item.getProductId()));
+            signed.add(copy);
         }
-        d.setItems(orderItemList);
+        d.setItems(signed);
         return d;
     }
 
+    /** Drops the cached order detail once the current transaction commits. */
+    private void evictDetailAfterCommit(Order o) {
+        if (o != null && o.getPublicCode() != null) {
+            orderDetails.evictAfterCommit(o.getPublicCode());
+        }
+    }
 
     private static BigDecimal nv(BigDecimal b) {
         return b == null ? BigDecimal.ZERO : b;
@@ -748,14 +739,14 @@ public class OrderService {
         log.info("Fetching lite order by publicCode={}", anyPublicCode);
         String bare = normalizePublicCode(anyPublicCode);
 
-        return orderRepo.findByPublicCode(bare).map(this::toLiteWithNames);
+        return orderRepo.findByPublicCode(bare).map(this::toLite);
     }
 
     public List<OrderLiteDto> listByCustomerLite(Long customerId) {
         log.info("Listing orders for customerId={}", customerId);
         if (customerId == null) throw new IllegalArgumentException("customerId is required");
         List<Order> list = orderRepo.findByCustomerIdOrderByIdDesc(customerId);
-        return attachLocationNames(list).stream().map(this::toLite).collect(Collectors.toList());
+        return list.stream().map(this::toLite).collect(Collectors.toList());
     }
 
     private static final Map<String,String> SORT_MAP = Map.of(
@@ -806,110 +797,57 @@ public class OrderService {
 
 
 
-    public Page<OrderLiteDto> listAllLite(
+    /**
+     * Admin order grid: one projected query per page (see {@link OrderLiteQuery}). Without a cursor the
+     * page is read by offset, as before; with the previous page's {@code nextCursor} it is read by keyset.
+     * Only {@code id} and {@code createdAt} (or {@code created_at}) can be sorted on; any other key is
+     * rejected with {@link IllegalArgumentException}.
+     */
+    public OrderLitePage listAllLite(
             int page,
             int size,
             String sort,
             String dir,
             String fromIso,
             String toIso,
-            String statusesCsv // NEW: optional, comma-separated (e.g., "ORDERED,DISPATCHED")
+            String statusesCsv, // optional, comma-separated (e.g., "ORDERED,DISPATCHED")
+            String cursor,      // optional: nextCursor of the previous page (keyset paging)
+            String count        // optional: exact | estimate | none
     ) {
-        log.info("Listing all orders (page={}, size={}, sort={}, dir={}, from={}, to={}, statuses={})",
-                page, size, sort, dir, fromIso, toIso, statusesCsv);
-        String sortField = (sort == null || sort.isBlank()) ? "id" : sort;
-        Sort.Direction direction = Sort.Direction.fromOptionalString(dir).orElse(Sort.Direction.DESC);
-        Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortField));
-
-        LocalDateTime from = parseIsoToDbLocal(fromIso);
-        LocalDateTime to   = parseIsoToDbLocal(toIso);
-
-        // Parse statuses (empty => no status filter)
-        List<OrderStatus> statuses = parseStatusesCsv(statusesCsv);
-
-        Page<Order> pg;
-        boolean activeOnly = true; // keep your existing toggle
-
-        // --------------------- Routing matrix ---------------------
-        // If no status filter => keep your original branches
-        if (statuses.isEmpty()) {
-            if (activeOnly) {
-                if (from == null && to == null) {
-                    pg = orderRepo.findByActiveTrue(pageable);
-                } else if (from != null && to == null) {
-                    pg = orderRepo.findByActiveTrueAndCreatedAtGreaterThanEqual(from, pageable);
-                } else if (from == null && to != null) {
-                    pg = orderRepo.findByActiveTrueAndCreatedAtLessThan(to, pageable);
-                } else {
-                    pg = orderRepo.findByActiveTrueAndCreatedAtBetween(from, to, pageable);
-                }
-            } else {
-                if (from == null && to == null) {
-                    pg = orderRepo.findAll(pageable);
-                } else if (from != null && to == null) {
-                    pg = orderRepo.findByCreatedAtGreaterThanEqual(from, pageable);
-                } else if (from == null && to != null) {
-                    pg = orderRepo.findByCreatedAtLessThan(to, pageable);
-                } else {
-                    pg = orderRepo.findByCreatedAtBetween(from, to, pageable);
-                }
-            }
-        } else {
-            // We have one or more statuses
-            boolean single = (statuses.size() == 1);
-            OrderStatus only = single ? statuses.get(0) : null;
-
-            if (activeOnly) {
-                if (single) {
-                    if (from == null && to == null) {
-                        pg = orderRepo.findByActiveTrueAndStatus(only, pageable);
-                    } else if (from != null && to == null) {
-                        pg = orderRepo.findByActiveTrueAndStatusAndCreatedAtGreaterThanEqual(only, from, pageable);
-                    } else if (from == null && to != null) {
-                        pg = orderRepo.findByActiveTrueAndStatusAndCreatedAtLessThan(only, to, pageable);
-                    } else {
-                        pg = orderRepo.findByActiveTrueAndStatusAndCreatedAtBetween(only, from, to, pageable);
-                    }
-                } else {
-                    if (from == null && to == null) {
-                        pg = orderRepo.findByActiveTrueAndStatusIn(statuses, pageable);
-                    } else if (from != null && to == null) {
-                        pg = orderRepo.findByActiveTrueAndStatusInAndCreatedAtGreaterThanEqual(statuses, from, pageable);
-                    } else if (from == null && to != null) {
-                        pg = orderRepo.findByActiveTrueAndStatusInAndCreatedAtLessThan(statuses, to, pageable);
-                    } else {
-                        pg = orderRepo.findByActiveTrueAndStatusInAndCreatedAtBetween(statuses, from, to, pageable);
-                    }
-                }
-            } else {
-                if (single) {
-                    if (from == null && to == null) {
-                        pg = orderRepo.findByStatus(only, pageable);
-                    } else if (from != null && to == null) {
-                        pg = orderRepo.findByStatusAndCreatedAtGreaterThanEqual(only, from, pageable);
-                    } else if (from == null && to != null) {
-                        pg = orderRepo.findByStatusAndCreatedAtLessThan(only, to, pageable);
-                    } else {
-                        pg = orderRepo.findByStatusAndCreatedAtBetween(only, from, to, pageable);
-                    }
-                } else {
-                    if (from == null && to == null) {
-                        pg = orderRepo.findByStatusIn(statuses, pageable);
-                    } else if (from != null && to == null) {
-                        pg = orderRepo.findByStatusInAndCreatedAtGreaterThanEqual(statuses, from, pageable);
-                    } else if (from == null && to != null) {
-                        pg = orderRepo.findByStatusInAndCreatedAtLessThan(statuses, to, pageable);
-                    } else {
-                        pg = orderRepo.findByStatusInAndCreatedAtBetween(statuses, from, to, pageable);
-                    }
-                }
-            }
+        log.info("Listing all orders (page={}, size={}, sort={}, dir={}, from={}, to={}, statuses={}, cursor={}, count={})",
+                page, size, sort, dir, fromIso, toIso, statusesCsv, cursor != null, count);
+        int limit = Math.max(1, Math.min(size, 500));
+        String sortField = (sort == null || sort.isBlank()) ? "id" : SORT_MAP.get(sort.trim());
+        if (sortField == null) {
+            throw new IllegalArgumentException("Unsupported sort: " + sort + " (use id or createdAt)");
         }
-        // ----------------------------------------------------------
-
-        List<Order> enriched = attachLocationNames(pg.getContent());
-        List<OrderLiteDto> dtoList = enriched.stream().map(this::toLite).toList();
-        return new PageImpl<>(dtoList, pg.getPageable(), pg.getTotalElements());
+        OrderLiteQuery.SortKey sortKey = "createdAt".equals(sortField)
+                ? OrderLiteQuery.SortKey.CREATED_AT : OrderLiteQuery.SortKey.ID;
+        boolean desc = Sort.Direction.fromOptionalString(dir).orElse(Sort.Direction.DESC).isDescending();
+        OrderLiteQuery.Cursor after = (cursor == null || cursor.isBlank()) ? null : OrderLiteQuery.Cursor.decode(cursor);
+
+        var filter = new OrderLiteQuery.Filter(
+                parseIsoToDbLocal(fromIso), parseIsoToDbLocal(toIso), parseStatusesCsv(statusesCsv));
+
+        // Totals cost a full scan of the filtered range; by default only the first request pays for it.
+        OrderLiteQuery.CountMode countMode = (count == null || count.isBlank())
+                ? (after == null ? OrderLiteQuery.CountMode.EXACT : OrderLiteQuery.CountMode.NONE)
+                : OrderLiteQuery.CountMode.valueOf(count.trim().toUpperCase(Locale.ROOT));
+
+        int offset = after == null ? Math.max(0, page) * limit : 0;
+        OrderLiteQuery.Slice slice = orderLiteQuery.fetch(filter, sortKey, desc, after, offset, limit);
+        Long total = orderLiteQuery.count(filter, countMode);
+
+        OrderLitePage out = new OrderLitePage();
+        out.setContent(slice.rows());
+        out.setNumber(after == null ? Math.max(0, page) : null);
+        out.setSize(limit);
+        out.setNumberOfElements(slice.rows().size());
+        out.setTotalElements(total);
+        out.setTotalPages(total == null ? null : (int) ((total + limit - 1) / limit));
+        out.setHasNext(slice.next() != null);
+        out.setNextCursor(slice.next() == null ? null : slice.next().encode());
+        return out;
     }
 
     /** Parse a CSV of enum names into a list; invalid tokens are ignored. */
@@ -950,42 +888,6 @@ public class OrderService {
         }
     }
 
-    /** Batch-attach readable names (without touching lazy associations during JSON write). */
-    private List<Order> attachLocationNames(List<Order> orders) {
-        log.debug("[ORDER][LOCATION_ATTACH] Attaching country/state/district names to {} orders", orders.size());
-        // Collect IDs
-        Set<Long> cIds = new HashSet<>();
-        Set<Long> sIds = new HashSet<>();
-        Set<Long> dIds = new HashSet<>();
-        for (Order o : orders) {
-            if (o.getShipCountry()  != null) cIds.add(o.getShipCountry().getId());
-            if (o.getShipState()    != null) sIds.add(o.getShipState().getId());
-            if (o.getShipDistrict() != null) dIds.add(o.getShipDistrict().getId());
-        }
-        Map<Long, Country> cMap = cIds.isEmpty()? Map.of() : countryRepository.findAllById(cIds).stream().collect(Collectors.toMap(Country::getId, x->x));
-        Map<Long, State>   sMap = sIds.isEmpty()? Map.of() : stateRepository.findAllById(sIds).stream().collect(Collectors.toMap(State::getId, x->x));
-        Map<Long, District>dMap = dIds.isEmpty()? Map.of() : districtRepository.findAllById(dIds).stream().collect(Collectors.toMap(District::getId, x->x));
-
-        // Stash readable names temporarily in transient fields via a thread-local map, or simply
-        // prepare a sidecar cache we use in toLiteWithNames().
-        this.countryCache = cMap; this.stateCache = sMap; this.districtCache = dMap;
-        return orders;
-    }
-
-    // Sidecar caches for the current mapping pass (service is singleton; use within same thread only)
-    private transient Map<Long, Country> countryCache = Map.of();
-    private transient Map<Long, State> stateCache = Map.of();
-    private transient Map<Long, District> districtCache = Map.of();
-
-    private OrderLiteDto toLiteWithNames(Order o) {
-        log.debug("[ORDER][LITE_CONVERT] Attaching location info for order {}", o.getId());
-        // ensure caches for single element
-        if (o.getShipCountry()!=null) countryCache = Map.of(o.getShipCountry().getId(), o.getShipCountry());
-        if (o.getShipState()!=null)   stateCache   = Map.of(o.getShipState().getId(), o.getShipState());
-        if (o.getShipDistrict()!=null)districtCache= Map.of(o.getShipDistrict().getId(), o.getShipDistrict());
-        return toLite(o);
-    }
-
     private OrderLiteDto toLite(Order o) {
         log.debug("[ORDER][TO_LITE] Mapping order {} to lite DTO", o.getId());
         OrderLiteDto d = new OrderLiteDto();
@@ -1028,19 +930,19 @@ public class OrderService {
         d.setCouponCode(couponRedemption.getCoupon().getCode());}
 
         if (o.getShipCountry()!=null) {
-            Country c = countryCache.getOrDefault(o.getShipCountry().getId(), o.getShipCountry());
-            d.setShipCountryId(c.getId());
-            d.setShipCountryName(c.getName());
+            Long id = o.getShipCountry().getId();
+            d.setShipCountryId(id);
+            d.setShipCountryName(geoCache.country(id).map(Country::getName).orElseGet(() -> o.getShipCountry().getName()));
         }
         if (o.getShipState()!=null) {
-            State s = stateCache.getOrDefault(o.getShipState().getId(), o.getShipState());
-            d.setShipStateId(s.getId());
-            d.setShipStateName(s.getName());
+            Long id = o.getShipState().getId();
+            d.setShipStateId(id);
+            d.setShipStateName(geoCache.state(id).map(State::getName).orElseGet(() -> o.getShipState().getName()));
         }
         if (o.getShipDistrict()!=null) {
-            District di = districtCache.getOrDefault(o.getShipDistrict().getId(), o.getShipDistrict());
-            d.setShipDistrictId(di.getId());
-            d.setShipDistrictName(di.getName());
+            Long id = o.getShipDistrict().getId();
+            d.setShipDistrictId(id);
+            d.setShipDistrictName(geoCache.district(id).map(District::getName).orElseGet(() -> o.getShipDistrict().getName()));
         }
 
 
@@ -1054,12 +956,11 @@ public class OrderService {
     // ───────────────────────────── Entities → View DTO mappers ─────────────────────────────
 
 
-    private  List<OrderItemViewWithImage> toOrderItemViewWithImage(Order order){
-        log.debug("Fetching OrderItemViewWithImage for Order ID: {}", order.getId());
-        List<OrderItem> orderItemList = itemRepo.findByOrder_Id(order.getId());
+    /** Item views without image URLs; those are signed per request by {@link #withItemImageUrls}. */
+    private List<OrderItemViewWithImage> toOrderItemViews(Long orderId) {
+        log.debug("Fetching OrderItemViewWithImage for Order ID: {}", orderId);
         List<OrderItemViewWithImage> orderItemViewWithImageList = new ArrayList<>();
-        for(OrderItem item:orderItemList)
-        {
+        for (OrderItem item : itemRepo.findByOrder_Id(orderId)) {
             OrderItemViewWithImage orderItemViewWithImage = new OrderItemViewWithImage();
             orderItemViewWithImage.setId(item.getId());
             orderItemViewWithImage.setQuantity(item.getQuantity());
@@ -1069,18 +970,9 @@ public class OrderService {
             orderItemViewWithImage.setProductName(item.getProductName());
             orderItemViewWithImage.setProductId(item.getProductId());
             orderItemViewWithImage.setCreatedAt(item.getCreatedAt());
-            orderItemViewWithImage.setUrl(catalogService.listProductImageResponses(item.getProductId()).stream().findFirst().get().getUrl());
-            try {
-                String imgUrl = catalogService.listProductImageResponses(item.getProductId())
-                        .stream().findFirst().get().getUrl();
-                orderItemViewWithImage.setUrl(imgUrl);
-            } catch (Exception e) {
-                log.warn("[ORDER][IMAGE_FETCH_FAIL] Could not fetch image for product ID: {}", item.getProductId());
-                orderItemViewWithImage.setUrl(null);
-            }
             orderItemViewWithImageList.add(orderItemViewWithImage);
         }
-        log.debug("Returning {} order item views for order ID: {}", orderItemViewWithImageList.size(), order.getId());
+        log.debug("Returning {} order item views for order ID: {}", orderItemViewWithImageList.size(), orderId);
         return orderItemViewWithImageList;
     }
     private static OrderItemView toView(OrderItem it){
@@ -1158,6 +1050,8 @@ public class OrderService {
         //p.setModifiedAt(p.getCreatedAt());
         //p.setModifiedBy(p.getCreatedBy());
         paymentRepo.save(p);
+        metricsRollup.markOrderAfterCommit(orderId);
+        evictDetailAfterCommit(order);
 
         if (dto.getStatus() == PaymentStatus.CAPTURED) {
             order.setPaidAt(OffsetDateTime.now());
@@ -1292,6 +1186,25 @@ public class OrderService {
     }
 
 
+    /**
+     * One page of the admin order grid. Field names match Spring's {@code Page} JSON so page-number
+     * clients keep working; {@code nextCursor} continues with keyset paging.
+     */
+    @Data public static class OrderLitePage {
+        private List<OrderLiteDto> content;
+        /** Page index for offset requests; null when the page was fetched by cursor. */
+        private Integer number;
+        private int size;
+        private int numberOfElements;
+        /** Null when the count was skipped ({@code count=none}); approximate for {@code count=estimate}. */
+        private Long totalElements;
+        private Integer totalPages;
+        private boolean hasNext;
+        /** Pass back as {@code cursor} to fetch the following page; null on the last page. */
+        private String nextCursor;
+    }
+
+
     @Data public static class OrderItemView {
         private Long id;
         private Long productId;
@@ -0,0 +1,148 @@
+package com.blossombuds.service;
+
+import com.blossombuds.domain.GlobalSaleConfig;
+import com.blossombuds.repository.GlobalSaleConfigRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Holds the "pricing epoch": an in-memory token that changes whenever storefront prices may change
+ * (global sale created/updated/deleted, or a sale window starting/ending).
+ * Catalog cache keys embed this token, so a warm cache hit costs no DB round-trip.
+ * When Redis caching is enabled the epoch is a shared counter so every node agrees on it.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PricingEpochService {
+
+    private final GlobalSaleConfigRepository globalSaleRepo;
+    private final ObjectProvider<StringRedisTemplate> redisProvider;
+
+    @Value("${app.cache.redis.enabled:false}")
+    private boolean redisEnabled;
+
+    @Value("${app.cache.key-version:v31}")
+    private String cacheKeyVersion;
+
+    /** Current epoch token: "r<n>" when backed by the Redis counter, "l<millis>" when local only. */
+    private volatile String token = "l" + System.currentTimeMillis();
+
+    /** Fingerprint of the effective sale config when the epoch was last set. */
+    private volatile String saleFingerprint;
+
+    @PostConstruct
+    public void init() {
+        String shared = readShared();
+        if (shared != null) token = shared;
+        saleFingerprint = computeSaleFingerprint();
+        log.info("[PRICING][EPOCH][INIT] token={} sale={}", token, saleFingerprint);
+    }
+
+    /** Token to embed in cache keys. Never touches the database. */
+    public String current() {
+        return token;
+    }
+
+    /** Bumps the epoch once the current transaction commits (immediately if none is active). */
+    public void bumpAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override public void afterCommit() { bump("config-change"); }
+            });
+        } else {
+            bump("config-change");
+        }
+    }
+
+    /**
+     * Periodic check: adopts epochs bumped by other nodes, and bumps when the effective sale changes
+     * because a sale window started/ended (or the table was edited outside this service).
+     */
+    @Scheduled(fixedDelayString = "${app.pricing.epoch.check-interval-ms:10000}",
+            initialDelayString = "${app.pricing.epoch.check-interval-ms:10000}")
+    public void checkForTransitions() {
+        try {
+            String shared = readShared();
+            if (shared != null && !shared.equals(token)) {
+                token = shared;
+                saleFingerprint = computeSaleFingerprint();
+                log.info("[PRICING][EPOCH][SYNC] token={}", token);
+                return;
+            }
+
+            String fp = computeSaleFingerprint();
+            if (!fp.equals(saleFingerprint)) {
+                log.info("[PRICING][EPOCH][TRANSITION] from={} to={}", saleFingerprint, fp);
+                bump("window-transition");
+            }
+        } catch (Exception e) {
+            log.warn("[PRICING][EPOCH][CHECK][FAIL] {}", e.toString());
+        }
+    }
+
+    private synchronized void bump(String reason) {
+        String next = null;
+        if (useRedis()) {
+            try {
+                Long n = redisProvider.getObject().opsForValue().increment(redisKey());
+                if (n != null) next = "r" + n;
+            } catch (Exception e) {
+                log.warn("[PRICING][EPOCH][REDIS][FAIL] falling back to local epoch: {}", e.toString());
+            }
+        }
+        if (next == null) {
+            long now = System.currentTimeMillis();
+            next = "l" + (token.equals("l" + now) ? now + 1 : now);
+        }
+        token = next;
+        saleFingerprint = computeSaleFingerprint();
+        log.info("[PRICING][EPOCH][BUMP] reason={} token={}", reason, token);
+    }
+
+    private String readShared() {
+        if (!useRedis()) return null;
+        try {
+            String v = redisProvider.getObject().opsForValue().get(redisKey());
+            if (v == null) {
+                Long n = redisProvider.getObject().opsForValue().increment(redisKey());
+                return n != null ? "r" + n : null;
+            }
+            return "r" + v;
+        } catch (Exception e) {
+            log.warn("[PRICING][EPOCH][REDIS][READ_FAIL] {}", e.toString());
+            return null;
+        }
+    }
+
+    private boolean useRedis() {
+        return redisEnabled && redisProvider.getIfAvailable() != null;
+    }
+
+    private String redisKey() {
+        return "bb:" + cacheKeyVersion + ":pricing-epoch";
+    }
+
+    /** Same view of "effective sale now" that CatalogService prices with. */
+    private String computeSaleFingerprint() {
+        Optional<GlobalSaleConfig> cfgOpt = globalSaleRepo.findEffectiveConfig(LocalDateTime.now());
+        if (cfgOpt.isEmpty()) return "none";
+
+        GlobalSaleConfig cfg = cfgOpt.get();
+        BigDecimal pct = cfg.getPercentOff() == null ? BigDecimal.ZERO : cfg.getPercentOff();
+        String mod = (cfg.getModifiedAt() != null) ? cfg.getModifiedAt().toString() : "null";
+        return "id=" + cfg.getId() + "|pct=" + pct + "|label=" + cfg.getLabel() + "|mod=" + mod;
+    }
+}
@@ -11,6 +11,8 @@ import com.blossombuds.repository.ProductImageRepository;
 import com.blossombuds.domain.ProductImage;
 import com.lowagie.text.*;
 import com.lowagie.text.pdf.*;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.LazyInitializationException;
@@ -20,11 +22,25 @@ import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.net.URL;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /** PDF generator for invoices & packing slips using OpenPDF (minimal, template-friendly). */
 @Slf4j
@@ -38,6 +54,7 @@ public class PrintService {
     private final ProductImageRepository productImageRepository;
     private final SettingsService settingsService;
     private final AmazonS3 r2Client;
+    private final PrintThumbnailCache thumbnails;
 
     @Value("${app.mail.logo.png:static/BB_logo.png}")
     private String logoPngPath;
@@ -48,6 +65,33 @@ public class PrintService {
     @Value("${cloudflare.r2.bucket}")
     private String r2BucketName;
 
+    /** Orders rendered per chunk in bulk prints (images of one chunk are held in memory at a time). */
+    @Value("${app.print.bulk.chunk-size:20}")
+    private int bulkChunkSize;
+
+    @Value("${app.print.bulk.image-fetch-threads:8}")
+    private int imageFetchThreads;
+
+    @Value("${app.print.bulk.image-fetch-timeout-seconds:30}")
+    private long imageFetchTimeoutSeconds;
+
+    private ExecutorService imageFetchPool;
+
+    @PostConstruct
+    void initImageFetchPool() {
+        AtomicInteger n = new AtomicInteger();
+        imageFetchPool = Executors.newFixedThreadPool(Math.max(1, imageFetchThreads), r -> {
+            Thread t = new Thread(r, "print-img-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void shutdownImageFetchPool() {
+        if (imageFetchPool != null) imageFetchPool.shutdownNow();
+    }
+
     /** Generates invoice PDF bytes for a given order id. */
     @Transactional(readOnly = true, propagation = Propagation.NOT_SUPPORTED)
     public byte[] renderInvoicePdf(Long orderId) {
@@ -170,7 +214,7 @@ public class PrintService {
                             .orElseThrow(() -> new IllegalArgumentException("Order not found: " + orderId));
                 });
         List<OrderItem> items = orderItemRepository.findByOrder_Id(orderId);
-        java.util.Map<Long, ProductImage> imgMap = loadPreferredImages(items);
+        Map<Long, ProductImage> imgMap = loadPreferredImages(items);
 
         log.debug("[PRINT][PACKING_SLIP] Retrieved {} items for orderId={}", items.size(), orderId);
 
@@ -207,7 +251,7 @@ public class PrintService {
         );
 
         byte[] pdf = buildPdfWithWriter((doc, writer) -> {
-            writePackingSlipPage(doc, writer, order, items, brandName, fromAddress, imgMap);
+            writePackingSlipPage(doc, writer, order, items, brandName, fromAddress, imgMap, null);
         });
         log.info("[PRINT][PACKING_SLIP] Packing slip PDF generated for orderId={}, size={} bytes", orderId, pdf.length);
         return pdf;
@@ -223,13 +267,13 @@ public class PrintService {
     }
 
     /** Builds a map of productId -> preferred ProductImage (first by sortOrder/id). */
-    private java.util.Map<Long, ProductImage> loadPreferredImages(List<OrderItem> items) {
+    private Map<Long, ProductImage> loadPreferredImages(List<OrderItem> items) {
         List<Long> productIds = extractProductIds(items);
-        if (productIds.isEmpty()) return java.util.Collections.emptyMap();
+        if (productIds.isEmpty()) return Collections.emptyMap();
 
         List<ProductImage> all = productImageRepository.findActiveForProductIds(productIds);
 
-        java.util.Map<Long, ProductImage> map = new java.util.HashMap<>();
+        Map<Long, ProductImage> map = new HashMap<>();
         for (ProductImage pi : all) {
             Long pid = pi.getProduct().getId();
             map.putIfAbsent(pid, pi); // first one wins due to ORDER BY
@@ -240,65 +284,170 @@ public class PrintService {
     /**
      * Generates a single PDF that contains packing slips for all given order IDs.
      * Each order renders on its own page using the same layout as renderPackingSlipPdf().
+     * Prefer {@link #preparePackingSlips} + {@link #writePackingSlips} for large batches; this
+     * variant buffers the whole document.
      */
     @Transactional(readOnly = true, propagation = Propagation.NOT_SUPPORTED)
     public byte[] renderPackingSlipsPdf(List<Long> orderIds) {
+        PackingSlipBatch batch = preparePackingSlips(orderIds);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writePackingSlips(batch, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Loads everything a bulk packing-slip print needs with three queries (orders with geo, items,
+     * preferred images) and validates it. Nothing is written yet, so callers can still fail the
+     * request cleanly before streaming starts.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.NOT_SUPPORTED)
+    public PackingSlipBatch preparePackingSlips(List<Long> orderIds) {
         if (orderIds == null || orderIds.isEmpty()) {
             throw new IllegalArgumentException("orderIds is required and must be non-empty");
         }
-        log.info("[PRINT][PACKING_SLIP_BULK] Generating bulk packing slips for {} orderIds", orderIds.size());
+        List<Long> ids = orderIds.stream().filter(Objects::nonNull).distinct().toList();
+        log.info("[PRINT][PACKING_SLIP_BULK] Preparing bulk packing slips for {} orderIds", ids.size());
+
+        Map<Long, Order> byId = new HashMap<>();
+        for (Order o : orderRepository.findAllByIdWithShipGeo(ids)) byId.put(o.getId(), o);
+
+        List<Order> orders = new ArrayList<>(byId.size());
+        for (Long id : ids) { // keep the caller's order
+            Order o = byId.get(id);
+            if (o == null) {
+                log.warn("[PRINT][PACKING_SLIP_BULK] Skipping invalid orderId={}", id);
+                continue;
+            }
+            orders.add(o);
+        }
+        if (orders.isEmpty()) {
+            log.warn("[PRINT][PACKING_SLIP_BULK] No valid orders processed");
+            throw new IllegalArgumentException("No valid orders to print.");
+        }
 
-        // Read settings once for all pages
-        final String brandName = safe(setting("brand.name", "Blossom Buds Floral Artistry")).toUpperCase();
-        final String fromAddress = safe(setting("brand.address",
-                "Blossom Buds Floral Artistry\n12, Market Road\nChennai, TN 600001\nPhone: +91 9XXXXXXXXX"));
+        List<OrderItem> allItems = orderItemRepository.findByOrder_IdInOrderByIdAsc(byId.keySet());
+        Map<Long, List<OrderItem>> itemsByOrder = new HashMap<>();
+        for (OrderItem it : allItems) {
+            itemsByOrder.computeIfAbsent(it.getOrder().getId(), k -> new ArrayList<>()).add(it);
+        }
 
-        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            Document doc = new Document(PageSize.A4, 36, 36, 36, 36);
+        return new PackingSlipBatch(
+                orders,
+                itemsByOrder,
+                loadPreferredImages(allItems),
+                safe(setting("brand.name", "Blossom Buds Floral Artistry")).toUpperCase(),
+                safe(setting("brand.address",
+                        "Blossom Buds Floral Artistry\n12, Market Road\nChennai, TN 600001\nPhone: +91 9XXXXXXXXX")));
+    }
+
+    /**
+     * Streams a prepared batch as one PDF into {@code out}. Orders are rendered in chunks; images
+     * for the next chunk download concurrently while the current chunk renders, so memory holds at
+     * most two chunks of images and total time is bounded by rendering rather than R2 latency.
+     * Runs without a transaction so no DB connection is held while bytes go out.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void writePackingSlips(PackingSlipBatch batch, OutputStream out) {
+        long t0 = System.currentTimeMillis();
+        List<List<Order>> chunks = new ArrayList<>();
+        for (int i = 0; i < batch.orders.size(); i += bulkChunkSize) {
+            chunks.add(batch.orders.subList(i, Math.min(i + bulkChunkSize, batch.orders.size())));
+        }
+
+        Document doc = new Document(PageSize.A4, 36, 36, 36, 36);
+        try {
             PdfWriter writer = PdfWriter.getInstance(doc, out);
             doc.open();
 
             boolean first = true;
-            List<Long> processed = new ArrayList<>();
-
-            for (Long id : orderIds) {
-                if (id == null) continue;
-
-                // Try with geo; if not, fallback to lazy-safe
-                Order order = orderRepository.findByIdWithShipGeo(id)
-                        .orElseGet(() -> orderRepository.findById(id).orElse(null));
-                if (order == null) {
-                    log.warn("[PRINT][PACKING_SLIP_BULK] Skipping invalid orderId={}", id);
-                    continue;
+            Map<String, CompletableFuture<byte[]>> next = prefetchImages(batch, chunks.get(0));
+            for (int c = 0; c < chunks.size(); c++) {
+                Map<String, CompletableFuture<byte[]>> current = next;
+                next = (c + 1 < chunks.size()) ? prefetchImages(batch, chunks.get(c + 1)) : Map.of();
+
+                Map<String, byte[]> images = awaitImages(current);
+                for (Order order : chunks.get(c)) {
+                    List<OrderItem> items = batch.itemsByOrder.getOrDefault(order.getId(), List.of());
+                    if (!first) doc.newPage();
+                    first = false;
+                    writePackingSlipPage(doc, writer, order, items, batch.brandName, batch.fromAddress, batch.images, images);
                 }
-                List<OrderItem> items = orderItemRepository.findByOrder_Id(id);
-                java.util.Map<Long, ProductImage> imgMap = loadPreferredImages(items);
-                log.debug("[PRINT][PACKING_SLIP_BULK] OrderId={} has {} items", id, items.size());
-
-                if (!first) doc.newPage();
-                first = false;
-
-                // Render one full packing slip page
-                writePackingSlipPage(doc, writer, order, items, brandName, fromAddress, imgMap);
-
-                processed.add(id);
-            }
-
-            if (processed.isEmpty()) {
-                log.warn("[PRINT][PACKING_SLIP_BULK] No valid orders processed");
-                throw new IllegalArgumentException("No valid orders to print.");
+                writer.flush(); // push finished pages to the client
             }
 
             doc.close();
-            byte[] pdf = out.toByteArray();
-            log.info("[PRINT][PACKING_SLIP_BULK] Bulk packing slip PDF generated with {} orders, size={} bytes", processed.size(), pdf.length);
-            return pdf;
+            log.info("[PRINT][PACKING_SLIP_BULK] Streamed {} packing slips in {} ms",
+                    batch.orders.size(), System.currentTimeMillis() - t0);
         } catch (Exception e) {
             log.error("[PRINT][PACKING_SLIP_BULK] Failed to generate packing slips: {}", e.getMessage(), e);
             throw new IllegalStateException("Failed to generate bulk packing slips PDF", e);
         }
     }
 
+    /** Starts concurrent downloads for the distinct image URLs used by the given orders. */
+    private Map<String, CompletableFuture<byte[]>> prefetchImages(
+            PackingSlipBatch batch, List<Order> orders) {
+        Map<String, CompletableFuture<byte[]>> futures = new LinkedHashMap<>();
+        for (Order order : orders) {
+            for (OrderItem it : batch.itemsByOrder.getOrDefault(order.getId(), List.of())) {
+                ProductImage pImg = (it.getProductId() != null) ? batch.images.get(it.getProductId()) : null;
+                if (pImg == null) continue;
+                String url = (pImg.getUrl() != null && !pImg.getUrl().isBlank()) ? pImg.getUrl() : pImg.getWatermarkVariantUrl();
+                if (url == null || url.isBlank() || futures.containsKey(url)) continue;
+                futures.put(url, CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return loadThumbnail(pImg, url);
+                    } catch (Exception e) {
+                        return null; // already logged; the slip renders without this image
+                    }
+                }, imageFetchPool));
+            }
+        }
+        return futures;
+    }
+
+    private Map<String, byte[]> awaitImages(Map<String, CompletableFuture<byte[]>> futures) {
+        Map<String, byte[]> out = new HashMap<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(imageFetchTimeoutSeconds);
+        for (var e : futures.entrySet()) {
+            try {
+                long left = Math.max(0, deadline - System.nanoTime());
+                byte[] bytes = e.getValue().get(left, TimeUnit.NANOSECONDS);
+                if (bytes != null) out.put(e.getKey(), bytes);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception ex) {
+                e.getValue().cancel(true);
+                log.warn("[PRINT][PACKING_SLIP_BULK] Image fetch timed out/failed url={} err={}", e.getKey(), ex.toString());
+            }
+        }
+        return out;
+    }
+
+    /** Orders, items and images for a bulk print, loaded up front by {@link #preparePackingSlips}. */
+    public static final class PackingSlipBatch {
+        private final List<Order> orders;
+        private final Map<Long, List<OrderItem>> itemsByOrder;
+        private final Map<Long, ProductImage> images;
+        private final String brandName;
+        private final String fromAddress;
+
+        private PackingSlipBatch(List<Order> orders,
+                                 Map<Long, List<OrderItem>> itemsByOrder,
+                                 Map<Long, ProductImage> images,
+                                 String brandName,
+                                 String fromAddress) {
+            this.orders = orders;
+            this.itemsByOrder = itemsByOrder;
+            this.images = images;
+            this.brandName = brandName;
+            this.fromAddress = fromAddress;
+        }
+
+        public int size() { return orders.size(); }
+    }
+
     // ─────────────────────────────────────────────────────────────────────────────
     // REFACTORED: Single-page writer used by both single & bulk methods
     // Dynamically adjusts columns, font sizes, and image sizes to fit all items
@@ -307,7 +456,8 @@ public class PrintService {
             Document doc, PdfWriter writer,
             Order order, List<OrderItem> items,
             String brandName, String fromAddress,
-            java.util.Map<Long, ProductImage> imgMap
+            Map<Long, ProductImage> imgMap,
+            Map<String, byte[]> prefetchedImages
     )  throws Exception {
         log.info("[PRINT][PACKING_SLIP_PAGE] Rendering packing slip page for orderId={}", order.getId());
 
@@ -363,8 +513,12 @@ public class PrintService {
         log.debug("[PRINT][PACKING_SLIP_PAGE] Layout: left={}, right={}, top={}, bottom={}, yCut={}",
                 left, right, top, bottom, yCut);
 
-        // Set/replace page event for this page
-        writer.setPageEvent(new CutFoldLineEvent(yCut));
+        // Set/replace page event for this page (setPageEvent chains, so reuse the existing one in bulk PDFs)
+        if (writer.getPageEvent() instanceof CutFoldLineEvent existing) {
+            existing.yCut = yCut;
+        } else {
+            writer.setPageEvent(new CutFoldLineEvent(yCut));
+        }
 
         float guardTop = 12f;
 
@@ -547,11 +701,16 @@ public class PrintService {
                                 log.debug("[PRINT][PACKING_SLIP] Loading image for item {} (size={})", 
                                         it.getProductName(), imgSize);
                                 try {
-                                    byte[] imgBytes = downloadImageBytes(imgUrl);
-                                    Image img = Image.getInstance(imgBytes);
-                                    img.scaleToFit(imgSize, imgSize);
-                                    img.setAlignment(Image.ALIGN_TOP);
-                                    imgCell.addElement(img);
+                                    // Bulk mode prefetches every image up front; a missing entry means the fetch failed
+                                    byte[] imgBytes = (prefetchedImages != null)
+                                            ? prefetchedImages.get(imgUrl)
+                                            : loadThumbnail(pImg, imgUrl);
+                                    if (imgBytes != null) {
+                                        Image img = Image.getInstance(imgBytes);
+                                        img.scaleToFit(imgSize, imgSize);
+                                        img.setAlignment(Image.ALIGN_TOP);
+                                        imgCell.addElement(img);
+                                    }
                                 } catch (Exception e) {
                                     log.error("[PRINT][PACKING_SLIP] Failed to load image from URL: {}", imgUrl, e);
                                 }
@@ -873,7 +1032,7 @@ public class PrintService {
         //    Works when the file is under src/main/resources/static/...
         for (String cp : new String[] { logoPngPath, (logoPngPath != null && !logoPngPath.startsWith("/")) ? ("/" + logoPngPath) : null }) {
             if (cp == null || cp.isBlank()) continue;
-            try (java.io.InputStream in = getClass().getResourceAsStream(cp)) {
+            try (InputStream in = getClass().getResourceAsStream(cp)) {
                 if (in != null) {
                     log.info("[PRINT][LOGO] Loading logo from classpath resource: {}", cp);
                     byte[] bytes = in.readAllBytes();
@@ -882,7 +1041,7 @@ public class PrintService {
             } catch (Exception e) {
                 log.warn("[PRINT][LOGO] Failed to load logo from classpath {}: {}", cp, e.getMessage());
             }
-            try (java.io.InputStream in = Thread.currentThread().getContextClassLoader().getResourceAsStream(cp.startsWith("/") ? cp.substring(1) : cp)) {
+            try (InputStream in = Thread.currentThread().getContextClassLoader().getResourceAsStream(cp.startsWith("/") ? cp.substring(1) : cp)) {
                 if (in != null) {
                     log.info("[PRINT][LOGO] Loading logo from context classpath: {}", cp);
                     byte[] bytes = in.readAllBytes();
@@ -896,7 +1055,7 @@ public class PrintService {
         // 3) Try filesystem path as a fallback
         try {
             if (logoPngPath != null && !logoPngPath.isBlank()) {
-                java.io.File f = new java.io.File(logoPngPath);
+                File f = new File(logoPngPath);
                 if (f.exists() && f.isFile()) {
                     log.info("[PRINT][LOGO] Loading logo from filesystem path: {}", f.getAbsolutePath());
                     return Image.getInstance(f.getAbsolutePath());
@@ -917,6 +1076,11 @@ public class PrintService {
         return logoUrl;
     }
 
+    /** Print-sized thumbnail for a product image; only misses in the thumbnail cache reach R2. */
+    private byte[] loadThumbnail(ProductImage pImg, String imgUrl) throws Exception {
+        return thumbnails.get(pImg.getPublicId(), () -> downloadImageBytes(imgUrl));
+    }
+
     /** Helper to download image bytes from private R2 bucket using authenticated S3 client. */
     private byte[] downloadImageBytes(String urlString) throws Exception {
         // Extract object key from R2 URL
@@ -927,7 +1091,7 @@ public class PrintService {
         log.info("[PRINT][R2] Downloading object: bucket={}, key={}", r2BucketName, objectKey);
         
         try (S3Object s3Object = r2Client.getObject(r2BucketName, objectKey);
-             java.io.InputStream in = s3Object.getObjectContent()) {
+             InputStream in = s3Object.getObjectContent()) {
             return in.readAllBytes();
         } catch (Exception e) {
             log.error("[PRINT][R2] Failed to download from R2: bucket={}, key={}", r2BucketName, objectKey, e);
@@ -943,7 +1107,7 @@ public class PrintService {
         // 2. https://{endpoint}/{bucket}/product-images/products/uuid.jpg (with bucket in path, from ReviewService pattern)
         
         try {
-            java.net.URL url = new java.net.URL(urlString);
+            URL url = new URL(urlString);
             String path = url.getPath();
             // Remove leading slash
             if (path.startsWith("/")) {
@@ -1019,7 +1183,7 @@ public class PrintService {
 
     /** Page event: dashed CUT / FOLD LINE at a fixed Y position. */
     private static class CutFoldLineEvent extends PdfPageEventHelper {
-        private final float yCut;
+        private float yCut;
         CutFoldLineEvent(float yCut) { this.yCut = yCut;
             log.debug("[PRINT][PDF] CutFoldLineEvent initialized at Y = {}", yCut);}
 
@@ -0,0 +1,225 @@
+package com.blossombuds.service;
+
+import com.blossombuds.util.ImageUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.stream.Stream;
+
+/**
+ * Pre-downscaled product thumbnails for printed documents, keyed by {@code ProductImage.publicId}.
+ * <p>
+ * Slips draw product images at most ~48pt wide, so the original (often 1800px) is shrunk once to
+ * {@code app.print.thumb.max-px} and re-encoded as JPEG. Thumbnails live in an in-memory LRU backed
+ * by a local disk directory, so popular products are fetched from R2 only once per node.
+ * Public ids are unique per upload, so entries never need invalidation. The directory is pruned on a
+ * timer: files unread for {@code app.print.thumb.disk-max-age} go first, then the least recently read
+ * until it fits {@code app.print.thumb.disk-max-mb}.
+ */
+@Slf4j
+@Service
+public class PrintThumbnailCache {
+
+    @Value("${app.print.thumb.dir:${java.io.tmpdir}/blossombuds-print-thumbs}")
+    private String dir;
+
+    /** 48pt at 300dpi is 200px. */
+    @Value("${app.print.thumb.max-px:200}")
+    private int maxPx;
+
+    @Value("${app.print.thumb.quality:0.85}")
+    private float quality;
+
+    @Value("${app.print.thumb.memory-entries:1000}")
+    private int memoryEntries;
+
+    @Value("${app.print.thumb.disk-max-age:P30D}")
+    private Duration diskMaxAge = Duration.ofDays(30);
+
+    @Value("${app.print.thumb.disk-max-mb:256}")
+    private long diskMaxMb = 256;
+
+    /** Leftovers of writes that died between create and move. */
+    private static final Duration STALE_TMP_AGE = Duration.ofHours(1);
+
+    private Path root;
+    private Map<String, byte[]> memory;
+
+    @PostConstruct
+    public void init() {
+        memory = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+                return size() > memoryEntries;
+            }
+        };
+        try {
+            root = Files.createDirectories(Paths.get(dir));
+        } catch (Exception e) {
+            root = null; // memory-only
+            log.warn("[PRINT][THUMB][INIT][FAIL] dir={} err={} (disk store disabled)", dir, e.toString());
+        }
+        log.info("[PRINT][THUMB][INIT] dir={} maxPx={} memoryEntries={}", root, maxPx, memoryEntries);
+    }
+
+    /**
+     * Returns the thumbnail for {@code key}, loading the original via {@code loader} on a miss.
+     * Falls back to the original bytes if they cannot be decoded (PDF embedding may still work).
+     */
+    public byte[] get(String key, Callable<byte[]> loader) throws Exception {
+        if (key == null || key.isBlank()) {
+            return loader.call();
+        }
+
+        byte[] hit;
+        synchronized (memory) {
+            hit = memory.get(key);
+        }
+        if (hit != null) return hit;
+
+        Path file = fileFor(key);
+        if (file != null && Files.isRegularFile(file)) {
+            try {
+                hit = Files.readAllBytes(file);
+                remember(key, hit);
+                touch(file);
+                return hit;
+            } catch (Exception e) {
+                log.warn("[PRINT][THUMB][READ][FAIL] key={} err={}", key, e.toString());
+            }
+        }
+
+        byte[] original = loader.call();
+        byte[] thumb = downscale(original);
+        if (thumb == null) {
+            log.warn("[PRINT][THUMB][DECODE][FAIL] key={} (using original bytes)", key);
+            return original;
+        }
+        remember(key, thumb);
+        store(file, thumb);
+        log.debug("[PRINT][THUMB][CREATE] key={} originalBytes={} thumbBytes={}", key, original.length, thumb.length);
+        return thumb;
+    }
+
+    private void remember(String key, byte[] bytes) {
+        synchronized (memory) {
+            memory.put(key, bytes);
+        }
+    }
+
+    private void store(Path file, byte[] bytes) {
+        if (file == null) return;
+        try {
+            // write-then-move so concurrent readers never see a partial file
+            Path tmp = Files.createTempFile(root, "thumb-", ".tmp");
+            Files.write(tmp, bytes);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            log.warn("[PRINT][THUMB][WRITE][FAIL] file={} err={}", file, e.toString());
+        }
+    }
+
+    /** mtime doubles as "last read", so pruning drops what has not been printed recently. */
+    private static void touch(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+        } catch (Exception ignored) {
+            // best effort: an untouched file is just pruned a little earlier
+        }
+    }
+
+    /** Deletes thumbnails unread for longer than the max age, then the oldest until the directory fits the cap. */
+    @Scheduled(fixedDelayString = "${app.print.thumb.prune-interval-ms:3600000}",
+            initialDelayString = "${app.print.thumb.prune-initial-delay-ms:60000}")
+    public void pruneDisk() {
+        if (root == null) return;
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(root)) {
+            files = listing.filter(Files::isRegularFile).toList();
+        } catch (Exception e) {
+            log.warn("[PRINT][THUMB][PRUNE][FAIL] dir={} err={}", root, e.toString());
+            return;
+        }
+
+        record Stored(Path path, long size, long modifiedMs) {}
+        long now = System.currentTimeMillis();
+        long maxBytes = Math.max(0, diskMaxMb) * 1024 * 1024;
+        List<Stored> kept = new ArrayList<>();
+        long total = 0;
+        int deleted = 0;
+        for (Path f : files) {
+            try {
+                long modified = Files.getLastModifiedTime(f).toMillis();
+                boolean tmp = f.getFileName().toString().endsWith(".tmp");
+                long age = now - modified;
+                if (age > (tmp ? STALE_TMP_AGE : diskMaxAge).toMillis()) {
+                    if (Files.deleteIfExists(f)) deleted++;
+                } else if (!tmp) {
+                    long size = Files.size(f);
+                    kept.add(new Stored(f, size, modified));
+                    total += size;
+                }
+            } catch (Exception e) {
+                log.debug("[PRINT][THUMB][PRUNE][SKIP] file={} err={}", f, e.toString());
+            }
+        }
+
+        if (total > maxBytes) {
+            kept.sort(Comparator.comparingLong(Stored::modifiedMs));
+            for (Stored f : kept) {
+                if (total <= maxBytes) break;
+                try {
+                    if (Files.deleteIfExists(f.path())) deleted++;
+                    total -= f.size();
+                } catch (Exception e) {
+                    log.debug("[PRINT][THUMB][PRUNE][SKIP] file={} err={}", f.path(), e.toString());
+                }
+            }
+        }
+        if (deleted > 0) {
+            log.info("[PRINT][THUMB][PRUNE] deleted={} remainingBytes={}", deleted, total);
+        }
+    }
+
+    private byte[] downscale(byte[] original) {
+        try {
+            BufferedImage src = ImageIO.read(new ByteArrayInputStream(original));
+            if (src == null) return null;
+            return ImageUtil.writeJpeg(ImageUtil.fitWithin(src, maxPx), quality);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private Path fileFor(String key) {
+        if (root == null) return null;
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return root.resolve(HexFormat.of().formatHex(digest) + "-" + maxPx + ".jpg");
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.blossombuds.service;
+
+import com.blossombuds.domain.ProductImageJob;
+import com.blossombuds.repository.ProductImageJobRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * CPU-sized worker pool for product image processing (decode, resize, watermark, JPEG, R2 upload).
+ * <p>
+ * Image work never runs on a Tomcat thread inside a transaction any more: synchronous uploads
+ * {@link #run} on this pool and wait, asynchronous ones {@link #submit} a job and return its id at once.
+ * Either way at most {@code app.images.pipeline.threads} images are processed at a time and no database
+ * connection is held while they are. The queue is bounded because each entry holds the uploaded bytes
+ * (up to 10&nbsp;MB); when it is full callers get 503 and can retry.
+ * <p>
+ * Several instances may share the job table, so an open job is only given up as interrupted once it
+ * has made no progress for {@code app.images.pipeline.stale-job-ms} — far longer than any image takes
+ * to queue and process.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductImagePipeline {
+
+    private final ProductImageJobRepository jobRepo;
+
+    /** 0 = one thread per available core. */
+    @Value("${app.images.pipeline.threads:0}")
+    private int threads = 0;
+
+    @Value("${app.images.pipeline.queue-capacity:16}")
+    private int queueCapacity = 16;
+
+    /** Open jobs without progress for this long belong to an instance that went away. */
+    @Value("${app.images.pipeline.stale-job-ms:900000}")
+    private long staleJobMs = 900_000;
+
+    private ThreadPoolExecutor pool;
+
+    @PostConstruct
+    public void init() {
+        int n = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger seq = new AtomicInteger();
+        pool = new ThreadPoolExecutor(n, n, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                r -> {
+                    Thread t = new Thread(r, "img-pipeline-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        log.info("[IMAGE][PIPELINE][INIT] threads={} queueCapacity={}", n, queueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null) pool.shutdownNow();
+    }
+
+    /**
+     * Jobs only live in memory while queued, so one left open by a restarted or crashed instance cannot
+     * finish. Runs at startup and periodically, and only touches jobs older than the stale threshold.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.images.pipeline.stale-sweep-ms:300000}",
+            initialDelayString = "${app.images.pipeline.stale-sweep-ms:300000}")
+    @Transactional
+    public void failInterruptedJobs() {
+        OffsetDateTime now = OffsetDateTime.now();
+        int n = jobRepo.failStaleJobs("Interrupted by a server restart; please upload again",
+                now.minusNanos(TimeUnit.MILLISECONDS.toNanos(Math.max(0, staleJobMs))), now);
+        if (n > 0) log.warn("[IMAGE][JOB][RECOVER] Marked {} interrupted job(s) FAILED", n);
+    }
+
+    /** Runs {@code work} on the pool and waits for it; the caller's thread holds no CPU-heavy work. */
+    public <T> T run(Callable<T> work) throws IOException {
+        Future<T> f;
+        try {
+            f = pool.submit(new DelegatingSecurityContextCallable<>(work));
+        } catch (RejectedExecutionException e) {
+            throw busy();
+        }
+        try {
+            return f.get();
+        } catch (InterruptedException e) {
+            f.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while processing image", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) throw io;
+            if (cause instanceof RuntimeException re) throw re;
+            throw new IllegalStateException("Image processing failed", cause);
+        }
+    }
+
+    /**
+     * Records a QUEUED job and processes it in the background. {@code work} returns the id of the
+     * image row it wrote; it runs with the submitting admin's security context so auditing columns
+     * are filled as before.
+     */
+    public ProductImageJob submit(Long productId, Long imageId, Callable<Long> work) {
+        ProductImageJob job = new ProductImageJob();
+        job.setProductId(productId);
+        job.setImageId(imageId);
+        job.setStatus("QUEUED");
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        job.setCreatedBy(auth != null ? auth.getName() : null);
+        ProductImageJob saved = jobRepo.save(job);
+
+        Long jobId = saved.getId();
+        try {
+            pool.execute(new DelegatingSecurityContextRunnable(() -> process(jobId, work)));
+        } catch (RejectedExecutionException e) {
+            finish(jobId, "FAILED", null, "Image pipeline is busy; please retry");
+            throw busy();
+        }
+        log.info("[IMAGE][JOB][QUEUED] jobId={} productId={} imageId={}", jobId, productId, imageId);
+        return saved;
+    }
+
+    /** Current state of a job. */
+    public ProductImageJob getJob(Long jobId) {
+        if (jobId == null) throw new IllegalArgumentException("jobId is required");
+        return jobRepo.findById(jobId)
+                .orElseThrow(() -> new IllegalArgumentException("Image job not found: " + jobId));
+    }
+
+    private void process(Long jobId, Callable<Long> work) {
+        long t0 = System.currentTimeMillis();
+        try {
+            jobRepo.findById(jobId).ifPresent(job -> {
+                job.setStatus("PROCESSING");
+                job.setStartedAt(OffsetDateTime.now());
+                jobRepo.save(job);
+            });
+            Long imageId = work.call();
+            finish(jobId, "DONE", imageId, null);
+            log.info("[IMAGE][JOB][DONE] jobId={} imageId={} elapsedMs={}", jobId, imageId, System.currentTimeMillis() - t0);
+        } catch (Exception e) {
+            String msg = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+            finish(jobId, "FAILED", null, msg.length() > 1000 ? msg.substring(0, 1000) : msg);
+            log.error("[IMAGE][JOB][FAIL] jobId={} err={}", jobId, e.toString(), e);
+        }
+    }
+
+    private void finish(Long jobId, String status, Long imageId, String error) {
+        try {
+            jobRepo.findById(jobId).ifPresent(job -> {
+                job.setStatus(status);
+                if (imageId != null) job.setImageId(imageId);
+                job.setErrorMessage(error);
+                job.setFinishedAt(OffsetDateTime.now());
+                jobRepo.save(job);
+            });
+        } catch (Exception e) {
+            log.error("[IMAGE][JOB][STATUS][FAIL] jobId={} status={} err={}", jobId, status, e.toString());
+        }
+    }
+
+    private static ResponseStatusException busy() {
+        return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Image pipeline is busy; please retry");
+    }
+}
@@ -0,0 +1,166 @@
+package com.blossombuds.service;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.DeleteObjectRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.blossombuds.domain.ProductImageVariant;
+import com.blossombuds.util.ImageUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Responsive renditions of product images.
+ * <p>
+ * After the full-size watermarked JPEG is stored, {@link #generate} writes the same image at each of
+ * {@link #WIDTHS} that is narrower than it, as JPEG and as WebP, next to the original key
+ * ({@code products/<uuid>-w640.jpg}, {@code products/<uuid>-w640.webp}, ...). WebP is encoded by
+ * ImageMagick because ImageIO can only read it; if that fails the image simply has no WebP set.
+ * {@link #srcset} turns the stored list into signed {@code srcset} strings for the DTOs.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductImageVariantService {
+
+    /** Widths generated below the full-size image ({@link ImageUtil#MAX_DIM} at most). */
+    static final int[] WIDTHS = {320, 640, 1080};
+
+    public static final String JPG = "jpg";
+    public static final String WEBP = "webp";
+
+    private final AmazonS3 r2Client;
+    private final SignedUrlService signedUrls;
+    private final ImageMagickService imageMagick;
+
+    @Value("${cloudflare.r2.bucket}")
+    private String bucketName;
+
+    @Value("${app.images.variants.webp-enabled:true}")
+    private boolean webpEnabled = true;
+
+    @Value("${app.images.variants.webp-quality:78}")
+    private int webpQuality = 78;
+
+    /**
+     * Uploads the renditions of {@code full}, whose JPEG is already stored at {@code fullKey}, and returns
+     * every variant including that JPEG, narrowest first. Uploaded objects are removed again on failure.
+     */
+    public List<ProductImageVariant> generate(String fullKey, BufferedImage full) throws IOException {
+        String base = fullKey.substring(0, fullKey.lastIndexOf('.'));
+        int fullWidth = full.getWidth();
+        List<ProductImageVariant> jpgs = new ArrayList<>();
+        List<ProductImageVariant> webps = new ArrayList<>();
+        boolean webp = webpEnabled;
+        long t0 = System.currentTimeMillis();
+
+        try {
+            for (int w : WIDTHS) {
+                if (w >= fullWidth) break;
+                BufferedImage img = ImageUtil.scaleToWidth(full, w);
+                jpgs.add(put(base + "-w" + w + "." + JPG, w, JPG, ImageUtil.toJpegUnderCap(img)));
+                if (webp) webp = addWebp(webps, base + "-w" + w + "." + WEBP, w, img);
+            }
+            jpgs.add(new ProductImageVariant(fullWidth, JPG, fullKey));
+            if (webp) webp = addWebp(webps, base + "." + WEBP, fullWidth, full);
+        } catch (IOException | RuntimeException e) {
+            delete(jpgs, fullKey);
+            delete(webps, fullKey);
+            throw e;
+        }
+
+        if (!webp) {
+            // all-or-nothing, so a <picture> WebP source never offers fewer widths than the JPEG one
+            delete(webps, fullKey);
+            webps.clear();
+        }
+        List<ProductImageVariant> all = new ArrayList<>(jpgs);
+        all.addAll(webps);
+        log.info("[IMAGE][VARIANTS][OK] key='{}' widths={} webp={} tookMs={}",
+                fullKey, jpgs.stream().map(v -> String.valueOf(v.getWidth())).collect(Collectors.joining(",")),
+                webp, System.currentTimeMillis() - t0);
+        return all;
+    }
+
+    /** Encodes and uploads one WebP; returns false (and logs) if ImageMagick could not produce it. */
+    private boolean addWebp(List<ProductImageVariant> out, String key, int width, BufferedImage img) throws IOException {
+        byte[] bytes;
+        try {
+            bytes = imageMagick.toWebp(img, webpQuality);
+        } catch (Exception e) {
+            log.warn("[IMAGE][VARIANTS][WEBP][SKIP] key='{}' err={}", key, e.toString());
+            return false;
+        }
+        out.add(put(key, width, WEBP, bytes));
+        return true;
+    }
+
+    private ProductImageVariant put(String key, int width, String format, byte[] bytes) throws IOException {
+        ObjectMetadata meta = new ObjectMetadata();
+        meta.setContentType(WEBP.equals(format) ? "image/webp" : "image/jpeg");
+        meta.setContentLength(bytes.length);
+        try (InputStream in = new ByteArrayInputStream(bytes)) {
+            r2Client.putObject(new PutObjectRequest(bucketName, key, in, meta));
+        }
+        return new ProductImageVariant(width, format, key);
+    }
+
+    /**
+     * Signed {@code srcset} for one format ("url 320w, url 640w, ..."), or null if the image has no
+     * variants in that format.
+     */
+    public String srcset(List<ProductImageVariant> variants, String format) {
+        return srcset(variants, format, signedUrls::signGet);
+    }
+
+    /**
+     * Same as {@link #srcset(List, String)}, with URLs taken from keys already signed in bulk by
+     * {@link SignedUrlService#signGetAll}; variants missing from {@code signed} are left out.
+     */
+    public String srcset(List<ProductImageVariant> variants, String format, Map<String, String> signed) {
+        return srcset(variants, format, signed::get);
+    }
+
+    private String srcset(List<ProductImageVariant> variants, String format, Function<String, String> urlFor) {
+        if (variants == null || variants.isEmpty()) return null;
+        String s = variants.stream()
+                .filter(v -> format.equals(v.getFormat()) && v.getKey() != null && v.getWidth() != null)
+                .sorted(Comparator.comparing(ProductImageVariant::getWidth))
+                .map(v -> {
+                    String url = urlFor.apply(v.getKey());
+                    return url == null ? null : url + " " + v.getWidth() + "w";
+                })
+                .filter(Objects::nonNull)
+                .collect(Collectors.joining(", "));
+        return s.isEmpty() ? null : s;
+    }
+
+    /** Best-effort removal of the variant objects; {@code exceptKey} (the main image) is left to the caller. */
+    public void delete(List<ProductImageVariant> variants, String exceptKey) {
+        if (variants == null) return;
+        for (ProductImageVariant v : variants) {
+            String key = v.getKey();
+            if (key == null || key.equals(exceptKey)) continue;
+            try {
+                r2Client.deleteObject(new DeleteObjectRequest(bucketName, key));
+                signedUrls.forget(key);
+            } catch (Exception e) {
+                log.warn("[IMAGE][VARIANTS][DELETE][WARN] key='{}' err={}", key, e.toString());
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.blossombuds.service;
 
+import com.blossombuds.cache.OrderDetailCache;
 import com.blossombuds.domain.Coupon;
 import com.blossombuds.domain.CouponRedemption;
 import com.blossombuds.domain.Order;
@@ -35,6 +36,7 @@ public class PromotionService {
     private final CouponRepository couponRepo;
     private final CouponRedemptionRepository redemptionRepo;
     private final OrderRepository orderRepo;
+    private final OrderDetailCache orderDetails;
 
     /* ========================= ADMIN APIs ========================= */
 
@@ -245,6 +247,7 @@ public class PromotionService {
         order.setDiscountTotal(discount);
         order.setGrandTotal(newGrand.setScale(2, RoundingMode.HALF_UP));
         orderRepo.save(order);
+        evictOrderDetailAfterCommit(order);
 
         // record redemption
         CouponRedemption r = new CouponRedemption();
@@ -272,9 +275,17 @@ public class PromotionService {
         CouponRedemption r = redemptionRepo.findById(redemptionId)
                 .orElseThrow(() -> new IllegalArgumentException("Redemption not found: " + redemptionId));
         r.setActive(Boolean.FALSE);
+        evictOrderDetailAfterCommit(r.getOrder());
         log.info("[COUPON][REVOKE] Redemption revoked id={}", redemptionId);
     }
 
+    /** The cached order tracking page shows the totals and the active coupon; drop it once this commits. */
+    private void evictOrderDetailAfterCommit(Order order) {
+        if (order != null && order.getPublicCode() != null) {
+            orderDetails.evictAfterCommit(order.getPublicCode());
+        }
+    }
+
     /* ======================= Internal helpers ======================= */
 
     /** Normalize lookup key (trim + upper). */
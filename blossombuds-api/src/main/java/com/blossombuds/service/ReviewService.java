@@ -12,7 +12,6 @@ import com.blossombuds.repository.ProductReviewImageRepository;
 import com.blossombuds.repository.ProductReviewRepository;
 import com.blossombuds.util.ImageMagickUtil;
 import com.blossombuds.util.ImageUtil;
-import com.blossombuds.util.MagickBridge;
 import jakarta.persistence.criteria.Subquery;
 import jakarta.validation.Valid;
 import lombok.Data;
@@ -31,6 +30,7 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
@@ -53,9 +53,10 @@ public class ReviewService {
 
     // R2 / S3 (reuse your existing config)
     private final AmazonS3 r2Client;
+    private final SignedUrlService signedUrls;
+    private final ImageMagickService imageMagick;
     @Value("${cloudflare.r2.bucket}")        private String bucketName;
     @Value("${cloudflare.r2.endpoint}")      private String r2Endpoint;
-    @Value("${app.imagemagick.cmd:convert}") private String magickCmd;
 
 
 
@@ -217,7 +218,9 @@ public class ReviewService {
         if (ImageMagickUtil.isHeicLike(file.getOriginalFilename(), file.getContentType())) {
             log.info("[REVIEW][UPLOAD] Detected HEIC/HEIF, converting via ImageMagick");
             try {
-                processedBytes = MagickBridge.heicToJpeg(rawBytes, magickCmd);
+                processedBytes = imageMagick.heicToJpeg(rawBytes);
+            } catch (ResponseStatusException e) {
+                throw e; // converter busy: let the client retry instead of re-exporting the photo
             } catch (Exception e) {
                 log.warn("[REVIEW][UPLOAD] HEIC conversion failed: {}", e.toString());
                 throw new IllegalArgumentException("Could not convert HEIC image. Please try exporting as JPG first.");
@@ -313,8 +316,10 @@ public class ReviewService {
         if (original == null && ImageMagickUtil.isHeicLike(tempKey, null)) {
             log.info("[REVIEW][ATTACH] HEIC detected at tempKey={}, converting via ImageMagick", tempKey);
             try {
-                byte[] converted = MagickBridge.heicToJpeg(raw, magickCmd);
+                byte[] converted = imageMagick.heicToJpeg(raw);
                 original = ImageIO.read(new ByteArrayInputStream(converted));
+            } catch (ResponseStatusException e) {
+                throw e;
             } catch (Exception e) {
                 log.warn("[REVIEW][ATTACH] HEIC conversion failed for tempKey={}: {}", tempKey, e.toString());
             }
@@ -654,12 +659,7 @@ public class ReviewService {
     }
 
     private String signGetUrl(String key, Duration ttl) {
-        Date exp = Date.from(Instant.now().plus(ttl));
-        GeneratePresignedUrlRequest req = new GeneratePresignedUrlRequest(bucketName, key)
-                .withMethod(com.amazonaws.HttpMethod.GET)
-                .withExpiration(exp);
-        URL url = r2Client.generatePresignedUrl(req);
-        return url.toString();
+        return signedUrls.signGet(key, ttl);
     }
 
 
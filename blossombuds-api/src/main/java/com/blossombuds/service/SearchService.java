@@ -4,6 +4,7 @@ import com.blossombuds.domain.Category;
 import com.blossombuds.domain.Product;
 import com.blossombuds.dto.CategoryDto;
 import com.blossombuds.dto.ProductListItemDto;
+import com.blossombuds.dto.SearchFacetDto;
 import com.blossombuds.repository.CategoryRepository;
 import com.blossombuds.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
@@ -14,6 +15,11 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /** Faceted product/category search with basic filtering and pagination. */
 @Slf4j
@@ -26,7 +32,34 @@ public class SearchService {
     private final ProductRepository productRepo;
     private final CategoryRepository categoryRepo;
 
-    /** Searches products by term/category/price range with pagination. */
+    /**
+     * Search tokens: runs of letters, combining marks and digits; everything else (tsquery operators
+     * included) is a separator. Marks keep Tamil and other Indic words whole across vowel signs and viramas.
+     */
+    private static final Pattern TOKEN = Pattern.compile("[\\p{L}\\p{M}\\p{N}]+");
+    private static final int MAX_TOKENS = 8;
+    private static final int MAX_FACETS = 50;
+
+    /**
+     * Builds a prefix-matching tsquery from free text, e.g. {@code "Red  ros"} → {@code "red:* & ros:*"}.
+     * Returns null when the input holds no searchable token.
+     */
+    static String toPrefixTsQuery(String q) {
+        if (q == null || q.isBlank()) return null;
+        List<String> terms = new ArrayList<>();
+        Matcher m = TOKEN.matcher(q.toLowerCase(Locale.ROOT));
+        while (m.find() && terms.size() < MAX_TOKENS) {
+            String t = m.group();
+            if (!terms.contains(t + ":*")) terms.add(t + ":*");
+        }
+        return terms.isEmpty() ? null : String.join(" & ", terms);
+    }
+
+    /**
+     * Searches products by term/category/price range with pagination.
+     * Terms go through the full-text index (ranked, prefix-matched); an empty term lists
+     * the filtered catalog by name.
+     */
     public Page<ProductListItemDto> searchProducts(String q,
                                                    Long categoryId,
                                                    BigDecimal priceMin,
@@ -46,7 +79,10 @@ public class SearchService {
                 term, categoryId, min, max, p, s);
 
         Pageable pageable = PageRequest.of(p, s);
-        Page<Product> products = productRepo.searchProducts(term, categoryId, min, max, pageable);
+        String tsq = toPrefixTsQuery(term);
+        Page<Product> products = (tsq != null)
+                ? productRepo.searchProductsFullText(tsq, categoryId, min, max, pageable)
+                : productRepo.searchProducts("", categoryId, min, max, pageable);
         log.info("[SEARCH][PRODUCTS] Found {} products", products.getNumberOfElements());
 
         return products.map(pv -> {
@@ -59,6 +95,26 @@ public class SearchService {
         });
     }
 
+    /** Category facet counts for a product search (same term and price filters as {@link #searchProducts}). */
+    public List<SearchFacetDto> productFacets(String q, BigDecimal priceMin, BigDecimal priceMax) {
+        String tsq = toPrefixTsQuery(q);
+        if (tsq == null) return List.of();
+
+        BigDecimal min = priceMin;
+        BigDecimal max = priceMax;
+        if (min != null && max != null && min.compareTo(max) > 0) {
+            BigDecimal tmp = min; min = max; max = tmp;
+        }
+
+        List<Object[]> rows = productRepo.searchCategoryFacets(tsq, min, max, MAX_FACETS);
+        List<SearchFacetDto> out = new ArrayList<>(rows.size());
+        for (Object[] r : rows) {
+            out.add(new SearchFacetDto(((Number) r[0]).longValue(), (String) r[1], ((Number) r[2]).longValue()));
+        }
+        log.info("[SEARCH][FACETS] q='{}' buckets={}", q, out.size());
+        return out;
+    }
+
     /** Searches active categories by (partial, case-insensitive) name with pagination. */
     public Page<CategoryDto> searchCategories(String q, int page, int size) {
         String term = q == null ? "" : q.trim();
@@ -0,0 +1,409 @@
+package com.blossombuds.service;
+
+import com.blossombuds.domain.Category;
+import com.blossombuds.domain.Product;
+import com.blossombuds.domain.ProductOption;
+import com.blossombuds.domain.ProductOptionValue;
+import com.blossombuds.dto.SearchSuggestionDto;
+import com.blossombuds.repository.CategoryRepository;
+import com.blossombuds.repository.ProductOptionValueRepository;
+import com.blossombuds.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory prefix trie over active category names, product names and option value labels,
+ * serving search-as-you-type suggestions without touching the database.
+ * <p>
+ * Every word of a label is inserted, so "ros" suggests "Red Rose Bouquet". Option value labels are only
+ * indexed while the value, its option and its product are all active. The index is built on
+ * startup, patched after commit by the catalog write paths, and fully rebuilt on a timer so edits
+ * made on other nodes (or directly in the DB) show up eventually.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SearchSuggestService {
+
+    /** Same tokenization as {@link SearchService}: letters, combining marks (Indic vowel signs) and digits. */
+    private static final Pattern TOKEN = Pattern.compile("[\\p{L}\\p{M}\\p{N}]+");
+    /** Upper bound on trie nodes visited per lookup, so one-letter prefixes stay cheap. */
+    private static final int MAX_VISITED_NODES = 4_000;
+    private static final int MAX_LIMIT = 20;
+
+    private static final String TYPE_CATEGORY = "category";
+    private static final String TYPE_PRODUCT = "product";
+    private static final String TYPE_OPTION = "option";
+
+    private final ProductRepository productRepo;
+    private final CategoryRepository categoryRepo;
+    private final ProductOptionValueRepository valueRepo;
+
+    @Value("${app.search.suggest.default-limit:8}")
+    private int defaultLimit;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Index index = new Index();
+    /**
+     * Patches applied while a rebuild reads its snapshot; replayed onto the new index before the swap so
+     * a write committed mid-rebuild is not lost. Null when no rebuild is running; guarded by {@link #lock}.
+     */
+    private List<Patch> patchedDuringRebuild;
+    /** Serialises rebuilds (startup and the timer may overlap). */
+    private final Object rebuildMonitor = new Object();
+
+    /** One after-commit change: {@code entry == null} removes {@code key}. */
+    private record Patch(String key, Entry entry) {}
+
+    /** A suggestable label. {@code key} is unique per source row: c:&lt;id&gt;, p:&lt;id&gt; or v:&lt;valueId&gt;. */
+    private record Entry(String key, String type, Long id, String slug, String label, String normalized) {}
+
+    private static final class Node {
+        final Map<Character, Node> children = new HashMap<>(4);
+        /** Keys of entries having a word that ends at this node. */
+        Set<String> keys;
+    }
+
+    private static final class Index {
+        final Node root = new Node();
+        final Map<String, Entry> entries = new HashMap<>();
+
+        void put(Entry e) {
+            remove(e.key());
+            entries.put(e.key(), e);
+            for (String word : words(e.normalized())) {
+                Node n = root;
+                for (int i = 0; i < word.length(); i++) {
+                    n = n.children.computeIfAbsent(word.charAt(i), c -> new Node());
+                }
+                if (n.keys == null) n.keys = new HashSet<>(2);
+                n.keys.add(e.key());
+            }
+        }
+
+        void remove(String key) {
+            Entry old = entries.remove(key);
+            if (old == null) return;
+            // Nodes are not pruned here; the periodic rebuild compacts the trie.
+            for (String word : words(old.normalized())) {
+                Node n = find(word);
+                if (n != null && n.keys != null) n.keys.remove(key);
+            }
+        }
+
+        Node find(String prefix) {
+            Node n = root;
+            for (int i = 0; i < prefix.length() && n != null; i++) {
+                n = n.children.get(prefix.charAt(i));
+            }
+            return n;
+        }
+    }
+
+    // ─────────────────────────────── Lookup ───────────────────────────────
+
+    /**
+     * Suggestions for a partially typed query. The last token is matched as a prefix, earlier tokens
+     * must each prefix some word of the label. Categories rank first, then products, then option labels;
+     * within a type, labels starting with the query and shorter labels win.
+     */
+    public List<SearchSuggestionDto> suggest(String q, Integer limit) {
+        List<String> tokens = words(normalize(q));
+        if (tokens.isEmpty()) return List.of();
+        int max = Math.min(Math.max(limit == null ? defaultLimit : limit, 1), MAX_LIMIT);
+
+        String last = tokens.get(tokens.size() - 1);
+        List<String> earlier = tokens.subList(0, tokens.size() - 1);
+        String joined = String.join(" ", tokens);
+
+        List<Entry> candidates = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Node start = index.find(last);
+            if (start == null) return List.of();
+
+            // Breadth-first so shorter completions are seen first.
+            ArrayDeque<Node> queue = new ArrayDeque<>();
+            queue.add(start);
+            Set<String> seen = new HashSet<>();
+            int visited = 0;
+            while (!queue.isEmpty() && visited++ < MAX_VISITED_NODES && candidates.size() < max * 8) {
+                Node n = queue.poll();
+                if (n.keys != null) {
+                    for (String key : n.keys) {
+                        if (!seen.add(key)) continue;
+                        Entry e = index.entries.get(key);
+                        if (e != null && matchesAll(e, earlier)) candidates.add(e);
+                    }
+                }
+                queue.addAll(n.children.values());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        candidates.sort(Comparator
+                .comparingInt((Entry e) -> typeRank(e.type()))
+                .thenComparing(e -> !e.normalized().startsWith(joined))
+                .thenComparingInt(e -> e.label().length())
+                .thenComparing(Entry::label));
+
+        List<SearchSuggestionDto> out = new ArrayList<>(max);
+        Set<String> optionLabels = new HashSet<>();
+        for (Entry e : candidates) {
+            if (out.size() >= max) break;
+            // option labels ("Red", "Large") repeat across products; show each once
+            if (TYPE_OPTION.equals(e.type()) && !optionLabels.add(e.normalized())) continue;
+            out.add(new SearchSuggestionDto(e.type(), e.id(), e.slug(), e.label()));
+        }
+        return out;
+    }
+
+    // ─────────────────────────────── Patching ───────────────────────────────
+
+    /**
+     * Indexes (or drops, when inactive/hidden) a product once the current transaction commits. Its option
+     * value labels follow the product's active flag.
+     */
+    public void putProductAfterCommit(Product p) {
+        if (p == null || p.getId() == null) return;
+        String key = "p:" + p.getId();
+        Entry e = (isIndexable(p)) ? entry(key, TYPE_PRODUCT, p.getId(), p.getSlug(), p.getName()) : null;
+        List<Patch> values = valuePatches(p.getId(), !Boolean.FALSE.equals(p.getActive()));
+        afterCommit(() -> {
+            apply(new Patch(key, e));
+            values.forEach(this::apply);
+        });
+    }
+
+    /** Drops a product and its option value labels once the current transaction commits. */
+    public void removeProductAfterCommit(Long productId) {
+        if (productId == null) return;
+        List<Patch> values = valuePatches(productId, false);
+        afterCommit(() -> {
+            apply(new Patch("p:" + productId, null));
+            values.forEach(this::apply);
+        });
+    }
+
+    /** Indexes (or drops, when inactive) a category once the current transaction commits. */
+    public void putCategoryAfterCommit(Category c) {
+        if (c == null || c.getId() == null) return;
+        String key = "c:" + c.getId();
+        Entry e = (!Boolean.FALSE.equals(c.getActive()))
+                ? entry(key, TYPE_CATEGORY, c.getId(), c.getSlug(), c.getName()) : null;
+        afterCommit(() -> apply(key, e));
+    }
+
+    public void removeCategoryAfterCommit(Long categoryId) {
+        if (categoryId != null) afterCommit(() -> apply("c:" + categoryId, null));
+    }
+
+    /** Re-indexes the value labels of an option once the current transaction commits (see {@link #putOptionValueAfterCommit}). */
+    public void putOptionAfterCommit(ProductOption o) {
+        if (o == null || o.getId() == null) return;
+        List<Patch> patches = new ArrayList<>();
+        for (ProductOptionValue v : valueRepo.findByOption_IdOrderBySortOrderAscIdAsc(o.getId())) {
+            String key = "v:" + v.getId();
+            patches.add(new Patch(key, isIndexable(v) ? entry(key, TYPE_OPTION, null, null, v.getValueLabel()) : null));
+        }
+        afterCommit(() -> patches.forEach(this::apply));
+    }
+
+    /** Drops the value labels of an option once the current transaction commits; call before deleting it. */
+    public void removeOptionAfterCommit(Long optionId) {
+        if (optionId == null) return;
+        List<Patch> patches = valueRepo.findByOption_IdOrderBySortOrderAscIdAsc(optionId).stream()
+                .map(v -> new Patch("v:" + v.getId(), null))
+                .toList();
+        afterCommit(() -> patches.forEach(this::apply));
+    }
+
+    /**
+     * Indexes an option value label once the current transaction commits, or drops it when the value,
+     * its option or its product is inactive.
+     */
+    public void putOptionValueAfterCommit(ProductOptionValue v) {
+        if (v == null || v.getId() == null) return;
+        String key = "v:" + v.getId();
+        Entry e = isIndexable(v) ? entry(key, TYPE_OPTION, null, null, v.getValueLabel()) : null;
+        afterCommit(() -> apply(key, e));
+    }
+
+    public void removeOptionValueAfterCommit(Long valueId) {
+        if (valueId != null) afterCommit(() -> apply("v:" + valueId, null));
+    }
+
+    // ─────────────────────────────── Rebuild ───────────────────────────────
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        rebuild();
+    }
+
+    /**
+     * Full rebuild off-lock, then an atomic swap. Patches applied while the snapshot is read are logged
+     * and replayed onto the new index under the write lock, in order, just before it replaces the old one.
+     */
+    @Scheduled(fixedDelayString = "${app.search.suggest.rebuild-interval-ms:600000}",
+            initialDelayString = "${app.search.suggest.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        synchronized (rebuildMonitor) {
+            long t0 = System.nanoTime();
+            lock.writeLock().lock();
+            try {
+                patchedDuringRebuild = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            try {
+                Index next = new Index();
+                for (Category c : categoryRepo.findAll()) {
+                    if (Boolean.FALSE.equals(c.getActive())) continue;
+                    add(next, entry("c:" + c.getId(), TYPE_CATEGORY, c.getId(), c.getSlug(), c.getName()));
+                }
+                for (Product p : productRepo.findAll()) {
+                    if (!isIndexable(p)) continue;
+                    add(next, entry("p:" + p.getId(), TYPE_PRODUCT, p.getId(), p.getSlug(), p.getName()));
+                }
+                for (Object[] row : valueRepo.findActiveValueLabels()) {
+                    Long id = ((Number) row[0]).longValue();
+                    add(next, entry("v:" + id, TYPE_OPTION, null, null, (String) row[1]));
+                }
+
+                int replayed;
+                lock.writeLock().lock();
+                try {
+                    replayed = patchedDuringRebuild.size();
+                    for (Patch patch : patchedDuringRebuild) patch(next, patch);
+                    index = next;
+                } finally {
+                    patchedDuringRebuild = null;
+                    lock.writeLock().unlock();
+                }
+                log.info("[SEARCH][SUGGEST][REBUILD][OK] entries={} replayedPatches={} tookMs={}",
+                        next.entries.size(), replayed, (System.nanoTime() - t0) / 1_000_000);
+            } catch (Exception e) {
+                lock.writeLock().lock();
+                try {
+                    patchedDuringRebuild = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                log.warn("[SEARCH][SUGGEST][REBUILD][FAIL] keeping previous index: {}", e.toString());
+            }
+        }
+    }
+
+    // ─────────────────────────────── Internals ───────────────────────────────
+
+    private void apply(String key, Entry e) {
+        apply(new Patch(key, e));
+    }
+
+    private void apply(Patch patch) {
+        lock.writeLock().lock();
+        try {
+            patch(index, patch);
+            if (patchedDuringRebuild != null) patchedDuringRebuild.add(patch);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void patch(Index idx, Patch patch) {
+        if (patch.entry() == null) idx.remove(patch.key());
+        else idx.put(patch.entry());
+    }
+
+    private static void add(Index idx, Entry e) {
+        if (e != null) idx.put(e);
+    }
+
+    private static Entry entry(String key, String type, Long id, String slug, String label) {
+        if (label == null || label.isBlank()) return null;
+        String trimmed = label.trim();
+        return new Entry(key, type, id, slug, trimmed, normalize(trimmed));
+    }
+
+    /**
+     * Puts (when {@code productActive}) or removes the labels of the product's active values under active
+     * options, read now so they reflect the current transaction.
+     */
+    private List<Patch> valuePatches(Long productId, boolean productActive) {
+        List<Patch> patches = new ArrayList<>();
+        for (Object[] row : valueRepo.findActiveValueLabelsByProductId(productId)) {
+            String key = "v:" + ((Number) row[0]).longValue();
+            patches.add(new Patch(key, productActive ? entry(key, TYPE_OPTION, null, null, (String) row[1]) : null));
+        }
+        return patches;
+    }
+
+    private static boolean isIndexable(Product p) {
+        return !Boolean.FALSE.equals(p.getActive()) && !Boolean.FALSE.equals(p.getVisible());
+    }
+
+    /** Same rule as {@code findActiveValueLabels}: the value, its option and its product are active. */
+    private static boolean isIndexable(ProductOptionValue v) {
+        if (Boolean.FALSE.equals(v.getActive())) return false;
+        ProductOption o = v.getOption();
+        if (o == null) return true;
+        if (Boolean.FALSE.equals(o.getActive())) return false;
+        return o.getProduct() == null || !Boolean.FALSE.equals(o.getProduct().getActive());
+    }
+
+    private static boolean matchesAll(Entry e, List<String> prefixes) {
+        if (prefixes.isEmpty()) return true;
+        List<String> words = words(e.normalized());
+        for (String p : prefixes) {
+            boolean hit = false;
+            for (String w : words) {
+                if (w.startsWith(p)) { hit = true; break; }
+            }
+            if (!hit) return false;
+        }
+        return true;
+    }
+
+    private static int typeRank(String type) {
+        return switch (type) {
+            case TYPE_CATEGORY -> 0;
+            case TYPE_PRODUCT -> 1;
+            default -> 2;
+        };
+    }
+
+    static String normalize(String s) {
+        return s == null ? "" : s.toLowerCase(Locale.ROOT).trim();
+    }
+
+    static List<String> words(String normalized) {
+        List<String> out = new ArrayList<>();
+        Matcher m = TOKEN.matcher(normalized);
+        while (m.find()) out.add(m.group());
+        return out;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override public void afterCommit() { action.run(); }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.blossombuds.service;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GeneratePresignedUrlRequest;
+import com.blossombuds.util.R2Presigner;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared presigned-GET URL service for R2 objects.
+ * Signed URLs are cached per object key and reused while they stay valid for at least the
+ * requested window, so a URL embedded in a cached DTO never expires before the cache entry does.
+ * Signing uses {@link R2Presigner} (no SDK request objects); set {@code app.r2.native-presign=false}
+ * to fall back to {@code AmazonS3#generatePresignedUrl}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SignedUrlService {
+
+    private final AmazonS3 r2Client;
+
+    @Value("${cloudflare.r2.bucket}")     private String bucketName;
+    @Value("${cloudflare.r2.endpoint}")   private String r2Endpoint;
+    @Value("${cloudflare.r2.region}")     private String region;
+    @Value("${cloudflare.r2.access-key}") private String accessKey;
+    @Value("${cloudflare.r2.secret-key}") private String secretKey;
+
+    @Value("${app.r2.native-presign:true}")
+    private boolean nativePresign;
+
+    /**
+     * Default minimum remaining validity of a returned URL; must exceed the longest catalog
+     * DTO cache TTL (30 min) that embeds signed URLs.
+     */
+    @Value("${app.r2.signed-url.min-validity:PT35M}")
+    private Duration defaultMinValidity;
+
+    /** Extra lifetime signed on top of the requested validity; this is how long a cached URL is reused. */
+    @Value("${app.r2.signed-url.reuse-window:PT25M}")
+    private Duration reuseWindow;
+
+    @Value("${app.r2.signed-url.max-entries:20000}")
+    private int maxEntries;
+
+    private R2Presigner presigner;
+
+    private final Map<String, Signed> cache = new ConcurrentHashMap<>();
+
+    private record Signed(String url, Instant expiresAt) {}
+
+    @PostConstruct
+    public void init() {
+        if (nativePresign) {
+            presigner = new R2Presigner(r2Endpoint, region, accessKey, secretKey);
+        }
+        log.info("[R2][SIGN][INIT] native={} minValidity={} reuseWindow={}", nativePresign, defaultMinValidity, reuseWindow);
+    }
+
+    /** Signed GET URL valid for at least the default window. */
+    public String signGet(String key) {
+        return signGet(key, defaultMinValidity);
+    }
+
+    /** Signed GET URL valid for at least {@code minValidity} from now (reused from cache when possible). */
+    public String signGet(String key, Duration minValidity) {
+        if (key == null || key.isBlank()) return null;
+        Instant now = Instant.now();
+        Instant mustLastUntil = now.plus(minValidity);
+
+        Signed hit = cache.get(key);
+        if (hit != null && !hit.expiresAt().isBefore(mustLastUntil)) {
+            return hit.url();
+        }
+
+        Duration ttl = minValidity.plus(reuseWindow);
+        String url = sign(key, now, ttl);
+        if (cache.size() >= maxEntries) {
+            cache.clear();
+        }
+        cache.put(key, new Signed(url, now.plus(ttl)));
+        return url;
+    }
+
+    /**
+     * Signs many keys at once (e.g. all primary images of a product page). Keys that fail to sign
+     * are logged and left out of the result; the result preserves the input order.
+     */
+    public Map<String, String> signGetAll(Collection<String> keys) {
+        Map<String, String> out = new LinkedHashMap<>();
+        if (keys == null) return out;
+        for (String key : keys) {
+            if (key == null || key.isBlank() || out.containsKey(key)) continue;
+            try {
+                out.put(key, signGet(key));
+            } catch (Exception e) {
+                log.warn("[R2][SIGN][WARN] key={} err={}", key, e.toString());
+            }
+        }
+        return out;
+    }
+
+    /** Drops a cached URL (e.g. after the object was deleted or replaced). */
+    public void forget(String key) {
+        if (key != null) cache.remove(key);
+    }
+
+    private String sign(String key, Instant now, Duration ttl) {
+        if (presigner != null) {
+            return presigner.presignGet(bucketName, key, now, ttl);
+        }
+        GeneratePresignedUrlRequest req = new GeneratePresignedUrlRequest(bucketName, key)
+                .withMethod(com.amazonaws.HttpMethod.GET)
+                .withExpiration(Date.from(now.plus(ttl)));
+        return r2Client.generatePresignedUrl(req).toString();
+    }
+}
@@ -10,7 +10,10 @@ import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import java.math.BigDecimal;
@@ -91,6 +94,17 @@ public class SmtpEmailService implements EmailService {
 
     @Value("${app.mail.marketing.apiKey:${app.mail.apiKey:}}")
     private String marketingApiKey;
+
+    /**
+     * Resend-style batch endpoint (array of emails per POST), e.g. {@code https://api.resend.com/emails/batch}.
+     * Blank by default: batch sending is only used when the provider's endpoint is configured explicitly.
+     */
+    @Value("${app.mail.marketing.batchUrl:}")
+    private String marketingBatchUrl;
+
+    /** Resend accepts at most 100 emails per batch call. */
+    @Value("${app.mail.marketing.batch-size:100}")
+    private int marketingBatchSize;
     /**
      * Converts marker syntax to HTML. Must receive the raw (un-escaped) source — the marker
      * URLs are extracted here and only the label text is HTML-escaped. Calling escape() on the
@@ -458,6 +472,9 @@ public class SmtpEmailService implements EmailService {
                 log.info("[EMAIL][SEND] HTTP email sent to='{}' subject='{}' status={}",
                         toEmail, subject, response.statusCode());
                 return EmailSendResult.ok();
+            } else if (response.statusCode() == 429) {
+                log.warn("[EMAIL][SEND][THROTTLED] HTTP provider rate limit to='{}'", toEmail);
+                return EmailSendResult.throttled("Provider error 429");
             } else {
                 log.error("[EMAIL][SEND] HTTP provider error status={} body={}",
                         response.statusCode(), response.body());
@@ -478,6 +495,70 @@ public class SmtpEmailService implements EmailService {
     }
 
 
+    @Override
+    public int marketingBatchLimit() {
+        return (marketingBatchUrl == null || marketingBatchUrl.isBlank()) ? 0 : Math.max(0, marketingBatchSize);
+    }
+
+    /**
+     * One POST to the batch endpoint for all emails. The provider accepts or rejects a batch as a
+     * whole, so every email in it gets the same outcome.
+     */
+    @Override
+    public List<EmailSendResult> sendMarketingEmailBatchSync(List<MarketingEmail> emails) {
+        if (emails.isEmpty()) return List.of();
+        if (marketingBatchLimit() == 0 || emails.size() == 1) {
+            return EmailService.super.sendMarketingEmailBatchSync(emails);
+        }
+        if (emails.size() > marketingBatchLimit()) {
+            throw new IllegalArgumentException("Batch of " + emails.size() + " exceeds limit " + marketingBatchLimit());
+        }
+        if (marketingApiKey == null || marketingApiKey.isBlank()) {
+            log.error("[EMAIL][BATCH] mail api key not configured – cannot send batch of {}", emails.size());
+            return Collections.nCopies(emails.size(), EmailSendResult.failed("Email provider not configured"));
+        }
+
+        EmailSendResult outcome;
+        try {
+            List<Map<String, Object>> payload = new ArrayList<>(emails.size());
+            for (MarketingEmail e : emails) {
+                Map<String, Object> one = new HashMap<>();
+                one.put("from", from);
+                one.put("to", new String[]{e.toEmail()});
+                one.put("subject", e.subject());
+                one.put("html", renderHtmlEmail(e.bodyWithMarkers()).htmlBody());
+                one.put("text", maskToPlain(e.bodyWithMarkers()));
+                payload.add(one);
+            }
+
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(marketingBatchUrl))
+                    .header("Authorization", "Bearer " + marketingApiKey)
+                    .header("Content-Type", "application/json")
+                    .timeout(java.time.Duration.ofSeconds(60))
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(payload)))
+                    .build();
+
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            int status = response.statusCode();
+            if (status >= 200 && status < 300) {
+                log.info("[EMAIL][BATCH] HTTP batch sent count={} status={}", emails.size(), status);
+                outcome = EmailSendResult.ok();
+            } else if (status == 429) {
+                log.warn("[EMAIL][BATCH][THROTTLED] HTTP provider rate limit count={}", emails.size());
+                outcome = EmailSendResult.throttled("Provider error 429");
+            } else {
+                log.error("[EMAIL][BATCH] HTTP provider error status={} body={}", status, response.body());
+                outcome = EmailSendResult.failed("Provider error " + status);
+            }
+        } catch (Exception ex) {
+            log.error("[EMAIL][BATCH] Failed to send batch of {} via HTTP provider", emails.size(), ex);
+            outcome = EmailSendResult.failed(ex.getMessage() == null ? ex.getClass().getSimpleName() : ex.getMessage());
+        }
+        return Collections.nCopies(emails.size(), outcome);
+    }
+
+
     /* ========================= HTML Renderer ========================= */
 
     private record HtmlParts(String htmlBody) {}
@@ -0,0 +1,211 @@
+package com.blossombuds.service;
+
+import com.blossombuds.domain.WhatsAppCampaignRecipient;
+import com.blossombuds.util.AdaptiveTokenBucket;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.OffsetDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Sends campaign messages concurrently on a bounded worker pool, paced by a shared
+ * {@link AdaptiveTokenBucket} sized to the Meta Cloud API messaging throughput.
+ * <p>
+ * Each recipient keeps the crash-recovery contract that
+ * {@link WhatsAppCampaignService#recoverStuckCampaigns()} relies on: rows are claimed as SENDING
+ * (one UPDATE per chunk, see {@link CampaignRecipientStateWriter}) before their HTTP calls and
+ * written as SENT/FAILED in batches after them, so a crash leaves only SENDING rows (reset to
+ * PENDING on startup) and never a PENDING row that was already sent. An interrupted dispatch hands the
+ * rows it claimed but never submitted back to PENDING and still waits for the sends already running,
+ * so its caller only finalizes the campaign once every started send has a recorded outcome.
+ * <p>
+ * Throttled calls (HTTP 429, Graph codes 130429/131056) halve the send rate, pause all workers,
+ * and are retried with exponential backoff before the recipient is marked FAILED.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WhatsAppCampaignDispatcher {
+
+    private final CampaignRecipientStateWriter stateWriter;
+
+    /** Meta's default throughput is 80 msg/s per number; stay well under it unless upgraded. */
+    @Value("${app.whatsapp.campaign.rate-per-second:40}")
+    private double ratePerSecond = 40;
+
+    @Value("${app.whatsapp.campaign.min-rate-per-second:2}")
+    private double minRatePerSecond = 2;
+
+    /** Concurrent HTTP calls to Meta. */
+    @Value("${app.whatsapp.campaign.concurrency:8}")
+    private int concurrency = 8;
+
+    @Value("${app.whatsapp.campaign.max-attempts:4}")
+    private int maxAttempts = 4;
+
+    @Value("${app.whatsapp.campaign.backoff-ms:1000}")
+    private long backoffMs = 1000;
+
+    /** Rows claimed PENDING → SENDING per UPDATE; bounds how many may be re-sent after a crash. */
+    @Value("${app.whatsapp.campaign.claim-chunk:100}")
+    private int claimChunk = 100;
+
+    private ExecutorService pool;
+    private AdaptiveTokenBucket limiter;
+
+    /** Outcome counts for one dispatch. */
+    public record Outcome(int sent, int failed) {}
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger n = new AtomicInteger();
+        pool = Executors.newFixedThreadPool(Math.max(1, concurrency), r -> {
+            Thread t = new Thread(r, "wa-campaign-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        // One limiter for all campaigns: the quota is per business phone number, not per campaign.
+        limiter = new AdaptiveTokenBucket(ratePerSecond, minRatePerSecond, Math.max(1, concurrency));
+        log.info("[WHATSAPP][DISPATCH][INIT] rate={}/s concurrency={} maxAttempts={}", ratePerSecond, concurrency, maxAttempts);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null) pool.shutdownNow();
+    }
+
+    /**
+     * Sends to every recipient and blocks until all have a final status.
+     * {@code send} performs the provider call for one recipient and must be thread-safe.
+     */
+    public Outcome dispatch(Long campaignId,
+                            List<WhatsAppCampaignRecipient> recipients,
+                            Function<WhatsAppCampaignRecipient, WhatsAppCloudClient.SendResult> send) {
+        int slots = Math.max(1, concurrency);
+        Semaphore inFlight = new Semaphore(slots);
+        AtomicInteger sent = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        long t0 = System.currentTimeMillis();
+
+        // claimed (SENDING) but not yet handed to a worker
+        Set<Long> unsubmitted = new HashSet<>();
+        try {
+            for (int from = 0; from < recipients.size(); from += Math.max(1, claimChunk)) {
+                List<WhatsAppCampaignRecipient> chunk =
+                        recipients.subList(from, Math.min(from + Math.max(1, claimChunk), recipients.size()));
+                unsubmitted.addAll(stateWriter.claim(CampaignRecipientStateWriter.Channel.WHATSAPP,
+                        chunk.stream().map(WhatsAppCampaignRecipient::getId).toList()));
+
+                for (WhatsAppCampaignRecipient recipient : chunk) {
+                    if (!unsubmitted.contains(recipient.getId())) continue; // taken by another run meanwhile
+                    recipient.setStatus("SENDING");
+                    recipient.setQueuedAt(OffsetDateTime.now());
+                    submit(recipient, send, inFlight, sent, failed);
+                    unsubmitted.remove(recipient.getId());
+                }
+            }
+            inFlight.acquire(slots); // wait for the tail
+        } catch (InterruptedException e) {
+            log.warn("[WHATSAPP][DISPATCH] Interrupted campaignId={}, releasing {} unsent recipients to PENDING, waiting for {} in-flight",
+                    campaignId, unsubmitted.size(), slots - inFlight.availablePermits());
+            releaseUnsent(campaignId, unsubmitted);
+            inFlight.acquireUninterruptibly(slots); // started sends still record SENT/FAILED before we return
+            Thread.currentThread().interrupt();
+        } finally {
+            stateWriter.flush(CampaignRecipientStateWriter.Channel.WHATSAPP);
+        }
+
+        log.info("[WHATSAPP][DISPATCH][DONE] campaignId={} sent={} failed={} tookMs={} rate={}/s",
+                campaignId, sent.get(), failed.get(), System.currentTimeMillis() - t0, limiter.currentRate());
+        return new Outcome(sent.get(), failed.get());
+    }
+
+    /** Puts claimed-but-unsent rows back to PENDING; a failure is logged with the row count and not rethrown. */
+    private void releaseUnsent(Long campaignId, Set<Long> ids) {
+        if (ids.isEmpty()) return;
+        try {
+            int n = stateWriter.release(CampaignRecipientStateWriter.Channel.WHATSAPP, ids);
+            log.info("[WHATSAPP][DISPATCH][RELEASE] campaignId={} rows={}", campaignId, n);
+        } catch (RuntimeException e) {
+            log.error("[WHATSAPP][DISPATCH][RELEASE][FAIL] campaignId={} rows={} err={}", campaignId, ids.size(), e.toString());
+        }
+    }
+
+    private void submit(WhatsAppCampaignRecipient recipient,
+                        Function<WhatsAppCampaignRecipient, WhatsAppCloudClient.SendResult> send,
+                        Semaphore inFlight, AtomicInteger sent, AtomicInteger failed) throws InterruptedException {
+        inFlight.acquire();
+        try {
+            pool.execute(() -> {
+                try {
+                    if (sendOne(recipient, send)) sent.incrementAndGet();
+                    else failed.incrementAndGet();
+                } catch (Exception e) {
+                    // The campaign is finalized after this dispatch, so startup recovery would never see a row
+                    // left in SENDING: record it as FAILED and count it like any other failed send.
+                    if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+                    log.error("[WHATSAPP][DISPATCH][FAIL] recipientId={} err={}", recipient.getId(), e.toString());
+                    OffsetDateTime now = OffsetDateTime.now();
+                    recipient.setStatus("FAILED");
+                    recipient.setFailedAt(now);
+                    recipient.setErrorMessage(e.toString());
+                    stateWriter.recordResult(CampaignRecipientStateWriter.Channel.WHATSAPP,
+                            new CampaignRecipientStateWriter.RecipientResult(recipient.getId(), false,
+                                    null, e.toString(), now));
+                    failed.incrementAndGet();
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    /** Provider call for a claimed (SENDING) row, with throttling retries, then a buffered SENT/FAILED. */
+    private boolean sendOne(WhatsAppCampaignRecipient recipient,
+                            Function<WhatsAppCampaignRecipient, WhatsAppCloudClient.SendResult> send)
+            throws InterruptedException {
+        WhatsAppCloudClient.SendResult result = null;
+        for (int attempt = 1; attempt <= Math.max(1, maxAttempts); attempt++) {
+            limiter.acquire();
+            result = send.apply(recipient);
+            if (!result.isRateLimited()) break;
+
+            long pause = backoffMs << Math.min(attempt - 1, 6);
+            limiter.onThrottled(pause);
+            log.warn("[WHATSAPP][DISPATCH][THROTTLED] recipientId={} attempt={} pauseMs={} rate={}/s",
+                    recipient.getId(), attempt, pause, limiter.currentRate());
+        }
+
+        OffsetDateTime now = OffsetDateTime.now();
+        if (result.isSuccess()) {
+            limiter.onSuccess();
+            recipient.setStatus("SENT");
+            recipient.setProviderMessageId(result.getProviderMessageId());
+            recipient.setSentAt(now);
+            recipient.setErrorMessage(null);
+        } else {
+            recipient.setStatus("FAILED");
+            recipient.setFailedAt(now);
+            recipient.setErrorMessage(result.getErrorMessage());
+        }
+        stateWriter.recordResult(CampaignRecipientStateWriter.Channel.WHATSAPP,
+                new CampaignRecipientStateWriter.RecipientResult(recipient.getId(), result.isSuccess(),
+                        result.getProviderMessageId(), result.getErrorMessage(), now));
+        return result.isSuccess();
+    }
+}
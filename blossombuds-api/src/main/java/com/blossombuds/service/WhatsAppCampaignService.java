@@ -40,6 +40,7 @@ public class WhatsAppCampaignService {
     private final CustomerRepository customerRepository;
     private final WhatsAppCloudClient whatsAppCloudClient;
     private final EmailCampaignService emailCampaignService;
+    private final WhatsAppCampaignDispatcher campaignDispatcher;
 
     /**
      * On startup, reset any campaigns that were left in SENDING (from a previous crash/restart).
@@ -288,48 +289,20 @@ public class WhatsAppCampaignService {
         campaign.setModifiedAt(OffsetDateTime.now());
         campaign = campaignRepository.save(campaign);
 
-        int sent = 0;
-        int failed = 0;
-
-        for (WhatsAppCampaignRecipient recipient : recipients) {
-            // Persist SENDING before the HTTP call so a mid-loop crash leaves the row
-            // in a recoverable state (startup recovery resets SENDING → PENDING for retry)
-            // rather than as PENDING which would be silently re-sent as a duplicate.
-            recipient.setQueuedAt(OffsetDateTime.now());
-            recipient.setStatus("SENDING");
-            recipient.setModifiedBy("system");
-            recipient.setModifiedAt(OffsetDateTime.now());
-            recipientRepository.save(recipient);
-
+        // Concurrent, rate-limited sends; each recipient row still goes SENDING → SENT/FAILED on its own.
+        WhatsAppCampaignDispatcher.Outcome outcome = campaignDispatcher.dispatch(campaignId, recipients, recipient -> {
             List<String> variables = buildTemplateVariables(recipient, template);
             String imageUrl = getVariableValue(recipient.getVariablesJson(), "imageUrl");
-
-            // HTTP call outside any transaction — each recipient save commits on its own
-            WhatsAppCloudClient.SendResult result = whatsAppCloudClient.sendTemplateMessage(
+            return whatsAppCloudClient.sendTemplateMessage(
                     recipient.getPhone(),
                     template.getProviderTemplateName(),
                     template.getLanguageCode(),
                     variables,
                     isBlank(imageUrl) ? null : imageUrl
             );
-
-            if (result.isSuccess()) {
-                recipient.setStatus("SENT");
-                recipient.setProviderMessageId(result.getProviderMessageId());
-                recipient.setSentAt(OffsetDateTime.now());
-                recipient.setErrorMessage(null);
-                sent++;
-            } else {
-                recipient.setStatus("FAILED");
-                recipient.setFailedAt(OffsetDateTime.now());
-                recipient.setErrorMessage(result.getErrorMessage());
-                failed++;
-            }
-
-            recipient.setModifiedBy("system");
-            recipient.setModifiedAt(OffsetDateTime.now());
-            recipientRepository.save(recipient);
-        }
+        });
+        int sent = outcome.sent();
+        int failed = outcome.failed();
 
         // Recompute absolutely from the recipient rows rather than incrementing the counters this
         // method loaded before the send loop began. Delivery webhooks arriving mid-send also write
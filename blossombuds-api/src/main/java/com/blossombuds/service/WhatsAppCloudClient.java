@@ -7,12 +7,15 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.*;
 import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /** Client service for sending Meta WhatsApp Cloud API template messages. */
 @Slf4j
@@ -126,6 +129,15 @@ public class WhatsAppCloudClient {
 
             return SendResult.success(providerMessageId, false);
 
+        } catch (HttpStatusCodeException e) {
+            if (isRateLimited(e)) {
+                log.warn("[WHATSAPP][SEND][THROTTLED] Template '{}' to phone={} rate-limited: status={}",
+                        templateName, maskPhone(normalizedPhone), e.getStatusCode().value());
+                return SendResult.rateLimited(e.getMessage());
+            }
+            log.error("[WHATSAPP][SEND] Failed to send template '{}' to phone={}: {}",
+                    templateName, maskPhone(normalizedPhone), e.getMessage(), e);
+            return SendResult.failed(e.getMessage());
         } catch (Exception e) {
             log.error("[WHATSAPP][SEND] Failed to send template '{}' to phone={}: {}",
                     templateName, maskPhone(normalizedPhone), e.getMessage(), e);
@@ -133,6 +145,21 @@ public class WhatsAppCloudClient {
         }
     }
 
+    /**
+     * Meta throttling: HTTP 429, or a Graph error code for throughput (130429), pair rate (131056)
+     * or app-level call limits (4, 80007). These are worth retrying later; other errors are not.
+     */
+    static boolean isRateLimited(HttpStatusCodeException e) {
+        if (e.getStatusCode().value() == 429) return true;
+        Matcher m = GRAPH_ERROR_CODE.matcher(String.valueOf(e.getResponseBodyAsString()));
+        if (!m.find()) return false;
+        return RATE_LIMIT_CODES.contains(m.group(1));
+    }
+
+    private static final Pattern GRAPH_ERROR_CODE =
+            Pattern.compile("\"code\"\\s*:\\s*(\\d+)");
+    private static final Set<String> RATE_LIMIT_CODES = Set.of("4", "80007", "130429", "131056");
+
     /** Sends a free-form text message (only valid within 24h of customer-initiated conversation). */
     public SendResult sendTextMessage(String phone, String text) {
         if (isBlank(phone)) return SendResult.failed("Phone number is required");
@@ -307,23 +334,32 @@ public class WhatsAppCloudClient {
         private final boolean dryRun;
         private final String providerMessageId;
         private final String errorMessage;
+        /** True when Meta throttled the call; the send may succeed if retried later. */
+        private final boolean rateLimited;
 
         /** Creates a WhatsApp send result. */
-        private SendResult(boolean success, boolean dryRun, String providerMessageId, String errorMessage) {
+        private SendResult(boolean success, boolean dryRun, String providerMessageId, String errorMessage,
+                           boolean rateLimited) {
             this.success = success;
             this.dryRun = dryRun;
             this.providerMessageId = providerMessageId;
             this.errorMessage = errorMessage;
+            this.rateLimited = rateLimited;
         }
 
         /** Creates a successful send result. */
         public static SendResult success(String providerMessageId, boolean dryRun) {
-            return new SendResult(true, dryRun, providerMessageId, null);
+            return new SendResult(true, dryRun, providerMessageId, null, false);
         }
 
         /** Creates a failed send result. */
         public static SendResult failed(String errorMessage) {
-            return new SendResult(false, false, null, errorMessage);
+            return new SendResult(false, false, null, errorMessage, false);
+        }
+
+        /** Creates a failed result for a throttled call. */
+        public static SendResult rateLimited(String errorMessage) {
+            return new SendResult(false, false, null, errorMessage, true);
         }
     }
 }
\ No newline at end of file
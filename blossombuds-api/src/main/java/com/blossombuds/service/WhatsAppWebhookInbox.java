@@ -0,0 +1,131 @@
+package com.blossombuds.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Ack-fast ingestion for WhatsApp webhooks.
+ * <p>
+ * The controller only {@link #enqueue}s the verified payload (one insert) and returns 200, so Meta's
+ * delivery/read storm during a large campaign never waits on status processing. {@link #drain}
+ * leases batches of rows with {@code FOR UPDATE SKIP LOCKED}, hands them to
+ * {@link WhatsAppWebhookService#processWebhookBatch} in one transaction and deletes them once applied.
+ * <p>
+ * Delivery is at-least-once: a lease left behind by a crash expires and the rows are processed again,
+ * which is harmless because recipient statuses only move forward. Rows are only leased once they are
+ * {@code min-age-ms} old: campaign results (and their provider message ids) are written in batches by
+ * {@link CampaignRecipientStateWriter}, and a status applied before its row is written would be lost. A batch that fails is retried one
+ * payload at a time; a payload still failing after {@code max-attempts} is logged in full and dropped,
+ * the same trade-off the controller already makes to keep the subscription alive.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WhatsAppWebhookInbox {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final WhatsAppWebhookService webhookService;
+
+    @Value("${app.whatsapp.webhook.inbox.batch-size:200}")
+    private int batchSize = 200;
+
+    /** A leased row not deleted within this time is considered abandoned and claimed again. */
+    @Value("${app.whatsapp.webhook.inbox.lease-seconds:300}")
+    private int leaseSeconds = 300;
+
+    /** Longer than {@code app.campaign.state-writer.flush-interval-ms}, so provider ids are stored first. */
+    @Value("${app.whatsapp.webhook.inbox.min-age-ms:2000}")
+    private long minAgeMs = 2000;
+
+    @Value("${app.whatsapp.webhook.inbox.max-attempts:5}")
+    private int maxAttempts = 5;
+
+    /** One leased inbox row. */
+    record Row(long id, String payload, int attempts) {}
+
+    /** Appends a payload for background processing. Throws if it could not be stored. */
+    public void enqueue(String rawPayload) {
+        jdbcTemplate.update("insert into whatsapp_webhook_inbox (payload) values (?)", rawPayload);
+    }
+
+    /** Applies queued payloads until the inbox is empty (or only holds rows leased elsewhere). */
+    @Scheduled(fixedDelayString = "${app.whatsapp.webhook.inbox.poll-ms:500}")
+    public void drain() {
+        try {
+            int n;
+            do {
+                n = drainOnce();
+            } while (n >= Math.max(1, batchSize));
+        } catch (Exception e) {
+            log.warn("[WHATSAPP][INBOX][DRAIN][FAIL] err={}", e.toString());
+        }
+    }
+
+    /** Leases, applies and deletes one batch; returns the number of rows leased. */
+    int drainOnce() {
+        List<Row> rows = lease();
+        if (rows.isEmpty()) return 0;
+
+        long t0 = System.currentTimeMillis();
+        try {
+            webhookService.processWebhookBatch(rows.stream().map(Row::payload).toList());
+            delete(rows.stream().map(Row::id).toList());
+            log.debug("[WHATSAPP][INBOX][APPLY] rows={} tookMs={}", rows.size(), System.currentTimeMillis() - t0);
+        } catch (Exception e) {
+            log.warn("[WHATSAPP][INBOX][APPLY][FAIL] rows={} err={} (retrying one by one)", rows.size(), e.toString());
+            for (Row row : rows) {
+                applySingle(row);
+            }
+        }
+        return rows.size();
+    }
+
+    private void applySingle(Row row) {
+        try {
+            webhookService.processWebhookBatch(List.of(row.payload()));
+            delete(List.of(row.id()));
+        } catch (Exception e) {
+            if (row.attempts() >= Math.max(1, maxAttempts)) {
+                log.error("[WHATSAPP][INBOX][DROP] id={} attempts={} err={} | payload={}",
+                        row.id(), row.attempts(), e.toString(), row.payload());
+                delete(List.of(row.id()));
+            } else {
+                log.warn("[WHATSAPP][INBOX][RETRY] id={} attempts={} err={}", row.id(), row.attempts(), e.toString());
+                jdbcTemplate.update("update whatsapp_webhook_inbox set claimed_at = null where id = ?", row.id());
+            }
+        }
+    }
+
+    /** Claims up to batchSize settled, unleased (or expired) rows, oldest first; other nodes skip them. */
+    private List<Row> lease() {
+        String sql = "update whatsapp_webhook_inbox set claimed_at = now(), attempts = attempts + 1"
+                + " where id in (select id from whatsapp_webhook_inbox"
+                + "   where (claimed_at is null or claimed_at < now() - make_interval(secs => ?))"
+                + "     and received_at <= now() - make_interval(secs => ?)"
+                + "   order by id limit ? for update skip locked)"
+                + " returning id, payload, attempts";
+        List<Row> rows = new ArrayList<>(jdbcTemplate.query(sql,
+                (rs, i) -> new Row(rs.getLong("id"), rs.getString("payload"), rs.getInt("attempts")),
+                leaseSeconds, Math.max(0L, minAgeMs) / 1000.0, Math.max(1, batchSize)));
+        rows.sort(Comparator.comparingLong(Row::id)); // RETURNING order is unspecified
+        return rows;
+    }
+
+    private void delete(List<Long> ids) {
+        Long[] arr = ids.toArray(new Long[0]);
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement("delete from whatsapp_webhook_inbox where id = any(?)");
+            ps.setArray(1, con.createArrayOf("bigint", arr));
+            return ps;
+        });
+    }
+}
@@ -1,6 +1,7 @@
 package com.blossombuds.service;
 
 import com.blossombuds.domain.Setting;
+import com.blossombuds.domain.WhatsAppCampaignRecipient;
 import com.blossombuds.domain.WhatsAppContact;
 import com.blossombuds.domain.WhatsAppMessageEvent;
 import com.blossombuds.repository.CustomerWhatsAppPreferenceRepository;
@@ -19,6 +20,11 @@ import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /** Service for processing Meta WhatsApp Cloud API webhook payloads. */
 @Slf4j
@@ -46,43 +52,62 @@ public class WhatsAppWebhookService {
             log.warn("[WHATSAPP][WEBHOOK] Empty payload received");
             return;
         }
+        processWebhookBatch(List.of(rawPayload));
+    }
 
-        WhatsAppMessageEvent rawEvent = new WhatsAppMessageEvent();
-        rawEvent.setEventType("RAW_WEBHOOK");
-        rawEvent.setRawPayload(rawPayload);
-        rawEvent.setReceivedAt(OffsetDateTime.now());
-        rawEvent.setCreatedAt(OffsetDateTime.now());
-        messageEventRepository.save(rawEvent);
+    /**
+     * Stores and processes several raw payloads in one transaction (see {@link WhatsAppWebhookInbox}).
+     * <p>
+     * Incoming messages are handled one by one as before. Delivery statuses are collected across the
+     * whole batch, coalesced to the furthest status per message id, loaded with one query, saved
+     * together, and applied to the campaign counters as deltas rather than recounted.
+     */
+    @Transactional
+    public void processWebhookBatch(List<String> rawPayloads) {
+        Map<String, StatusUpdate> latest = new LinkedHashMap<>();
 
-        try {
-            JsonNode root = objectMapper.readTree(rawPayload);
-            JsonNode entries = root.path("entry");
+        for (String rawPayload : rawPayloads) {
+            if (rawPayload == null || rawPayload.isBlank()) continue;
 
-            if (!entries.isArray()) {
-                log.debug("[WHATSAPP][WEBHOOK] No entry array found");
-                return;
-            }
+            WhatsAppMessageEvent rawEvent = new WhatsAppMessageEvent();
+            rawEvent.setEventType("RAW_WEBHOOK");
+            rawEvent.setRawPayload(rawPayload);
+            rawEvent.setReceivedAt(OffsetDateTime.now());
+            rawEvent.setCreatedAt(OffsetDateTime.now());
+            messageEventRepository.save(rawEvent);
 
-            for (JsonNode entry : entries) {
-                JsonNode changes = entry.path("changes");
+            try {
+                JsonNode root = objectMapper.readTree(rawPayload);
+                JsonNode entries = root.path("entry");
 
-                if (!changes.isArray()) {
+                if (!entries.isArray()) {
+                    log.debug("[WHATSAPP][WEBHOOK] No entry array found");
                     continue;
                 }
 
-                for (JsonNode change : changes) {
-                    JsonNode value = change.path("value");
-                    processStatuses(value);
-                    processIncomingMessages(value, rawPayload);
+                for (JsonNode entry : entries) {
+                    JsonNode changes = entry.path("changes");
+
+                    if (!changes.isArray()) {
+                        continue;
+                    }
+
+                    for (JsonNode change : changes) {
+                        JsonNode value = change.path("value");
+                        collectStatuses(value, latest);
+                        processIncomingMessages(value, rawPayload);
+                    }
                 }
+            } catch (Exception e) {
+                log.error("[WHATSAPP][WEBHOOK] Failed to process payload: {}", e.getMessage(), e);
             }
-        } catch (Exception e) {
-            log.error("[WHATSAPP][WEBHOOK] Failed to process payload: {}", e.getMessage(), e);
         }
+
+        applyStatuses(latest);
     }
 
-    /** Processes message status updates such as sent, delivered, read, or failed. */
-    private void processStatuses(JsonNode value) {
+    /** Records status events (sent, delivered, read, failed) and keeps the furthest one per message id. */
+    private void collectStatuses(JsonNode value, Map<String, StatusUpdate> latest) {
         JsonNode statuses = value.path("statuses");
 
         if (!statuses.isArray()) {
@@ -119,7 +144,11 @@ public class WhatsAppWebhookService {
             log.info("[WHATSAPP][WEBHOOK][STATUS_EVENT] wamid={} recipient={} status={} errorCode={} errorMessage={}",
                     providerMessageId, maskPhone(phone), providerStatus, errorCode, errorMessage);
 
-            updateRecipientStatus(providerMessageId, providerStatus, errorMessage);
+            if (providerMessageId.isBlank()) continue;
+            StatusUpdate update = new StatusUpdate(providerMessageId, providerStatus, errorMessage);
+            latest.merge(providerMessageId, update,
+                    (prev, next) -> rank(recipientStatus(next.providerStatus()))
+                            >= rank(recipientStatus(prev.providerStatus())) ? next : prev);
         }
     }
 
@@ -438,88 +467,138 @@ public class WhatsAppWebhookService {
         }
     }
 
-    /** Updates campaign recipient row based on provider status. */
-    private void updateRecipientStatus(String providerMessageId, String providerStatus, String errorMessage) {
-        if (providerMessageId == null || providerMessageId.isBlank()) {
+    /** A provider status for one message id, as received. */
+    private record StatusUpdate(String providerMessageId, String providerStatus, String errorMessage) {}
+
+    /**
+     * Applies coalesced statuses to campaign recipient rows.
+     * <p>
+     * Meta does not guarantee callback order, so a row only moves forward
+     * (SENT → DELIVERED → READ, or → FAILED); a late "delivered" never undoes a "read".
+     */
+    private void applyStatuses(Map<String, StatusUpdate> latest) {
+        if (latest.isEmpty()) {
             return;
         }
 
-        // A wamid belongs either to a campaign recipient or to a transactional send. Log the
-        // transactional case explicitly: those have no recipient row, so before this the status
-        // was recorded raw and then silently dropped, leaving order confirmations with no
-        // observable outcome at all.
-        if (recipientRepository.findByProviderMessageId(providerMessageId).isEmpty()) {
-            messageEventRepository.findFirstByProviderMessageIdAndEventType(
-                            providerMessageId, "OUTBOUND_TRANSACTIONAL")
-                    .ifPresent(sent -> {
-                        if ("failed".equalsIgnoreCase(providerStatus)) {
-                            log.warn("[WHATSAPP][TXN][STATUS] {} FAILED wamid={} error={}",
-                                    sent.getProviderStatus(), providerMessageId, errorMessage);
-                        } else {
-                            log.info("[WHATSAPP][TXN][STATUS] {} {} wamid={}",
-                                    sent.getProviderStatus(), providerStatus, providerMessageId);
-                        }
-                    });
+        Map<String, WhatsAppCampaignRecipient> recipients = new HashMap<>();
+        for (WhatsAppCampaignRecipient r : recipientRepository.findByProviderMessageIdIn(latest.keySet())) {
+            recipients.putIfAbsent(r.getProviderMessageId(), r);
         }
 
-        recipientRepository.findByProviderMessageId(providerMessageId).ifPresent(recipient -> {
-            OffsetDateTime now = OffsetDateTime.now();
-
-            if ("sent".equalsIgnoreCase(providerStatus)) {
-                recipient.setStatus("SENT");
-                recipient.setSentAt(recipient.getSentAt() == null ? now : recipient.getSentAt());
-            } else if ("delivered".equalsIgnoreCase(providerStatus)) {
-                recipient.setStatus("DELIVERED");
-                recipient.setDeliveredAt(now);
-            } else if ("read".equalsIgnoreCase(providerStatus)) {
-                recipient.setStatus("READ");
-                recipient.setReadAt(now);
-            } else if ("failed".equalsIgnoreCase(providerStatus)) {
-                recipient.setStatus("FAILED");
-                recipient.setFailedAt(now);
-                recipient.setErrorMessage(errorMessage);
+        List<WhatsAppCampaignRecipient> changed = new ArrayList<>();
+        Map<Long, int[]> counterDeltas = new HashMap<>();
+        OffsetDateTime now = OffsetDateTime.now();
+
+        for (StatusUpdate update : latest.values()) {
+            WhatsAppCampaignRecipient recipient = recipients.get(update.providerMessageId());
+            if (recipient == null) {
+                logTransactionalStatus(update);
+                continue;
+            }
+
+            String target = recipientStatus(update.providerStatus());
+            String current = recipient.getStatus();
+            if (target == null || rank(target) <= rank(current)) {
+                log.debug("[WHATSAPP][WEBHOOK][STATUS] Ignored recipientId={} current={} providerStatus={}",
+                        recipient.getId(), current, update.providerStatus());
+                continue;
             }
 
+            switch (target) {
+                case "SENT" -> recipient.setSentAt(recipient.getSentAt() == null ? now : recipient.getSentAt());
+                case "DELIVERED" -> recipient.setDeliveredAt(now);
+                case "READ" -> recipient.setReadAt(now);
+                case "FAILED" -> {
+                    recipient.setFailedAt(now);
+                    recipient.setErrorMessage(update.errorMessage());
+                }
+                default -> { }
+            }
+            recipient.setStatus(target);
             recipient.setModifiedBy("webhook");
             recipient.setModifiedAt(now);
-            recipientRepository.save(recipient);
+            changed.add(recipient);
 
-            refreshCampaignCounts(recipient.getCampaignId());
+            if (recipient.getCampaignId() != null) {
+                int[] delta = counterDeltas.computeIfAbsent(recipient.getCampaignId(), id -> new int[4]);
+                int[] to = counterContribution(target);
+                int[] from = counterContribution(current);
+                for (int i = 0; i < delta.length; i++) delta[i] += to[i] - from[i];
+            }
 
             log.info("[WHATSAPP][WEBHOOK][STATUS] Updated recipientId={}, providerStatus={}",
-                    recipient.getId(), providerStatus);
+                    recipient.getId(), update.providerStatus());
+        }
+
+        if (!changed.isEmpty()) {
+            recipientRepository.saveAll(changed);
+        }
+        counterDeltas.forEach((campaignId, d) -> {
+            if (d[0] != 0 || d[1] != 0 || d[2] != 0 || d[3] != 0) {
+                campaignRepository.addCounts(campaignId, d[0], d[1], d[2], d[3]);
+            }
         });
     }
 
-    /** Recalculates campaign status counters from recipient rows. */
-    private void refreshCampaignCounts(Long campaignId) {
-        if (campaignId == null) {
-            return;
-        }
+    /**
+     * A wamid belongs either to a campaign recipient or to a transactional send. Log the
+     * transactional case explicitly: those have no recipient row, so before this the status
+     * was recorded raw and then silently dropped, leaving order confirmations with no
+     * observable outcome at all.
+     */
+    private void logTransactionalStatus(StatusUpdate update) {
+        messageEventRepository.findFirstByProviderMessageIdAndEventType(
+                        update.providerMessageId(), "OUTBOUND_TRANSACTIONAL")
+                .ifPresent(sent -> {
+                    if ("failed".equalsIgnoreCase(update.providerStatus())) {
+                        log.warn("[WHATSAPP][TXN][STATUS] {} FAILED wamid={} error={}",
+                                sent.getProviderStatus(), update.providerMessageId(), update.errorMessage());
+                    } else {
+                        log.info("[WHATSAPP][TXN][STATUS] {} {} wamid={}",
+                                sent.getProviderStatus(), update.providerStatus(), update.providerMessageId());
+                    }
+                });
+    }
 
-        campaignRepository.findByIdAndActiveTrue(campaignId).ifPresent(campaign -> {
-            long total = recipientRepository.countByCampaignIdAndActiveTrue(campaignId);
-            long failed = recipientRepository.countByCampaignIdAndStatusAndActiveTrue(campaignId, "FAILED");
-            long delivered = recipientRepository.countByCampaignIdAndStatusAndActiveTrue(campaignId, "DELIVERED");
-            long read = recipientRepository.countByCampaignIdAndStatusAndActiveTrue(campaignId, "READ");
-
-            // A recipient's status advances SENT -> DELIVERED -> READ on one column, so counting
-            // only status='SENT' made sentCount *fall* as delivery receipts arrived: a campaign
-            // that reached 100 people would drift to 40, then 5. "Sent" means "left our side", so
-            // everything downstream of SENT still counts as sent.
-            long sent = recipientRepository.countByCampaignIdAndStatusAndActiveTrue(campaignId, "SENT")
-                    + delivered + read;
-
-            campaign.setTotalRecipients((int) total);
-            campaign.setSentCount((int) sent);
-            campaign.setFailedCount((int) failed);
-            campaign.setDeliveredCount((int) delivered);
-            campaign.setReadCount((int) read);
-            campaign.setModifiedBy("webhook");
-            campaign.setModifiedAt(OffsetDateTime.now());
-
-            campaignRepository.save(campaign);
-        });
+    /** Maps a Meta status to the recipient status it produces; null for statuses we do not track. */
+    private static String recipientStatus(String providerStatus) {
+        if (providerStatus == null) return null;
+        return switch (providerStatus.toLowerCase()) {
+            case "sent" -> "SENT";
+            case "delivered" -> "DELIVERED";
+            case "read" -> "READ";
+            case "failed" -> "FAILED";
+            default -> null;
+        };
+    }
+
+    /** Position of a recipient status in the delivery lifecycle; statuses never move backwards. */
+    private static int rank(String status) {
+        if (status == null) return -1;
+        return switch (status) {
+            case "SENT" -> 1;
+            case "DELIVERED" -> 2;
+            case "READ" -> 3;
+            case "FAILED" -> 4;
+            default -> 0; // PENDING, SENDING
+        };
+    }
+
+    /**
+     * What one recipient in {@code status} adds to the campaign's {sent, failed, delivered, read}
+     * counters. DELIVERED and READ still count as sent, matching the recount in
+     * {@link WhatsAppCampaignService}, so sentCount does not fall as receipts arrive.
+     */
+    private static int[] counterContribution(String status) {
+        if (status == null) return new int[4];
+        return switch (status) {
+            case "SENT" -> new int[]{1, 0, 0, 0};
+            case "DELIVERED" -> new int[]{1, 0, 1, 0};
+            case "READ" -> new int[]{1, 0, 0, 1};
+            case "FAILED" -> new int[]{0, 1, 0, 0};
+            default -> new int[4];
+        };
     }
 
     /** Reads a text field from a JSON node safely. */
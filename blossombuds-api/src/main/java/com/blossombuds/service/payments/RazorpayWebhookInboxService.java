@@ -8,6 +8,8 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Slf4j
 @Service
@@ -16,6 +18,7 @@ public class RazorpayWebhookInboxService {
 
     private final RazorpayWebhookInboxRepository repo;
     private final ObjectMapper om;
+    private final RazorpayWebhookProcessorService processor;
 
     @Transactional
     public void ingest(String rawBody, String env) {
@@ -36,6 +39,18 @@ public class RazorpayWebhookInboxService {
 
             log.info("[RZP][WEBHOOK][INGEST] env={} event={} paymentId={} orderId={}",
                     env, event, row.getRzpPaymentId(), row.getRzpOrderId());
+
+            // Wake the workers once the row is visible to them, instead of waiting for the next poll.
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        processor.wakeUp();
+                    }
+                });
+            } else {
+                processor.wakeUp();
+            }
         } catch (Exception e) {
             log.error("[RZP][WEBHOOK][INGEST][FAIL] env={}", env, e);
             throw new IllegalStateException("Failed to persist webhook payload", e);
@@ -4,16 +4,38 @@ import com.blossombuds.domain.RazorpayWebhookInbox;
 import com.blossombuds.repository.RazorpayWebhookInboxRepository;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.sql.Timestamp;
 import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Work-queue engine over {@code razorpay_webhook_inbox}.
+ * <p>
+ * A pump thread claims eligible rows with {@code FOR UPDATE SKIP LOCKED} (so any number of app
+ * instances can share the table) and hands each one to a pool of {@code app.razorpay.webhook.workers}
+ * workers. {@link RazorpayWebhookInboxService#ingest} calls {@link #wakeUp()} after commit, so a
+ * captured payment is picked up immediately; the {@code poll-ms} timeout is only the fallback for rows
+ * ingested by another instance and for retries coming due.
+ * <p>
+ * A failed row is retried with exponential backoff ({@code next_attempt_at}) up to {@code max-attempts};
+ * a row stuck in PROCESSING longer than the lease (crashed instance) is claimed again. Finalization is
+ * idempotent by payment id, so a re-run is harmless.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -22,24 +44,129 @@ public class RazorpayWebhookProcessorService {
     private final RazorpayWebhookInboxRepository repo;
     private final CheckoutFinalizeService finalizeService;
     private final ObjectMapper om;
+    private final JdbcTemplate jdbcTemplate;
 
-    @Scheduled(fixedDelay = 15000)
-    public void processInbox() {
-        List<RazorpayWebhookInbox> rows = repo.findTop50ByStatusOrderByIdAsc("NEW");
-        for (RazorpayWebhookInbox row : rows) {
-            processOne(row.getId());
+    @Value("${app.razorpay.webhook.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.razorpay.webhook.workers:4}")
+    private int workers = 4;
+
+    @Value("${app.razorpay.webhook.poll-ms:2000}")
+    private long pollMs = 2000;
+
+    @Value("${app.razorpay.webhook.lease-seconds:300}")
+    private int leaseSeconds = 300;
+
+    @Value("${app.razorpay.webhook.max-attempts:8}")
+    private int maxAttempts = 8;
+
+    @Value("${app.razorpay.webhook.retry-base-seconds:5}")
+    private long retryBaseSeconds = 5;
+
+    @Value("${app.razorpay.webhook.retry-max-seconds:1800}")
+    private long retryMaxSeconds = 1800;
+
+    /** Released by wakeUp() and by finishing workers; the pump waits on it between claims. */
+    private final Semaphore signal = new Semaphore(0);
+
+    private ExecutorService pool;
+    private Semaphore slots;
+    private Thread pump;
+    private volatile boolean running;
+
+    /** Starts the pump once the context is fully up, so no row is processed by a half-initialised app. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("[RZP][WEBHOOK][ENGINE] disabled");
+            return;
         }
+        int n = Math.max(1, workers);
+        AtomicInteger seq = new AtomicInteger();
+        pool = Executors.newFixedThreadPool(n, r -> {
+            Thread t = new Thread(r, "rzp-webhook-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        slots = new Semaphore(n);
+        running = true;
+        pump = new Thread(this::pumpLoop, "rzp-webhook-pump");
+        pump.setDaemon(true);
+        pump.start();
+        log.info("[RZP][WEBHOOK][ENGINE][START] workers={} pollMs={} maxAttempts={}", n, pollMs, maxAttempts);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (pump != null) pump.interrupt();
+        if (pool != null) pool.shutdown();
     }
 
-    @Transactional
+    /** Signals the pump that new rows may be waiting. Cheap; safe to call from any thread. */
+    public void wakeUp() {
+        signal.release();
+    }
+
+    private void pumpLoop() {
+        while (running) {
+            try {
+                int free = slots.availablePermits();
+                List<Long> claimed = free > 0 ? claim(free) : List.of();
+                for (Long id : claimed) {
+                    slots.acquire();
+                    pool.execute(() -> {
+                        try {
+                            processOne(id);
+                        } finally {
+                            slots.release();
+                            signal.release();
+                        }
+                    });
+                }
+                if (claimed.size() < free || free == 0) {
+                    // Nothing more to claim right now (or no free worker): sleep until woken or the poll fallback.
+                    signal.tryAcquire(pollMs, TimeUnit.MILLISECONDS);
+                    signal.drainPermits();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("[RZP][WEBHOOK][ENGINE][FAIL] err={}", e.toString());
+                try {
+                    Thread.sleep(pollMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /** Atomically moves up to {@code limit} eligible rows to PROCESSING and returns their ids, oldest first. */
+    List<Long> claim(int limit) {
+        String sql = "update razorpay_webhook_inbox"
+                + " set status = 'PROCESSING', locked_at = now(), attempt_count = attempt_count + 1"
+                + " where id in (select id from razorpay_webhook_inbox"
+                + "   where status = 'NEW'"
+                + "      or (status = 'FAILED' and next_attempt_at <= now())"
+                + "      or (status = 'PROCESSING' and locked_at < now() - make_interval(secs => ?))"
+                + "   order by id limit ? for update skip locked)"
+                + " returning id";
+        return jdbcTemplate.query(sql, (rs, i) -> rs.getLong(1), leaseSeconds, limit)
+                .stream().sorted().toList();
+    }
+
+    /**
+     * Processes one claimed row and records DONE, or FAILED with the next retry time.
+     * Not transactional on purpose: each finalize call runs in its own transaction, so a failed
+     * lookup by Razorpay order id does not poison the fallback lookup by checkout intent id.
+     */
     public void processOne(Long inboxId) {
         RazorpayWebhookInbox row = repo.findById(inboxId).orElse(null);
         if (row == null) return;
-        if (!"NEW".equals(row.getStatus()) && !"FAILED".equals(row.getStatus())) return;
-
-        row.setStatus("PROCESSING");
-        row.setAttemptCount((row.getAttemptCount() == null ? 0 : row.getAttemptCount()) + 1);
-        repo.save(row);
 
         try {
             JsonNode root = om.readTree(row.getPayloadJson());
@@ -83,16 +210,27 @@ public class RazorpayWebhookProcessorService {
                 log.info("[RZP][WEBHOOK][PROCESS][SKIP] order.paid stored; reconciliation will recover captured payment | inboxId={}", inboxId);
             }
 
-            row.setStatus("DONE");
-            row.setProcessedAt(OffsetDateTime.now());
-            row.setLastError(null);
-            repo.save(row);
+            jdbcTemplate.update("update razorpay_webhook_inbox set status = 'DONE', processed_at = now(),"
+                    + " last_error = null, locked_at = null, next_attempt_at = null where id = ?", inboxId);
 
         } catch (Exception e) {
-            row.setStatus("FAILED");
-            row.setLastError((e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage()));
-            repo.save(row);
-            log.error("[RZP][WEBHOOK][PROCESS][FAIL] inboxId={}", inboxId, e);
+            int attempts = row.getAttemptCount() == null ? 1 : row.getAttemptCount();
+            Timestamp next = attempts >= Math.max(1, maxAttempts)
+                    ? null
+                    : Timestamp.from(OffsetDateTime.now().plusSeconds(retryDelaySeconds(attempts)).toInstant());
+            String error = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+            if (error.length() > 1000) error = error.substring(0, 1000);
+
+            jdbcTemplate.update("update razorpay_webhook_inbox set status = 'FAILED', last_error = ?,"
+                    + " locked_at = null, next_attempt_at = ? where id = ?", error, next, inboxId);
+            log.error("[RZP][WEBHOOK][PROCESS][FAIL] inboxId={} attempt={} nextAttemptAt={}",
+                    inboxId, attempts, next == null ? "none (giving up)" : next.toInstant(), e);
         }
     }
-}
\ No newline at end of file
+
+    /** base * 2^(attempt-1), capped. */
+    private long retryDelaySeconds(int attempt) {
+        long delay = Math.max(1, retryBaseSeconds) << Math.min(Math.max(0, attempt - 1), 20);
+        return Math.min(delay, Math.max(1, retryMaxSeconds));
+    }
+}
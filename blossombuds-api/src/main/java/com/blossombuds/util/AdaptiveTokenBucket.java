@@ -0,0 +1,96 @@
+package com.blossombuds.util;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Token-bucket rate limiter whose rate adapts to provider throttling (AIMD).
+ * <ul>
+ *   <li>{@link #acquire()} blocks until a token is available at the current rate.</li>
+ *   <li>{@link #onThrottled(long)} halves the rate (down to the floor) and pauses all callers.</li>
+ *   <li>{@link #onSuccess()} creeps the rate back up towards the configured ceiling.</li>
+ * </ul>
+ * Thread-safe; callers are serialised on the bucket monitor only for the bookkeeping, not while sleeping.
+ */
+public final class AdaptiveTokenBucket {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final double maxRate;
+    private final double minRate;
+    private final double burst;
+    private final LongSupplier clock;
+
+    private double rate;
+    private double tokens;
+    private long lastRefill;
+    private long pausedUntil;
+
+    /**
+     * @param maxRatePerSecond ceiling (and starting) rate
+     * @param minRatePerSecond floor the rate never drops below when throttled
+     * @param burst            maximum tokens that may accumulate while idle
+     */
+    public AdaptiveTokenBucket(double maxRatePerSecond, double minRatePerSecond, double burst) {
+        this(maxRatePerSecond, minRatePerSecond, burst, System::nanoTime);
+    }
+
+    AdaptiveTokenBucket(double maxRatePerSecond, double minRatePerSecond, double burst, LongSupplier clock) {
+        if (maxRatePerSecond <= 0) throw new IllegalArgumentException("maxRatePerSecond must be positive");
+        this.maxRate = maxRatePerSecond;
+        this.minRate = Math.max(0.1, Math.min(minRatePerSecond, maxRatePerSecond));
+        this.burst = Math.max(1, burst);
+        this.clock = clock;
+        this.rate = maxRatePerSecond;
+        this.tokens = 1;
+        this.lastRefill = clock.getAsLong();
+    }
+
+    /** Blocks until a token is available. */
+    public void acquire() throws InterruptedException {
+        while (true) {
+            long waitNanos = tryReserve();
+            if (waitNanos <= 0) return;
+            Thread.sleep(waitNanos / 1_000_000, (int) (waitNanos % 1_000_000));
+        }
+    }
+
+    /** Takes a token if one is available; otherwise returns the nanos to wait before trying again. */
+    synchronized long tryReserve() {
+        long now = clock.getAsLong();
+        if (now < pausedUntil) return pausedUntil - now;
+        refill(now);
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return Math.max(1, (long) ((1 - tokens) / rate * NANOS_PER_SECOND));
+    }
+
+    /** Provider pushed back: halve the rate, drop saved-up tokens and pause everyone for {@code pauseMillis}. */
+    public synchronized void onThrottled(long pauseMillis) {
+        long now = clock.getAsLong();
+        refill(now);
+        rate = Math.max(minRate, rate / 2);
+        tokens = 0;
+        pausedUntil = Math.max(pausedUntil, now + pauseMillis * 1_000_000L);
+    }
+
+    /** A call went through: recover by 5% of the ceiling. */
+    public synchronized void onSuccess() {
+        if (rate < maxRate) {
+            rate = Math.min(maxRate, rate + maxRate * 0.05);
+        }
+    }
+
+    /** Current permitted rate (tokens per second). */
+    public synchronized double currentRate() {
+        return rate;
+    }
+
+    private void refill(long now) {
+        if (now > lastRefill) {
+            tokens = Math.min(burst, tokens + (now - lastRefill) * rate / NANOS_PER_SECOND);
+            lastRefill = now;
+        }
+    }
+}
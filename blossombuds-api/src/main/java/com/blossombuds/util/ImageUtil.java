@@ -4,11 +4,13 @@ package com.blossombuds.util;
 
 import javax.imageio.*;
 import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
 import java.awt.*;
 import java.awt.font.FontRenderContext;
 import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
 import java.io.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.springframework.web.multipart.MultipartFile;
 
 
@@ -75,6 +77,27 @@ public final class ImageUtil {
         return dst;
     }
 
+    /**
+     * Downscales to {@code width} px wide keeping the aspect ratio; never upscales. Large reductions
+     * halve in steps first, since a single bicubic pass from 1800px to a 320px thumbnail aliases.
+     */
+    public static BufferedImage scaleToWidth(BufferedImage src, int width) {
+        if (width >= src.getWidth()) return ensureRGB(src);
+        while (src.getWidth() / 2 >= width * 2) {
+            src = scaleToWidth(src, src.getWidth() / 2);
+        }
+        int w = src.getWidth(), h = src.getHeight();
+        int nh = Math.max(1, (int) Math.round(h * (double) width / w));
+        BufferedImage dst = new BufferedImage(width, nh, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = dst.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.drawImage(src, 0, 0, width, nh, Color.WHITE, null);
+        g.dispose();
+        return dst;
+    }
+
     public static BufferedImage ensureRGB(BufferedImage src) {
         if (src.getType() == BufferedImage.TYPE_INT_RGB) return src;
         BufferedImage dst = new BufferedImage(src.getWidth(), src.getHeight(), BufferedImage.TYPE_INT_RGB);
@@ -240,31 +263,149 @@ public final class ImageUtil {
 
 
 
-    /** Encode JPEG under MAX_OUTPUT_BYTES, reducing quality until the cap is met. */
+    /** Quality grid searched by {@link #toJpegUnderCap}: QUALITY_FLOOR, +0.05, … QUALITY_START. */
+    private static final float QUALITY_STEP = 0.05f;
+    private static final int QUALITY_STEPS = Math.round((QUALITY_START - QUALITY_FLOOR) / QUALITY_STEP);
+
+    /** Long side of the downsampled copy used to predict how size falls with quality. */
+    private static final int TRIAL_MAX_DIM = 450;
+
+    /** JPEG writers are not thread-safe but are reusable; one per thread avoids the ImageIO registry lookup. */
+    private static final ThreadLocal<ImageWriter> JPEG_WRITER =
+            ThreadLocal.withInitial(() -> ImageIO.getImageWritersByFormatName("jpg").next());
+
+    /**
+     * Upper bound on the initial size of the output buffer each {@link #toJpegUnderCap} call shares across
+     * its probes. The buffer is sized from the cap and dropped with the call; it is not kept per thread,
+     * where it would grow to the largest encode and stay pinned on every request thread.
+     */
+    private static final int MAX_BUFFER_HINT = 2 * 1024 * 1024;
+
+    /**
+     * Initial exponent of the size model (see {@link #toJpegUnderCap(BufferedImage, long, AtomicInteger)});
+     * full-size photos lose bytes a little faster with quality than their downsampled copy does.
+     */
+    private static final double SIZE_MODEL_ALPHA = 1.25;
+
+    /** Full-size encodes guided by the size model before plain bisection takes over. */
+    private static final int MODEL_PROBES = 3;
+
+    /**
+     * Encode JPEG under MAX_OUTPUT_BYTES at the highest grid quality that fits (same result as stepping
+     * down from QUALITY_START by 0.05), falling back to QUALITY_FLOOR when nothing fits.
+     * <p>
+     * The old loop could take up to 13 full encodes. This encodes once at QUALITY_START; if that is too
+     * big, it predicts the answer from a downsampled copy and probes there. The bracket narrows from
+     * both sides, so a correct prediction costs about three full encodes in total.
+     */
     public static byte[] toJpegUnderCap(BufferedImage img) throws IOException {
-        float q = QUALITY_START;
-        byte[] out;
-        while (true) {
-            out = writeJpeg(img, q);
-            if (out.length <= MAX_OUTPUT_BYTES || q <= QUALITY_FLOOR) return out;
-            q -= 0.05f;
+        return toJpegUnderCap(img, MAX_OUTPUT_BYTES, null);
+    }
+
+    /**
+     * Size model: {@code full(q) ≈ full(top) × (trial(q) / trial(top))^alpha}, where {@code trial} is
+     * the encoded size of a copy no larger than TRIAL_MAX_DIM. The exponent is refitted from every
+     * full-size encode.
+     *
+     * @param fullEncodes if non-null, incremented per full-size encode (tests)
+     */
+    static byte[] toJpegUnderCap(BufferedImage img, long capBytes, AtomicInteger fullEncodes) throws IOException {
+        // Encodes near the cap are the common case; the first one at QUALITY_START may grow it once.
+        int initial = (int) Math.min(MAX_BUFFER_HINT, Math.max(64 * 1024, capBytes + capBytes / 4));
+        ByteArrayOutputStream buf = new ByteArrayOutputStream(initial);
+        byte[] top = encodeFull(img, QUALITY_STEPS, fullEncodes, buf);
+        if (top.length <= capBytes) return top;
+
+        double[] trialRatio = trialSizeRatios(img, buf);
+        double alpha = SIZE_MODEL_ALPHA;
+
+        // Invariant: grid index `fits` is known to fit (or -1), `tooBig` is known not to.
+        int fits = -1;
+        int tooBig = QUALITY_STEPS;
+        byte[] best = null;
+        byte[] lastTried = top;
+
+        for (int probe = 0; tooBig - fits > 1; probe++) {
+            int i = probe < MODEL_PROBES
+                    ? predictIndex(trialRatio, alpha, top.length, capBytes, fits, tooBig)
+                    : (fits + tooBig) >>> 1;
+            byte[] out = encodeFull(img, i, fullEncodes, buf);
+            lastTried = out;
+            if (out.length <= capBytes) {
+                fits = i;
+                best = out;
+            } else {
+                tooBig = i;
+            }
+            if (trialRatio[i] > 0 && trialRatio[i] < 1) {
+                alpha = Math.log((double) out.length / top.length) / Math.log(trialRatio[i]);
+            }
+        }
+
+        // Nothing fits: the search ended by trying the floor, so return that encode, as the old loop did.
+        return best != null ? best : lastTried;
+    }
+
+    /** Highest unknown grid index the model says fits; the lowest unknown one if none does. */
+    private static int predictIndex(double[] trialRatio, double alpha, long topBytes, long capBytes,
+                                    int fits, int tooBig) {
+        for (int i = tooBig - 1; i > fits; i--) {
+            if (topBytes * Math.pow(trialRatio[i], alpha) <= capBytes) return i;
+        }
+        return fits + 1;
+    }
+
+    /** trial(q) / trial(top) for every grid index, from encodes of a small copy (~1/16 of the pixels). */
+    private static double[] trialSizeRatios(BufferedImage img, ByteArrayOutputStream buf) throws IOException {
+        BufferedImage trial = fitWithin(img, TRIAL_MAX_DIM);
+        double[] ratios = new double[QUALITY_STEPS + 1];
+        double trialTop = writeJpegBuffered(trial, qualityAt(QUALITY_STEPS), buf).size();
+        for (int i = 0; i < QUALITY_STEPS; i++) {
+            ratios[i] = writeJpegBuffered(trial, qualityAt(i), buf).size() / trialTop;
         }
+        ratios[QUALITY_STEPS] = 1.0;
+        return ratios;
+    }
+
+    private static float qualityAt(int gridIndex) {
+        return Math.min(QUALITY_START, QUALITY_FLOOR + gridIndex * QUALITY_STEP);
+    }
+
+    private static byte[] encodeFull(BufferedImage img, int gridIndex,
+                                     AtomicInteger fullEncodes, ByteArrayOutputStream buf) throws IOException {
+        if (fullEncodes != null) fullEncodes.incrementAndGet();
+        return writeJpegBuffered(img, qualityAt(gridIndex), buf).toByteArray();
     }
 
     public static byte[] writeJpeg(BufferedImage img, float quality) throws IOException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        return writeJpegBuffered(img, quality, new ByteArrayOutputStream(64 * 1024)).toByteArray();
+    }
+
+    /** Encodes into {@code buf}, replacing what it held; the contents are valid until the next encode into it. */
+    private static ByteArrayOutputStream writeJpegBuffered(BufferedImage img, float quality,
+                                                           ByteArrayOutputStream buf) throws IOException {
+        buf.reset();
+        ImageWriter writer = JPEG_WRITER.get();
         ImageWriteParam p = writer.getDefaultWriteParam();
         p.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
         p.setCompressionQuality(quality);
-        try (ImageOutputStream ios = ImageIO.createImageOutputStream(baos)) {
+        boolean disposed = false;
+        try (ImageOutputStream ios = new MemoryCacheImageOutputStream(buf)) {
             writer.setOutput(ios);
             writer.write(null, new IIOImage(img, null, null), p);
-        } finally {
+        } catch (IOException | RuntimeException e) {
+            // a writer that failed mid-stream may be left in a bad state; start fresh next time
+            disposed = true;
             writer.dispose();
+            JPEG_WRITER.remove();
+            throw e;
+        } finally {
+            // a disposed writer may reject setOutput and would mask the encode error
+            if (!disposed) writer.setOutput(null);
         }
-        return baos.toByteArray();
+        return buf;
     }
+
     // ImageUtil.java (cont.)
     enum WatermarkMode { CENTER, TILE }
     static class WatermarkOptions {
@@ -0,0 +1,146 @@
+package com.blossombuds.util;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Minimal AWS SigV4 query-string presigner for GET requests against R2 (S3-compatible, path-style).
+ * Produces the same URLs as {@code AmazonS3#generatePresignedUrl} without building SDK request objects;
+ * the derived signing key is cached per UTC day, so each URL costs one SHA-256 and two HMACs.
+ */
+public final class R2Presigner {
+
+    private static final String ALGORITHM = "AWS4-HMAC-SHA256";
+    private static final String SERVICE = "s3";
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyyMMdd").withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    /** SigV4 presigned URLs may not be valid for longer than 7 days. */
+    private static final long MAX_EXPIRES_SECONDS = 7L * 24 * 3600;
+
+    private final String baseUrl;
+    private final String host;
+    private final String region;
+    private final String accessKey;
+    private final String secretKey;
+
+    private volatile SigningKey signingKey;
+
+    private record SigningKey(String date, byte[] key) {}
+
+    /**
+     * @param endpoint e.g. {@code https://<account>.r2.cloudflarestorage.com}
+     * @param region   {@code auto} for R2
+     */
+    public R2Presigner(String endpoint, String region, String accessKey, String secretKey) {
+        URI uri = URI.create(endpoint);
+        String h = uri.getHost();
+        if (h == null) throw new IllegalArgumentException("Invalid R2 endpoint: " + endpoint);
+        this.host = (uri.getPort() > 0) ? h + ":" + uri.getPort() : h;
+        this.baseUrl = uri.getScheme() + "://" + this.host;
+        this.region = region;
+        this.accessKey = accessKey;
+        this.secretKey = secretKey;
+    }
+
+    /**
+     * Presigns a GET for {@code bucket/key}. When {@code bucket} is null the key is addressed at the
+     * endpoint root (virtual-hosted style), which is only used for verifying against AWS test vectors.
+     */
+    public String presignGet(String bucket, String key, Instant now, Duration ttl) {
+        long expires = Math.max(1, Math.min(MAX_EXPIRES_SECONDS, ttl.getSeconds()));
+        String date = DATE.format(now);
+        String amzDate = DATE_TIME.format(now);
+        String scope = date + "/" + region + "/" + SERVICE + "/aws4_request";
+
+        String path = (bucket == null ? "" : "/" + uriEncode(bucket, false)) + "/" + uriEncode(key, true);
+
+        // Parameters must be in byte order of their names.
+        String query = "X-Amz-Algorithm=" + ALGORITHM
+                + "&X-Amz-Credential=" + uriEncode(accessKey + "/" + scope, false)
+                + "&X-Amz-Date=" + amzDate
+                + "&X-Amz-Expires=" + expires
+                + "&X-Amz-SignedHeaders=host";
+
+        String canonicalRequest = "GET\n"
+                + path + "\n"
+                + query + "\n"
+                + "host:" + host + "\n"
+                + "\n"
+                + "host\n"
+                + "UNSIGNED-PAYLOAD";
+
+        String stringToSign = ALGORITHM + "\n"
+                + amzDate + "\n"
+                + scope + "\n"
+                + hex(sha256(canonicalRequest.getBytes(StandardCharsets.UTF_8)));
+
+        String signature = hex(hmac(signingKeyFor(date), stringToSign));
+        return baseUrl + path + "?" + query + "&X-Amz-Signature=" + signature;
+    }
+
+    private byte[] signingKeyFor(String date) {
+        SigningKey cached = signingKey;
+        if (cached != null && cached.date().equals(date)) return cached.key();
+
+        byte[] k = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), date);
+        k = hmac(k, region);
+        k = hmac(k, SERVICE);
+        k = hmac(k, "aws4_request");
+        signingKey = new SigningKey(date, k);
+        return k;
+    }
+
+    /** RFC 3986 encoding as required by SigV4; '/' is kept only inside object keys. */
+    static String uriEncode(String s, boolean keepSlash) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        StringBuilder sb = new StringBuilder(bytes.length + 16);
+        for (byte b : bytes) {
+            char c = (char) (b & 0xFF);
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.' || c == '~' || (keepSlash && c == '/')) {
+                sb.append(c);
+            } else {
+                sb.append('%')
+                        .append(Character.toUpperCase(HEX[(b >> 4) & 0xF]))
+                        .append(Character.toUpperCase(HEX[b & 0xF]));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static byte[] hmac(byte[] key, String data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
+
+    private static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        char[] out = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            out[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            out[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(out);
+    }
+}
@@ -2,11 +2,16 @@ package com.blossombuds.web;
 
 import com.blossombuds.dto.*;
 import com.blossombuds.service.AdminMetricsService;
+import com.blossombuds.service.MetricsRollupService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/admin/metrics")
@@ -15,6 +20,7 @@ import java.util.List;
 public class AdminMetricsController {
 
     private final AdminMetricsService metrics;
+    private final MetricsRollupService rollups;
 
     @GetMapping("/summary")
     public MetricsSummary summary() {
@@ -47,4 +53,28 @@ public class AdminMetricsController {
                                             @RequestParam(defaultValue = "6") int limit) {
         return metrics.topCategories(range, limit);
     }
+
+    /** Longest range one backfill request may recompute; it runs on the request thread. */
+    static final int MAX_BACKFILL_DAYS = 366;
+
+    /**
+     * Recomputes the daily rollups for an inclusive IST date range (e.g. after a data fix).
+     * 400 when {@code from} is after {@code to} or the range is longer than {@value #MAX_BACKFILL_DAYS} days.
+     */
+    @PostMapping("/rollups/backfill")
+    public Map<String, Object> backfillRollups(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        checkBackfillRange(from, to);
+        int days = rollups.backfill(from, to);
+        return Map.of("from", from, "to", to, "days", days);
+    }
+
+    private static void checkBackfillRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) throw new IllegalArgumentException("from must not be after to");
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        if (days > MAX_BACKFILL_DAYS) {
+            throw new IllegalArgumentException("Backfill range is " + days + " days; at most " + MAX_BACKFILL_DAYS + " allowed");
+        }
+    }
 }
@@ -382,6 +382,43 @@ private final ProductRepository productRepository;
         return catalog.createImageFromTempKey(productId, key, altText, sortOrder);
     }
 
+    /** Queue an upload (returns a job to poll; the image row appears once processing finishes). */
+    @PostMapping(value = "/products/{productId}/images/jobs", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public ProductImageJobDto submitImageJob(@PathVariable Long productId,
+                                             @RequestParam(required = false) String altText,
+                                             @RequestParam(required = false) Integer sortOrder,
+                                             MultipartHttpServletRequest request) throws IOException {
+        MultipartFile file = firstNonEmpty(
+                request.getFile("file"), request.getFile("image"), request.getFile("upload"), request.getFile("photo"));
+        if (file == null) {
+            for (MultipartFile mf : request.getFileMap().values()) {
+                if (mf != null && !mf.isEmpty()) { file = mf; break; }
+            }
+        }
+        if (file == null) throw new IllegalArgumentException("No file part found in multipart request");
+        return catalog.submitProductImageJob(productId, file, altText, sortOrder);
+    }
+
+    /** Queue processing of a presigned temp upload. */
+    @PostMapping("/products/{productId}/images/jobs/from-key")
+    @PreAuthorize("hasRole('ADMIN')")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public ProductImageJobDto submitImageJobFromKey(@PathVariable Long productId,
+                                                    @RequestParam String key,
+                                                    @RequestParam(required = false) String altText,
+                                                    @RequestParam(required = false) Integer sortOrder) {
+        return catalog.submitImageJobFromTempKey(productId, key, altText, sortOrder);
+    }
+
+    /** Poll a queued image upload. */
+    @GetMapping("/images/jobs/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ProductImageJobDto getImageJob(@PathVariable Long jobId) {
+        return catalog.getImageJob(jobId);
+    }
+
     // ─────────────────────────────── Options ────────────────────────────────
 
     /** Create an option for a product. */
@@ -3,9 +3,7 @@ package com.blossombuds.web;
 import com.blossombuds.domain.Country;
 import com.blossombuds.domain.District;
 import com.blossombuds.domain.State;
-import com.blossombuds.repository.CountryRepository;
-import com.blossombuds.repository.DistrictRepository;
-import com.blossombuds.repository.StateRepository;
+import com.blossombuds.service.GeoReferenceCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -18,31 +16,29 @@ import java.util.List;
 @RequestMapping("/api/locations")
 @RequiredArgsConstructor
 public class LocationController {
-    private final CountryRepository countryRepository;
-    private final StateRepository stateRepository;
-    private final DistrictRepository districtRepository;
+    private final GeoReferenceCache geoCache;
 
     @GetMapping("/countries")
     public List<Country> getCountries() {
-        return countryRepository.findAll();
+        return geoCache.countries();
     }
 
     @GetMapping("/states/{countryId}")
     public List<State> getStates(@PathVariable Long countryId) {
-        return stateRepository.findByCountryId(countryId);
+        return geoCache.statesOf(countryId);
     }
 
     @GetMapping("/districts/{stateId}")
     public List<District> getDistricts(@PathVariable Long stateId) {
-        return districtRepository.findByStateId(stateId);
+        return geoCache.districtsOf(stateId);
     }
     @GetMapping("/states")
     public List<State> getAllStates() {
-        return stateRepository.findAll();
+        return geoCache.states();
     }
 
     @GetMapping("/districts")
     public List<District> getAllDistricts() {
-        return districtRepository.findAll();
+        return geoCache.districts();
     }
 }
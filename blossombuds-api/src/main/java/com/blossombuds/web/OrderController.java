@@ -11,7 +11,6 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -73,10 +72,13 @@ public class OrderController {
         return orders.listByCustomerLite(customerId); // still the lite summary list
     }
 
-    /** Page through all orders (admin) — lite DTOs (status + readable location names). */
+    /**
+     * Page through all orders (admin) — lite DTOs (status + readable location names), by page or cursor.
+     * {@code sort} is {@code id} or {@code createdAt}; other keys get 400.
+     */
     @GetMapping("/all")
     @PreAuthorize("hasRole('ADMIN')")
-    public Page<OrderService.OrderLiteDto> listAll(
+    public OrderService.OrderLitePage listAll(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "id") String sort,
@@ -84,7 +86,10 @@ public class OrderController {
             @RequestParam(required = false) String from,
             @RequestParam(required = false) String to,
             // NEW: accept repeated or CSV status values
-            @RequestParam(name = "status", required = false) List<String> statusParams
+            @RequestParam(name = "status", required = false) List<String> statusParams,
+            // keyset paging: nextCursor from the previous response; count = exact | estimate | none
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String count
     ) {
         // Normalize: support repeated params and/or a single CSV token
         String statusesCsv = null;
@@ -96,7 +101,7 @@ public class OrderController {
             }
         }
 
-        return orders.listAllLite(page, size, sort, dir, from, to, statusesCsv);
+        return orders.listAllLite(page, size, sort, dir, from, to, statusesCsv, cursor, count);
     }
 
 
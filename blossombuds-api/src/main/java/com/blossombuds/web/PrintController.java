@@ -13,6 +13,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -43,14 +44,16 @@ public class PrintController {
      */
     @PostMapping(value = "/orders/packing-slips", produces = MediaType.APPLICATION_PDF_VALUE)
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<byte[]> bulkPackingSlips(
+    public ResponseEntity<StreamingResponseBody> bulkPackingSlips(
             @RequestBody @NotEmpty List<@Min(1) Long> orderIds
     ) {
-        byte[] pdf = printService.renderPackingSlipsPdf(orderIds);
+        // Load/validate first so bad input still gets a normal error response, then stream pages.
+        PrintService.PackingSlipBatch batch = printService.preparePackingSlips(orderIds);
+        StreamingResponseBody body = out -> printService.writePackingSlips(batch, out);
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=packing-slips.pdf")
                 .contentType(MediaType.APPLICATION_PDF)
-                .body(pdf);
+                .body(body);
     }
 
     /** Generate packing slip PDF for an order (admin, or the customer who owns the order). */
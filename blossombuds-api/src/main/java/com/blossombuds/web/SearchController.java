@@ -2,7 +2,10 @@ package com.blossombuds.web;
 
 import com.blossombuds.dto.CategoryDto;
 import com.blossombuds.dto.ProductListItemDto;
+import com.blossombuds.dto.SearchFacetDto;
+import com.blossombuds.dto.SearchSuggestionDto;
 import com.blossombuds.service.SearchService;
+import com.blossombuds.service.SearchSuggestService;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.PositiveOrZero;
@@ -12,6 +15,7 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 /** Read-only search endpoints for products & categories. */
 @RestController
@@ -21,6 +25,16 @@ import java.math.BigDecimal;
 public class SearchController {
 
     private final SearchService search;
+    private final SearchSuggestService suggest;
+
+    /** Search-as-you-type suggestions served from memory (public). */
+    @GetMapping("/suggest")
+    public List<SearchSuggestionDto> suggest(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(required = false) @Min(1) @Max(20) Integer limit) {
+
+        return suggest.suggest(q, limit);
+    }
 
     /** Search products with optional filters (public). */
     @GetMapping("/products")
@@ -35,6 +49,16 @@ public class SearchController {
         return search.searchProducts(q, categoryId, priceMin, priceMax, page, size);
     }
 
+    /** Category facet counts for a product search (public). */
+    @GetMapping("/facets")
+    public List<SearchFacetDto> productFacets(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(required = false) BigDecimal priceMin,
+            @RequestParam(required = false) BigDecimal priceMax) {
+
+        return search.productFacets(q, priceMin, priceMax);
+    }
+
     /** Search categories by name (public). */
     @GetMapping("/categories")
     public Page<CategoryDto> searchCategories(
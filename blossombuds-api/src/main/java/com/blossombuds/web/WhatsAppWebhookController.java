@@ -4,6 +4,7 @@ import com.blossombuds.domain.Setting;
 import com.blossombuds.domain.WhatsAppMessageEvent;
 import com.blossombuds.repository.WhatsAppMessageEventRepository;
 import com.blossombuds.service.SettingsService;
+import com.blossombuds.service.WhatsAppWebhookInbox;
 import com.blossombuds.service.WhatsAppWebhookService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -26,6 +27,7 @@ public class WhatsAppWebhookController {
     private final SettingsService settingsService;
     private final WhatsAppMessageEventRepository messageEventRepository;
     private final WhatsAppWebhookService whatsAppWebhookService;
+    private final WhatsAppWebhookInbox whatsAppWebhookInbox;
 
     /** Verifies WhatsApp webhook subscription from Meta. */
     @GetMapping
@@ -70,18 +72,23 @@ public class WhatsAppWebhookController {
 
         // Always acknowledge with 200, even if processing blows up.
         //
-        // processWebhookPayload persists the raw event before parsing, and that save sits outside
-        // its internal try/catch — so a transient database problem (pool exhaustion, a Supabase
-        // pooler hiccup) propagated out of here as a 500. Meta retries a failing callback and then
-        // *disables the webhook subscription*, at which point delivery statuses stop arriving
-        // entirely and every campaign recipient is frozen at SENT with no way to tell what happened.
-        // Losing one payload is far cheaper than losing the subscription; the payload is logged so
-        // it can be replayed by hand if needed.
+        // Meta retries a failing callback and then *disables the webhook subscription*, at which
+        // point delivery statuses stop arriving entirely and every campaign recipient is frozen at
+        // SENT with no way to tell what happened. So the payload is only appended to the inbox here
+        // and applied in the background (WhatsAppWebhookInbox); if even that insert fails, fall back
+        // to processing inline. Losing one payload is far cheaper than losing the subscription; the
+        // payload is logged so it can be replayed by hand if needed.
         try {
-            whatsAppWebhookService.processWebhookPayload(rawPayload);
-        } catch (Exception e) {
-            log.error("[WHATSAPP][WEBHOOK][ERROR] Failed to process payload, acknowledging anyway to keep the "
-                    + "subscription alive: {} | payload={}", e.toString(), rawPayload, e);
+            whatsAppWebhookInbox.enqueue(rawPayload);
+        } catch (Exception enqueueError) {
+            log.warn("[WHATSAPP][WEBHOOK][INBOX][FAIL] Could not queue payload, processing inline: {}",
+                    enqueueError.toString());
+            try {
+                whatsAppWebhookService.processWebhookPayload(rawPayload);
+            } catch (Exception e) {
+                log.error("[WHATSAPP][WEBHOOK][ERROR] Failed to process payload, acknowledging anyway to keep the "
+                        + "subscription alive: {} | payload={}", e.toString(), rawPayload, e);
+            }
         }
         return ResponseEntity.ok("EVENT_RECEIVED");
     }
@@ -0,0 +1,114 @@
+package com.blossombuds.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogCacheDependenciesTest {
+
+    private static final String PAGE = "catalog.products.page";
+    private static final String BY_CATEGORY = "catalog.products.byCategory";
+
+    @Mock ObjectProvider<CacheManager> cacheManagerProvider;
+    @Mock ObjectProvider<StringRedisTemplate> redisProvider;
+
+    private final CacheManager cacheManager = new ConcurrentMapCacheManager();
+    private CatalogCacheDependencies deps;
+
+    @BeforeEach
+    void setUp() {
+        deps = new CatalogCacheDependencies(cacheManagerProvider, redisProvider);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void withoutACacheManager_everyEvictionIsANoOp() {
+        when(cacheManagerProvider.getIfAvailable()).thenReturn(null);
+        deps.recordProducts(PAGE, "p=0", List.of(1L));
+        deps.recordCategory(BY_CATEGORY, "c=5", 5L);
+        assertThat(deps.localTagCount()).isZero();
+
+        assertThatCode(() -> {
+            deps.evictProductAfterCommit(1L);
+            deps.evictAfterCommit(PAGE, "p=0");
+            deps.clearAfterCommit(PAGE, BY_CATEGORY);
+        }).doesNotThrowAnyException();
+    }
+
+    @Test
+    void productAndCategoryTags_evictOnlyTheEntriesRecordedForThem() {
+        when(cacheManagerProvider.getIfAvailable()).thenReturn(cacheManager);
+        Cache page = cacheManager.getCache(PAGE);
+        Cache byCategory = cacheManager.getCache(BY_CATEGORY);
+        page.put("p=0", "page0");
+        page.put("p=1", "page1");
+        byCategory.put("c=5", "cat5");
+
+        deps.recordProducts(PAGE, "p=0", List.of(1L, 2L));
+        deps.recordProducts(PAGE, "p=1", List.of(3L));
+        deps.recordCategory(BY_CATEGORY, "c=5", 5L);
+
+        deps.evictProductAfterCommit(2L);
+        assertThat(page.get("p=0")).isNull();
+        assertThat(page.get("p=1")).isNotNull();
+
+        deps.evictCategoryAfterCommit(5L);
+        assertThat(byCategory.get("c=5")).isNull();
+    }
+
+    @Test
+    void eviction_waitsForTheTransactionToCommit() {
+        when(cacheManagerProvider.getIfAvailable()).thenReturn(cacheManager);
+        Cache page = cacheManager.getCache(PAGE);
+        page.put("p=0", "page0");
+        deps.recordProducts(PAGE, "p=0", List.of(1L));
+
+        TransactionSynchronizationManager.initSynchronization();
+        deps.evictProductAfterCommit(1L);
+        assertThat(page.get("p=0")).isNotNull();
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(page.get("p=0")).isNull();
+    }
+
+    @Test
+    void tagOverTheLocalCap_clearsItsCachesInsteadOfForgettingEntries() {
+        when(cacheManagerProvider.getIfAvailable()).thenReturn(cacheManager);
+        Cache page = cacheManager.getCache(PAGE);
+        Cache byCategory = cacheManager.getCache(BY_CATEGORY);
+        page.put("p=first", "oldest page");
+        byCategory.put("c=9", "unrelated");
+
+        for (int i = 0; i <= CatalogCacheDependencies.MAX_LOCAL_MEMBERS_PER_TAG; i++) {
+            deps.recordProducts(PAGE, i == 0 ? "p=first" : "p=" + i, List.of(1L));
+        }
+
+        deps.evictProductAfterCommit(1L);
+
+        assertThat(page.get("p=first")).isNull();
+        assertThat(byCategory.get("c=9")).isNotNull();
+    }
+}
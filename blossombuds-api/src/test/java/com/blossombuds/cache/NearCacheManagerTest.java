@@ -0,0 +1,66 @@
+package com.blossombuds.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class NearCacheManagerTest {
+
+    @Mock StringRedisTemplate redis;
+
+    private NearCacheManager manager() {
+        return new NearCacheManager(new ConcurrentMapCacheManager(), Map.of("near", Duration.ofMinutes(5)),
+                100, new GenericJackson2JsonRedisSerializer(), redis, "bb:test:cache-invalidation");
+    }
+
+    @Test
+    void onlyCachesWithALocalTtl_areDecorated() {
+        NearCacheManager m = manager();
+
+        assertThat(m.getCache("near")).isInstanceOf(NearCache.class).isSameAs(m.getCache("near"));
+        assertThat(m.getCache("plain")).isNotInstanceOf(NearCache.class);
+    }
+
+    @Test
+    void localEvict_isBroadcast() {
+        NearCacheManager m = manager();
+        m.getCache("near").evict("k");
+
+        verify(redis).convertAndSend(eq("bb:test:cache-invalidation"), endsWith("|E|near|k"));
+    }
+
+    @Test
+    void remoteEvictAndClear_dropOnlyTheL1Copy() {
+        NearCacheManager m = manager();
+        NearCache near = (NearCache) m.getCache("near");
+        near.put("a", "A");
+        near.put("b", "B");
+
+        m.onMessage(message("other-node|E|near|a"), null);
+        assertThat(near.localSize()).isEqualTo(1);
+
+        m.onMessage(message("other-node|C|near"), null);
+        assertThat(near.localSize()).isZero();
+        assertThat(near.get("a").get()).isEqualTo("A"); // still in L2
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage("bb:test:cache-invalidation".getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
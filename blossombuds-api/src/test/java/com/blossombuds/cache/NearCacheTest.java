@@ -0,0 +1,128 @@
+package com.blossombuds.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NearCacheTest {
+
+    private ConcurrentMapCache l2;
+    private final List<String> published = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        l2 = new ConcurrentMapCache("catalog.productById");
+    }
+
+    private NearCache near(Duration ttl, int maxEntries) {
+        return new NearCache(l2, ttl, maxEntries, new GenericJackson2JsonRedisSerializer(),
+                (name, key) -> published.add(name + "|" + key));
+    }
+
+    @Test
+    void miss_readsThroughToL2_andHitIsServedFromL1() {
+        NearCache cache = near(Duration.ofMinutes(5), 10);
+        assertThat(cache.get("k")).isNull();
+
+        l2.put("k", box("a"));
+        assertThat(cache.get("k", Box.class).getV()).isEqualTo("a");
+
+        l2.evict("k"); // L1 still has it
+        assertThat(cache.get("k", Box.class).getV()).isEqualTo("a");
+        assertThat(cache.localSize()).isEqualTo(1);
+    }
+
+    @Test
+    void expiredL1Entry_isNotServed() throws InterruptedException {
+        NearCache cache = near(Duration.ofMillis(1), 10);
+        cache.put("k", box("a"));
+        l2.evict("k");
+
+        Thread.sleep(5);
+        assertThat(cache.get("k")).isNull();
+        assertThat(cache.localSize()).isZero();
+    }
+
+    @Test
+    void l1IsBounded_leastRecentlyUsedGoesFirst() {
+        NearCache cache = near(Duration.ofMinutes(5), 2);
+        cache.put("a", box("a"));
+        cache.put("b", box("b"));
+        cache.get("a");
+        cache.put("c", box("c"));
+        l2.clear();
+
+        assertThat(cache.get("a")).isNotNull();
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("c")).isNotNull();
+    }
+
+    @Test
+    void evict_dropsBothTiers_andIsPublished() {
+        NearCache cache = near(Duration.ofMinutes(5), 10);
+        cache.put("k", box("a"));
+
+        cache.evict("k");
+
+        assertThat(l2.get("k")).isNull();
+        assertThat(cache.get("k")).isNull();
+        assertThat(published).containsExactly("catalog.productById|k");
+    }
+
+    @Test
+    void clear_dropsBothTiers_andIsPublishedAsClear() {
+        NearCache cache = near(Duration.ofMinutes(5), 10);
+        cache.put("a", box("a"));
+        cache.put("b", box("b"));
+
+        cache.clear();
+
+        assertThat(l2.get("a")).isNull();
+        assertThat(cache.localSize()).isZero();
+        assertThat(published).containsExactly("catalog.productById|null");
+    }
+
+    @Test
+    void l1KeepsASnapshotTakenAtPut_andHitsShareIt() {
+        NearCache cache = near(Duration.ofMinutes(5), 10);
+        Box original = box("a");
+        cache.put("k", original);
+        original.setV("mutated-after-put");
+
+        Box first = cache.get("k", Box.class);
+        Box second = cache.get("k", Box.class);
+        assertThat(first).isNotSameAs(original);
+        assertThat(second).isSameAs(first); // no deserialization per hit
+        assertThat(second.getV()).isEqualTo("a");
+    }
+
+    @Test
+    void l2Hit_isNotAliasedByL1() {
+        NearCache cache = near(Duration.ofMinutes(5), 10);
+        l2.put("k", box("a"));
+
+        Box fromL2 = cache.get("k", Box.class);
+        fromL2.setV("mutated-by-first-reader");
+
+        assertThat(cache.get("k", Box.class).getV()).isEqualTo("a");
+    }
+
+    private static Box box(String v) {
+        Box b = new Box();
+        b.setV(v);
+        return b;
+    }
+
+    public static class Box {
+        private String v;
+        public String getV() { return v; }
+        public void setV(String v) { this.v = v; }
+    }
+}
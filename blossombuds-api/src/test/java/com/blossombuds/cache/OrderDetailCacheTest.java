@@ -0,0 +1,76 @@
+package com.blossombuds.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderDetailCacheTest {
+
+    private static OrderDetailCache local(Duration ttl, int maxEntries) {
+        return new OrderDetailCache(new StaticListableBeanFactory().getBeanProvider(CacheManager.class),
+                false, ttl, maxEntries);
+    }
+
+    @Test
+    void withoutRedis_entriesExpire() throws InterruptedException {
+        OrderDetailCache cache = local(Duration.ofMillis(1), 10);
+        cache.put("250001", "detail");
+
+        Thread.sleep(5);
+        assertThat(cache.get("250001", String.class)).isNull();
+        assertThat(cache.localSize()).isZero();
+    }
+
+    @Test
+    void withoutRedis_isBounded_leastRecentlyUsedGoesFirst() {
+        OrderDetailCache cache = local(Duration.ofMinutes(5), 2);
+        cache.put("a", "A");
+        cache.put("b", "B");
+        cache.get("a", String.class);
+        cache.put("c", "C");
+
+        assertThat(cache.localSize()).isEqualTo(2);
+        assertThat(cache.get("a", String.class)).isEqualTo("A");
+        assertThat(cache.get("b", String.class)).isNull();
+        assertThat(cache.get("c", String.class)).isEqualTo("C");
+    }
+
+    @Test
+    void aNonRedisCacheManager_isIgnored() {
+        ConcurrentMapCacheManager simple = new ConcurrentMapCacheManager(CacheNames.ORDER_LITE_BY_CODE);
+        OrderDetailCache cache = new OrderDetailCache(
+                new StaticListableBeanFactory(Map.of("cacheManager", simple)).getBeanProvider(CacheManager.class),
+                false, Duration.ofMinutes(5), 10);
+
+        cache.put("250001", "detail");
+
+        assertThat(simple.getCache(CacheNames.ORDER_LITE_BY_CODE).get("250001")).isNull();
+        assertThat(cache.get("250001", String.class)).isEqualTo("detail");
+    }
+
+    @Test
+    void withRedis_usesTheManagedCache_andEvictsAndClearsIt() {
+        ConcurrentMapCacheManager shared = new ConcurrentMapCacheManager(CacheNames.ORDER_LITE_BY_CODE);
+        OrderDetailCache cache = new OrderDetailCache(
+                new StaticListableBeanFactory(Map.of("cacheManager", shared)).getBeanProvider(CacheManager.class),
+                true, Duration.ofMinutes(5), 10);
+
+        cache.put("250001", "one");
+        cache.put("250002", "two");
+        assertThat(shared.getCache(CacheNames.ORDER_LITE_BY_CODE).get("250001")).isNotNull();
+        assertThat(cache.localSize()).isZero();
+
+        cache.evictAfterCommit("250001");
+        assertThat(cache.get("250001", String.class)).isNull();
+        assertThat(cache.get("250002", String.class)).isEqualTo("two");
+
+        cache.clearAfterCommit();
+        assertThat(cache.get("250002", String.class)).isNull();
+    }
+}
@@ -0,0 +1,115 @@
+package com.blossombuds.security;
+
+import com.blossombuds.domain.Admin;
+import com.blossombuds.repository.AdminRepository;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AuthPrincipalCacheTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    @Mock AdminRepository admins;
+
+    private JwtUtil jwt;
+    private AuthPrincipalCache cache;
+
+    @BeforeEach
+    void setUp() {
+        jwt = spy(new JwtUtil(SECRET, 7200, 7200));
+        cache = new AuthPrincipalCache(jwt, admins);
+    }
+
+    @Test
+    void verifiedSubject_checksSignatureOncePerToken() {
+        String token = jwt.createToken("alice", Map.of("role", "ADMIN"));
+
+        assertThat(cache.verifiedSubject(token)).isEqualTo("alice");
+        assertThat(cache.verifiedSubject(token)).isEqualTo("alice");
+
+        verify(jwt, times(1)).verify(token);
+    }
+
+    @Test
+    void verifiedSubject_rejectsTamperedToken_andDoesNotCacheIt() {
+        String token = jwt.createToken("alice", Map.of());
+        String forged = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThatThrownBy(() -> cache.verifiedSubject(forged)).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> cache.verifiedSubject(forged)).isInstanceOf(JwtException.class);
+        verify(jwt, times(2)).verify(forged);
+    }
+
+    @Test
+    void verifiedSubject_reverifiesOnceTheTokenHasExpired() {
+        String token = jwt.createToken("alice", Map.of());
+        cache.verifiedSubject(token);
+
+        cache.clock = Clock.fixed(Instant.now().plus(Duration.ofHours(3)), ZoneOffset.UTC);
+        cache.verifiedSubject(token); // past exp by the cache's clock → parsed (and expiry checked) again
+
+        verify(jwt, times(2)).verify(token);
+    }
+
+    @Test
+    void activeAdminName_hitsRepositoryOncePerTtl() {
+        when(admins.findByName("alice")).thenReturn(Optional.of(admin("alice", true)));
+
+        assertThat(cache.activeAdminName("alice")).isEqualTo("alice");
+        assertThat(cache.activeAdminName("alice")).isEqualTo("alice");
+        verify(admins, times(1)).findByName("alice");
+
+        cache.clock = Clock.offset(Clock.systemUTC(), Duration.ofMinutes(1));
+        assertThat(cache.activeAdminName("alice")).isEqualTo("alice");
+        verify(admins, times(2)).findByName("alice");
+    }
+
+    @Test
+    void activeAdminName_isNullForInactiveOrUnknownAdmins() {
+        when(admins.findByName("bob")).thenReturn(Optional.of(admin("bob", false)));
+        when(admins.findByName("ghost")).thenReturn(Optional.empty());
+
+        assertThat(cache.activeAdminName("bob")).isNull();
+        assertThat(cache.activeAdminName("ghost")).isNull();
+    }
+
+    @Test
+    void evictAdmin_makesDeactivationVisibleImmediately() {
+        Admin alice = admin("alice", true);
+        when(admins.findByName("alice")).thenReturn(Optional.of(alice));
+        assertThat(cache.activeAdminName("alice")).isEqualTo("alice");
+
+        alice.setActive(false);
+        assertThat(cache.activeAdminName("alice")).isEqualTo("alice"); // still cached
+
+        cache.evictAdmin("alice");
+        assertThat(cache.activeAdminName("alice")).isNull();
+    }
+
+    private static Admin admin(String name, boolean active) {
+        Admin a = new Admin();
+        a.setName(name);
+        a.setActive(active);
+        return a;
+    }
+}
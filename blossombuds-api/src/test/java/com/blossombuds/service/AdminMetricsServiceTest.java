@@ -0,0 +1,97 @@
+package com.blossombuds.service;
+
+import com.blossombuds.dto.LabeledValue;
+import com.blossombuds.dto.MetricsSummary;
+import com.blossombuds.repository.MetricsRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AdminMetricsServiceTest {
+
+    @Mock private MetricsRepo metricsRepo;
+    @Mock private MetricsRollupService rollups;
+
+    private AdminMetricsService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new AdminMetricsService(metricsRepo, rollups);
+        ReflectionTestUtils.setField(service, "summaryTtl", Duration.ofMinutes(1));
+    }
+
+    @Test
+    void buildSummary_mapsSingleAggregateRow() {
+        Object[] row = new Object[38];
+        for (int i = 0; i < row.length; i++) row[i] = (long) i;
+        row[MetricsRepo.SummaryCol.REVENUE] = new BigDecimal("12345.00");
+        stubSummary(row);
+
+        MetricsSummary s = service.buildSummary();
+
+        assertThat(s.getOrders().getTotal()).isZero();
+        assertThat(s.getOrders().getPrevYearly()).isEqualTo(8);
+        assertThat(s.getRevenue().getTotal()).isEqualTo(12345);
+        assertThat(s.getShipping().getDaily()).isEqualTo(19);
+        assertThat(s.getShipping().getMax()).isEqualTo(27);
+        assertThat(s.getProducts().getTotal()).isEqualTo(28);
+        assertThat(s.getCustomers().getTotal()).isEqualTo(29);
+        assertThat(s.getCustomers().getMax()).isEqualTo(29);
+        assertThat(s.getCustomers().getPrevYearly()).isEqualTo(37);
+        verify(metricsRepo, never()).countOrders(any(), any());
+    }
+
+    @Test
+    void buildSummary_isMemoizedWithinTtl() {
+        stubSummary(new Object[38]);
+
+        MetricsSummary first = service.buildSummary();
+        MetricsSummary second = service.buildSummary();
+
+        assertThat(second).isSameAs(first);
+        verify(metricsRepo, times(1))._summaryRaw(any(), any(), any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void topProducts_readsRollupsOnceReady() {
+        when(rollups.isReady()).thenReturn(true);
+        List<Object[]> rows = List.<Object[]>of(new Object[]{"Rose Box", 7L});
+        when(metricsRepo._rollupTopProductsSince(any(LocalDate.class), eq(5))).thenReturn(rows);
+        when(metricsRepo.toLabeledValues(rows)).thenCallRealMethod();
+
+        List<LabeledValue> top = service.topProducts("monthly", 5);
+
+        assertThat(top).containsExactly(new LabeledValue("Rose Box", 7L));
+        verify(metricsRepo, never())._topProductsSince(any(), anyInt());
+    }
+
+    @Test
+    void trend_daily_alwaysUsesRawHourlyQuery() {
+        when(rollups.isReady()).thenReturn(true);
+        when(metricsRepo.ordersRevenueByDay(7)).thenReturn(List.of());
+
+        service.trend("daily");
+
+        verify(metricsRepo, never()).rollupTrend(any());
+    }
+
+    private void stubSummary(Object[] row) {
+        when(metricsRepo._summaryRaw(any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(List.<Object[]>of(row));
+    }
+}
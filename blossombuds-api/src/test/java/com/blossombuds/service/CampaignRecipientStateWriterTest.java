@@ -0,0 +1,122 @@
+package com.blossombuds.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CampaignRecipientStateWriterTest {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+
+    private CampaignRecipientStateWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        writer = new CampaignRecipientStateWriter(jdbcTemplate);
+        ReflectionTestUtils.setField(writer, "batchSize", 2);
+    }
+
+    @Test
+    void recordResult_writesOneJdbcBatchPerFullBuffer() {
+        writer.recordResult(CampaignRecipientStateWriter.Channel.EMAIL, emailResult(1L, true));
+        verifyNoInteractions(jdbcTemplate);
+
+        writer.recordResult(CampaignRecipientStateWriter.Channel.EMAIL, emailResult(2L, false));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> args = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).batchUpdate(sql.capture(), args.capture());
+        assertThat(sql.getValue()).contains("email_campaign_recipients").contains("status = 'SENDING'");
+        assertThat(args.getValue()).hasSize(2);
+        assertThat(args.getValue().get(0)[0]).isEqualTo("SENT");
+        assertThat(args.getValue().get(1)[0]).isEqualTo("FAILED");
+    }
+
+    @Test
+    void flush_writesPartialBuffer_onlyForThatChannel() {
+        writer.recordResult(CampaignRecipientStateWriter.Channel.EMAIL, result(1L, true));
+        writer.recordResult(CampaignRecipientStateWriter.Channel.WHATSAPP, result(2L, false));
+
+        writer.flush(CampaignRecipientStateWriter.Channel.EMAIL);
+
+        verify(jdbcTemplate).batchUpdate(contains("email_campaign_recipients"), anyList());
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void whatsappSuccesses_areBatched_oneUpdatePerBatchSizeResults() {
+        ReflectionTestUtils.setField(writer, "batchSize", 50);
+
+        for (long id = 1; id <= 500; id++) {
+            writer.recordResult(CampaignRecipientStateWriter.Channel.WHATSAPP, result(id, true));
+        }
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> args = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(10)).batchUpdate(contains("whatsapp_campaign_recipients"), args.capture());
+        assertThat(args.getAllValues()).allSatisfy(batch -> assertThat(batch).hasSize(50));
+        assertThat(args.getAllValues().get(0).get(0)[1]).isEqualTo("wamid.1");
+        assertThat(writer.buffered(CampaignRecipientStateWriter.Channel.WHATSAPP)).isZero();
+    }
+
+    @Test
+    void failedWrite_keepsResultsBuffered_andTheNextFlushRetriesThem() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("db down"))
+                .thenReturn(new int[]{1, 1, 1});
+
+        writer.recordResult(CampaignRecipientStateWriter.Channel.EMAIL, emailResult(1L, true));
+        writer.recordResult(CampaignRecipientStateWriter.Channel.EMAIL, emailResult(2L, true)); // full → write fails
+        assertThat(writer.buffered(CampaignRecipientStateWriter.Channel.EMAIL)).isEqualTo(2);
+
+        writer.recordResult(CampaignRecipientStateWriter.Channel.EMAIL, emailResult(3L, true)); // 3 ≥ 2 → retried
+        assertThat(writer.buffered(CampaignRecipientStateWriter.Channel.EMAIL)).isZero();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> args = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), args.capture());
+        assertThat(args.getAllValues().get(1)).extracting(a -> a[a.length - 1]).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void failedFlush_rethrows_butKeepsTheResults() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("db down"));
+        writer.recordResult(CampaignRecipientStateWriter.Channel.EMAIL, emailResult(1L, true));
+
+        assertThatThrownBy(() -> writer.flush(CampaignRecipientStateWriter.Channel.EMAIL))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+        assertThat(writer.buffered(CampaignRecipientStateWriter.Channel.EMAIL)).isEqualTo(1);
+    }
+
+    @Test
+    void release_isANoOp_forNothingToRelease() {
+        assertThat(writer.release(CampaignRecipientStateWriter.Channel.WHATSAPP, List.of())).isZero();
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private static CampaignRecipientStateWriter.RecipientResult emailResult(Long id, boolean ok) {
+        return new CampaignRecipientStateWriter.RecipientResult(id, ok, null, ok ? null : "boom", OffsetDateTime.now());
+    }
+
+    private static CampaignRecipientStateWriter.RecipientResult result(Long id, boolean ok) {
+        return new CampaignRecipientStateWriter.RecipientResult(id, ok, ok ? "wamid." + id : null,
+                ok ? null : "boom", OffsetDateTime.now());
+    }
+}
@@ -8,19 +8,27 @@ import com.blossombuds.dto.OrderItemDto;
 import com.blossombuds.repository.ProductOptionRepository;
 import com.blossombuds.repository.ProductOptionValueRepository;
 import com.blossombuds.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.lenient;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 
 /**
  * Unit tests for the checkout money path. These lock the exact pricing model the storefront uses,
@@ -108,16 +116,45 @@ class CheckoutPricingServiceTest {
                         .build());
     }
 
+    // In-memory catalogue behind the batched finders the service uses.
+    private final Map<Long, Product> products = new HashMap<>();
+    private final Map<Long, List<ProductOption>> optionsByProduct = new HashMap<>();
+    private final Map<Long, List<ProductOptionValue>> valuesByOption = new HashMap<>();
+
+    @BeforeEach
+    void wireCatalogue() {
+        lenient().when(productRepo.findAllById(any())).thenAnswer(inv -> {
+            Iterable<Long> ids = inv.getArgument(0);
+            List<Product> out = new ArrayList<>();
+            ids.forEach(id -> { if (products.containsKey(id)) out.add(products.get(id)); });
+            return out;
+        });
+        lenient().when(optionRepo.findByProduct_IdInOrderBySortOrderAscIdAsc(any())).thenAnswer(inv -> {
+            Collection<Long> ids = inv.getArgument(0);
+            return ids.stream().flatMap(id -> optionsByProduct.getOrDefault(id, List.of()).stream()).toList();
+        });
+        lenient().when(valueRepo.findByOption_IdInOrderBySortOrderAscIdAsc(any())).thenAnswer(inv -> {
+            Collection<Long> ids = inv.getArgument(0);
+            return ids.stream().flatMap(id -> valuesByOption.getOrDefault(id, List.of()).stream()).toList();
+        });
+    }
+
     private void stubProduct(Product p) {
-        when(productRepo.findById(p.getId())).thenReturn(Optional.of(p));
+        products.put(p.getId(), p);
     }
 
     private void stubOptions(long productId, ProductOption... options) {
-        when(optionRepo.findByProduct_IdOrderBySortOrderAscIdAsc(productId)).thenReturn(List.of(options));
+        Product ref = new Product();
+        ref.setId(productId);
+        for (ProductOption o : options) o.setProduct(ref);
+        optionsByProduct.put(productId, List.of(options));
     }
 
     private void stubValues(long optionId, ProductOptionValue... values) {
-        when(valueRepo.findByOption_IdOrderBySortOrderAscIdAsc(optionId)).thenReturn(List.of(values));
+        ProductOption ref = new ProductOption();
+        ref.setId(optionId);
+        for (ProductOptionValue v : values) v.setOption(ref);
+        valuesByOption.put(optionId, List.of(values));
     }
 
     // ── no options: base price is the real price ────────────────────────────────
@@ -209,10 +246,9 @@ class CheckoutPricingServiceTest {
         Product p = product(60, "900.00");
         ProductOption colour = option(3, "Colour", true, 0);
 
-        when(productRepo.findById(60L)).thenReturn(Optional.of(p));
-        when(optionRepo.findByProduct_IdOrderBySortOrderAscIdAsc(60L)).thenReturn(List.of(colour));
-        when(valueRepo.findByOption_IdOrderBySortOrderAscIdAsc(3L))
-                .thenReturn(List.of(value(20, null), value(21, "2000.00"))); // red=base, gold=₹2000
+        stubProduct(p);
+        stubOptions(60, colour);
+        stubValues(3, value(20, null), value(21, "2000.00")); // red=base, gold=₹2000
 
         // red → base 900
         assertThat(service().priceCart(List.of(item(60, 1, 20L))).getOriginalSubtotal())
@@ -327,9 +363,86 @@ class CheckoutPricingServiceTest {
 
     @Test
     void unknownProduct_isRejected() {
-        when(productRepo.findById(999L)).thenReturn(Optional.empty());
+        // 999 is not in the catalogue
         assertThatThrownBy(() -> service().priceCart(List.of(item(999, 1))))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("unavailable");
     }
+
+    // ── batching: fixed query count, same last-priced-wins result ────────────────
+
+    @Test
+    void multiplePricedSelections_lastInOptionSortOrderWins() {
+        noSaleActive();
+        stubProduct(product(80, "100.00"));
+        stubOptions(80, option(5, "Size", true, 0), option(6, "Wrap", false, 1));
+        stubValues(5, value(40, "500.00"));
+        stubValues(6, value(41, "650.00"));
+
+        var priced = service().priceCart(List.of(item(80, 1, 41L, 40L))); // selection order is irrelevant
+
+        assertThat(priced.getOriginalSubtotal()).isEqualByComparingTo("650.00");
+    }
+
+    @Test
+    void hiddenOption_isIgnored_andItsValuesAreNotLoaded() {
+        noSaleActive();
+        stubProduct(product(90, "300.00"));
+        ProductOption hidden = option(7, "Legacy", true, 0);
+        hidden.setVisible(false);
+        stubOptions(90, hidden);
+        stubValues(7, value(50, "999.00"));
+
+        var priced = service().priceCart(List.of(item(90, 1)));
+
+        assertThat(priced.getOriginalSubtotal()).isEqualByComparingTo("300.00");
+        verify(valueRepo, never()).findByOption_IdInOrderBySortOrderAscIdAsc(any());
+    }
+
+    /**
+     * Large-cart benchmark: 500 lines over 250 products with 3 options × 4 values each. The old
+     * per-line path issued 1 + 1 + 3 = 5 queries per line (2,500 here); the batched path must stay at
+     * three however big the cart is, and price every line exactly as the single-product cases above.
+     */
+    @Test
+    void largeCart_isPricedWithThreeQueries() {
+        saleActive("10");
+        int productCount = 250;
+        List<OrderItemDto> cart = new ArrayList<>();
+        long optionId = 1000, valueId = 10_000;
+        BigDecimal expectedOriginal = BigDecimal.ZERO;
+        for (long pid = 1; pid <= productCount; pid++) {
+            stubProduct(product(pid, "100.00"));
+            ProductOption[] opts = new ProductOption[3];
+            List<Long> picks = new ArrayList<>();
+            BigDecimal lastPriced = new BigDecimal("100.00");
+            for (int o = 0; o < 3; o++) {
+                opts[o] = option(++optionId, "Option " + o, true, o);
+                ProductOptionValue[] vals = new ProductOptionValue[4];
+                for (int v = 0; v < 4; v++) {
+                    // option 1 is unpriced (colour-like); options 0 and 2 carry absolute prices
+                    vals[v] = value(++valueId, o == 1 ? null : String.valueOf(200 + 10 * o + v));
+                }
+                stubValues(optionId, vals);
+                ProductOptionValue pick = vals[(int) (pid % 4)];
+                picks.add(pick.getId());
+                if (pick.getPriceDelta() != null) lastPriced = pick.getPriceDelta();
+            }
+            stubOptions(pid, opts);
+            cart.add(item(pid, 1, picks.toArray(Long[]::new)));
+            cart.add(item(pid, 2, picks.toArray(Long[]::new)));
+            expectedOriginal = expectedOriginal.add(lastPriced.multiply(BigDecimal.valueOf(3)));
+        }
+
+        var priced = service().priceCart(cart);
+
+        assertThat(priced.getOriginalSubtotal()).isEqualByComparingTo(expectedOriginal);
+        assertThat(priced.getFinalSubtotal())
+                .isEqualByComparingTo(expectedOriginal.multiply(new BigDecimal("0.9")));
+        verify(productRepo, times(1)).findAllById(any());
+        verify(optionRepo, times(1)).findByProduct_IdInOrderBySortOrderAscIdAsc(any());
+        verify(valueRepo, times(1)).findByOption_IdInOrderBySortOrderAscIdAsc(any());
+        verify(productRepo, never()).findById(any());
+        verifyNoMoreInteractions(productRepo, optionRepo, valueRepo);
+    }
 }
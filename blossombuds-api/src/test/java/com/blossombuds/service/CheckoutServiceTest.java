@@ -7,7 +7,6 @@ import com.blossombuds.domain.Product;
 import com.blossombuds.dto.OrderDto;
 import com.blossombuds.dto.OrderItemDto;
 import com.blossombuds.repository.CheckoutIntentRepository;
-import com.blossombuds.repository.CountryRepository;
 import com.blossombuds.repository.CustomerRepository;
 import com.blossombuds.repository.ProductRepository;
 import com.blossombuds.service.payments.RazorpayService;
@@ -30,7 +29,7 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class CheckoutServiceTest {
 
-    @Mock private CountryRepository countryRepo;
+    @Mock private GeoReferenceCache geoCache;
     @Mock private CustomerRepository customerRepo;
     @Mock private CheckoutIntentRepository ciRepo;
     @Mock private WhatsAppPayloadBuilder waBuilder;
@@ -47,7 +46,7 @@ class CheckoutServiceTest {
     @BeforeEach
     void setUp() {
         service = new CheckoutService(
-                countryRepo, customerRepo, ciRepo,
+                geoCache, customerRepo, ciRepo,
                 waBuilder, rzpService, checkoutTxService,
                 productRepo, settingsService, deliveryFeeService,
                 pricingService, promotionService);
@@ -60,7 +59,7 @@ class CheckoutServiceTest {
     @Test
     void startCheckout_returnsWhatsappDecision_forNonIndiaCountry() {
         Country us = country("United States");
-        when(countryRepo.findById(2L)).thenReturn(Optional.of(us));
+        when(geoCache.country(2L)).thenReturn(Optional.of(us));
         when(productRepo.findById(10L)).thenReturn(Optional.of(product(10L, true, true, true)));
         when(waBuilder.buildForOrderDraft(any(), any(), any())).thenReturn("https://wa.me/...");
 
@@ -79,7 +78,7 @@ class CheckoutServiceTest {
     @Test
     void startCheckout_returnsRzpDecision_forIndiaCountry() {
         Country india = country("India");
-        when(countryRepo.findById(1L)).thenReturn(Optional.of(india));
+        when(geoCache.country(1L)).thenReturn(Optional.of(india));
         stubPricedCart("500.00", "0.00");
 
         Product p = product(10L, true, true, true);
@@ -113,7 +112,7 @@ class CheckoutServiceTest {
     @Test
     void startCheckout_throwsWhenProductIsInactive() {
         Country india = country("India");
-        when(countryRepo.findById(1L)).thenReturn(Optional.of(india));
+        when(geoCache.country(1L)).thenReturn(Optional.of(india));
 
         Product inactive = product(20L, false, true, true);
         when(productRepo.findById(20L)).thenReturn(Optional.of(inactive));
@@ -126,7 +125,7 @@ class CheckoutServiceTest {
     @Test
     void startCheckout_throwsWhenProductIsNotVisible() {
         Country india = country("India");
-        when(countryRepo.findById(1L)).thenReturn(Optional.of(india));
+        when(geoCache.country(1L)).thenReturn(Optional.of(india));
 
         Product hidden = product(21L, true, false, true);
         when(productRepo.findById(21L)).thenReturn(Optional.of(hidden));
@@ -139,7 +138,7 @@ class CheckoutServiceTest {
     @Test
     void startCheckout_throwsWhenProductIsOutOfStock() {
         Country india = country("India");
-        when(countryRepo.findById(1L)).thenReturn(Optional.of(india));
+        when(geoCache.country(1L)).thenReturn(Optional.of(india));
 
         Product oos = product(22L, true, true, false);
         when(productRepo.findById(22L)).thenReturn(Optional.of(oos));
@@ -152,7 +151,7 @@ class CheckoutServiceTest {
     @Test
     void startCheckout_throwsWhenItemHasNoProductId() {
         Country india = country("India");
-        when(countryRepo.findById(1L)).thenReturn(Optional.of(india));
+        when(geoCache.country(1L)).thenReturn(Optional.of(india));
 
         OrderItemDto noId = new OrderItemDto();
         noId.setProductId(null);
@@ -169,7 +168,7 @@ class CheckoutServiceTest {
     @Test
     void startCheckout_throwsWhenShipPhoneBlank() {
         Country india = country("India");
-        when(countryRepo.findById(1L)).thenReturn(Optional.of(india));
+        when(geoCache.country(1L)).thenReturn(Optional.of(india));
 
         Product p = product(10L, true, true, true);
         when(productRepo.findById(10L)).thenReturn(Optional.of(p));
@@ -183,7 +182,7 @@ class CheckoutServiceTest {
     @Test
     void startCheckout_throwsWhenShipPhoneIsInvalidIndianNumber() {
         Country india = country("India");
-        when(countryRepo.findById(1L)).thenReturn(Optional.of(india));
+        when(geoCache.country(1L)).thenReturn(Optional.of(india));
 
         Product p = product(10L, true, true, true);
         when(productRepo.findById(10L)).thenReturn(Optional.of(p));
@@ -198,7 +197,7 @@ class CheckoutServiceTest {
     @Test
     void startCheckout_acceptsValidIndianNumberWithCountryCode() {
         Country india = country("India");
-        when(countryRepo.findById(1L)).thenReturn(Optional.of(india));
+        when(geoCache.country(1L)).thenReturn(Optional.of(india));
         stubPricedCart("500.00", "0.00");
 
         Product p = product(10L, true, true, true);
@@ -226,7 +225,7 @@ class CheckoutServiceTest {
     @Test
     void startCheckout_appliesDefaultGstRate10_belowThreshold() {
         Country india = country("India");
-        when(countryRepo.findById(1L)).thenReturn(Optional.of(india));
+        when(geoCache.country(1L)).thenReturn(Optional.of(india));
         stubPricedCart("1000.00", "0.00");
 
         Product p = product(10L, true, true, true);
@@ -254,7 +253,7 @@ class CheckoutServiceTest {
     @Test
     void startCheckout_appliesReducedGstRate8_aboveThreshold() {
         Country india = country("India");
-        when(countryRepo.findById(1L)).thenReturn(Optional.of(india));
+        when(geoCache.country(1L)).thenReturn(Optional.of(india));
         stubPricedCart("15000.00", "0.00");
 
         Product p = product(10L, true, true, true);
@@ -280,7 +279,7 @@ class CheckoutServiceTest {
     @Test
     void startCheckout_appliesZeroGst_whenGstDisabled() {
         Country india = country("India");
-        when(countryRepo.findById(1L)).thenReturn(Optional.of(india));
+        when(geoCache.country(1L)).thenReturn(Optional.of(india));
         stubPricedCart("2000.00", "0.00");
 
         Product p = product(10L, true, true, true);
@@ -305,7 +304,7 @@ class CheckoutServiceTest {
     @Test
     void startCheckout_discountReducesTaxableAmount_beforeGstComputation() {
         Country india = country("India");
-        when(countryRepo.findById(1L)).thenReturn(Optional.of(india));
+        when(geoCache.country(1L)).thenReturn(Optional.of(india));
         stubPricedCart("1000.00", "200.00");
 
         Product p = product(10L, true, true, true);
@@ -331,7 +330,7 @@ class CheckoutServiceTest {
     @Test
     void startCheckout_shippingFeeAdded_toGrandTotal() {
         Country india = country("India");
-        when(countryRepo.findById(1L)).thenReturn(Optional.of(india));
+        when(geoCache.country(1L)).thenReturn(Optional.of(india));
         stubPricedCart("500.00", "0.00");
 
         Product p = product(10L, true, true, true);
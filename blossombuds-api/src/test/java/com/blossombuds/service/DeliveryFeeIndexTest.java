@@ -0,0 +1,133 @@
+package com.blossombuds.service;
+
+import com.blossombuds.domain.DeliveryFeeRules;
+import com.blossombuds.domain.DeliveryFeeRules.RuleScope;
+import com.blossombuds.domain.DeliveryPartner;
+import com.blossombuds.domain.DeliveryRegion;
+import com.blossombuds.repository.DeliveryFeeRulesRepository;
+import com.blossombuds.repository.DeliveryPartnerRepository;
+import com.blossombuds.repository.DeliveryRegionRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DeliveryFeeIndexTest {
+
+    @Mock DeliveryFeeRulesRepository ruleRepo;
+    @Mock DeliveryRegionRepository regionRepo;
+    @Mock DeliveryPartnerRepository partnerRepo;
+
+    @InjectMocks DeliveryFeeIndex index;
+
+    private static final long STATE = 10L, DISTRICT = 100L, PARTNER = 7L;
+
+    @Test
+    void resolve_followsPartnerThenGenericCascade() {
+        DeliveryFeeIndex.Snapshot s = DeliveryFeeIndex.Snapshot.of(List.of(
+                rule(1L, null, RuleScope.DEFAULT, null, null, "50"),
+                rule(2L, null, RuleScope.STATE, STATE, null, "40"),
+                rule(3L, PARTNER, RuleScope.DEFAULT, null, null, "90"),
+                rule(4L, PARTNER, RuleScope.DISTRICT, DISTRICT, null, "70"),
+                rule(5L, null, RuleScope.REGION, null, 3L, "30")
+        ), List.of(region(3L, STATE, 11L)), List.of());
+
+        assertThat(s.resolve(STATE, DISTRICT, PARTNER)).contains(new BigDecimal("70"));
+        assertThat(s.resolve(STATE, 999L, PARTNER)).contains(new BigDecimal("90"));
+        assertThat(s.resolve(STATE, DISTRICT, null)).contains(new BigDecimal("40"));
+        assertThat(s.resolve(11L, null, null)).contains(new BigDecimal("30"));
+        assertThat(s.resolve(12L, null, 99L)).contains(new BigDecimal("50"));
+    }
+
+    @Test
+    void resolve_newestRuleWins_andRegionsAreTriedInIdOrder() {
+        DeliveryFeeIndex.Snapshot s = DeliveryFeeIndex.Snapshot.of(List.of(
+                rule(1L, null, RuleScope.STATE, STATE, null, "40"),
+                rule(8L, null, RuleScope.STATE, STATE, null, "45"),
+                rule(2L, null, RuleScope.REGION, null, 6L, "60"),
+                rule(3L, null, RuleScope.REGION, null, 5L, "55")
+        ), List.of(region(6L, 11L), region(5L, 11L)), List.of());
+
+        assertThat(s.resolve(STATE, null, null)).contains(new BigDecimal("45"));
+        assertThat(s.resolve(11L, null, null)).contains(new BigDecimal("55"));
+    }
+
+    @Test
+    void resolve_sanitizesNegativeFees_andIsEmptyWithoutAnyRule() {
+        DeliveryFeeIndex.Snapshot s = DeliveryFeeIndex.Snapshot.of(List.of(
+                rule(1L, null, RuleScope.STATE, STATE, null, "-5")
+        ), List.of(), List.of());
+
+        assertThat(s.resolve(STATE, null, null)).contains(BigDecimal.ZERO);
+        assertThat(s.resolve(11L, null, null)).isEmpty();
+    }
+
+    @Test
+    void overridesFreeShipping_onlyForFlaggedActivePartners() {
+        DeliveryPartner flagged = partner(PARTNER, true);
+        DeliveryPartner plain = partner(8L, false);
+        DeliveryFeeIndex.Snapshot s = DeliveryFeeIndex.Snapshot.of(List.of(), List.of(), List.of(flagged, plain));
+
+        assertThat(s.overridesFreeShipping(PARTNER)).isTrue();
+        assertThat(s.overridesFreeShipping(8L)).isFalse();
+        assertThat(s.overridesFreeShipping(null)).isFalse();
+    }
+
+    @Test
+    void current_loadsOnce_andRefreshFailureKeepsPreviousSnapshot() {
+        when(ruleRepo.findAll())
+                .thenReturn(List.of(rule(1L, null, RuleScope.DEFAULT, null, null, "50")))
+                .thenThrow(new IllegalStateException("db down"));
+        when(regionRepo.findByActiveTrueOrderByNameAsc()).thenReturn(List.of());
+        when(partnerRepo.findAll()).thenReturn(List.of());
+
+        assertThat(index.current().resolve(STATE, null, null)).contains(new BigDecimal("50"));
+        assertThat(index.current().resolve(STATE, null, null)).contains(new BigDecimal("50"));
+        verify(ruleRepo, times(1)).findAll();
+
+        index.refreshAfterCommit(); // no transaction: refreshes immediately, and fails
+
+        assertThat(index.current().resolve(STATE, null, null)).contains(new BigDecimal("50"));
+        verify(ruleRepo, times(2)).findAll();
+    }
+
+    private static DeliveryFeeRules rule(Long id, Long partnerId, RuleScope scope, Long scopeId, Long regionId, String fee) {
+        DeliveryFeeRules r = new DeliveryFeeRules();
+        r.setId(id);
+        r.setDeliveryPartnerId(partnerId);
+        r.setScope(scope);
+        r.setScopeId(scopeId);
+        r.setRegionId(regionId);
+        r.setFeeAmount(new BigDecimal(fee));
+        r.setActive(true);
+        return r;
+    }
+
+    private static DeliveryRegion region(Long id, Long... stateIds) {
+        DeliveryRegion r = new DeliveryRegion();
+        r.setId(id);
+        r.setActive(true);
+        r.setStateIds(new HashSet<>(Set.of(stateIds)));
+        return r;
+    }
+
+    private static DeliveryPartner partner(Long id, boolean overrideFreeShipping) {
+        DeliveryPartner p = new DeliveryPartner();
+        p.setId(id);
+        p.setActive(true);
+        p.setOverrideFreeShipping(overrideFreeShipping);
+        return p;
+    }
+}
@@ -2,6 +2,7 @@ package com.blossombuds.service;
 
 import com.blossombuds.domain.*;
 import com.blossombuds.repository.*;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -10,6 +11,8 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,20 +29,30 @@ class EmailCampaignServiceTest {
     @Mock private CustomerEmailPreferenceRepository preferenceRepository;
     @Mock private CustomerRepository customerRepository;
     @Mock private EmailService emailService;
+    @Mock private CampaignRecipientStateWriter stateWriter;
 
+    private MarketingEmailDispatcher dispatcher;
     private EmailCampaignService service;
 
     @BeforeEach
     void setUp() {
+        dispatcher = new MarketingEmailDispatcher(emailService);
+        ReflectionTestUtils.setField(dispatcher, "requestsPerSecond", 1000d);
+        dispatcher.init();
         service = new EmailCampaignService(
                 campaignRepository, recipientRepository,
-                preferenceRepository, customerRepository, emailService);
+                preferenceRepository, customerRepository, emailService, stateWriter, dispatcher);
         ReflectionTestUtils.setField(service, "unsubscribeBaseUrl", "https://api.blossombuds.com");
         // Ample default cap so existing send tests aren't blocked by the safety ceiling;
         // the cap-specific test below overrides this.
         ReflectionTestUtils.setField(service, "marketingMaxRecipients", 100000);
     }
 
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
     // ──────────────────────────────────────────────────────────────────────────
     // countAudience — distinct reach, not cumulative sends
     // ──────────────────────────────────────────────────────────────────────────
@@ -213,7 +226,8 @@ class EmailCampaignServiceTest {
         EmailCampaignRecipient r = recipient(1L, 5L, "a@b.com");
         when(recipientRepository.findByCampaignIdAndStatusAndActiveTrueOrderByCreatedAtAsc(5L, "PENDING"))
                 .thenReturn(List.of(r));
-        when(recipientRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(stateWriter.claim(eq(CampaignRecipientStateWriter.Channel.EMAIL), anyCollection()))
+                .thenAnswer(inv -> new ArrayList<>(inv.<Collection<Long>>getArgument(1)));
         when(preferenceRepository.findByCustomerId(anyLong())).thenReturn(Optional.empty());
         when(preferenceRepository.save(any())).thenAnswer(inv -> {
             CustomerEmailPreference p = inv.getArgument(0);
@@ -237,7 +251,8 @@ class EmailCampaignServiceTest {
         EmailCampaignRecipient r2 = recipient(2L, 6L, "fail@b.com");
         when(recipientRepository.findByCampaignIdAndStatusAndActiveTrueOrderByCreatedAtAsc(6L, "PENDING"))
                 .thenReturn(List.of(r1, r2));
-        when(recipientRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(stateWriter.claim(eq(CampaignRecipientStateWriter.Channel.EMAIL), anyCollection()))
+                .thenAnswer(inv -> new ArrayList<>(inv.<Collection<Long>>getArgument(1)));
         when(preferenceRepository.findByCustomerId(anyLong())).thenReturn(Optional.empty());
         when(preferenceRepository.save(any())).thenAnswer(inv -> {
             CustomerEmailPreference p = inv.getArgument(0);
@@ -262,7 +277,8 @@ class EmailCampaignServiceTest {
         EmailCampaignRecipient r = recipient(1L, 7L, "x@b.com");
         when(recipientRepository.findByCampaignIdAndStatusAndActiveTrueOrderByCreatedAtAsc(7L, "PENDING"))
                 .thenReturn(List.of(r));
-        when(recipientRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(stateWriter.claim(eq(CampaignRecipientStateWriter.Channel.EMAIL), anyCollection()))
+                .thenAnswer(inv -> new ArrayList<>(inv.<Collection<Long>>getArgument(1)));
         when(preferenceRepository.findByCustomerId(anyLong())).thenReturn(Optional.empty());
         when(preferenceRepository.save(any())).thenAnswer(inv -> {
             CustomerEmailPreference p = inv.getArgument(0);
@@ -277,6 +293,38 @@ class EmailCampaignServiceTest {
         assertThat(result.getStatus()).isEqualTo("FAILED");
     }
 
+    @Test
+    void sendCampaign_countsEveryChunk_whenSeveralAreInFlight() {
+        EmailCampaign campaign = savedCampaign(8L);
+        when(campaignRepository.findByIdAndActiveTrue(8L)).thenReturn(Optional.of(campaign));
+
+        List<EmailCampaignRecipient> recipients = new ArrayList<>();
+        for (long id = 1; id <= 120; id++) recipients.add(recipient(id, 8L, "c" + id + "@b.com"));
+        when(recipientRepository.findByCampaignIdAndStatusAndActiveTrueOrderByCreatedAtAsc(8L, "PENDING"))
+                .thenReturn(recipients);
+        when(stateWriter.claim(eq(CampaignRecipientStateWriter.Channel.EMAIL), anyCollection()))
+                .thenAnswer(inv -> new ArrayList<>(inv.<Collection<Long>>getArgument(1)));
+        when(preferenceRepository.findByCustomerId(anyLong())).thenReturn(Optional.empty());
+        when(preferenceRepository.save(any())).thenAnswer(inv -> {
+            CustomerEmailPreference p = inv.getArgument(0);
+            if (p.getUnsubscribeToken() == null) p.setUnsubscribeToken("tok");
+            return p;
+        });
+        when(emailService.sendMarketingEmailSync(anyString(), anyString(), anyString()))
+                .thenReturn(EmailService.EmailSendResult.ok());
+        when(emailService.sendMarketingEmailSync(eq("c77@b.com"), anyString(), anyString()))
+                .thenReturn(EmailService.EmailSendResult.failed("provider error"));
+        when(campaignRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        EmailCampaign result = service.sendCampaign(8L);
+
+        assertThat(result.getStatus()).isEqualTo("PARTIAL");
+        assertThat(result.getSentCount()).isEqualTo(119);
+        assertThat(result.getFailedCount()).isEqualTo(1);
+        verify(stateWriter, times(3)).claim(eq(CampaignRecipientStateWriter.Channel.EMAIL), anyCollection());
+        verify(stateWriter, times(120)).recordResult(eq(CampaignRecipientStateWriter.Channel.EMAIL), any());
+    }
+
     @Test
     void sendCampaign_throwsOnUnknownCampaignId() {
         when(campaignRepository.findByIdAndActiveTrue(99L)).thenReturn(Optional.empty());
@@ -296,7 +344,8 @@ class EmailCampaignServiceTest {
         EmailCampaignRecipient r = recipient(1L, 8L, "a@b.com");
         when(recipientRepository.findByCampaignIdAndStatusAndActiveTrueOrderByCreatedAtAsc(8L, "PENDING"))
                 .thenReturn(List.of(r));
-        when(recipientRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(stateWriter.claim(eq(CampaignRecipientStateWriter.Channel.EMAIL), anyCollection()))
+                .thenAnswer(inv -> new ArrayList<>(inv.<Collection<Long>>getArgument(1)));
         when(preferenceRepository.findByCustomerId(anyLong())).thenReturn(Optional.empty());
         when(preferenceRepository.save(any())).thenAnswer(inv -> {
             CustomerEmailPreference p = inv.getArgument(0);
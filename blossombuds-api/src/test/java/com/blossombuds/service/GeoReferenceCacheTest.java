@@ -0,0 +1,112 @@
+package com.blossombuds.service;
+
+import com.blossombuds.domain.Country;
+import com.blossombuds.domain.District;
+import com.blossombuds.domain.State;
+import com.blossombuds.repository.CountryRepository;
+import com.blossombuds.repository.DistrictRepository;
+import com.blossombuds.repository.StateRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GeoReferenceCacheTest {
+
+    @Mock CountryRepository countryRepository;
+    @Mock StateRepository stateRepository;
+    @Mock DistrictRepository districtRepository;
+
+    @InjectMocks GeoReferenceCache geo;
+
+    @Test
+    void snapshot_indexesByIdAndParent_inIdOrder() {
+        GeoReferenceCache.Snapshot s = GeoReferenceCache.Snapshot.of(
+                List.of(country(2L, "United States"), country(1L, "India")),
+                List.of(state(11L, 1L, "Kerala"), state(10L, 1L, "Tamil Nadu"), state(20L, 2L, "Texas")),
+                List.of(district(100L, 10L, "Chennai")));
+
+        assertThat(s.country(1L)).map(Country::getName).contains("India");
+        assertThat(s.state(20L)).map(State::getName).contains("Texas");
+        assertThat(s.district(100L)).map(District::getName).contains("Chennai");
+        assertThat(s.country(99L)).isEmpty();
+        assertThat(s.country(null)).isEmpty();
+    }
+
+    @Test
+    void lookups_loadOnce_andServeParentListsFromMemory() {
+        stubTables();
+
+        assertThat(geo.countryName(1L)).isEqualTo("India");
+        assertThat(geo.statesOf(1L)).extracting(State::getId).containsExactly(10L, 11L);
+        assertThat(geo.districtsOf(10L)).extracting(District::getName).containsExactly("Chennai");
+        assertThat(geo.districtsOf(11L)).isEmpty();
+        assertThat(geo.countries()).extracting(Country::getId).containsExactly(1L);
+
+        verify(countryRepository, times(1)).findAll();
+        verify(stateRepository, times(1)).findAll();
+        verify(districtRepository, times(1)).findAll();
+    }
+
+    @Test
+    void parentLists_areImmutable() {
+        stubTables();
+
+        assertThatThrownBy(() -> geo.statesOf(1L).add(state(12L, 1L, "Goa")))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void reload_failureKeepsPreviousSnapshot() {
+        when(countryRepository.findAll())
+                .thenReturn(List.of(country(1L, "India")))
+                .thenThrow(new IllegalStateException("db down"));
+        when(stateRepository.findAll()).thenReturn(List.of());
+        when(districtRepository.findAll()).thenReturn(List.of());
+
+        geo.reload();
+        geo.reload();
+
+        assertThat(geo.countryName(1L)).isEqualTo("India");
+        verify(countryRepository, times(2)).findAll();
+    }
+
+    private void stubTables() {
+        when(countryRepository.findAll()).thenReturn(List.of(country(1L, "India")));
+        when(stateRepository.findAll()).thenReturn(List.of(state(11L, 1L, "Kerala"), state(10L, 1L, "Tamil Nadu")));
+        when(districtRepository.findAll()).thenReturn(List.of(district(100L, 10L, "Chennai")));
+    }
+
+    private static Country country(Long id, String name) {
+        Country c = new Country();
+        c.setId(id);
+        c.setName(name);
+        return c;
+    }
+
+    private static State state(Long id, Long countryId, String name) {
+        State s = new State();
+        s.setId(id);
+        s.setCountryId(countryId);
+        s.setName(name);
+        return s;
+    }
+
+    private static District district(Long id, Long stateId, String name) {
+        District d = new District();
+        d.setId(id);
+        d.setStateId(stateId);
+        d.setName(name);
+        return d;
+    }
+}
@@ -26,12 +26,13 @@ import static org.mockito.Mockito.*;
 class GlobalSaleConfigServiceTest {
 
     @Mock private GlobalSaleConfigRepository globalSaleRepo;
+    @Mock private PricingEpochService pricingEpoch;
 
     private GlobalSaleConfigService service;
 
     @BeforeEach
     void setUp() {
-        service = new GlobalSaleConfigService(globalSaleRepo);
+        service = new GlobalSaleConfigService(globalSaleRepo, pricingEpoch);
     }
 
     // ──────────────────────────────────────────────────────────────────────────
@@ -93,6 +94,16 @@ class GlobalSaleConfigServiceTest {
 
         assertThat(result.getId()).isEqualTo(1L);
         verify(globalSaleRepo).save(any(GlobalSaleConfig.class));
+        verify(pricingEpoch).bumpAfterCommit();
+    }
+
+    @Test
+    void create_invalidInput_doesNotBumpPricingEpoch() {
+        GlobalSaleConfigDto dto = dto(true, new BigDecimal("-5"), now(), now().plusSeconds(3600));
+
+        assertThatThrownBy(() -> service.create(dto)).isInstanceOf(IllegalArgumentException.class);
+
+        verify(pricingEpoch, never()).bumpAfterCommit();
     }
 
     @Test
@@ -145,6 +156,7 @@ class GlobalSaleConfigServiceTest {
         verify(globalSaleRepo).save(cap.capture());
         assertThat(cap.getValue().getPercentOff()).isEqualByComparingTo("25");
         assertThat(cap.getValue().getLabel()).isEqualTo("Original label");  // untouched
+        verify(pricingEpoch).bumpAfterCommit();
     }
 
     // ──────────────────────────────────────────────────────────────────────────
@@ -159,6 +171,7 @@ class GlobalSaleConfigServiceTest {
         service.delete(4L);
 
         verify(globalSaleRepo).delete(g);
+        verify(pricingEpoch).bumpAfterCommit();
     }
 
     @Test
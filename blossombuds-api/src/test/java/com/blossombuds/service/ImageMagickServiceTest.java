@@ -0,0 +1,116 @@
+package com.blossombuds.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/** Exercises the process runner with plain POSIX tools standing in for ImageMagick. */
+@EnabledOnOs({OS.LINUX, OS.MAC})
+class ImageMagickServiceTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private ImageMagickService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ImageMagickService(registry);
+        ReflectionTestUtils.setField(service, "maxConcurrent", 1);
+        ReflectionTestUtils.setField(service, "acquireTimeoutMs", 200L);
+        ReflectionTestUtils.setField(service, "processTimeoutSeconds", 2L);
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void exec_pipesStdinToStdout_largerThanPipeBuffer() throws Exception {
+        byte[] payload = new byte[3_000_000];
+        new Random(7).nextBytes(payload);
+
+        byte[] out = service.exec("test", List.of("cat"), payload);
+
+        assertThat(out).isEqualTo(payload);
+        assertThat(registry.get("imagemagick.conversion").tags("op", "test", "outcome", "ok").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void exec_nonZeroExit_throwsWithStderr() {
+        assertThatThrownBy(() -> service.exec("test", List.of("sh", "-c", "echo boom >&2; exit 3"), null))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("(3)")
+                .hasMessageContaining("boom");
+    }
+
+    @Test
+    void exec_killsProcessAfterTimeout() {
+        assertThatThrownBy(() -> service.exec("test", List.of("sleep", "10"), null))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("timed out");
+        assertThat(registry.get("imagemagick.active").gauge().value()).isZero();
+    }
+
+    @Test
+    void exec_whenAllSlotsBusy_rejectsWith503AfterAcquireTimeout() throws Exception {
+        CompletableFuture<byte[]> holder = CompletableFuture.supplyAsync(() -> {
+            try {
+                return service.exec("test", List.of("sh", "-c", "sleep 1; echo done"), null);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(100);
+
+        assertThatThrownBy(() -> service.exec("test", List.of("cat"), new byte[]{1}))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("503");
+        assertThat(registry.get("imagemagick.rejected").counter().count()).isEqualTo(1);
+
+        assertThat(new String(holder.get(5, TimeUnit.SECONDS)).trim()).isEqualTo("done");
+        assertThat(service.exec("test", List.of("cat"), new byte[]{1})).containsExactly(1);
+    }
+
+    @Test
+    void toWebp_runsInTheVariantLane_whileTheMainSlotIsBusy(@TempDir Path dir) throws Exception {
+        Path fakeMagick = dir.resolve("magick");
+        Files.writeString(fakeMagick, "#!/bin/sh\ncat > /dev/null\nprintf webp\n");
+        assertThat(fakeMagick.toFile().setExecutable(true)).isTrue();
+        ReflectionTestUtils.setField(service, "magickCmd", fakeMagick.toString());
+
+        CompletableFuture<byte[]> heic = CompletableFuture.supplyAsync(() -> {
+            try {
+                return service.exec("test", List.of("sh", "-c", "sleep 1; echo done"), null);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(100);
+
+        byte[] webp = service.toWebp(new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB), 78);
+
+        assertThat(new String(webp)).isEqualTo("webp");
+        assertThat(heic).isNotDone();
+        assertThat(new String(heic.get(5, TimeUnit.SECONDS)).trim()).isEqualTo("done");
+    }
+}
@@ -0,0 +1,129 @@
+package com.blossombuds.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/** Runs the real HTTP sender against a local fake Resend-style server (also usable as a quick benchmark). */
+class MarketingEmailDispatcherTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger batchCalls = new AtomicInteger();
+    private final AtomicInteger singleCalls = new AtomicInteger();
+    private final AtomicInteger emailsAccepted = new AtomicInteger();
+    private final AtomicInteger throttleNext = new AtomicInteger();
+
+    private HttpServer server;
+    private SmtpEmailService emailService;
+    private MarketingEmailDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/emails", exchange -> {
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            int status;
+            if (throttleNext.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                status = 429;
+            } else {
+                JsonNode json = objectMapper.readTree(body);
+                boolean batch = exchange.getRequestURI().getPath().endsWith("/batch");
+                (batch ? batchCalls : singleCalls).incrementAndGet();
+                emailsAccepted.addAndGet(json.isArray() ? json.size() : 1);
+                status = 200;
+            }
+            byte[] resp = "{\"data\":[]}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, resp.length);
+            exchange.getResponseBody().write(resp);
+            exchange.close();
+        });
+        server.start();
+        String base = "http://127.0.0.1:" + server.getAddress().getPort() + "/emails";
+
+        emailService = new SmtpEmailService(mock(SettingsService.class), objectMapper);
+        ReflectionTestUtils.setField(emailService, "from", "news@blossombuds.com");
+        ReflectionTestUtils.setField(emailService, "logoUrl", "https://cdn.example.com/logo.png");
+        ReflectionTestUtils.setField(emailService, "frontendBase", "");
+        ReflectionTestUtils.setField(emailService, "marketingApiUrl", base);
+        ReflectionTestUtils.setField(emailService, "marketingApiKey", "re_test");
+        ReflectionTestUtils.setField(emailService, "marketingBatchUrl", base + "/batch");
+        ReflectionTestUtils.setField(emailService, "marketingBatchSize", 100);
+
+        dispatcher = new MarketingEmailDispatcher(emailService);
+        ReflectionTestUtils.setField(dispatcher, "requestsPerSecond", 50d);
+        ReflectionTestUtils.setField(dispatcher, "backoffMs", 10L);
+        dispatcher.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    void sendAll_groupsIntoBatchCalls_andKeepsInputOrder() {
+        List<EmailService.EmailSendResult> results = dispatcher.sendAll(emails(250));
+
+        assertThat(results).hasSize(250).allMatch(EmailService.EmailSendResult::success);
+        assertThat(batchCalls).hasValue(3);
+        assertThat(emailsAccepted).hasValue(250);
+    }
+
+    @Test
+    void sendAll_retriesThrottledBatch() {
+        throttleNext.set(1);
+
+        List<EmailService.EmailSendResult> results = dispatcher.sendAll(emails(20));
+
+        assertThat(results).allMatch(EmailService.EmailSendResult::success);
+        assertThat(emailsAccepted).hasValue(20);
+    }
+
+    @Test
+    void sendAll_singleEmail_usesPlainEndpoint() {
+        assertThat(dispatcher.sendAll(emails(1))).allMatch(EmailService.EmailSendResult::success);
+        assertThat(singleCalls).hasValue(1);
+        assertThat(batchCalls).hasValue(0);
+    }
+
+    @Test
+    void submitAll_completesWithEveryResult_inInputOrder() {
+        var pending = dispatcher.submitAll(emails(150));
+
+        List<EmailService.EmailSendResult> results = pending.join();
+        assertThat(results).hasSize(150).allMatch(EmailService.EmailSendResult::success);
+        assertThat(batchCalls).hasValue(2);
+    }
+
+    @Test
+    void chunksInFlight_keepsEverySenderThreadBusy() {
+        // one batch call per 50-recipient chunk: one chunk per thread (concurrency 4)
+        assertThat(dispatcher.chunksInFlight(50)).isEqualTo(4);
+
+        // per-email sends: one chunk already fills the threads, but the next is still prepared meanwhile
+        ReflectionTestUtils.setField(emailService, "marketingBatchUrl", "");
+        assertThat(dispatcher.chunksInFlight(50)).isEqualTo(2);
+    }
+
+    private static List<EmailService.MarketingEmail> emails(int n) {
+        List<EmailService.MarketingEmail> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            out.add(new EmailService.MarketingEmail("c" + i + "@example.com", "Festive offers", "Hi {{A|Shop|https://x.test}}"));
+        }
+        return out;
+    }
+}
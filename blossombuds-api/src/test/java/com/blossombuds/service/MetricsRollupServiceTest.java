@@ -0,0 +1,65 @@
+package com.blossombuds.service;
+
+import com.blossombuds.repository.MetricsRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MetricsRollupServiceTest {
+
+    @Mock private MetricsRepo metricsRepo;
+
+    private MetricsRollupService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new MetricsRollupService(metricsRepo);
+        ReflectionTestUtils.setField(service, "enabled", true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void backfill_runsOffTheSchedulerThread_andRecentRefreshWaitsForIt() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(metricsRepo.countDailyRollups()).thenAnswer(inv -> {
+            assertThat(Thread.currentThread().getName()).isEqualTo("metrics-backfill");
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return 1L;
+        });
+
+        service.onReady();
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        service.refreshRecent(); // returns at once while the backfill check is running
+        verify(metricsRepo, never()).refreshDailyTotals(any());
+        assertThat(service.isReady()).isFalse();
+
+        release.countDown();
+        verify(metricsRepo, timeout(5000)).countDailyRollups();
+        for (int i = 0; i < 50 && !service.isReady(); i++) Thread.sleep(20);
+        assertThat(service.isReady()).isTrue();
+
+        service.refreshRecent();
+        verify(metricsRepo).refreshDailyTotals(LocalDate.now(ZoneId.of("Asia/Kolkata")));
+    }
+}
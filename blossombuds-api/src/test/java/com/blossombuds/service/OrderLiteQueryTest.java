@@ -0,0 +1,148 @@
+package com.blossombuds.service;
+
+import com.blossombuds.domain.OrderStatus;
+import com.blossombuds.service.OrderLiteQuery.CountMode;
+import com.blossombuds.service.OrderLiteQuery.Cursor;
+import com.blossombuds.service.OrderLiteQuery.Filter;
+import com.blossombuds.service.OrderLiteQuery.SortKey;
+import com.blossombuds.service.OrderService.OrderLiteDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderLiteQueryTest {
+
+    @Mock JdbcTemplate jdbcTemplate;
+
+    @InjectMocks OrderLiteQuery query;
+
+    private static final LocalDateTime T = LocalDateTime.of(2025, 3, 1, 10, 15, 30, 123_456_000);
+
+    @Test
+    void where_composesOnlyTheGivenFilters() {
+        List<Object> args = new ArrayList<>();
+        String w = OrderLiteQuery.where(new Filter(T, null, List.of(OrderStatus.ORDERED, OrderStatus.DISPATCHED)), args);
+
+        assertThat(w).contains("o.active = true")
+                .contains("o.status IN (CAST(? AS order_status_enum), CAST(? AS order_status_enum))")
+                .contains("o.created_at >= ?")
+                .doesNotContain("o.created_at < ?");
+        assertThat(args).containsExactly("ORDERED", "DISPATCHED", Timestamp.valueOf(T));
+
+        List<Object> none = new ArrayList<>();
+        assertThat(OrderLiteQuery.where(new Filter(null, null, List.of()), none)).isEqualToIgnoringWhitespace("WHERE o.active = true");
+        assertThat(none).isEmpty();
+    }
+
+    @Test
+    void cursor_roundTrips_andRejectsGarbage() {
+        Cursor c = new Cursor(SortKey.CREATED_AT, true, T, 42L);
+        assertThat(Cursor.decode(c.encode())).isEqualTo(c);
+        assertThat(Cursor.decode(new Cursor(SortKey.ID, false, null, 7L).encode()).id()).isEqualTo(7L);
+
+        assertThatThrownBy(() -> Cursor.decode("not-a-cursor")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void fetch_firstPage_readsOneExtraRow_andReturnsCursorOfLastRow() {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class)))
+                .thenReturn(List.of(row(30, T), row(29, T.minusHours(1)), row(28, T.minusHours(2))));
+
+        var slice = query.fetch(new Filter(null, null, List.of()), SortKey.CREATED_AT, true, null, 0, 2);
+
+        assertThat(slice.rows()).extracting(OrderLiteDto::getId).containsExactly(30L, 29L);
+        assertThat(slice.next()).isEqualTo(new Cursor(SortKey.CREATED_AT, true, T.minusHours(1), 29L));
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).query(sql.capture(), any(RowMapper.class), args.capture());
+        assertThat(sql.getValue()).contains("ORDER BY o.created_at DESC, o.id DESC LIMIT ?").doesNotContain("OFFSET");
+        assertThat(args.getValue()).containsExactly(3);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void fetch_withCursor_seeksPastItInsteadOfUsingOffset() {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class)))
+                .thenReturn(List.of(row(28, T.minusHours(2))));
+
+        var slice = query.fetch(new Filter(null, null, List.of(OrderStatus.ORDERED)), SortKey.CREATED_AT, true,
+                new Cursor(SortKey.CREATED_AT, true, T.minusHours(1), 29L), 999, 2);
+
+        assertThat(slice.next()).isNull();
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).query(sql.capture(), any(RowMapper.class), args.capture());
+        assertThat(sql.getValue()).contains("AND (o.created_at, o.id) < (?, ?)").doesNotContain("OFFSET");
+        assertThat(args.getValue()).containsExactly("ORDERED", Timestamp.valueOf(T.minusHours(1)), 29L, 3);
+    }
+
+    @Test
+    void fetch_rejectsCursorIssuedForAnotherSort() {
+        Cursor byId = new Cursor(SortKey.ID, true, null, 10L);
+
+        assertThatThrownBy(() -> query.fetch(null, SortKey.CREATED_AT, true, byId, 0, 20))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void count_isSkipped_exact_orTakenFromThePlan() {
+        Filter f = new Filter(null, null, List.of());
+        assertThat(query.count(f, CountMode.NONE)).isNull();
+
+        when(jdbcTemplate.queryForObject(eq("SELECT count(*) FROM orders o\n WHERE o.active = true"), eq(Long.class), any(Object[].class)))
+                .thenReturn(1234L);
+        assertThat(query.count(f, CountMode.EXACT)).isEqualTo(1234L);
+
+        when(jdbcTemplate.queryForObject(anyString(), eq(String.class), any(Object[].class)))
+                .thenReturn("[{\"Plan\": {\"Node Type\": \"Seq Scan\", \"Plan Rows\": 1200, \"Plan Width\": 0}}]");
+        assertThat(query.count(f, CountMode.ESTIMATE)).isEqualTo(1200L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void findByPublicCode_usesTheSameProjection_forOneActiveOrder() {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class)))
+                .thenReturn(List.of(row(30, T)))
+                .thenReturn(List.of());
+
+        assertThat(query.findByPublicCode("250030")).map(OrderLiteDto::getId).contains(30L);
+        assertThat(query.findByPublicCode("259999")).isEmpty();
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate, times(2)).query(sql.capture(), any(RowMapper.class), args.capture());
+        assertThat(sql.getValue()).contains("LEFT JOIN LATERAL").contains("WHERE o.active = true AND o.public_code = ?");
+        assertThat(args.getAllValues().get(0)).containsExactly("250030");
+    }
+
+    private static OrderLiteDto row(long id, LocalDateTime created) {
+        OrderLiteDto d = new OrderLiteDto();
+        d.setId(id);
+        d.setCreatedDate(created);
+        return d;
+    }
+}
@@ -0,0 +1,168 @@
+package com.blossombuds.service;
+
+import com.blossombuds.cache.OrderDetailCache;
+import com.blossombuds.domain.Order;
+import com.blossombuds.domain.OrderItem;
+import com.blossombuds.domain.OrderStatus;
+import com.blossombuds.domain.PaymentStatus;
+import com.blossombuds.dto.OrderDto;
+import com.blossombuds.dto.OrderItemDto;
+import com.blossombuds.dto.PaymentDto;
+import com.blossombuds.repository.CustomerRepository;
+import com.blossombuds.repository.OrderEventRepository;
+import com.blossombuds.repository.OrderItemRepository;
+import com.blossombuds.repository.OrderRepository;
+import com.blossombuds.repository.PaymentRepository;
+import com.blossombuds.service.OrderLiteQuery.CountMode;
+import com.blossombuds.service.OrderLiteQuery.SortKey;
+import com.blossombuds.service.OrderService.OrderLiteDto;
+import com.blossombuds.web.OrderController;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.CacheManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderServiceTest {
+
+    @Mock OrderLiteQuery orderLiteQuery;
+    @Mock OrderRepository orderRepo;
+    @Mock OrderItemRepository itemRepo;
+    @Mock CatalogService catalogService;
+    @Mock MetricsRollupService metricsRollup;
+    @Mock PaymentRepository paymentRepo;
+    @Mock OrderEventRepository eventRepo;
+    @Mock CustomerRepository customerRepository;
+    @Spy OrderDetailCache orderDetails = new OrderDetailCache(
+            new StaticListableBeanFactory().getBeanProvider(CacheManager.class), false, Duration.ofMinutes(10), 100);
+
+    @InjectMocks OrderService orderService;
+
+    @Test
+    void listAllLite_mapsTheSupportedSortKeys() {
+        when(orderLiteQuery.fetch(any(), any(), anyBoolean(), isNull(), anyInt(), anyInt()))
+                .thenReturn(new OrderLiteQuery.Slice(List.of(), null));
+
+        orderService.listAllLite(0, 20, "created_at", "ASC", null, null, null, null, "none");
+        orderService.listAllLite(0, 20, "", "DESC", null, null, null, null, "none");
+
+        verify(orderLiteQuery).fetch(any(), eq(SortKey.CREATED_AT), eq(false), isNull(), eq(0), eq(20));
+        verify(orderLiteQuery).fetch(any(), eq(SortKey.ID), eq(true), isNull(), eq(0), eq(20));
+        assertThat(orderService.listAllLite(1, 20, "id", null, null, null, null, null, "none").getNumber()).isEqualTo(1);
+        verify(orderLiteQuery, times(3)).count(any(), eq(CountMode.NONE));
+    }
+
+    @Test
+    void listAllLite_rejectsUnsupportedSortKeys() {
+        assertThatThrownBy(() -> orderService.listAllLite(0, 20, "grandTotal", "DESC", null, null, null, null, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("grandTotal");
+        verifyNoInteractions(orderLiteQuery);
+    }
+
+    @Test
+    void detail_isCachedUnderTheBareCode() {
+        when(orderLiteQuery.findByPublicCode("250001")).thenReturn(Optional.of(head()));
+
+        assertThat(orderService.getDetailByPublicCode("BB250001")).map(OrderService.OrderDetailDto::getId).contains(1L);
+        assertThat(orderService.getDetailByPublicCode("250001")).isPresent();
+
+        verify(orderLiteQuery, times(1)).findByPublicCode("250001");
+        assertThat(orderDetails.get("250001", OrderService.OrderDetailDto.class)).isNotNull();
+    }
+
+    @Test
+    void detail_signsImageUrlsOnEveryRead_andCachesThemUnsigned() {
+        when(orderLiteQuery.findByPublicCode("250001")).thenReturn(Optional.of(head()));
+        OrderItem line = new OrderItem();
+        line.setId(10L);
+        line.setProductId(7L);
+        line.setProductName("Rose bouquet");
+        when(itemRepo.findByOrder_Id(1L)).thenReturn(List.of(line));
+        when(catalogService.primaryImageUrls(List.of(7L)))
+                .thenReturn(Map.of(7L, "https://r2/signed-1"), Map.of(7L, "https://r2/signed-2"));
+
+        assertThat(orderService.getDetailByPublicCode("250001").orElseThrow().getItems())
+                .extracting(OrderService.OrderItemViewWithImage::getUrl).containsExactly("https://r2/signed-1");
+        assertThat(orderService.getDetailByPublicCode("250001").orElseThrow().getItems())
+                .extracting(OrderService.OrderItemViewWithImage::getUrl).containsExactly("https://r2/signed-2");
+
+        verify(itemRepo, times(1)).findByOrder_Id(1L);
+        assertThat(orderDetails.get("250001", OrderService.OrderDetailDto.class).getItems())
+                .extracting(OrderService.OrderItemViewWithImage::getUrl).containsOnlyNulls();
+    }
+
+    @Test
+    void detail_isEvictedByEveryWriteThatChangesIt() {
+        when(orderLiteQuery.findByPublicCode("250001")).thenReturn(Optional.of(head()));
+        Order order = order();
+        when(orderRepo.findById(1L)).thenReturn(Optional.of(order));
+        when(itemRepo.save(any(OrderItem.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        OrderController.UpdateStatusRequest dispatched = new OrderController.UpdateStatusRequest();
+        dispatched.setStatus(OrderStatus.DISPATCHED);
+        PaymentDto payment = new PaymentDto();
+        payment.setStatus(PaymentStatus.CAPTURED);
+        payment.setAmount(new BigDecimal("500.00"));
+        OrderDto patch = new OrderDto();
+        patch.setOrderNotes("ring the bell");
+        OrderItemDto item = new OrderItemDto();
+        item.setProductName("Rose bouquet");
+        item.setQuantity(1);
+
+        List<Runnable> writes = List.of(
+                () -> orderService.updateStatus(1L, dispatched, null, "admin"),
+                () -> orderService.recordPayment(1L, payment),
+                () -> orderService.updateOrder(1L, patch, null, false),
+                () -> orderService.addItem(1L, item));
+
+        for (Runnable write : writes) {
+            orderService.getDetailByPublicCode("250001");
+            assertThat(orderDetails.get("250001", OrderService.OrderDetailDto.class)).isNotNull();
+
+            write.run();
+
+            assertThat(orderDetails.get("250001", OrderService.OrderDetailDto.class)).isNull();
+        }
+        verify(orderLiteQuery, times(4)).findByPublicCode("250001");
+    }
+
+    private static OrderLiteDto head() {
+        OrderLiteDto d = new OrderLiteDto();
+        d.setId(1L);
+        d.setPublicCode("250001");
+        return d;
+    }
+
+    private static Order order() {
+        Order o = new Order();
+        o.setId(1L);
+        o.setPublicCode("250001");
+        o.setStatus(OrderStatus.ORDERED);
+        o.setItemsSubtotal(new BigDecimal("500.00"));
+        o.setGrandTotal(new BigDecimal("500.00"));
+        return o;
+    }
+}
@@ -0,0 +1,102 @@
+package com.blossombuds.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrintThumbnailCacheTest {
+
+    @TempDir Path dir;
+
+    @Test
+    void get_downscalesOnce_thenServesFromMemory() throws Exception {
+        PrintThumbnailCache cache = newCache();
+        AtomicInteger loads = new AtomicInteger();
+        byte[] original = png(1200, 800);
+
+        byte[] first = cache.get("products/abc.jpg", () -> { loads.incrementAndGet(); return original; });
+        byte[] second = cache.get("products/abc.jpg", () -> { loads.incrementAndGet(); return original; });
+
+        assertThat(loads).hasValue(1);
+        assertThat(second).isSameAs(first);
+        BufferedImage thumb = ImageIO.read(new ByteArrayInputStream(first));
+        assertThat(thumb.getWidth()).isEqualTo(200);
+        assertThat(thumb.getHeight()).isEqualTo(133);
+    }
+
+    @Test
+    void get_survivesRestart_viaDiskStore() throws Exception {
+        byte[] original = png(600, 600);
+        newCache().get("products/xyz.jpg", () -> original);
+
+        AtomicInteger loads = new AtomicInteger();
+        byte[] again = newCache().get("products/xyz.jpg", () -> { loads.incrementAndGet(); return original; });
+
+        assertThat(loads).hasValue(0);
+        assertThat(ImageIO.read(new ByteArrayInputStream(again)).getWidth()).isEqualTo(200);
+    }
+
+    @Test
+    void get_withoutKey_bypassesCache() throws Exception {
+        PrintThumbnailCache cache = newCache();
+        byte[] original = png(50, 50);
+
+        assertThat(cache.get(null, () -> original)).isSameAs(original);
+    }
+
+    @Test
+    void pruneDisk_dropsFilesUnreadForTooLong() throws Exception {
+        PrintThumbnailCache cache = newCache();
+        Path old = Files.write(dir.resolve("old-200.jpg"), new byte[10]);
+        Path fresh = Files.write(dir.resolve("fresh-200.jpg"), new byte[10]);
+        Files.setLastModifiedTime(old, FileTime.from(Instant.now().minus(Duration.ofDays(31))));
+
+        cache.pruneDisk();
+
+        assertThat(old).doesNotExist();
+        assertThat(fresh).exists();
+    }
+
+    @Test
+    void pruneDisk_trimsToTheSizeCap_leastRecentlyReadFirst() throws Exception {
+        PrintThumbnailCache cache = newCache();
+        ReflectionTestUtils.setField(cache, "diskMaxMb", 1L);
+        Path older = Files.write(dir.resolve("a-200.jpg"), new byte[600 * 1024]);
+        Path newer = Files.write(dir.resolve("b-200.jpg"), new byte[600 * 1024]);
+        Files.setLastModifiedTime(older, FileTime.from(Instant.now().minus(Duration.ofHours(2))));
+
+        cache.pruneDisk();
+
+        assertThat(older).doesNotExist();
+        assertThat(newer).exists();
+    }
+
+    private PrintThumbnailCache newCache() {
+        PrintThumbnailCache cache = new PrintThumbnailCache();
+        ReflectionTestUtils.setField(cache, "dir", dir.toString());
+        ReflectionTestUtils.setField(cache, "maxPx", 200);
+        ReflectionTestUtils.setField(cache, "quality", 0.85f);
+        ReflectionTestUtils.setField(cache, "memoryEntries", 10);
+        cache.init();
+        return cache;
+    }
+
+    private static byte[] png(int w, int h) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+}
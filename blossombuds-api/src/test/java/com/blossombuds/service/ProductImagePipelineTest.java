@@ -0,0 +1,115 @@
+package com.blossombuds.service;
+
+import com.blossombuds.domain.ProductImageJob;
+import com.blossombuds.repository.ProductImageJobRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductImagePipelineTest {
+
+    @Mock ProductImageJobRepository jobRepo;
+
+    ProductImagePipeline pipeline;
+
+    /** Status of the job at each save, in order. */
+    final List<String> saved = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        pipeline = new ProductImagePipeline(jobRepo);
+        ReflectionTestUtils.setField(pipeline, "threads", 1);
+        pipeline.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.shutdown();
+    }
+
+    @Test
+    void submit_queuesTheJob_thenProcessesItToDone() {
+        AtomicReference<ProductImageJob> row = stubJobTable();
+
+        ProductImageJob queued = pipeline.submit(3L, null, () -> 42L);
+
+        assertThat(queued.getId()).isEqualTo(5L);
+        verify(jobRepo, timeout(2000).times(3)).save(any(ProductImageJob.class));
+        ProductImageJob job = row.get();
+        assertThat(saved).containsExactly("QUEUED", "PROCESSING", "DONE");
+        assertThat(job.getImageId()).isEqualTo(42L);
+        assertThat(job.getStartedAt()).isNotNull();
+        assertThat(job.getFinishedAt()).isNotNull();
+        assertThat(job.getErrorMessage()).isNull();
+    }
+
+    @Test
+    void submit_recordsFailure_withTheWorkError() {
+        AtomicReference<ProductImageJob> row = stubJobTable();
+
+        pipeline.submit(3L, 7L, () -> { throw new IOException("R2 upload failed"); });
+
+        verify(jobRepo, timeout(2000).times(3)).save(any(ProductImageJob.class));
+        ProductImageJob job = row.get();
+        assertThat(saved).containsExactly("QUEUED", "PROCESSING", "FAILED");
+        assertThat(job.getErrorMessage()).isEqualTo("R2 upload failed");
+        assertThat(job.getImageId()).isEqualTo(7L);
+    }
+
+    @Test
+    void run_returnsTheResult_andRethrowsIoErrors() throws Exception {
+        assertThat(pipeline.run(() -> "ok")).isEqualTo("ok");
+        assertThatThrownBy(() -> pipeline.run(() -> { throw new IOException("bad image"); }))
+                .isInstanceOf(IOException.class)
+                .hasMessage("bad image");
+    }
+
+    @Test
+    void failInterruptedJobs_onlyFailsJobsOlderThanTheStaleThreshold() {
+        ReflectionTestUtils.setField(pipeline, "staleJobMs", 600_000L);
+        when(jobRepo.failStaleJobs(anyString(), any(), any())).thenReturn(2);
+
+        pipeline.failInterruptedJobs();
+
+        ArgumentCaptor<OffsetDateTime> staleBefore = ArgumentCaptor.forClass(OffsetDateTime.class);
+        ArgumentCaptor<OffsetDateTime> now = ArgumentCaptor.forClass(OffsetDateTime.class);
+        verify(jobRepo).failStaleJobs(anyString(), staleBefore.capture(), now.capture());
+        assertThat(Duration.between(staleBefore.getValue(), now.getValue())).isEqualTo(Duration.ofMinutes(10));
+    }
+
+    /** In-memory job row: the first save assigns id 5, later lookups return the same instance. */
+    private AtomicReference<ProductImageJob> stubJobTable() {
+        AtomicReference<ProductImageJob> row = new AtomicReference<>();
+        when(jobRepo.save(any(ProductImageJob.class))).thenAnswer(inv -> {
+            ProductImageJob j = inv.getArgument(0);
+            if (j.getId() == null) j.setId(5L);
+            row.set(j);
+            saved.add(j.getStatus());
+            return j;
+        });
+        when(jobRepo.findById(5L)).thenAnswer(inv -> Optional.ofNullable(row.get()));
+        return row;
+    }
+}
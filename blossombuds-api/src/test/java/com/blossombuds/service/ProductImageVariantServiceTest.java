@@ -0,0 +1,123 @@
+package com.blossombuds.service;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.DeleteObjectRequest;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.blossombuds.domain.ProductImageVariant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductImageVariantServiceTest {
+
+    @Mock AmazonS3 r2Client;
+    @Mock SignedUrlService signedUrls;
+    @Mock ImageMagickService imageMagick;
+
+    @InjectMocks ProductImageVariantService service;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "bucketName", "bucket");
+    }
+
+    @Test
+    void generate_uploadsNarrowerWidthsInBothFormats_andKeepsFullJpegKey() throws Exception {
+        when(imageMagick.toWebp(any(), anyInt())).thenReturn(new byte[]{1, 2, 3});
+
+        List<ProductImageVariant> variants = service.generate("products/abc.jpg", image(1800, 1200));
+
+        assertThat(variants).extracting(ProductImageVariant::getKey).containsExactly(
+                "products/abc-w320.jpg", "products/abc-w640.jpg", "products/abc-w1080.jpg", "products/abc.jpg",
+                "products/abc-w320.webp", "products/abc-w640.webp", "products/abc-w1080.webp", "products/abc.webp");
+        assertThat(variants).extracting(ProductImageVariant::getWidth)
+                .containsExactly(320, 640, 1080, 1800, 320, 640, 1080, 1800);
+
+        ArgumentCaptor<PutObjectRequest> puts = ArgumentCaptor.forClass(PutObjectRequest.class);
+        verify(r2Client, times(7)).putObject(puts.capture()); // the full-size JPEG was uploaded by the caller
+        assertThat(puts.getAllValues()).extracting(PutObjectRequest::getKey).doesNotContain("products/abc.jpg");
+    }
+
+    @Test
+    void generate_skipsWidthsNotSmallerThanTheImage() throws Exception {
+        when(imageMagick.toWebp(any(), anyInt())).thenReturn(new byte[]{1});
+
+        List<ProductImageVariant> variants = service.generate("products/small.jpg", image(640, 480));
+
+        assertThat(variants).extracting(v -> v.getFormat() + ":" + v.getWidth())
+                .containsExactly("jpg:320", "jpg:640", "webp:320", "webp:640");
+    }
+
+    @Test
+    void generate_dropsAllWebp_whenOneEncodeFails() throws Exception {
+        when(imageMagick.toWebp(any(), anyInt()))
+                .thenReturn(new byte[]{1})
+                .thenThrow(new IOException("no webp delegate"));
+
+        List<ProductImageVariant> variants = service.generate("products/abc.jpg", image(1800, 1200));
+
+        assertThat(variants).extracting(ProductImageVariant::getFormat).containsOnly("jpg");
+        ArgumentCaptor<DeleteObjectRequest> deletes = ArgumentCaptor.forClass(DeleteObjectRequest.class);
+        verify(r2Client).deleteObject(deletes.capture());
+        assertThat(deletes.getValue().getKey()).isEqualTo("products/abc-w320.webp");
+    }
+
+    @Test
+    void srcset_signsEachWidthOfTheFormat_inAscendingOrder() {
+        when(signedUrls.signGet(anyString())).thenAnswer(inv -> "https://cdn/" + inv.getArgument(0));
+        List<ProductImageVariant> variants = List.of(
+                new ProductImageVariant(1800, "jpg", "p/a.jpg"),
+                new ProductImageVariant(320, "jpg", "p/a-w320.jpg"),
+                new ProductImageVariant(320, "webp", "p/a-w320.webp"));
+
+        assertThat(service.srcset(variants, ProductImageVariantService.JPG))
+                .isEqualTo("https://cdn/p/a-w320.jpg 320w, https://cdn/p/a.jpg 1800w");
+        assertThat(service.srcset(variants, ProductImageVariantService.WEBP))
+                .isEqualTo("https://cdn/p/a-w320.webp 320w");
+    }
+
+    @Test
+    void srcset_fromBulkSignedUrls_doesNotSignAgain_andSkipsMissingKeys() {
+        List<ProductImageVariant> variants = List.of(
+                new ProductImageVariant(1800, "jpg", "p/a.jpg"),
+                new ProductImageVariant(640, "jpg", "p/a-w640.jpg"),
+                new ProductImageVariant(320, "jpg", "p/a-w320.jpg"));
+        Map<String, String> signed = Map.of("p/a.jpg", "https://cdn/a", "p/a-w320.jpg", "https://cdn/a320");
+
+        assertThat(service.srcset(variants, ProductImageVariantService.JPG, signed))
+                .isEqualTo("https://cdn/a320 320w, https://cdn/a 1800w");
+        verify(signedUrls, never()).signGet(anyString());
+    }
+
+    @Test
+    void srcset_isNull_forImagesWithoutVariants() {
+        assertThat(service.srcset(null, ProductImageVariantService.JPG)).isNull();
+        assertThat(service.srcset(List.of(new ProductImageVariant(1800, "jpg", "p/a.jpg")), ProductImageVariantService.WEBP))
+                .isNull();
+        verify(signedUrls, never()).signGet(anyString());
+    }
+
+    private static BufferedImage image(int w, int h) {
+        return new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+    }
+}
@@ -1,5 +1,6 @@
 package com.blossombuds.service;
 
+import com.blossombuds.cache.OrderDetailCache;
 import com.blossombuds.domain.Coupon;
 import com.blossombuds.domain.CouponRedemption;
 import com.blossombuds.domain.Order;
@@ -28,12 +29,13 @@ class PromotionServiceTest {
     @Mock private CouponRepository couponRepo;
     @Mock private CouponRedemptionRepository redemptionRepo;
     @Mock private OrderRepository orderRepo;
+    @Mock private OrderDetailCache orderDetails;
 
     private PromotionService service;
 
     @BeforeEach
     void setUp() {
-        service = new PromotionService(couponRepo, redemptionRepo, orderRepo);
+        service = new PromotionService(couponRepo, redemptionRepo, orderRepo, orderDetails);
     }
 
     // ──────────────────────────────────────────────────────────────────────────
@@ -168,6 +170,7 @@ class PromotionServiceTest {
                 percentCoupon(11L, "DISC10", new BigDecimal("10"), null, null)));
 
         Order order = order(1L, "500.00", "50.00", "550.00");
+        order.setPublicCode("250001");
         when(orderRepo.findById(1L)).thenReturn(Optional.of(order));
         when(redemptionRepo.save(any())).thenAnswer(inv -> inv.getArgument(0));
 
@@ -179,6 +182,7 @@ class PromotionServiceTest {
         assertThat(redemption.getAmountApplied()).isEqualByComparingTo("55.00");
         assertThat(redemption.getActive()).isTrue();
         verify(orderRepo).save(order);
+        verify(orderDetails).evictAfterCommit("250001");
     }
 
     @Test
@@ -218,6 +222,21 @@ class PromotionServiceTest {
         assertThat(r.getActive()).isFalse();
     }
 
+    @Test
+    void revokeRedemption_evictsTheCachedOrderDetail() {
+        Order order = order(3L, "100.00", "0.00", "90.00");
+        order.setPublicCode("250003");
+        CouponRedemption r = new CouponRedemption();
+        r.setId(2L);
+        r.setActive(true);
+        r.setOrder(order);
+        when(redemptionRepo.findById(2L)).thenReturn(Optional.of(r));
+
+        service.revokeRedemption(2L, "ADMIN");
+
+        verify(orderDetails).evictAfterCommit("250003");
+    }
+
     @Test
     void revokeRedemption_throwsOnNullId() {
         assertThatThrownBy(() -> service.revokeRedemption(null, "ADMIN"))
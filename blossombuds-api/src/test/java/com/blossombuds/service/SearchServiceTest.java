@@ -0,0 +1,90 @@
+package com.blossombuds.service;
+
+import com.blossombuds.repository.CategoryRepository;
+import com.blossombuds.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SearchServiceTest {
+
+    @Mock private ProductRepository productRepo;
+    @Mock private CategoryRepository categoryRepo;
+
+    private SearchService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new SearchService(productRepo, categoryRepo);
+    }
+
+    @Test
+    void toPrefixTsQuery_joinsLowercasedPrefixTerms() {
+        assertThat(SearchService.toPrefixTsQuery("  Red  ROS ")).isEqualTo("red:* & ros:*");
+    }
+
+    @Test
+    void toPrefixTsQuery_stripsTsqueryOperatorsAndDuplicates() {
+        assertThat(SearchService.toPrefixTsQuery("rose & !(rose | lily):*")).isEqualTo("rose:* & lily:*");
+    }
+
+    @Test
+    void toPrefixTsQuery_keepsIndicWordsWhole_acrossVowelSigns() {
+        assertThat(SearchService.toPrefixTsQuery("ரோஜா மாலை")).isEqualTo("ரோஜா:* & மாலை:*");
+        assertThat(SearchService.toPrefixTsQuery("गुलाब")).isEqualTo("गुलाब:*");
+    }
+
+    @Test
+    void toPrefixTsQuery_noTokens_returnsNull() {
+        assertThat(SearchService.toPrefixTsQuery(null)).isNull();
+        assertThat(SearchService.toPrefixTsQuery("  &|!  ")).isNull();
+    }
+
+    @Test
+    void searchProducts_withTerm_usesFullTextIndex() {
+        when(productRepo.searchProductsFullText(eq("rose:*"), isNull(), any(), any(), any(Pageable.class)))
+                .thenReturn(Page.empty());
+
+        service.searchProducts("rose", null, new BigDecimal("500"), new BigDecimal("100"), 0, 20);
+
+        verify(productRepo).searchProductsFullText(eq("rose:*"), isNull(),
+                eq(new BigDecimal("100")), eq(new BigDecimal("500")), any(Pageable.class));
+        verify(productRepo, never()).searchProducts(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void searchProducts_blankTerm_listsByFilters() {
+        when(productRepo.searchProducts(eq(""), eq(7L), isNull(), isNull(), any(Pageable.class)))
+                .thenReturn(Page.empty());
+
+        service.searchProducts("  ", 7L, null, null, 0, 20);
+
+        verify(productRepo, never()).searchProductsFullText(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void productFacets_mapsRows() {
+        when(productRepo.searchCategoryFacets(eq("rose:*"), isNull(), isNull(), anyInt()))
+                .thenReturn(List.<Object[]>of(new Object[]{3L, "Bouquets", 12L}));
+
+        var facets = service.productFacets("rose", null, null);
+
+        assertThat(facets).singleElement().satisfies(f -> {
+            assertThat(f.categoryId()).isEqualTo(3L);
+            assertThat(f.name()).isEqualTo("Bouquets");
+            assertThat(f.count()).isEqualTo(12L);
+        });
+    }
+}
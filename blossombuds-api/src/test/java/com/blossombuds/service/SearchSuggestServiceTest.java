@@ -0,0 +1,186 @@
+package com.blossombuds.service;
+
+import com.blossombuds.domain.Category;
+import com.blossombuds.domain.Product;
+import com.blossombuds.domain.ProductOption;
+import com.blossombuds.domain.ProductOptionValue;
+import com.blossombuds.dto.SearchSuggestionDto;
+import com.blossombuds.repository.CategoryRepository;
+import com.blossombuds.repository.ProductOptionValueRepository;
+import com.blossombuds.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SearchSuggestServiceTest {
+
+    @Mock private ProductRepository productRepo;
+    @Mock private CategoryRepository categoryRepo;
+    @Mock private ProductOptionValueRepository valueRepo;
+
+    private SearchSuggestService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new SearchSuggestService(productRepo, categoryRepo, valueRepo);
+        ReflectionTestUtils.setField(service, "defaultLimit", 8);
+
+        when(categoryRepo.findAll()).thenReturn(List.of(category(1L, "roses", "Roses")));
+        when(productRepo.findAll()).thenReturn(List.of(
+                product(10L, "red-rose-bouquet", "Red Rose Bouquet", true),
+                product(11L, "hidden-rose", "Hidden Rose", false),
+                product(12L, "lily-basket", "Lily Basket", true)));
+        when(valueRepo.findActiveValueLabels()).thenReturn(List.of(
+                new Object[]{100L, "Red"}, new Object[]{101L, "Red"}, new Object[]{102L, "Large"}));
+        service.rebuild();
+    }
+
+    @Test
+    void suggest_matchesWordPrefixes_categoriesFirst() {
+        List<SearchSuggestionDto> out = service.suggest("ros", null);
+
+        assertThat(out).extracting(SearchSuggestionDto::label).containsExactly("Roses", "Red Rose Bouquet");
+        assertThat(out.get(0).type()).isEqualTo("category");
+    }
+
+    @Test
+    void suggest_multiToken_requiresEveryToken_andDedupesOptionLabels() {
+        assertThat(service.suggest("red ro", null)).extracting(SearchSuggestionDto::label)
+                .containsExactly("Red Rose Bouquet");
+        assertThat(service.suggest("re", null)).extracting(SearchSuggestionDto::label)
+                .containsExactly("Red Rose Bouquet", "Red");
+    }
+
+    @Test
+    void patches_applyImmediatelyOutsideTransaction() {
+        service.putProductAfterCommit(product(13L, "rosemary-wreath", "Rosemary Wreath", true));
+        service.removeCategoryAfterCommit(1L);
+
+        assertThat(service.suggest("ros", 8)).extracting(SearchSuggestionDto::label)
+                .containsExactly("Rosemary Wreath", "Red Rose Bouquet");
+
+        service.putProductAfterCommit(product(10L, "red-rose-bouquet", "Red Rose Bouquet", false));
+        assertThat(service.suggest("ros", 8)).extracting(SearchSuggestionDto::label)
+                .containsExactly("Rosemary Wreath");
+    }
+
+    @Test
+    void rebuild_keepsPatchesCommittedWhileTheSnapshotWasRead() {
+        List<Product> snapshot = List.of(
+                product(10L, "red-rose-bouquet", "Red Rose Bouquet", true),
+                product(12L, "lily-basket", "Lily Basket", true));
+        when(productRepo.findAll()).thenAnswer(inv -> {
+            // committed on another thread after the rebuild started, so missing from its snapshot
+            service.putProductAfterCommit(product(14L, "rose-garland", "Rose Garland", true));
+            service.removeProductAfterCommit(10L);
+            return snapshot;
+        });
+
+        service.rebuild();
+
+        assertThat(service.suggest("ros", 8)).extracting(SearchSuggestionDto::label)
+                .containsExactly("Roses", "Rose Garland");
+    }
+
+    @Test
+    void suggest_blankOrUnknown_returnsEmpty() {
+        assertThat(service.suggest("  ", null)).isEmpty();
+        assertThat(service.suggest("zzz", null)).isEmpty();
+    }
+
+    @Test
+    void tamilProductName_isSuggestedFromAPrefixEndingInAVowelSign() {
+        service.putProductAfterCommit(product(16L, "roja-malai", "ரோஜா மாலை", true));
+
+        assertThat(service.suggest("ரோ", 8)).extracting(SearchSuggestionDto::label).containsExactly("ரோஜா மாலை");
+        assertThat(service.suggest("மாலை", 8)).extracting(SearchSuggestionDto::label).containsExactly("ரோஜா மாலை");
+    }
+
+    @Test
+    void deactivatingAProduct_dropsItsOptionLabels_andReactivatingRestoresThem() {
+        when(valueRepo.findActiveValueLabelsByProductId(10L)).thenReturn(List.<Object[]>of(new Object[]{102L, "Large"}));
+        Product bouquet = product(10L, "red-rose-bouquet", "Red Rose Bouquet", true);
+
+        bouquet.setActive(false);
+        service.putProductAfterCommit(bouquet);
+        assertThat(service.suggest("lar", 8)).isEmpty();
+
+        bouquet.setActive(true);
+        service.putProductAfterCommit(bouquet);
+        assertThat(service.suggest("lar", 8)).extracting(SearchSuggestionDto::label).containsExactly("Large");
+
+        service.removeProductAfterCommit(10L);
+        assertThat(service.suggest("lar", 8)).isEmpty();
+    }
+
+    @Test
+    void optionValue_underAnInactiveOptionOrProduct_isNotIndexed() {
+        ProductOptionValue underInactiveOption = value(200L, "Pastel", option(20L, false, product(13L, "a", "A", true)));
+        Product inactive = product(14L, "b", "B", true);
+        inactive.setActive(false);
+        ProductOptionValue underInactiveProduct = value(201L, "Pastel Pink", option(21L, true, inactive));
+
+        service.putOptionValueAfterCommit(underInactiveOption);
+        service.putOptionValueAfterCommit(underInactiveProduct);
+        assertThat(service.suggest("pas", 8)).isEmpty();
+
+        service.putOptionValueAfterCommit(value(202L, "Pastel", option(22L, true, product(15L, "c", "C", true))));
+        assertThat(service.suggest("pas", 8)).extracting(SearchSuggestionDto::label).containsExactly("Pastel");
+    }
+
+    @Test
+    void deactivatingAnOption_dropsItsValueLabels() {
+        ProductOption sizes = option(30L, true, product(12L, "lily-basket", "Lily Basket", true));
+        when(valueRepo.findByOption_IdOrderBySortOrderAscIdAsc(30L)).thenReturn(List.of(value(102L, "Large", sizes)));
+
+        sizes.setActive(false);
+        service.putOptionAfterCommit(sizes);
+
+        assertThat(service.suggest("lar", 8)).isEmpty();
+    }
+
+    private static ProductOption option(Long id, boolean active, Product product) {
+        ProductOption o = new ProductOption();
+        o.setId(id);
+        o.setActive(active);
+        o.setProduct(product);
+        return o;
+    }
+
+    private static ProductOptionValue value(Long id, String label, ProductOption option) {
+        ProductOptionValue v = new ProductOptionValue();
+        v.setId(id);
+        v.setValueLabel(label);
+        v.setActive(true);
+        v.setOption(option);
+        return v;
+    }
+
+    private static Category category(Long id, String slug, String name) {
+        Category c = new Category();
+        c.setId(id);
+        c.setSlug(slug);
+        c.setName(name);
+        c.setActive(true);
+        return c;
+    }
+
+    private static Product product(Long id, String slug, String name, boolean visible) {
+        Product p = new Product();
+        p.setId(id);
+        p.setSlug(slug);
+        p.setName(name);
+        p.setActive(true);
+        p.setVisible(visible);
+        return p;
+    }
+}
@@ -0,0 +1,187 @@
+package com.blossombuds.service;
+
+import com.blossombuds.domain.WhatsAppCampaignRecipient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WhatsAppCampaignDispatcherTest {
+
+    @Mock private CampaignRecipientStateWriter stateWriter;
+
+    private WhatsAppCampaignDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new WhatsAppCampaignDispatcher(stateWriter);
+        ReflectionTestUtils.setField(dispatcher, "ratePerSecond", 1000d);
+        ReflectionTestUtils.setField(dispatcher, "backoffMs", 1L);
+        dispatcher.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void dispatch_sendsAll_andRecordsFinalStatuses() {
+        claimAll();
+        List<WhatsAppCampaignRecipient> recipients = recipients(50);
+
+        WhatsAppCampaignDispatcher.Outcome out = dispatcher.dispatch(1L, recipients,
+                r -> r.getId() % 10 == 0
+                        ? WhatsAppCloudClient.SendResult.failed("bad number")
+                        : WhatsAppCloudClient.SendResult.success("wamid." + r.getId(), false));
+
+        assertThat(out.sent()).isEqualTo(45);
+        assertThat(out.failed()).isEqualTo(5);
+        assertThat(recipients).allSatisfy(r -> assertThat(r.getStatus()).isIn("SENT", "FAILED"));
+        // claims go out in chunks, results are buffered and flushed at the end
+        verify(stateWriter).claim(eq(CampaignRecipientStateWriter.Channel.WHATSAPP), anyCollection());
+        verify(stateWriter, times(50)).recordResult(eq(CampaignRecipientStateWriter.Channel.WHATSAPP), any());
+        verify(stateWriter).flush(CampaignRecipientStateWriter.Channel.WHATSAPP);
+    }
+
+    @Test
+    void dispatch_retriesThrottledSends() {
+        claimAll();
+        AtomicInteger calls = new AtomicInteger();
+
+        WhatsAppCampaignDispatcher.Outcome out = dispatcher.dispatch(1L, recipients(1),
+                r -> calls.incrementAndGet() < 3
+                        ? WhatsAppCloudClient.SendResult.rateLimited("(#131056) pair rate limit")
+                        : WhatsAppCloudClient.SendResult.success("wamid.ok", false));
+
+        assertThat(calls).hasValue(3);
+        assertThat(out.sent()).isEqualTo(1);
+    }
+
+    @Test
+    void dispatch_skipsRowsClaimedByAnotherRun() {
+        List<WhatsAppCampaignRecipient> recipients = recipients(3);
+        when(stateWriter.claim(eq(CampaignRecipientStateWriter.Channel.WHATSAPP), anyCollection()))
+                .thenReturn(List.of(1L, 3L));
+        AtomicInteger calls = new AtomicInteger();
+
+        WhatsAppCampaignDispatcher.Outcome out = dispatcher.dispatch(1L, recipients, r -> {
+            calls.incrementAndGet();
+            return WhatsAppCloudClient.SendResult.success("wamid." + r.getId(), false);
+        });
+
+        assertThat(calls).hasValue(2);
+        assertThat(out.sent()).isEqualTo(2);
+        assertThat(recipients.get(1).getStatus()).isNotEqualTo("SENT");
+    }
+
+    @Test
+    void dispatch_marksFailed_whenStillThrottledAfterMaxAttempts() {
+        claimAll();
+        List<WhatsAppCampaignRecipient> recipients = recipients(1);
+
+        WhatsAppCampaignDispatcher.Outcome out = dispatcher.dispatch(1L, recipients,
+                r -> WhatsAppCloudClient.SendResult.rateLimited("429 Too Many Requests"));
+
+        assertThat(out.failed()).isEqualTo(1);
+        assertThat(recipients.get(0).getStatus()).isEqualTo("FAILED");
+    }
+
+    @Test
+    void dispatch_recordsFailed_whenTheSendThrows() {
+        claimAll();
+        List<WhatsAppCampaignRecipient> recipients = recipients(2);
+
+        WhatsAppCampaignDispatcher.Outcome out = dispatcher.dispatch(1L, recipients, r -> {
+            if (r.getId() == 2L) throw new IllegalStateException("template missing");
+            return WhatsAppCloudClient.SendResult.success("wamid.1", false);
+        });
+
+        assertThat(out.sent()).isEqualTo(1);
+        assertThat(out.failed()).isEqualTo(1);
+        assertThat(recipients.get(1).getStatus()).isEqualTo("FAILED");
+        assertThat(recipients.get(1).getErrorMessage()).contains("template missing");
+        verify(stateWriter).recordResult(eq(CampaignRecipientStateWriter.Channel.WHATSAPP),
+                argThat(r -> r.id() == 2L && !r.success()));
+    }
+
+    @Test
+    void interruptedDispatch_releasesUnsentRows_andWaitsForInFlightSends() throws Exception {
+        dispatcher.shutdown();
+        ReflectionTestUtils.setField(dispatcher, "concurrency", 1);
+        dispatcher.init();
+        claimAll();
+        List<WhatsAppCampaignRecipient> recipients = recipients(3);
+        CountDownLatch firstSendStarted = new CountDownLatch(1);
+        CountDownLatch finishFirstSend = new CountDownLatch(1);
+        AtomicReference<WhatsAppCampaignDispatcher.Outcome> outcome = new AtomicReference<>();
+        AtomicBoolean stillInterrupted = new AtomicBoolean();
+
+        Thread caller = new Thread(() -> {
+            outcome.set(dispatcher.dispatch(1L, recipients, r -> {
+                firstSendStarted.countDown();
+                try {
+                    finishFirstSend.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return WhatsAppCloudClient.SendResult.success("wamid." + r.getId(), false);
+            }));
+            stillInterrupted.set(Thread.currentThread().isInterrupted());
+        });
+        caller.start();
+        assertThat(firstSendStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        caller.interrupt(); // the caller is blocked submitting recipient 2 behind the single slot
+        verify(stateWriter, timeout(5000)).release(CampaignRecipientStateWriter.Channel.WHATSAPP, Set.of(2L, 3L));
+        caller.join(200);
+        assertThat(caller.isAlive()).as("dispatch returns only after the in-flight send").isTrue();
+
+        finishFirstSend.countDown();
+        caller.join(5000);
+        assertThat(caller.isAlive()).isFalse();
+        assertThat(outcome.get().sent()).isEqualTo(1);
+        assertThat(stillInterrupted).isTrue();
+        InOrder order = inOrder(stateWriter);
+        order.verify(stateWriter).recordResult(eq(CampaignRecipientStateWriter.Channel.WHATSAPP),
+                argThat(r -> r.id() == 1L && r.success()));
+        order.verify(stateWriter).flush(CampaignRecipientStateWriter.Channel.WHATSAPP);
+        verify(stateWriter, never()).recordResult(any(), argThat(r -> r.id() != 1L));
+    }
+
+    private void claimAll() {
+        when(stateWriter.claim(eq(CampaignRecipientStateWriter.Channel.WHATSAPP), anyCollection()))
+                .thenAnswer(inv -> new ArrayList<>(inv.<Collection<Long>>getArgument(1)));
+    }
+
+    private static List<WhatsAppCampaignRecipient> recipients(int n) {
+        List<WhatsAppCampaignRecipient> out = new ArrayList<>();
+        for (long i = 1; i <= n; i++) {
+            WhatsAppCampaignRecipient r = new WhatsAppCampaignRecipient();
+            r.setId(i);
+            r.setCampaignId(1L);
+            r.setPhone("9198765" + String.format("%05d", i));
+            out.add(r);
+        }
+        return out;
+    }
+}
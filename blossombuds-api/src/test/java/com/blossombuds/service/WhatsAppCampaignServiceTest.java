@@ -2,6 +2,7 @@ package com.blossombuds.service;
 
 import com.blossombuds.domain.*;
 import com.blossombuds.repository.*;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -9,6 +10,8 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -29,15 +32,24 @@ class WhatsAppCampaignServiceTest {
     @Mock private CustomerRepository customerRepository;
     @Mock private WhatsAppCloudClient whatsAppCloudClient;
     @Mock private EmailCampaignService emailCampaignService;
+    @Mock private CampaignRecipientStateWriter stateWriter;
 
+    private WhatsAppCampaignDispatcher dispatcher;
     private WhatsAppCampaignService service;
 
     @BeforeEach
     void setUp() {
+        dispatcher = new WhatsAppCampaignDispatcher(stateWriter);
+        dispatcher.init();
         service = new WhatsAppCampaignService(
                 templateRepository, campaignRepository, recipientRepository,
                 preferenceRepository, whatsAppContactRepository,
-                customerRepository, whatsAppCloudClient, emailCampaignService);
+                customerRepository, whatsAppCloudClient, emailCampaignService, dispatcher);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
     }
 
     // ──────────────────────────────────────────────────────────────────────────
@@ -245,7 +257,8 @@ class WhatsAppCampaignServiceTest {
                 "name=Priya;link=;orderCode=;trackingNumber=;trackingLink=;paymentLink=;offerText=20% off;imageUrl=");
         when(recipientRepository.findByCampaignIdAndStatusAndActiveTrueOrderByCreatedAtAsc(10L, "PENDING"))
                 .thenReturn(List.of(r));
-        when(recipientRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(stateWriter.claim(eq(CampaignRecipientStateWriter.Channel.WHATSAPP), anyCollection()))
+                .thenAnswer(inv -> new ArrayList<>(inv.<Collection<Long>>getArgument(1)));
         when(whatsAppCloudClient.sendTemplateMessage(anyString(), anyString(), anyString(), anyList(), nullable(String.class)))
                 .thenReturn(WhatsAppCloudClient.SendResult.success("wamid.ok", false));
         when(campaignRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
@@ -267,7 +280,8 @@ class WhatsAppCampaignServiceTest {
                 "name=Test;link=;orderCode=;trackingNumber=;trackingLink=;paymentLink=;offerText=;imageUrl=");
         when(recipientRepository.findByCampaignIdAndStatusAndActiveTrueOrderByCreatedAtAsc(11L, "PENDING"))
                 .thenReturn(List.of(r));
-        when(recipientRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(stateWriter.claim(eq(CampaignRecipientStateWriter.Channel.WHATSAPP), anyCollection()))
+                .thenAnswer(inv -> new ArrayList<>(inv.<Collection<Long>>getArgument(1)));
         when(whatsAppCloudClient.sendTemplateMessage(anyString(), anyString(), anyString(), anyList(), nullable(String.class)))
                 .thenReturn(WhatsAppCloudClient.SendResult.failed("Meta error"));
         when(campaignRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
@@ -302,7 +316,8 @@ class WhatsAppCampaignServiceTest {
                 .thenReturn(List.of(r));
         when(recipientRepository.findByCampaignIdAndActiveTrueOrderByCreatedAtAsc(12L))
                 .thenReturn(List.of(r));
-        when(recipientRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(stateWriter.claim(eq(CampaignRecipientStateWriter.Channel.WHATSAPP), anyCollection()))
+                .thenAnswer(inv -> new ArrayList<>(inv.<Collection<Long>>getArgument(1)));
         when(whatsAppCloudClient.sendTemplateMessage(anyString(), anyString(), anyString(), anyList(), nullable(String.class)))
                 .thenReturn(WhatsAppCloudClient.SendResult.success("wamid.ok", false));
 
@@ -336,7 +351,8 @@ class WhatsAppCampaignServiceTest {
                 "name=Priya;link=;orderCode=;trackingNumber=;trackingLink=;paymentLink=;offerText=;imageUrl=");
         when(recipientRepository.findByCampaignIdAndStatusAndActiveTrueOrderByCreatedAtAsc(13L, "PENDING"))
                 .thenReturn(List.of(r));
-        when(recipientRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(stateWriter.claim(eq(CampaignRecipientStateWriter.Channel.WHATSAPP), anyCollection()))
+                .thenAnswer(inv -> new ArrayList<>(inv.<Collection<Long>>getArgument(1)));
         when(whatsAppCloudClient.sendTemplateMessage(anyString(), anyString(), anyString(), anyList(), nullable(String.class)))
                 .thenReturn(WhatsAppCloudClient.SendResult.success("wamid.ok", false));
         when(campaignRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
@@ -10,6 +10,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -112,17 +113,14 @@ class WhatsAppWebhookServiceTest {
         when(messageEventRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
 
         WhatsAppCampaignRecipient r = recipient(1L, "wamid.123");
-        when(recipientRepository.findByProviderMessageId("wamid.123")).thenReturn(Optional.of(r));
-        when(recipientRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
-        when(campaignRepository.findByIdAndActiveTrue(anyLong())).thenReturn(Optional.empty());
+        when(recipientRepository.findByProviderMessageIdIn(anyCollection())).thenReturn(List.of(r));
 
         service.processWebhookPayload(payload);
 
-        ArgumentCaptor<WhatsAppCampaignRecipient> cap =
-                ArgumentCaptor.forClass(WhatsAppCampaignRecipient.class);
-        verify(recipientRepository).save(cap.capture());
-        assertThat(cap.getValue().getStatus()).isEqualTo("DELIVERED");
-        assertThat(cap.getValue().getDeliveredAt()).isNotNull();
+        verify(recipientRepository).saveAll(List.of(r));
+        assertThat(r.getStatus()).isEqualTo("DELIVERED");
+        assertThat(r.getDeliveredAt()).isNotNull();
+        verify(campaignRepository).addCounts(1L, 0, 0, 1, 0);
     }
 
     @Test
@@ -131,16 +129,13 @@ class WhatsAppWebhookServiceTest {
         when(messageEventRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
 
         WhatsAppCampaignRecipient r = recipient(2L, "wamid.456");
-        when(recipientRepository.findByProviderMessageId("wamid.456")).thenReturn(Optional.of(r));
-        when(recipientRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
-        when(campaignRepository.findByIdAndActiveTrue(anyLong())).thenReturn(Optional.empty());
+        when(recipientRepository.findByProviderMessageIdIn(anyCollection())).thenReturn(List.of(r));
 
         service.processWebhookPayload(payload);
 
-        ArgumentCaptor<WhatsAppCampaignRecipient> cap =
-                ArgumentCaptor.forClass(WhatsAppCampaignRecipient.class);
-        verify(recipientRepository).save(cap.capture());
-        assertThat(cap.getValue().getStatus()).isEqualTo("READ");
+        verify(recipientRepository).saveAll(List.of(r));
+        assertThat(r.getStatus()).isEqualTo("READ");
+        verify(campaignRepository).addCounts(1L, 0, 0, 0, 1);
     }
 
     @Test
@@ -150,17 +145,38 @@ class WhatsAppWebhookServiceTest {
         when(messageEventRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
 
         WhatsAppCampaignRecipient r = recipient(3L, "wamid.789");
-        when(recipientRepository.findByProviderMessageId("wamid.789")).thenReturn(Optional.of(r));
-        when(recipientRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
-        when(campaignRepository.findByIdAndActiveTrue(anyLong())).thenReturn(Optional.empty());
+        when(recipientRepository.findByProviderMessageIdIn(anyCollection())).thenReturn(List.of(r));
 
         service.processWebhookPayload(payload);
 
-        ArgumentCaptor<WhatsAppCampaignRecipient> cap =
-                ArgumentCaptor.forClass(WhatsAppCampaignRecipient.class);
-        verify(recipientRepository).save(cap.capture());
-        assertThat(cap.getValue().getStatus()).isEqualTo("FAILED");
-        assertThat(cap.getValue().getErrorMessage()).isEqualTo("Message undeliverable");
+        verify(recipientRepository).saveAll(List.of(r));
+        assertThat(r.getStatus()).isEqualTo("FAILED");
+        assertThat(r.getErrorMessage()).isEqualTo("Message undeliverable");
+        verify(campaignRepository).addCounts(1L, -1, 1, 0, 0);
+    }
+
+    @Test
+    void processWebhookBatch_coalescesStatusesPerMessage_andNeverMovesBackwards() {
+        when(messageEventRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        WhatsAppCampaignRecipient a = recipient(1L, "wamid.a");
+        WhatsAppCampaignRecipient b = recipient(2L, "wamid.b");
+        b.setStatus("READ");
+        when(recipientRepository.findByProviderMessageIdIn(anyCollection()))
+                .thenReturn(List.of(a, b));
+
+        // "read" for a arrives before its "delivered"; b's late "delivered" must not undo its READ
+        service.processWebhookBatch(List.of(
+                statusPayload("wamid.a", "read", "919999999999"),
+                statusPayload("wamid.a", "delivered", "919999999999"),
+                statusPayload("wamid.b", "delivered", "919999999998")));
+
+        verify(recipientRepository, times(1)).findByProviderMessageIdIn(anyCollection());
+        verify(recipientRepository).saveAll(List.of(a));
+        assertThat(a.getStatus()).isEqualTo("READ");
+        assertThat(b.getStatus()).isEqualTo("READ");
+        verify(campaignRepository).addCounts(1L, 0, 0, 0, 1);
+        verify(recipientRepository, never()).countByCampaignIdAndStatusAndActiveTrue(anyLong(), anyString());
     }
 
     @Test
@@ -0,0 +1,153 @@
+package com.blossombuds.service.payments;
+
+import com.blossombuds.domain.RazorpayWebhookInbox;
+import com.blossombuds.repository.RazorpayWebhookInboxRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RazorpayWebhookProcessorServiceTest {
+
+    private static final String CAPTURED = """
+            {"event":"payment.captured","payload":{"payment":{"entity":
+              {"id":"pay_1","order_id":"order_1","currency":"INR","amount":125000}}}}""";
+
+    @Mock RazorpayWebhookInboxRepository repo;
+    @Mock CheckoutFinalizeService finalizeService;
+    @Mock JdbcTemplate jdbcTemplate;
+
+    RazorpayWebhookProcessorService processor;
+
+    @BeforeEach
+    void setUp() {
+        processor = new RazorpayWebhookProcessorService(repo, finalizeService, new ObjectMapper(), jdbcTemplate);
+        ReflectionTestUtils.setField(processor, "workers", 2);
+        ReflectionTestUtils.setField(processor, "maxAttempts", 3);
+        ReflectionTestUtils.setField(processor, "retryBaseSeconds", 5L);
+        ReflectionTestUtils.setField(processor, "retryMaxSeconds", 60L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        processor.stop();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void claim_skipsLockedRows_andTakesOverExpiredLeases() {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class)))
+                .thenReturn(List.of(9L, 7L));
+
+        assertThat(processor.claim(4)).containsExactly(7L, 9L);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).query(sql.capture(), any(RowMapper.class), args.capture());
+        assertThat(sql.getValue())
+                .contains("set status = 'PROCESSING', locked_at = now(), attempt_count = attempt_count + 1")
+                .contains("status = 'FAILED' and next_attempt_at <= now()")
+                .contains("status = 'PROCESSING' and locked_at < now() - make_interval(secs => ?)")
+                .contains("for update skip locked");
+        assertThat(args.getValue()).containsExactly(300, 4);
+    }
+
+    @Test
+    void processOne_finalizesCapturedPayment_andMarksDone() {
+        when(repo.findById(7L)).thenReturn(Optional.of(row(7L, 1)));
+
+        processor.processOne(7L);
+
+        verify(finalizeService).finalizeCapturedPayment("order_1", "pay_1", new BigDecimal("1250.00"), "INR", "webhook:test");
+        verify(jdbcTemplate).update(contains("status = 'DONE'"), eq(7L));
+    }
+
+    @Test
+    void processOne_failure_marksFailed_withBackoffFromTheAttemptCount() {
+        when(repo.findById(7L)).thenReturn(Optional.of(row(7L, 2)));
+        doThrow(new IllegalStateException("db down")).when(finalizeService)
+                .finalizeCapturedPayment(anyString(), anyString(), any(), anyString(), anyString());
+
+        Instant before = Instant.now();
+        processor.processOne(7L);
+
+        ArgumentCaptor<Timestamp> next = ArgumentCaptor.forClass(Timestamp.class);
+        verify(jdbcTemplate).update(contains("status = 'FAILED'"), eq("db down"), next.capture(), eq(7L));
+        // second attempt: 5s * 2^1
+        assertThat(Duration.between(before, next.getValue().toInstant()))
+                .isBetween(Duration.ofSeconds(9), Duration.ofSeconds(11));
+        verify(jdbcTemplate, never()).update(contains("status = 'DONE'"), any(Object[].class));
+    }
+
+    @Test
+    void processOne_lastAttempt_marksFailed_withoutNextAttempt() {
+        when(repo.findById(7L)).thenReturn(Optional.of(row(7L, 3)));
+        doThrow(new IllegalStateException("db down")).when(finalizeService)
+                .finalizeCapturedPayment(anyString(), anyString(), any(), anyString(), anyString());
+
+        processor.processOne(7L);
+
+        verify(jdbcTemplate).update(contains("status = 'FAILED'"), eq("db down"), isNull(), eq(7L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void pump_processesClaimedRows_andSleepsUntilWokenUp() {
+        ReflectionTestUtils.setField(processor, "pollMs", 60_000L);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class)))
+                .thenReturn(List.of(7L))
+                .thenReturn(List.of());
+        when(repo.findById(7L)).thenReturn(Optional.of(row(7L, 1)));
+
+        processor.start();
+
+        verify(jdbcTemplate, timeout(2000)).update(contains("status = 'DONE'"), eq(7L));
+        // the finishing worker wakes the pump for one more claim, which comes back empty; then it waits
+        verify(jdbcTemplate, timeout(2000).times(2)).query(anyString(), any(RowMapper.class), any(Object[].class));
+
+        processor.wakeUp();
+
+        // well inside the 60s poll fallback, so only the wake-up can explain the next claim
+        verify(jdbcTemplate, timeout(2000).times(3)).query(anyString(), any(RowMapper.class), any(Object[].class));
+        verify(finalizeService, times(1)).finalizeCapturedPayment(anyString(), anyString(), any(), anyString(), anyString());
+    }
+
+    private static RazorpayWebhookInbox row(Long id, int attemptCount) {
+        RazorpayWebhookInbox r = new RazorpayWebhookInbox();
+        r.setId(id);
+        r.setEnvironment("TEST");
+        r.setEventType("payment.captured");
+        r.setPayloadJson(CAPTURED);
+        r.setStatus("PROCESSING");
+        r.setAttemptCount(attemptCount);
+        return r;
+    }
+}
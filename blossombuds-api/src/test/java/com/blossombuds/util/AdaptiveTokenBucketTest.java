@@ -0,0 +1,44 @@
+package com.blossombuds.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveTokenBucketTest {
+
+    private final AtomicLong now = new AtomicLong(0);
+
+    @Test
+    void tryReserve_pacesAtConfiguredRate() {
+        AdaptiveTokenBucket b = new AdaptiveTokenBucket(10, 1, 1, now::get);
+
+        assertThat(b.tryReserve()).isZero();
+        assertThat(b.tryReserve()).isEqualTo(100_000_000L); // 1/10 s
+
+        now.addAndGet(100_000_000L);
+        assertThat(b.tryReserve()).isZero();
+    }
+
+    @Test
+    void onThrottled_halvesRate_andPauses_thenRecoversOnSuccess() {
+        AdaptiveTokenBucket b = new AdaptiveTokenBucket(10, 1, 1, now::get);
+
+        b.onThrottled(500);
+        assertThat(b.currentRate()).isEqualTo(5.0);
+        assertThat(b.tryReserve()).isEqualTo(500_000_000L);
+
+        for (int i = 0; i < 20; i++) b.onSuccess();
+        assertThat(b.currentRate()).isEqualTo(10.0);
+    }
+
+    @Test
+    void onThrottled_neverDropsBelowFloor() {
+        AdaptiveTokenBucket b = new AdaptiveTokenBucket(8, 2, 1, now::get);
+
+        for (int i = 0; i < 10; i++) b.onThrottled(0);
+
+        assertThat(b.currentRate()).isEqualTo(2.0);
+    }
+}
@@ -0,0 +1,79 @@
+package com.blossombuds.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageUtilTest {
+
+    @Test
+    void toJpegUnderCap_picksSameQualityAsLinearSearch_withFewerEncodes() throws Exception {
+        long cap = 64 * 1024;
+        for (int detail = 0; detail < 4; detail++) {
+            BufferedImage img = photoLike(900, 675, detail);
+            LinearResult expected = linearSearch(img, cap);
+
+            AtomicInteger encodes = new AtomicInteger();
+            byte[] actual = ImageUtil.toJpegUnderCap(img, cap, encodes);
+
+            assertThat(actual).as("detail=%d", detail).isEqualTo(expected.bytes);
+            assertThat(encodes.get()).as("detail=%d", detail).isLessThanOrEqualTo(Math.max(4, expected.encodes));
+        }
+    }
+
+    @Test
+    void toJpegUnderCap_returnsFirstEncode_whenAlreadyUnderCap() throws Exception {
+        AtomicInteger encodes = new AtomicInteger();
+        byte[] out = ImageUtil.toJpegUnderCap(photoLike(200, 150, 0), 256 * 1024, encodes);
+
+        assertThat(encodes).hasValue(1);
+        assertThat(out).isEqualTo(ImageUtil.writeJpeg(photoLike(200, 150, 0), ImageUtil.QUALITY_START));
+    }
+
+    @Test
+    void toJpegUnderCap_fallsBackToFloorQuality_whenNothingFits() throws Exception {
+        BufferedImage img = photoLike(600, 450, 3);
+
+        byte[] out = ImageUtil.toJpegUnderCap(img, 1024, null);
+
+        assertThat(out).isEqualTo(ImageUtil.writeJpeg(img, ImageUtil.QUALITY_FLOOR));
+    }
+
+    private record LinearResult(byte[] bytes, int encodes) {}
+
+    /** The previous algorithm: step down from QUALITY_START by 0.05 until the cap or the floor. */
+    private static LinearResult linearSearch(BufferedImage img, long cap) throws Exception {
+        int encodes = 0;
+        for (int i = 12; ; i--) {
+            float q = Math.min(ImageUtil.QUALITY_START, ImageUtil.QUALITY_FLOOR + i * 0.05f);
+            byte[] out = ImageUtil.writeJpeg(img, q);
+            encodes++;
+            if (out.length <= cap || i == 0) return new LinearResult(out, encodes);
+        }
+    }
+
+    /** Gradient background, random shapes and per-pixel noise; more detail makes it harder to compress. */
+    private static BufferedImage photoLike(int w, int h, int detail) {
+        Random r = new Random(42 + detail);
+        BufferedImage img = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = img.createGraphics();
+        g.setPaint(new GradientPaint(0, 0, Color.PINK, w, h, Color.GREEN));
+        g.fillRect(0, 0, w, h);
+        for (int i = 0; i < 200 * (detail + 1); i++) {
+            g.setColor(new Color(r.nextInt()));
+            g.fillOval(r.nextInt(w), r.nextInt(h), r.nextInt(40), r.nextInt(40));
+        }
+        g.dispose();
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x += 4 - detail) {
+                img.setRGB(x, y, img.getRGB(x, y) ^ r.nextInt(32 * (detail + 1)));
+            }
+        }
+        return img;
+    }
+}
@@ -0,0 +1,47 @@
+package com.blossombuds.web;
+
+import com.blossombuds.service.AdminMetricsService;
+import com.blossombuds.service.MetricsRollupService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AdminMetricsControllerTest {
+
+    @Mock AdminMetricsService metrics;
+    @Mock MetricsRollupService rollups;
+
+    @InjectMocks AdminMetricsController controller;
+
+    private static final LocalDate FROM = LocalDate.of(2025, 1, 1);
+
+    @Test
+    void backfill_acceptsUpToTheCap() {
+        LocalDate to = FROM.plusDays(AdminMetricsController.MAX_BACKFILL_DAYS - 1);
+        when(rollups.backfill(FROM, to)).thenReturn(AdminMetricsController.MAX_BACKFILL_DAYS);
+
+        assertThat(controller.backfillRollups(FROM, to)).containsEntry("days", AdminMetricsController.MAX_BACKFILL_DAYS);
+    }
+
+    @Test
+    void backfill_rejectsLongRanges_andReversedRanges_withoutTouchingTheRollups() {
+        assertThatThrownBy(() -> controller.backfillRollups(FROM, FROM.plusDays(AdminMetricsController.MAX_BACKFILL_DAYS)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> controller.backfillRollups(FROM, FROM.minusDays(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        verify(rollups, never()).backfill(any(), any());
+    }
+}